@@ -0,0 +1,41 @@
+package com.hsbc.transaction.jmh;
+
+import com.hsbc.transaction.dto.TransactionDTO;
+import com.hsbc.transaction.model.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of mapping between {@link Transaction} and {@link TransactionDTO} on the request path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DtoMappingBenchmark {
+
+    private Transaction transaction;
+    private TransactionDTO dto;
+
+    @Setup
+    public void setUp() {
+        transaction = RepositoryBenchmark.newTransaction().withId(1234567890123L);
+        dto = TransactionDTO.fromEntity(transaction);
+    }
+
+    @Benchmark
+    public TransactionDTO fromEntity() {
+        return TransactionDTO.fromEntity(transaction);
+    }
+
+    @Benchmark
+    public Transaction toEntity() {
+        return dto.toEntity();
+    }
+}
@@ -0,0 +1,90 @@
+package com.hsbc.transaction.jmh;
+
+import com.hsbc.transaction.util.SnowflakeIdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of single and bulk ID generation. Both are capped at 4096 IDs per millisecond
+ * once the generator runs ahead of the clock by more than its allowed lead.
+ *
+ * {@code casNextId} and {@code synchronizedNextId} compare {@link SnowflakeIdGenerator#nextId()}
+ * with the previous monitor-based generator, kept below for reference, with every benchmark thread
+ * sharing one generator; run them with {@code -Djmh.threads} at 1, 8 and 32 to see contention.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class IdGeneratorBenchmark {
+
+    @Param({"64"})
+    int batchSize;
+
+    private SnowflakeIdGenerator generator;
+    private SynchronizedSnowflakeIdGenerator legacy;
+
+    @Setup
+    public void setUp() {
+        generator = new SnowflakeIdGenerator(1, 1);
+        legacy = new SynchronizedSnowflakeIdGenerator();
+    }
+
+    @Benchmark
+    public long nextId() {
+        return generator.nextId();
+    }
+
+    @Benchmark
+    public long[] nextIds() {
+        return generator.nextIds(batchSize);
+    }
+
+    @Benchmark
+    public long casNextId() {
+        return generator.nextId();
+    }
+
+    @Benchmark
+    public long synchronizedNextId() {
+        return legacy.nextId();
+    }
+
+    /**
+     * The monitor-based generator the {@code synchronized} benchmarks measure.
+     */
+    static class SynchronizedSnowflakeIdGenerator {
+        private static final long EPOCH = 1609459200000L;
+        private static final long SEQUENCE_BITS = 12L;
+        private static final long NODE_BITS = (1L << 13) | (1L << 12);
+
+        private long sequence = 0L;
+        private long lastTimestamp = -1L;
+
+        synchronized long nextId() {
+            long timestamp = System.currentTimeMillis();
+            if (timestamp < lastTimestamp) {
+                throw new RuntimeException("Clock moved backwards. Refusing to generate id");
+            }
+            if (lastTimestamp == timestamp) {
+                sequence = (sequence + 1) & ~(-1L << SEQUENCE_BITS);
+                if (sequence == 0) {
+                    while (timestamp <= lastTimestamp) {
+                        timestamp = System.currentTimeMillis();
+                    }
+                }
+            } else {
+                sequence = 0L;
+            }
+            lastTimestamp = timestamp;
+            return ((timestamp - EPOCH) << 14) | NODE_BITS | sequence;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.hsbc.transaction.jmh;
+
+import com.hsbc.transaction.model.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fixed-point {@link Money} operations next to the {@link BigDecimal} operations they replace.
+ * Run with the gc profiler to compare allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MoneyBenchmark {
+    private static final Currency USD = Currency.getInstance("USD");
+
+    private Money money;
+    private Money other;
+    private BigDecimal decimal;
+    private BigDecimal otherDecimal;
+    private long[] minorUnits;
+
+    @Setup
+    public void setUp() {
+        money = Money.parse("1234.56", USD);
+        other = Money.parse("78.90", USD);
+        decimal = new BigDecimal("1234.56");
+        otherDecimal = new BigDecimal("78.90");
+        minorUnits = new long[1024];
+        for (int i = 0; i < minorUnits.length; i++) {
+            minorUnits[i] = 100L * i + 99;
+        }
+    }
+
+    @Benchmark
+    public boolean moneyIsPositive() {
+        return money.signum() > 0;
+    }
+
+    @Benchmark
+    public boolean bigDecimalIsPositive() {
+        return decimal.compareTo(BigDecimal.ZERO) > 0;
+    }
+
+    @Benchmark
+    public Money moneyAdd() {
+        return money.add(other);
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalAdd() {
+        return decimal.add(otherDecimal).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    @Benchmark
+    public Money moneyParse() {
+        return Money.parse("1234.56", USD);
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalParse() {
+        return new BigDecimal("1234.56").setScale(2, RoundingMode.HALF_UP);
+    }
+
+    @Benchmark
+    public String moneyFormat() {
+        return money.toPlainString();
+    }
+
+    @Benchmark
+    public String bigDecimalFormat() {
+        return decimal.toString();
+    }
+
+    @Benchmark
+    public long sumMinorUnits() {
+        long sum = 0;
+        for (long units : minorUnits) {
+            sum = Math.addExact(sum, units);
+        }
+        return sum;
+    }
+}
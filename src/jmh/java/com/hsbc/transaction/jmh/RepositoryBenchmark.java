@@ -0,0 +1,87 @@
+package com.hsbc.transaction.jmh;
+
+import com.hsbc.transaction.enums.StorageEngine;
+import com.hsbc.transaction.enums.TransactionType;
+import com.hsbc.transaction.model.Money;
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.repository.ColumnarTransactionStore;
+import com.hsbc.transaction.repository.MapTransactionStore;
+import com.hsbc.transaction.repository.TransactionRepository;
+import com.hsbc.transaction.util.SnowflakeIdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the in-memory repository without a write-ahead log, per storage engine, over a store preloaded
+ * with {@code rows} transactions. The store is rebuilt before every iteration so that saves
+ * do not keep growing it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RepositoryBenchmark {
+
+    @Param({"MAP", "COLUMNAR"})
+    StorageEngine engine;
+
+    @Param({"10000", "100000"})
+    int rows;
+
+    @Param({"10", "100"})
+    int pageSize;
+
+    private TransactionRepository repository;
+    private long[] ids;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        repository = new TransactionRepository(new SnowflakeIdGenerator(1, 1),
+                engine == StorageEngine.MAP ? new MapTransactionStore() : new ColumnarTransactionStore());
+        ids = new long[rows];
+        for (int i = 0; i < rows; i++) {
+            ids[i] = repository.save(newTransaction()).getId();
+        }
+    }
+
+    @Benchmark
+    public Transaction save() {
+        return repository.save(newTransaction());
+    }
+
+    @Benchmark
+    public Optional<Transaction> findById() {
+        return repository.findById(ids[ThreadLocalRandom.current().nextInt(ids.length)]);
+    }
+
+    @Benchmark
+    public Page<Transaction> findAll() {
+        int pages = Math.max(1, rows / pageSize);
+        Sort.Direction direction = ThreadLocalRandom.current().nextBoolean() ? Sort.Direction.DESC : Sort.Direction.ASC;
+        return repository.findAll(PageRequest.of(ThreadLocalRandom.current().nextInt(pages), pageSize,
+                Sort.by(direction, TransactionRepository.ID_PROPERTY)));
+    }
+
+    static Transaction newTransaction() {
+        return Transaction.builder()
+                .description("JMH benchmark transaction")
+                .money(Money.of(new BigDecimal("125.50"), Currency.getInstance("USD")))
+                .type(TransactionType.PAYMENT)
+                .build();
+    }
+}
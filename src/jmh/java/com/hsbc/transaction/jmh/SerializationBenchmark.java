@@ -0,0 +1,61 @@
+package com.hsbc.transaction.jmh;
+
+import com.alibaba.fastjson2.JSON;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.hsbc.transaction.model.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * fastjson2 versus Jackson, writing and reading a single {@link Transaction}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private Transaction transaction;
+    private String fastjsonText;
+    private String jacksonText;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        transaction = RepositoryBenchmark.newTransaction().withId(1234567890123L);
+        fastjsonText = JSON.toJSONString(transaction);
+        jacksonText = objectMapper.writeValueAsString(transaction);
+    }
+
+    @Benchmark
+    public String fastjsonWrite() {
+        return JSON.toJSONString(transaction);
+    }
+
+    @Benchmark
+    public Transaction fastjsonRead() {
+        return JSON.parseObject(fastjsonText, Transaction.class);
+    }
+
+    @Benchmark
+    public String jacksonWrite() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(transaction);
+    }
+
+    @Benchmark
+    public Transaction jacksonRead() throws JsonProcessingException {
+        return objectMapper.readValue(jacksonText, Transaction.class);
+    }
+}
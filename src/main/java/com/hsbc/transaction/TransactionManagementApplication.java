@@ -2,6 +2,7 @@ package com.hsbc.transaction;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.cache.annotation.EnableCaching;
 
 /**
@@ -10,8 +11,10 @@ import org.springframework.cache.annotation.EnableCaching;
  * 
  * @EnableCaching enables Spring's caching support
  * @SpringBootApplication combines @Configuration, @EnableAutoConfiguration, and @ComponentScan
+ * @ConfigurationPropertiesScan registers the application's @ConfigurationProperties classes
  */
 @SpringBootApplication
+@ConfigurationPropertiesScan
 @EnableCaching
 public class TransactionManagementApplication {
     public static void main(String[] args) {
@@ -0,0 +1,225 @@
+package com.hsbc.transaction.aggregate;
+
+import com.hsbc.transaction.config.StatsProperties;
+import com.hsbc.transaction.enums.TransactionType;
+import com.hsbc.transaction.model.CurrencyTotal;
+import com.hsbc.transaction.model.Money;
+import com.hsbc.transaction.model.TimeBucketStats;
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.model.TransactionStats;
+import com.hsbc.transaction.repository.TransactionChangeListener;
+import com.hsbc.transaction.repository.TransactionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Currency;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps counts and sums of transactions per currency, per type and per recent minute and hour,
+ * updated on every repository change, so that reading them costs the same however many
+ * transactions are stored.
+ *
+ * Sums are kept in each currency's minor units in {@link LongAdder}s, which spread concurrent
+ * updates over separate cells. An update first takes back the values of the transaction it
+ * replaces, and a delete takes back the deleted one. Time buckets are keyed by the transaction
+ * timestamp and held in rings of {@code transaction.stats.minute-buckets} and
+ * {@code transaction.stats.hour-buckets} slots; a slot is reused once its bucket falls out of
+ * the window. Reads are not atomic across accumulators, so totals read during concurrent writes
+ * may briefly disagree with each other.
+ */
+@Component
+public class TransactionAggregator implements TransactionChangeListener {
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    /**
+     * Count and sum of one currency.
+     */
+    private static final class Totals {
+        final LongAdder count = new LongAdder();
+        final LongAdder minorUnits = new LongAdder();
+    }
+
+    /**
+     * Totals of a group of transactions, per currency.
+     */
+    private static final class Group {
+        final ConcurrentMap<Currency, Totals> byCurrency = new ConcurrentHashMap<>();
+
+        void add(Money money, int sign) {
+            Totals totals = byCurrency.computeIfAbsent(money.getCurrency(), currency -> new Totals());
+            totals.count.add(sign);
+            totals.minorUnits.add(sign * money.minorUnits());
+        }
+
+        List<CurrencyTotal> snapshot() {
+            List<CurrencyTotal> snapshot = new ArrayList<>(byCurrency.size());
+            byCurrency.forEach((currency, totals) -> {
+                long count = totals.count.sum();
+                if (count != 0) {
+                    snapshot.add(new CurrencyTotal(currency.getCurrencyCode(), count,
+                            Money.ofMinor(totals.minorUnits.sum(), currency).toPlainString()));
+                }
+            });
+            snapshot.sort(Comparator.comparing(CurrencyTotal::getCurrency));
+            return snapshot;
+        }
+    }
+
+    private record Bucket(long index, Group group) {
+    }
+
+    /**
+     * Ring of the most recent fixed-width time buckets.
+     */
+    private static final class RollingBuckets {
+        final long widthSeconds;
+        final AtomicReferenceArray<Bucket> slots;
+
+        RollingBuckets(int size, Duration width) {
+            this.widthSeconds = width.toSeconds();
+            this.slots = new AtomicReferenceArray<>(Math.max(1, size));
+        }
+
+        void add(LocalDateTime timestamp, Money money, int sign) {
+            long index = Math.floorDiv(timestamp.toEpochSecond(ZoneOffset.UTC), widthSeconds);
+            int slot = (int) Math.floorMod(index, (long) slots.length());
+            while (true) {
+                Bucket bucket = slots.get(slot);
+                if (bucket != null && bucket.index() == index) {
+                    bucket.group().add(money, sign);
+                    return;
+                }
+                if (sign < 0 || (bucket != null && bucket.index() > index)) {
+                    // The transaction's bucket has already rolled out of the window
+                    return;
+                }
+                slots.compareAndSet(slot, bucket, new Bucket(index, new Group()));
+            }
+        }
+
+        List<TimeBucketStats> snapshot(LocalDateTime now) {
+            long newest = Math.floorDiv(now.toEpochSecond(ZoneOffset.UTC), widthSeconds);
+            long oldest = newest - slots.length() + 1;
+            List<Bucket> buckets = new ArrayList<>(slots.length());
+            for (int slot = 0; slot < slots.length(); slot++) {
+                Bucket bucket = slots.get(slot);
+                if (bucket != null && bucket.index() >= oldest && bucket.index() <= newest) {
+                    buckets.add(bucket);
+                }
+            }
+            buckets.sort(Comparator.comparingLong(Bucket::index));
+
+            List<TimeBucketStats> snapshot = new ArrayList<>(buckets.size());
+            for (Bucket bucket : buckets) {
+                List<CurrencyTotal> totals = bucket.group().snapshot();
+                if (!totals.isEmpty()) {
+                    LocalDateTime start = LocalDateTime.ofEpochSecond(bucket.index() * widthSeconds, 0, ZoneOffset.UTC);
+                    snapshot.add(new TimeBucketStats(start.toString(), totals));
+                }
+            }
+            return snapshot;
+        }
+
+        void clear() {
+            for (int slot = 0; slot < slots.length(); slot++) {
+                slots.set(slot, null);
+            }
+        }
+    }
+
+    private final Group all = new Group();
+    private final Group[] byType = new Group[TYPES.length];
+    private final RollingBuckets minutes;
+    private final RollingBuckets hours;
+    private final Clock clock;
+
+    @Autowired
+    public TransactionAggregator(TransactionRepository transactionRepository, StatsProperties statsProperties) {
+        this(transactionRepository, statsProperties, Clock.systemDefaultZone());
+    }
+
+    TransactionAggregator(TransactionRepository transactionRepository, StatsProperties statsProperties, Clock clock) {
+        for (int i = 0; i < byType.length; i++) {
+            byType[i] = new Group();
+        }
+        this.minutes = new RollingBuckets(statsProperties.getMinuteBuckets(), Duration.ofMinutes(1));
+        this.hours = new RollingBuckets(statsProperties.getHourBuckets(), Duration.ofHours(1));
+        this.clock = clock;
+        // Replays the stored transactions, so this comes last
+        transactionRepository.addListener(this);
+    }
+
+    @Override
+    public void onSaved(Transaction previous, Transaction current) {
+        if (previous != null) {
+            apply(previous, -1);
+        }
+        apply(current, 1);
+    }
+
+    @Override
+    public void onDeleted(Transaction deleted) {
+        apply(deleted, -1);
+    }
+
+    @Override
+    public void onCleared() {
+        all.byCurrency.clear();
+        for (Group group : byType) {
+            group.byCurrency.clear();
+        }
+        minutes.clear();
+        hours.clear();
+    }
+
+    /**
+     * Totals are sums, which come out the same in any order.
+     */
+    @Override
+    public boolean acceptsParallelReplay() {
+        return true;
+    }
+
+    private void apply(Transaction transaction, int sign) {
+        Money money = transaction.getMoney();
+        if (money == null) {
+            return;
+        }
+        all.add(money, sign);
+        if (transaction.getType() != null) {
+            byType[transaction.getType().ordinal()].add(money, sign);
+        }
+        if (transaction.getTimestamp() != null) {
+            minutes.add(transaction.getTimestamp(), money, sign);
+            hours.add(transaction.getTimestamp(), money, sign);
+        }
+    }
+
+    /**
+     * Returns the current totals. Costs time in proportion to the number of buckets and
+     * currencies, not to the number of transactions.
+     */
+    public TransactionStats statistics() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        List<CurrencyTotal> byCurrency = all.snapshot();
+        long count = byCurrency.stream().mapToLong(CurrencyTotal::getCount).sum();
+        Map<String, List<CurrencyTotal>> byTypeTotals = new LinkedHashMap<>();
+        for (TransactionType type : TYPES) {
+            byTypeTotals.put(type.getDisplayName(), byType[type.ordinal()].snapshot());
+        }
+        return new TransactionStats(count, byCurrency, byTypeTotals, minutes.snapshot(now), hours.snapshot(now));
+    }
+}
@@ -0,0 +1,334 @@
+package com.hsbc.transaction.cache;
+
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Size-bounded {@link org.springframework.cache.Cache} with frequency-aware admission
+ * and optional expiry after write.
+ *
+ * Reads are a lock-free hash map lookup. Entries are kept in insertion order and evicted with
+ * a CLOCK sweep: an entry read since the sweep last passed it gets a second chance. When the
+ * cache is full, a new entry is only admitted if a {@link FrequencySketch} estimates it to be
+ * accessed more often than the entry it would evict (TinyLFU), so a burst of one-off keys
+ * cannot flush the popular ones.
+ *
+ * Entries removed by {@link #evict(Object)} or found expired are only marked on the clock; the
+ * clock is swept of them once there are as many as the cache holds entries.
+ */
+public class BoundedCache extends AbstractValueAdaptingCache {
+
+    private static final class Node {
+        final Object key;
+        volatile Object value;
+        volatile long writtenAt;
+        volatile boolean referenced;
+        volatile boolean removed;
+
+        Node(Object key, Object value, long writtenAt) {
+            this.key = key;
+            this.value = value;
+            this.writtenAt = writtenAt;
+        }
+    }
+
+    private final String name;
+    private final long maximumSize;
+    private final long expireAfterWriteNanos;
+
+    private final ConcurrentHashMap<Object, Node> data = new ConcurrentHashMap<>();
+    private final Queue<Node> clock = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    /**
+     * Roughly the number of removed entries still on the clock; only decides when to sweep it.
+     */
+    private final AtomicLong deadNodes = new AtomicLong();
+
+    private static final int LOAD_LOCK_STRIPES = 64;
+    /**
+     * Locks serializing {@link #get(Object, Callable)} loads, so a key is loaded once at a time.
+     */
+    private final ReentrantLock[] loadLocks = new ReentrantLock[LOAD_LOCK_STRIPES];
+
+    private final FrequencySketch sketch;
+    private final ReentrantLock sketchLock = new ReentrantLock();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param name the cache name
+     * @param maximumSize the maximum number of entries
+     * @param expireAfterWrite how long an entry stays valid after it was written, or null to keep it until evicted
+     * @param allowNullValues whether null values are stored
+     */
+    public BoundedCache(String name, long maximumSize, Duration expireAfterWrite, boolean allowNullValues) {
+        super(allowNullValues);
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("Maximum size of cache " + name + " must be positive");
+        }
+        this.name = name;
+        this.maximumSize = maximumSize;
+        this.expireAfterWriteNanos = expireAfterWrite == null ? 0 : expireAfterWrite.toNanos();
+        this.sketch = new FrequencySketch(maximumSize);
+        for (int i = 0; i < LOAD_LOCK_STRIPES; i++) {
+            loadLocks[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return data;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        recordAccess(key, false);
+        Node node = data.get(key);
+        if (node == null) {
+            misses.increment();
+            return null;
+        }
+        if (isExpired(node, System.nanoTime())) {
+            if (remove(node)) {
+                countDeadNode();
+            }
+            misses.increment();
+            return null;
+        }
+        node.referenced = true;
+        hits.increment();
+        return node.value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper cached = get(key);
+        if (cached != null) {
+            return (T) cached.get();
+        }
+        // Only loads of keys sharing a stripe wait for each other, and a virtual thread waiting here is not pinned
+        ReentrantLock lock = loadLocks[key.hashCode() & (LOAD_LOCK_STRIPES - 1)];
+        lock.lock();
+        try {
+            Node node = data.get(key);
+            if (node != null && !isExpired(node, System.nanoTime())) {
+                return (T) fromStoreValue(node.value);
+            }
+            T value;
+            try {
+                value = valueLoader.call();
+            } catch (Exception e) {
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+            put(key, value);
+            return value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        Object storeValue = toStoreValue(value);
+        long now = System.nanoTime();
+        recordAccess(key, true);
+        puts.increment();
+
+        Node existing = data.get(key);
+        if (existing != null) {
+            existing.value = storeValue;
+            existing.writtenAt = now;
+            return;
+        }
+        Node node = new Node(key, storeValue, now);
+        existing = data.putIfAbsent(key, node);
+        if (existing != null) {
+            existing.value = storeValue;
+            existing.writtenAt = now;
+            return;
+        }
+        clock.add(node);
+        if (data.size() > maximumSize) {
+            evict(node);
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        Node node = data.remove(key);
+        if (node != null) {
+            node.removed = true;
+            countDeadNode();
+        }
+    }
+
+    @Override
+    public void clear() {
+        data.clear();
+        clock.clear();
+        deadNodes.set(0);
+    }
+
+    public long size() {
+        return data.size();
+    }
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long putCount() {
+        return puts.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Evicts entries until the cache is within its bound, deciding between the newly
+     * inserted candidate and the entry chosen by the clock sweep by their frequency.
+     */
+    private void evict(Node candidate) {
+        evictionLock.lock();
+        try {
+            long now = System.nanoTime();
+            while (data.size() > maximumSize) {
+                Node victim = nextVictim(candidate, now);
+                if (victim == null) {
+                    return;
+                }
+                if (candidate.removed || isExpired(victim, now) || admit(candidate, victim)) {
+                    remove(victim);
+                } else {
+                    if (remove(candidate)) {
+                        countDeadNode();
+                    }
+                    clock.add(victim);
+                }
+                evictions.increment();
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Sweeps the clock for an entry that has not been read since the sweep last passed it.
+     * Readers may keep marking entries as read while the sweep runs, so once it has given two
+     * turns' worth of second chances it takes the next entry other than the candidate, read or not.
+     * Called with the eviction lock held; the returned entry has been taken off the clock.
+     *
+     * @return the entry to evict, or null if the clock holds no entry but the candidate
+     */
+    private Node nextVictim(Node candidate, long now) {
+        int budget = 2 * clock.size() + 1;
+        boolean onlyCandidate = false;
+        Node node;
+        while ((node = clock.poll()) != null) {
+            if (node.removed) {
+                deadNodes.decrementAndGet();
+                continue;
+            }
+            if (node == candidate) {
+                clock.add(node);
+                if (onlyCandidate) {
+                    return null;
+                }
+                onlyCandidate = true;
+                continue;
+            }
+            onlyCandidate = false;
+            if (node.referenced && !isExpired(node, now) && budget-- > 0) {
+                node.referenced = false;
+                clock.add(node);
+                continue;
+            }
+            return node;
+        }
+        return null;
+    }
+
+    /**
+     * Counts an entry removed while still on the clock, and sweeps the clock of removed entries
+     * once there are as many of them as the cache holds entries, so that the clock stays within
+     * twice the maximum size however many entries are evicted by key.
+     */
+    private void countDeadNode() {
+        if (deadNodes.incrementAndGet() > maximumSize && evictionLock.tryLock()) {
+            try {
+                deadNodes.set(0);
+                clock.removeIf(node -> node.removed);
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of entries on the clock, removed ones included.
+     */
+    int clockLength() {
+        return clock.size();
+    }
+
+    private boolean admit(Node candidate, Node victim) {
+        sketchLock.lock();
+        try {
+            return sketch.frequency(candidate.key) > sketch.frequency(victim.key);
+        } finally {
+            sketchLock.unlock();
+        }
+    }
+
+    private void recordAccess(Object key, boolean write) {
+        // Reads skip the sketch under contention; a lost increment only makes the estimate rougher
+        if (write) {
+            sketchLock.lock();
+        } else if (!sketchLock.tryLock()) {
+            return;
+        }
+        try {
+            sketch.increment(key);
+        } finally {
+            sketchLock.unlock();
+        }
+    }
+
+    private boolean isExpired(Node node, long now) {
+        return expireAfterWriteNanos > 0 && now - node.writtenAt >= expireAfterWriteNanos;
+    }
+
+    private boolean remove(Node node) {
+        if (data.remove(node.key, node)) {
+            node.removed = true;
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,37 @@
+package com.hsbc.transaction.cache;
+
+import com.hsbc.transaction.config.CacheProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.AbstractCacheManager;
+
+import java.util.Collection;
+
+/**
+ * {@link org.springframework.cache.CacheManager} of {@link BoundedCache}s. Caches listed in
+ * {@code transaction.cache.caches} are created on startup with their own settings; any other
+ * cache name gets the defaults on first use.
+ */
+public class BoundedCacheManager extends AbstractCacheManager {
+
+    private final CacheProperties properties;
+
+    public BoundedCacheManager(CacheProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    protected Collection<? extends Cache> loadCaches() {
+        return properties.getCaches().entrySet().stream()
+                .map(entry -> createCache(entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    @Override
+    protected Cache getMissingCache(String name) {
+        return createCache(name, properties.getDefaults());
+    }
+
+    private BoundedCache createCache(String name, CacheProperties.Spec spec) {
+        return new BoundedCache(name, spec.getMaximumSize(), spec.getExpireAfterWrite(), properties.isAllowNullValues());
+    }
+}
@@ -0,0 +1,50 @@
+package com.hsbc.transaction.cache;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+
+/**
+ * Publishes the standard {@code cache.*} meters (gets by hit and miss, puts, evictions, size)
+ * of a {@link BoundedCache}, plus its configured maximum size.
+ */
+public class BoundedCacheMetrics extends CacheMeterBinder<BoundedCache> {
+
+    public BoundedCacheMetrics(BoundedCache cache, Iterable<Tag> tags) {
+        super(cache, cache.getName(), tags);
+    }
+
+    @Override
+    protected Long size() {
+        return getCache().size();
+    }
+
+    @Override
+    protected long hitCount() {
+        return getCache().hitCount();
+    }
+
+    @Override
+    protected Long missCount() {
+        return getCache().missCount();
+    }
+
+    @Override
+    protected Long evictionCount() {
+        return getCache().evictionCount();
+    }
+
+    @Override
+    protected long putCount() {
+        return getCache().putCount();
+    }
+
+    @Override
+    protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+        Gauge.builder("cache.maximum.size", getCache(), BoundedCache::getMaximumSize)
+                .tags(getTagsWithCacheName())
+                .description("The maximum number of entries the cache holds")
+                .register(registry);
+    }
+}
@@ -0,0 +1,79 @@
+package com.hsbc.transaction.cache;
+
+/**
+ * Count-min sketch estimating how often keys were accessed recently, used to decide
+ * whether a new entry is worth admitting over the entry it would evict.
+ *
+ * Four counters per key, one in each of four rows of eight counters per cached entry, so that
+ * unrelated keys rarely share all four. Counters are capped at 15. Once the number of recorded accesses reaches
+ * ten times the cache size, every counter is halved so that old popularity fades.
+ * Not thread-safe; callers guard it with their own lock.
+ */
+final class FrequencySketch {
+    private static final int DEPTH = 4;
+    private static final int MAX_COUNT = 15;
+    private static final int[] SEEDS = {0x97CB3127, 0xB7B5A7C3, 0x9E3779B9, 0xC2B2AE35};
+
+    private static final int COUNTERS_PER_ENTRY = 8;
+
+    private final byte[] table;
+    private final int mask;
+    private final int sampleSize;
+    private int additions;
+
+    FrequencySketch(long maximumSize) {
+        long counters = Math.min(Math.max(maximumSize, 16) * COUNTERS_PER_ENTRY, 1 << 26);
+        int width = Integer.highestOneBit((int) counters - 1) << 1;
+        this.table = new byte[width * DEPTH];
+        this.mask = width - 1;
+        this.sampleSize = (int) Math.min(10L * Math.max(maximumSize, 16), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns the estimated number of recent accesses of the key.
+     */
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int frequency = MAX_COUNT;
+        for (int row = 0; row < DEPTH; row++) {
+            frequency = Math.min(frequency, table[indexOf(hash, row)]);
+        }
+        return frequency;
+    }
+
+    /**
+     * Records one access of the key.
+     */
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        boolean added = false;
+        for (int row = 0; row < DEPTH; row++) {
+            int index = indexOf(hash, row);
+            if (table[index] < MAX_COUNT) {
+                table[index]++;
+                added = true;
+            }
+        }
+        if (added && ++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (byte) (table[i] >>> 1);
+        }
+        additions >>>= 1;
+    }
+
+    private int indexOf(int hash, int row) {
+        int h = (hash ^ SEEDS[row]) * SEEDS[row];
+        h ^= h >>> 16;
+        return row * (mask + 1) + (h & mask);
+    }
+
+    private static int spread(int hash) {
+        hash = (hash ^ (hash >>> 16)) * 0x45D9F3B;
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,196 @@
+package com.hsbc.transaction.cache;
+
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.repository.TransactionChangeListener;
+import com.hsbc.transaction.repository.TransactionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Cache of transaction list pages that only drops the pages a write actually affects.
+ *
+ * The cache follows the repository as a change listener, so every write is recorded, whichever
+ * path made it, in a small ring log under an increasing version, with the ID range it touched.
+ * A cached page remembers the version it was read at and the lowest and highest ID
+ * it contains. When the page is requested again, only the writes logged since then are checked
+ * against that window:
+ * <ul>
+ *   <li>an update invalidates a page only if the ID lies within the page's window;</li>
+ *   <li>a create or delete shifts the rows of every page at or after the ID's position, so it
+ *       invalidates an ascending page whose highest ID is not below it, a descending page whose
+ *       lowest ID is not above it, and any page that is not full;</li>
+ *   <li>deleting every transaction shifts every page.</li>
+ * </ul>
+ * A page older than the log is treated as stale. The total element count is not cached;
+ * it is read from the repository on every request, so creates elsewhere do not invalidate it.
+ */
+@Component
+public class TransactionPageCache implements TransactionChangeListener {
+    public static final String CACHE_NAME = "allTransactions";
+
+    private static final int LOG_SIZE = 4096;
+    private static final int LOG_MASK = LOG_SIZE - 1;
+
+    private static final byte SHIFT = 1;
+    private static final byte UPDATE = 2;
+
+    /**
+     * A cached page and the window it covers.
+     */
+    private static final class CachedPage {
+        final List<Transaction> content;
+        final boolean ascending;
+        final boolean full;
+        final long lowestId;
+        final long highestId;
+        /**
+         * Version up to which the log has been checked against this page.
+         */
+        volatile long version;
+
+        CachedPage(Page<Transaction> page, boolean ascending, long version) {
+            this.content = page.getContent();
+            this.ascending = ascending;
+            this.full = content.size() == page.getSize();
+            long lowest = Long.MAX_VALUE;
+            long highest = Long.MIN_VALUE;
+            for (Transaction transaction : content) {
+                lowest = Math.min(lowest, transaction.getId());
+                highest = Math.max(highest, transaction.getId());
+            }
+            this.lowestId = lowest;
+            this.highestId = highest;
+            this.version = version;
+        }
+    }
+
+    private final Cache cache;
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicLongArray published = new AtomicLongArray(LOG_SIZE);
+    private final byte[] kinds = new byte[LOG_SIZE];
+    private final long[] lowIds = new long[LOG_SIZE];
+    private final long[] highIds = new long[LOG_SIZE];
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter invalidations;
+
+    public TransactionPageCache(TransactionRepository transactionRepository, CacheManager cacheManager,
+                                MeterRegistry meterRegistry) {
+        this.cache = cacheManager.getCache(CACHE_NAME);
+        this.hits = Counter.builder("transaction.page.cache.requests").tag("result", "hit")
+                .description("Page requests served from the cache").register(meterRegistry);
+        this.misses = Counter.builder("transaction.page.cache.requests").tag("result", "miss")
+                .description("Page requests read from the repository").register(meterRegistry);
+        this.invalidations = Counter.builder("transaction.page.cache.invalidations")
+                .description("Cached pages found to be affected by a later write").register(meterRegistry);
+        for (int slot = 0; slot < LOG_SIZE; slot++) {
+            published.set(slot, -1);
+        }
+        // Nothing is cached yet, so the stored transactions need no replay
+        transactionRepository.addListener(this, false);
+    }
+
+    /**
+     * Returns the cached page if no later write affected it, otherwise loads and caches it.
+     *
+     * @param pageable the requested page
+     * @param loader reads the page from the repository
+     * @param total returns the current total number of transactions
+     */
+    public Page<Transaction> get(Pageable pageable, Supplier<Page<Transaction>> loader, LongSupplier total) {
+        boolean ascending = isAscending(pageable);
+        Cache.ValueWrapper cached = cache.get(pageable);
+        if (cached != null && cached.get() instanceof CachedPage page) {
+            if (isCurrent(page)) {
+                hits.increment();
+                return new PageImpl<>(page.content, pageable, total.getAsLong());
+            }
+            invalidations.increment();
+        }
+        misses.increment();
+        // Read the version before the page, so any write the page may have missed is checked later
+        long readVersion = version.get();
+        Page<Transaction> page = loader.get();
+        cache.put(pageable, new CachedPage(page, ascending, readVersion));
+        return page;
+    }
+
+    @Override
+    public void onSaved(Transaction previous, Transaction current) {
+        long id = current.getId();
+        record(previous == null ? SHIFT : UPDATE, id, id);
+    }
+
+    @Override
+    public void onDeleted(Transaction deleted) {
+        long id = deleted.getId();
+        record(SHIFT, id, id);
+    }
+
+    @Override
+    public void onCleared() {
+        record(SHIFT, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    private void record(byte kind, long lowId, long highId) {
+        long entry = version.incrementAndGet();
+        int slot = (int) (entry & LOG_MASK);
+        published.set(slot, -1);
+        kinds[slot] = kind;
+        lowIds[slot] = lowId;
+        highIds[slot] = highId;
+        published.set(slot, entry);
+    }
+
+    private boolean isCurrent(CachedPage page) {
+        long current = version.get();
+        long checked = page.version;
+        if (current - checked >= LOG_SIZE) {
+            return false;
+        }
+        for (long entry = checked + 1; entry <= current; entry++) {
+            int slot = (int) (entry & LOG_MASK);
+            if (published.get(slot) != entry) {
+                // Still being written or already overwritten
+                return false;
+            }
+            byte kind = kinds[slot];
+            long lowId = lowIds[slot];
+            long highId = highIds[slot];
+            if (published.get(slot) != entry || affects(page, kind, lowId, highId)) {
+                return false;
+            }
+        }
+        page.version = current;
+        return true;
+    }
+
+    private static boolean affects(CachedPage page, byte kind, long lowId, long highId) {
+        if (kind == UPDATE) {
+            return !page.content.isEmpty() && lowId <= page.highestId && page.lowestId <= highId;
+        }
+        if (!page.full) {
+            return true;
+        }
+        return page.ascending ? lowId <= page.highestId : highId >= page.lowestId;
+    }
+
+    private static boolean isAscending(Pageable pageable) {
+        Sort.Order order = pageable.getSort().getOrderFor(TransactionRepository.ID_PROPERTY);
+        return order != null && order.isAscending();
+    }
+}
@@ -0,0 +1,44 @@
+package com.hsbc.transaction.cluster;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+/**
+ * Forwards requests for one transaction, such as {@code GET}, {@code PUT} and {@code DELETE} of
+ * {@code /api/transactions/{id}}, to the node that owns its ID, and answers with the response of
+ * that node. Requests already forwarded by another node, and IDs this node owns, are handled here.
+ */
+public class ClusterForwardingInterceptor implements HandlerInterceptor {
+
+    private final ClusterRouter router;
+
+    public ClusterForwardingInterceptor(ClusterRouter router) {
+        this.router = router;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        @SuppressWarnings("unchecked")
+        Map<String, String> variables = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        String id = variables != null ? variables.get("id") : null;
+        if (id == null) {
+            return true;
+        }
+        long transactionId;
+        try {
+            transactionId = Long.parseLong(id);
+        } catch (NumberFormatException e) {
+            // Rejected by the validation of the handler
+            return true;
+        }
+        if (!router.shouldForward(request, transactionId)) {
+            return true;
+        }
+        router.forward(router.ownerOf(transactionId), request, response);
+        return false;
+    }
+}
@@ -0,0 +1,155 @@
+package com.hsbc.transaction.cluster;
+
+import com.hsbc.transaction.exception.NodeUnavailableException;
+import com.hsbc.transaction.index.TimestampIndex;
+import com.hsbc.transaction.model.CursorPage;
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.util.CursorCodec;
+import com.hsbc.transaction.wire.TransactionWireReader;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Gathers a listing from every node of the cluster and merges them in the order of the listing.
+ *
+ * A cursor listing asks every node for one page after the same cursor, since cursors only carry
+ * the position of the last transaction returned, and keeps the first {@code limit} of the merged
+ * pages. An offset listing has to ask every node for its first {@code offset + size} transactions,
+ * so deep offset pages get more expensive with every node; cursor listings cost the same at any depth.
+ */
+@Component
+public class ClusterListings {
+
+    /**
+     * Largest page size the listings of a node accept.
+     */
+    static final int MAX_NODE_PAGE_SIZE = 100;
+
+    private final ClusterRouter router;
+
+    public ClusterListings(ClusterRouter router) {
+        this.router = router;
+    }
+
+    /**
+     * Gathers a page of an offset listing.
+     *
+     * @param request the client request, sent on to the other nodes for their first transactions
+     * @param pageable the requested page, sorted by ID or by timestamp in one direction
+     * @param byTimestamp whether the listing is ordered by timestamp rather than by ID
+     * @param local lists the first transactions of this node
+     */
+    public Page<Transaction> gatherPage(HttpServletRequest request, Pageable pageable, boolean byTimestamp,
+                                        Function<Pageable, Page<Transaction>> local) {
+        int wanted = (int) Math.min(pageable.getOffset() + pageable.getPageSize(), Integer.MAX_VALUE);
+        Sort.Direction direction = pageable.getSort().iterator().next().getDirection();
+        Map<String, CompletableFuture<TransactionWireReader.Listing>> firstPages = router.scatter(query(request)
+                .replaceQueryParam("page", 0)
+                .replaceQueryParam("size", Math.min(wanted, MAX_NODE_PAGE_SIZE))
+                .build().toUriString());
+
+        Page<Transaction> localPage = local.apply(PageRequest.of(0, wanted, pageable.getSort()));
+        List<Transaction> merged = new ArrayList<>(localPage.getContent());
+        long total = localPage.getTotalElements();
+        for (Map.Entry<String, CompletableFuture<TransactionWireReader.Listing>> firstPage : firstPages.entrySet()) {
+            TransactionWireReader.Listing listing = join(firstPage.getValue());
+            total += listing.total();
+            List<Transaction> fetched = new ArrayList<>(listing.transactions());
+            String cursor = fetched.isEmpty() ? null : cursor(fetched.getLast(), direction, byTimestamp);
+            // Walk the rest of the node's first transactions by cursor, a page at a time
+            while (listing.transactions().size() == MAX_NODE_PAGE_SIZE && fetched.size() < wanted && cursor != null) {
+                listing = join(router.fetch(firstPage.getKey(), query(request)
+                        .replaceQueryParam("page")
+                        .replaceQueryParam("size")
+                        .replaceQueryParam("direction")
+                        .replaceQueryParam("after", cursor)
+                        .replaceQueryParam("limit", Math.min(wanted - fetched.size(), MAX_NODE_PAGE_SIZE))
+                        .build().toUriString()));
+                fetched.addAll(listing.transactions());
+                cursor = listing.nextCursor();
+            }
+            merged.addAll(fetched);
+        }
+
+        merged.sort(order(direction, byTimestamp));
+        int from = (int) Math.min(pageable.getOffset(), merged.size());
+        int to = Math.min(from + pageable.getPageSize(), merged.size());
+        return new PageImpl<>(new ArrayList<>(merged.subList(from, to)), pageable, total);
+    }
+
+    /**
+     * Gathers a page of a cursor listing.
+     *
+     * @param request the client request, sent on to the other nodes as it is
+     * @param limit the maximum number of transactions to return
+     * @param direction the direction of the listing, which is the direction of the cursor if there is one
+     * @param byTimestamp whether the listing is ordered by timestamp rather than by ID
+     * @param local lists the page of this node
+     */
+    public CursorPage<Transaction> gatherAfter(HttpServletRequest request, int limit, Sort.Direction direction,
+                                               boolean byTimestamp, Supplier<CursorPage<Transaction>> local) {
+        Map<String, CompletableFuture<TransactionWireReader.Listing>> pages = router.scatter(query(request).build().toUriString());
+
+        CursorPage<Transaction> localPage = local.get();
+        List<Transaction> merged = new ArrayList<>(localPage.getContent());
+        boolean hasNext = localPage.isHasNext();
+        for (CompletableFuture<TransactionWireReader.Listing> page : pages.values()) {
+            TransactionWireReader.Listing listing = join(page);
+            merged.addAll(listing.transactions());
+            hasNext |= listing.nextCursor() != null;
+        }
+
+        merged.sort(order(direction, byTimestamp));
+        if (merged.size() > limit) {
+            merged = new ArrayList<>(merged.subList(0, limit));
+            hasNext = true;
+        }
+        String nextCursor = hasNext && !merged.isEmpty() ? cursor(merged.getLast(), direction, byTimestamp) : null;
+        return new CursorPage<>(merged, nextCursor);
+    }
+
+    private static UriComponentsBuilder query(HttpServletRequest request) {
+        return UriComponentsBuilder.fromPath(request.getRequestURI()).query(request.getQueryString());
+    }
+
+    private static Comparator<Transaction> order(Sort.Direction direction, boolean byTimestamp) {
+        Comparator<Transaction> order = byTimestamp
+                ? Comparator.comparing(TimestampIndex.Key::of)
+                : Comparator.comparingLong(Transaction::getId);
+        return direction.isAscending() ? order : order.reversed();
+    }
+
+    private static String cursor(Transaction last, Sort.Direction direction, boolean byTimestamp) {
+        if (byTimestamp) {
+            TimestampIndex.Key key = TimestampIndex.Key.of(last);
+            return CursorCodec.encode(direction, key.epochMicros(), key.id());
+        }
+        return CursorCodec.encode(direction, last.getId());
+    }
+
+    private static TransactionWireReader.Listing join(CompletableFuture<TransactionWireReader.Listing> listing) {
+        try {
+            return listing.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof NodeUnavailableException unavailable) {
+                throw unavailable;
+            }
+            throw e;
+        }
+    }
+}
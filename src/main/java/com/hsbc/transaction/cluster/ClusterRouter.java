@@ -0,0 +1,233 @@
+package com.hsbc.transaction.cluster;
+
+import com.hsbc.transaction.config.ClusterProperties;
+import com.hsbc.transaction.exception.NodeUnavailableException;
+import com.hsbc.transaction.wire.TransactionWireHttpMessageConverter;
+import com.hsbc.transaction.wire.TransactionWireReader;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Knows which node of the cluster owns each transaction ID and talks to the other nodes.
+ *
+ * IDs are assigned to nodes by a {@link HashRing} of the configured nodes. Requests for one
+ * transaction are forwarded to its owner as they are, and listings are requested from every other
+ * node in the binary wire format to be merged with the local one. Requests sent by a node carry the
+ * {@link #FORWARDED_HEADER}, so that the receiving node serves them from its own store.
+ *
+ * When cluster mode is off this node owns every ID and nothing is forwarded.
+ */
+@Slf4j
+@Component
+public class ClusterRouter {
+
+    /**
+     * Request header naming the node a request was forwarded or scattered by.
+     */
+    public static final String FORWARDED_HEADER = "X-Cluster-Forwarded";
+
+    /**
+     * Request headers passed on to the owner of a transaction; the others describe the
+     * connection to this node. The idempotency key of a create goes along so that retries
+     * are recognized by the owner, which keeps the transactions created for each key.
+     */
+    private static final List<String> FORWARDED_REQUEST_HEADERS = List.of(
+            HttpHeaders.CONTENT_TYPE, HttpHeaders.ACCEPT, HttpHeaders.IF_MATCH, HttpHeaders.IF_NONE_MATCH,
+            "Idempotency-Key");
+
+    /**
+     * Response headers passed back from the owner of a transaction.
+     */
+    private static final List<String> RELAYED_RESPONSE_HEADERS = List.of(
+            HttpHeaders.CONTENT_TYPE, HttpHeaders.ETAG, HttpHeaders.RETRY_AFTER, "Idempotent-Replayed");
+
+    private final boolean enabled;
+    private final String nodeId;
+    private final HashRing ring;
+    private final Map<String, URI> remoteNodes = new LinkedHashMap<>();
+    private final HttpClient client;
+    private final ClusterProperties properties;
+
+    public ClusterRouter(ClusterProperties properties) {
+        this.properties = properties;
+        this.enabled = properties.isEnabled();
+        if (!enabled) {
+            this.nodeId = null;
+            this.ring = null;
+            this.client = null;
+            return;
+        }
+        if (properties.getNodeId() == null || !properties.getNodes().containsKey(properties.getNodeId())) {
+            throw new IllegalArgumentException("transaction.cluster.node-id must be one of transaction.cluster.nodes "
+                    + properties.getNodes().keySet() + ", was " + properties.getNodeId());
+        }
+        this.nodeId = properties.getNodeId();
+        this.ring = new HashRing(properties.getNodes().keySet(), properties.getVirtualNodes());
+        properties.getNodes().forEach((id, uri) -> {
+            if (!id.equals(nodeId)) {
+                remoteNodes.put(id, uri);
+            }
+        });
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(properties.getConnectTimeout())
+                .build();
+        log.info("Cluster node {} of {}", nodeId, ring.getNodes());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Returns whether this node owns the given transaction ID, which is always the case
+     * outside cluster mode.
+     */
+    public boolean owns(long id) {
+        return !enabled || ring.ownerOf(id).equals(nodeId);
+    }
+
+    /**
+     * Returns the ID of the node owning the given transaction ID.
+     */
+    public String ownerOf(long id) {
+        return enabled ? ring.ownerOf(id) : nodeId;
+    }
+
+    /**
+     * Returns whether a request from a client for the given transaction ID has to be sent to
+     * another node, the owner of the ID. Requests forwarded by another node are served here.
+     */
+    public boolean shouldForward(HttpServletRequest request, long id) {
+        return enabled && request.getHeader(FORWARDED_HEADER) == null && !owns(id);
+    }
+
+    /**
+     * Returns whether the request comes from a client rather than from another node, so that a
+     * listing it asks for has to be gathered from every node.
+     */
+    public boolean shouldGather(HttpServletRequest request) {
+        return enabled && !remoteNodes.isEmpty() && request.getHeader(FORWARDED_HEADER) == null;
+    }
+
+    /**
+     * Sends the request to the given node and writes its answer, status, body and the headers
+     * describing the transaction, as the response.
+     *
+     * @throws NodeUnavailableException if the node cannot be reached or does not answer in time
+     */
+    public void forward(String node, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        forward(node, request, request.getInputStream().readAllBytes(), response);
+    }
+
+    /**
+     * Sends the request with the given body to the given node and writes its answer as the
+     * response, for a request whose body was already read, such as a create carrying an ID.
+     *
+     * @throws NodeUnavailableException if the node cannot be reached or does not answer in time
+     */
+    public void forward(String node, HttpServletRequest request, byte[] body, HttpServletResponse response) throws IOException {
+        String query = request.getQueryString();
+        URI uri = URI.create(baseUri(node) + request.getRequestURI() + (query != null ? "?" + query : ""));
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
+                .timeout(properties.getRequestTimeout())
+                .header(FORWARDED_HEADER, nodeId)
+                .method(request.getMethod(), body.length > 0
+                        ? HttpRequest.BodyPublishers.ofByteArray(body)
+                        : HttpRequest.BodyPublishers.noBody());
+        for (String header : FORWARDED_REQUEST_HEADERS) {
+            String value = request.getHeader(header);
+            if (value != null) {
+                builder.header(header, value);
+            }
+        }
+
+        HttpResponse<byte[]> answer = send(node, builder.build());
+        response.setStatus(answer.statusCode());
+        for (String header : RELAYED_RESPONSE_HEADERS) {
+            answer.headers().firstValue(header).ifPresent(value -> response.setHeader(header, value));
+        }
+        response.getOutputStream().write(answer.body());
+    }
+
+    /**
+     * Starts the given listing request on every other node.
+     *
+     * @param pathAndQuery the path of the listing, with its query string
+     * @return the listing of each other node, by node ID
+     * @see #fetch
+     */
+    public Map<String, CompletableFuture<TransactionWireReader.Listing>> scatter(String pathAndQuery) {
+        Map<String, CompletableFuture<TransactionWireReader.Listing>> listings = new LinkedHashMap<>();
+        for (String node : remoteNodes.keySet()) {
+            listings.put(node, fetch(node, pathAndQuery));
+        }
+        return listings;
+    }
+
+    /**
+     * Starts the given listing request on a node, asking for the binary wire format. The listing
+     * is read as it arrives; {@link CompletableFuture#join()} throws a {@link CompletionException}
+     * caused by a {@link NodeUnavailableException} if the node failed.
+     *
+     * @param node the ID of the node
+     * @param pathAndQuery the path of the listing, with its query string
+     */
+    public CompletableFuture<TransactionWireReader.Listing> fetch(String node, String pathAndQuery) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUri(node) + pathAndQuery))
+                .timeout(properties.getRequestTimeout())
+                .header(FORWARDED_HEADER, nodeId)
+                .header(HttpHeaders.ACCEPT, TransactionWireHttpMessageConverter.MEDIA_TYPE_VALUE)
+                .GET()
+                .build();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream())
+                .handle((response, failure) -> {
+                    if (failure != null) {
+                        throw new NodeUnavailableException("Node " + node + " did not answer " + pathAndQuery, failure);
+                    }
+                    try (InputStream body = response.body()) {
+                        if (response.statusCode() != 200) {
+                            throw new NodeUnavailableException("Node " + node + " answered " + pathAndQuery
+                                    + " with status " + response.statusCode(), null);
+                        }
+                        return new TransactionWireReader(body).readList();
+                    } catch (IOException e) {
+                        throw new NodeUnavailableException("Node " + node + " sent an unreadable listing", e);
+                    }
+                });
+    }
+
+    private HttpResponse<byte[]> send(String node, HttpRequest request) {
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        } catch (IOException e) {
+            throw new NodeUnavailableException("Node " + node + " did not answer " + request.method() + " " + request.uri().getPath(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new NodeUnavailableException("Interrupted while waiting for node " + node, e);
+        }
+    }
+
+    private String baseUri(String node) {
+        String base = properties.getNodes().get(node).toString();
+        return base.endsWith("/") ? base.substring(0, base.length() - 1) : base;
+    }
+}
@@ -0,0 +1,90 @@
+package com.hsbc.transaction.cluster;
+
+import com.hsbc.transaction.util.Hashing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Consistent hash ring that assigns every transaction ID to one node of the cluster.
+ *
+ * Each node is placed at a number of pseudo-random points on a ring of 64-bit hashes. An ID
+ * belongs to the node of the first point at or after the hash of the ID, wrapping around at the
+ * end. Adding or removing a node only moves the IDs that fall between its points and the points
+ * before them, about one node's share, and the virtual points keep the shares even. The ring
+ * depends on nothing but the node IDs, so every node built from the same configuration agrees on
+ * the owner of every ID.
+ */
+public final class HashRing {
+
+    private record Point(long position, String node) {
+    }
+
+    private final long[] positions;
+    private final String[] owners;
+    private final Set<String> nodes;
+
+    /**
+     * @param nodes the IDs of the nodes of the cluster
+     * @param virtualNodes the number of points of each node on the ring
+     */
+    public HashRing(Collection<String> nodes, int virtualNodes) {
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("A hash ring needs at least one node");
+        }
+        if (virtualNodes < 1) {
+            throw new IllegalArgumentException("Virtual nodes must be at least 1, was " + virtualNodes);
+        }
+        this.nodes = new TreeSet<>(nodes);
+        Point[] points = new Point[this.nodes.size() * virtualNodes];
+        int i = 0;
+        for (String node : this.nodes) {
+            for (int replica = 0; replica < virtualNodes; replica++) {
+                points[i++] = new Point(hash(node + "#" + replica), node);
+            }
+        }
+        // Ties, however unlikely, are broken by node ID so that every node builds the same ring
+        Arrays.sort(points, Comparator.comparingLong(Point::position).thenComparing(Point::node));
+        this.positions = new long[points.length];
+        this.owners = new String[points.length];
+        for (i = 0; i < points.length; i++) {
+            positions[i] = points[i].position();
+            owners[i] = points[i].node();
+        }
+    }
+
+    /**
+     * Returns the IDs of the nodes of the ring, in their natural order.
+     */
+    public List<String> getNodes() {
+        return List.copyOf(nodes);
+    }
+
+    /**
+     * Returns the ID of the node that owns the given transaction ID.
+     */
+    public String ownerOf(long id) {
+        int index = Arrays.binarySearch(positions, Hashing.mix64(id));
+        if (index < 0) {
+            index = -(index + 1);
+        }
+        return owners[index == positions.length ? 0 : index];
+    }
+
+    /**
+     * FNV-1a over the UTF-8 bytes of a point name, finalized like an ID.
+     */
+    private static long hash(String value) {
+        long hash = 0xCBF29CE484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001B3L;
+        }
+        return Hashing.mix64(hash);
+    }
+}
@@ -0,0 +1,82 @@
+package com.hsbc.transaction.cluster;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Hands out worker IDs to the instances that share a directory, typically the instances of a
+ * cluster running on one host.
+ *
+ * Each worker ID has a lock file in the directory; an instance takes the lowest ID whose file it
+ * can lock and holds the lock until it is closed. The operating system releases the lock when the
+ * process ends, however it ends, so the ID of a crashed instance is free again straight away.
+ */
+@Slf4j
+public class WorkerIdRegistry implements AutoCloseable {
+
+    private final long workerId;
+    private final FileChannel channel;
+    private final FileLock lock;
+
+    private WorkerIdRegistry(long workerId, FileChannel channel, FileLock lock) {
+        this.workerId = workerId;
+        this.channel = channel;
+        this.lock = lock;
+    }
+
+    /**
+     * Takes the lowest free worker ID in the given directory, creating it if needed.
+     *
+     * @param directory the directory shared by the instances
+     * @param maxWorkerId the highest worker ID to hand out
+     * @throws IllegalStateException if every worker ID is taken
+     */
+    public static WorkerIdRegistry acquire(Path directory, long maxWorkerId) {
+        try {
+            Files.createDirectories(directory);
+            for (long id = 0; id <= maxWorkerId; id++) {
+                FileChannel channel = FileChannel.open(directory.resolve("worker-" + id + ".lock"),
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                FileLock lock;
+                try {
+                    lock = channel.tryLock();
+                } catch (OverlappingFileLockException e) {
+                    // Held by another registry of this JVM
+                    lock = null;
+                }
+                if (lock != null) {
+                    log.info("Acquired worker ID {} from {}", id, directory);
+                    return new WorkerIdRegistry(id, channel, lock);
+                }
+                channel.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot acquire a worker ID from " + directory, e);
+        }
+        throw new IllegalStateException("All " + (maxWorkerId + 1) + " worker IDs in " + directory + " are taken");
+    }
+
+    public long getWorkerId() {
+        return workerId;
+    }
+
+    /**
+     * Releases the worker ID.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            lock.release();
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.hsbc.transaction.config;
+
+import com.hsbc.transaction.cache.BoundedCache;
+import com.hsbc.transaction.cache.BoundedCacheManager;
+import com.hsbc.transaction.cache.BoundedCacheMetrics;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class CacheConfig {
+
+    @Bean
+    public CacheManager cacheManager(CacheProperties cacheProperties) {
+        return new BoundedCacheManager(cacheProperties);
+    }
+
+    /**
+     * Lets Spring Boot register {@code cache.*} metrics for every cache created on startup.
+     */
+    @Bean
+    public CacheMeterBinderProvider<BoundedCache> boundedCacheMeterBinderProvider() {
+        return BoundedCacheMetrics::new;
+    }
+}
@@ -0,0 +1,46 @@
+package com.hsbc.transaction.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Settings of the bounded caches, bound from {@code transaction.cache.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "transaction.cache")
+public class CacheProperties {
+
+    /**
+     * Whether null values are cached.
+     */
+    private boolean allowNullValues = false;
+
+    /**
+     * Settings of caches not listed under {@code caches}.
+     */
+    private Spec defaults = new Spec();
+
+    /**
+     * Settings per cache name. These caches are created and instrumented on startup.
+     */
+    private Map<String, Spec> caches = new LinkedHashMap<>();
+
+    @Data
+    public static class Spec {
+
+        /**
+         * Maximum number of entries. When full, a new entry replaces an existing one only
+         * if it is estimated to be accessed more often.
+         */
+        private long maximumSize = 10_000;
+
+        /**
+         * How long an entry stays valid after it was written. Unset keeps entries until evicted.
+         */
+        private Duration expireAfterWrite;
+    }
+}
@@ -0,0 +1,61 @@
+package com.hsbc.transaction.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Settings of cluster mode, bound from {@code transaction.cluster.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "transaction.cluster")
+public class ClusterProperties {
+
+    /**
+     * Whether this instance is one of several that each own part of the ID space.
+     */
+    private boolean enabled = false;
+
+    /**
+     * ID of this instance, one of the keys of {@link #nodes}.
+     */
+    private String nodeId;
+
+    /**
+     * Base URL of every node of the cluster, this one included, by node ID. Every node must be
+     * given the same nodes, since they decide which node owns each ID.
+     */
+    private Map<String, URI> nodes = new LinkedHashMap<>();
+
+    /**
+     * Points of each node on the hash ring; more points spread the IDs more evenly.
+     */
+    private int virtualNodes = 128;
+
+    /**
+     * Worker ID of the ID generator, 0-31. When unset, a cluster node takes the lowest free one
+     * from {@link #registryDirectory}, and a single instance uses 1.
+     */
+    private Integer workerId;
+
+    /**
+     * Datacenter ID of the ID generator, 0-31.
+     */
+    private int datacenterId = 1;
+
+    /**
+     * Directory of the worker ID lock files, shared by the nodes running on one host.
+     */
+    private String registryDirectory = "data/cluster";
+
+    private Duration connectTimeout = Duration.ofSeconds(1);
+
+    /**
+     * Time allowed for another node to answer a forwarded or scattered request.
+     */
+    private Duration requestTimeout = Duration.ofSeconds(5);
+}
@@ -0,0 +1,26 @@
+package com.hsbc.transaction.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the change feed served by {@code GET /api/transactions/stream}, bound from {@code transaction.feed.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "transaction.feed")
+public class FeedProperties {
+
+    /**
+     * Number of recent changes kept for subscribers to catch up from, rounded up to a power of two.
+     * A subscriber that falls further behind is disconnected.
+     */
+    private int capacity = 65536;
+
+    /**
+     * Idle time after which a subscriber is sent a comment, which keeps proxies from closing the
+     * connection and detects clients that went away.
+     */
+    private Duration heartbeat = Duration.ofSeconds(15);
+}
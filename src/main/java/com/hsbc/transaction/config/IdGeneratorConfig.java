@@ -1,16 +1,49 @@
 package com.hsbc.transaction.config;
 
+import com.hsbc.transaction.cluster.ClusterRouter;
+import com.hsbc.transaction.cluster.WorkerIdRegistry;
 import com.hsbc.transaction.util.SnowflakeIdGenerator;
+import jakarta.annotation.PreDestroy;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.io.IOException;
+import java.nio.file.Path;
+
 @Configuration
 public class IdGeneratorConfig {
-    
+
+    /**
+     * Worker ID of a single instance that is given none.
+     */
+    private static final long DEFAULT_WORKER_ID = 1;
+
+    private WorkerIdRegistry workerIdRegistry;
+
+    /**
+     * In cluster mode the generator only issues IDs this node owns, so that a transaction is
+     * created on the node that owns it.
+     */
     @Bean
-    public SnowflakeIdGenerator snowflakeIdGenerator() {
-        // For demonstration, using workerId=1 and datacenterId=1
-        // In production, these should be configured based on deployment environment
-        return new SnowflakeIdGenerator(1, 1);
+    public SnowflakeIdGenerator snowflakeIdGenerator(ClusterProperties clusterProperties, ClusterRouter clusterRouter) {
+        long workerId;
+        if (clusterProperties.getWorkerId() != null) {
+            workerId = clusterProperties.getWorkerId();
+        } else if (clusterProperties.isEnabled()) {
+            workerIdRegistry = WorkerIdRegistry.acquire(Path.of(clusterProperties.getRegistryDirectory()),
+                    SnowflakeIdGenerator.MAX_WORKER_ID);
+            workerId = workerIdRegistry.getWorkerId();
+        } else {
+            workerId = DEFAULT_WORKER_ID;
+        }
+        return new SnowflakeIdGenerator(workerId, clusterProperties.getDatacenterId(),
+                clusterRouter.isEnabled() ? clusterRouter::owns : null);
+    }
+
+    @PreDestroy
+    public void releaseWorkerId() throws IOException {
+        if (workerIdRegistry != null) {
+            workerIdRegistry.close();
+        }
     }
-} 
\ No newline at end of file
+}
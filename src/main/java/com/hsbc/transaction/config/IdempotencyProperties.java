@@ -0,0 +1,24 @@
+package com.hsbc.transaction.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of {@code Idempotency-Key} handling for creates, bound from {@code transaction.idempotency.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "transaction.idempotency")
+public class IdempotencyProperties {
+
+    /**
+     * Maximum number of keys remembered. When full, the oldest key is forgotten first.
+     */
+    private long maximumSize = 100_000;
+
+    /**
+     * How long a key is remembered after its first request. A retry after that creates a new transaction.
+     */
+    private Duration expireAfterWrite = Duration.ofHours(1);
+}
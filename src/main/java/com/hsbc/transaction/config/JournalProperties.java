@@ -0,0 +1,53 @@
+package com.hsbc.transaction.config;
+
+import com.hsbc.transaction.enums.FsyncPolicy;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the newline-delimited JSON transaction journal, bound from {@code transaction.journal.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "transaction.journal")
+public class JournalProperties {
+
+    /**
+     * Whether created transactions are appended to the journal at all.
+     */
+    private boolean enabled = true;
+
+    /**
+     * File the journal is appended to. Parent directories are created on startup.
+     */
+    private String path = "data/transaction-journal.ndjson";
+
+    /**
+     * Maximum number of records waiting to be written.
+     */
+    private int queueCapacity = 65_536;
+
+    /**
+     * Maximum number of records written with a single append.
+     */
+    private int batchSize = 1_024;
+
+    /**
+     * How long a request thread waits for queue space before the record is dropped.
+     */
+    private Duration offerTimeout = Duration.ofMillis(100);
+
+    /**
+     * Whether a request thread waits for queue space as long as it takes, slowing requests down to
+     * the pace of the writer, instead of dropping the record after the offer timeout.
+     */
+    private boolean blockWhenFull = false;
+
+    private FsyncPolicy fsyncPolicy = FsyncPolicy.INTERVAL;
+
+    /**
+     * Force interval used with {@link FsyncPolicy#INTERVAL}.
+     */
+    private Duration fsyncInterval = Duration.ofSeconds(1);
+}
@@ -0,0 +1,39 @@
+package com.hsbc.transaction.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the periodic repository snapshots, bound from {@code transaction.snapshot.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "transaction.snapshot")
+public class SnapshotProperties {
+
+    /**
+     * Whether snapshots are written and loaded on startup. Requires the write-ahead log.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Directory holding the snapshot files. Created on startup.
+     */
+    private String directory = "data/snapshots";
+
+    /**
+     * Time between two snapshots. A snapshot is skipped when nothing was logged since the last one.
+     */
+    private Duration interval = Duration.ofMinutes(5);
+
+    /**
+     * Number of snapshots kept. Log segments older than the oldest kept snapshot are deleted.
+     */
+    private int retained = 2;
+
+    /**
+     * Whether a final snapshot is written on graceful shutdown.
+     */
+    private boolean onShutdown = true;
+}
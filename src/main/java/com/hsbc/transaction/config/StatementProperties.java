@@ -0,0 +1,44 @@
+package com.hsbc.transaction.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of PDF statement generation, bound from {@code transaction.statement.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "transaction.statement")
+public class StatementProperties {
+
+    /**
+     * Directory holding rendered statements. Emptied on startup.
+     */
+    private String directory = "data/statements";
+
+    /**
+     * Number of statements rendered at the same time.
+     */
+    private int workers = 2;
+
+    /**
+     * Number of jobs that may wait for a worker. Submissions beyond it are rejected with 429.
+     */
+    private int queueCapacity = 16;
+
+    /**
+     * Number of rendered statements kept on disk for identical requests; the least recently used is deleted first.
+     */
+    private int cacheSize = 100;
+
+    /**
+     * Time a finished job can still be polled and downloaded.
+     */
+    private Duration jobRetention = Duration.ofHours(1);
+
+    /**
+     * Number of table rows buffered before they are laid out and written as pages.
+     */
+    private int rowsPerFlush = 200;
+}
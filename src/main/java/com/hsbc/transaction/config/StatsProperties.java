@@ -0,0 +1,22 @@
+package com.hsbc.transaction.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the transaction aggregates, bound from {@code transaction.stats.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "transaction.stats")
+public class StatsProperties {
+
+    /**
+     * Number of most recent minutes kept as separate buckets.
+     */
+    private int minuteBuckets = 60;
+
+    /**
+     * Number of most recent hours kept as separate buckets.
+     */
+    private int hourBuckets = 24;
+}
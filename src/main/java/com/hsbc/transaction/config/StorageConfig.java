@@ -0,0 +1,37 @@
+package com.hsbc.transaction.config;
+
+import com.hsbc.transaction.repository.ColumnarTransactionStore;
+import com.hsbc.transaction.repository.MapTransactionStore;
+import com.hsbc.transaction.repository.ShardedTransactionStore;
+import com.hsbc.transaction.repository.TransactionStore;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class StorageConfig {
+
+    @Bean
+    public TransactionStore transactionStore(StorageProperties storageProperties, MeterRegistry meterRegistry) {
+        if (storageProperties.getShards() <= 1) {
+            return newStore(storageProperties);
+        }
+        ShardedTransactionStore store = new ShardedTransactionStore(storageProperties.getShards(), () -> newStore(storageProperties));
+        for (int i = 0; i < store.getShardCount(); i++) {
+            int shard = i;
+            Gauge.builder("transaction.storage.shard.transactions", store, sharded -> sharded.size(shard))
+                    .description("Transactions held by one shard of the store")
+                    .tag("shard", Integer.toString(shard))
+                    .register(meterRegistry);
+        }
+        return store;
+    }
+
+    private static TransactionStore newStore(StorageProperties storageProperties) {
+        return switch (storageProperties.getEngine()) {
+            case MAP -> new MapTransactionStore();
+            case COLUMNAR -> new ColumnarTransactionStore();
+        };
+    }
+}
@@ -0,0 +1,21 @@
+package com.hsbc.transaction.config;
+
+import com.hsbc.transaction.enums.StorageEngine;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the in-memory transaction store, bound from {@code transaction.storage.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "transaction.storage")
+public class StorageProperties {
+
+    private StorageEngine engine = StorageEngine.MAP;
+
+    /**
+     * Number of shards the transactions are partitioned over by a hash of their ID, each a store
+     * of the configured engine with its own ordered index. 1 keeps a single store.
+     */
+    private int shards = 1;
+}
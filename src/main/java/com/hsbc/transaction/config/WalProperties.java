@@ -0,0 +1,42 @@
+package com.hsbc.transaction.config;
+
+import com.hsbc.transaction.enums.WalMode;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the repository write-ahead log, bound from {@code transaction.wal.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "transaction.wal")
+public class WalProperties {
+
+    /**
+     * Whether repository changes are logged and replayed on startup.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Directory holding the log segment files. Created on startup.
+     */
+    private String directory = "data/wal";
+
+    private WalMode mode = WalMode.GROUP;
+
+    /**
+     * Maximum number of records waiting for the committer thread.
+     */
+    private int queueCapacity = 65_536;
+
+    /**
+     * Maximum number of records written and forced together.
+     */
+    private int maxBatchSize = 4_096;
+
+    /**
+     * Force interval used with {@link WalMode#ASYNC}.
+     */
+    private Duration fsyncInterval = Duration.ofMillis(200);
+}
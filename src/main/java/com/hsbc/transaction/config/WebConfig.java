@@ -0,0 +1,41 @@
+package com.hsbc.transaction.config;
+
+import com.hsbc.transaction.cluster.ClusterForwardingInterceptor;
+import com.hsbc.transaction.cluster.ClusterRouter;
+import com.hsbc.transaction.wire.TransactionWireHttpMessageConverter;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final ClusterRouter clusterRouter;
+
+    public WebConfig(ClusterRouter clusterRouter) {
+        this.clusterRouter = clusterRouter;
+    }
+
+    /**
+     * Adds the binary transaction format after the defaults, so JSON stays the format of
+     * requests that accept anything.
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new TransactionWireHttpMessageConverter());
+    }
+
+    /**
+     * Sends requests for a transaction owned by another node of the cluster to that node.
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (clusterRouter.isEnabled()) {
+            registry.addInterceptor(new ClusterForwardingInterceptor(clusterRouter))
+                    .addPathPatterns("/api/transactions/*");
+        }
+    }
+}
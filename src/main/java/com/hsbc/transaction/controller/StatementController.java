@@ -0,0 +1,78 @@
+package com.hsbc.transaction.controller;
+
+import com.hsbc.transaction.exception.StatementNotFoundException;
+import com.hsbc.transaction.exception.StatementNotReadyException;
+import com.hsbc.transaction.exception.StatementQueueFullException;
+import com.hsbc.transaction.model.StatementJob;
+import com.hsbc.transaction.model.StatementRequest;
+import com.hsbc.transaction.statement.StatementService;
+import jakarta.validation.Valid;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+
+/**
+ * REST controller for PDF statements.
+ * Statements are rendered in the background: a statement is submitted as a job, polled
+ * until it is completed and then downloaded.
+ * All endpoints are under the base path '/api/statements'.
+ */
+@RestController
+@RequestMapping("/api/statements")
+public class StatementController {
+
+    private final StatementService statementService;
+
+    public StatementController(StatementService statementService) {
+        this.statementService = statementService;
+    }
+
+    /**
+     * Submits a statement of the transactions in a time range.
+     *
+     * @param request the time range and optional filter (validated)
+     * @return ResponseEntity containing the job, with ACCEPTED status and its location
+     * @throws StatementQueueFullException if too many statements are waiting to be rendered
+     */
+    @PostMapping
+    public ResponseEntity<StatementJob> submitStatement(@Valid @RequestBody StatementRequest request) {
+        StatementJob job = statementService.submit(request);
+        return ResponseEntity.accepted().location(URI.create("/api/statements/" + job.getId())).body(job);
+    }
+
+    /**
+     * Retrieves the state of a statement job.
+     *
+     * @param id the ID of the job
+     * @return ResponseEntity containing the job
+     * @throws StatementNotFoundException if the job does not exist or expired
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<StatementJob> getStatementJob(@PathVariable String id) {
+        return ResponseEntity.ok(statementService.getJob(id));
+    }
+
+    /**
+     * Downloads the PDF of a completed statement job.
+     *
+     * @param id the ID of the job
+     * @return ResponseEntity streaming the PDF file
+     * @throws StatementNotFoundException if the job does not exist or expired
+     * @throws StatementNotReadyException if the job has not completed or failed
+     */
+    @GetMapping("/{id}/pdf")
+    public ResponseEntity<Resource> downloadStatement(@PathVariable String id) {
+        Resource pdf = new FileSystemResource(statementService.getStatement(id));
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_PDF)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename("statement-" + id + ".pdf").build().toString())
+                .body(pdf);
+    }
+}
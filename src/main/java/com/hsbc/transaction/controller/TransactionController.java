@@ -1,23 +1,68 @@
 package com.hsbc.transaction.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hsbc.transaction.cluster.ClusterListings;
+import com.hsbc.transaction.cluster.ClusterRouter;
 import com.hsbc.transaction.dto.TransactionDTO;
+import com.hsbc.transaction.enums.ErrorCode;
+import com.hsbc.transaction.enums.ExportFormat;
+import com.hsbc.transaction.enums.TransactionStatus;
+import com.hsbc.transaction.enums.TransactionType;
+import com.hsbc.transaction.exception.DuplicateTransactionException;
 import com.hsbc.transaction.exception.TransactionNotFoundException;
+import com.hsbc.transaction.exception.TransactionVersionConflictException;
+import com.hsbc.transaction.export.TransactionExportWriter;
+import com.hsbc.transaction.feed.ChangeFeed;
+import com.hsbc.transaction.idempotency.IdempotencyStore;
+import com.hsbc.transaction.index.TimestampIndex;
+import com.hsbc.transaction.model.BatchItemResult;
+import com.hsbc.transaction.model.BatchResult;
+import com.hsbc.transaction.model.CursorPage;
 import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.model.TransactionFilter;
+import com.hsbc.transaction.model.TransactionStats;
+import com.hsbc.transaction.repository.TransactionRepository;
 import com.hsbc.transaction.service.TransactionService;
+import com.hsbc.transaction.util.CursorCodec;
+import com.hsbc.transaction.wire.TransactionWireHttpMessageConverter;
+import com.hsbc.transaction.wire.TransactionWireWriter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
 import org.hibernate.validator.constraints.Range;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Currency;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * REST controller for managing transactions.
@@ -28,29 +73,223 @@ import java.util.List;
 @RequestMapping("/api/transactions")
 @Validated
 public class TransactionController {
+
+    /**
+     * Largest number of transactions accepted by one batch request.
+     */
+    public static final int MAX_BATCH_SIZE = 5000;
+
+    /**
+     * Request header identifying a create, so that its retries return the transaction it created.
+     */
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    /**
+     * Response header set when a create was answered with the transaction of an earlier request.
+     */
+    public static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
     
     private final TransactionService transactionService;
+    private final Validator validator;
+    private final ChangeFeed changeFeed;
+    private final IdempotencyStore idempotencyStore;
+    private final ClusterRouter clusterRouter;
+    private final ClusterListings clusterListings;
+    private final ObjectMapper objectMapper;
 
     /**
      * Constructor injection of TransactionService.
      * 
      * @param transactionService the service for handling transaction operations
+     * @param validator the validator applied to each item of a batch request
+     * @param changeFeed the feed of changes served by {@link #streamChanges}
+     * @param idempotencyStore the transactions created for recent idempotency keys
+     * @param clusterRouter tells whether listings have to be gathered from other nodes of the cluster
+     * @param clusterListings gathers listings from every node of the cluster
+     * @param objectMapper writes the body of a create forwarded to the node owning its ID
      */
     @Autowired
-    public TransactionController(TransactionService transactionService) {
+    public TransactionController(TransactionService transactionService, Validator validator, ChangeFeed changeFeed,
+                                 IdempotencyStore idempotencyStore, ClusterRouter clusterRouter,
+                                 ClusterListings clusterListings, ObjectMapper objectMapper) {
         this.transactionService = transactionService;
+        this.validator = validator;
+        this.changeFeed = changeFeed;
+        this.idempotencyStore = idempotencyStore;
+        this.clusterRouter = clusterRouter;
+        this.clusterListings = clusterListings;
+        this.objectMapper = objectMapper;
     }
 
     /**
      * Creates a new transaction.
+     * A request sent with an Idempotency-Key creates at most one transaction for that key: retries
+     * return the transaction it created, with the Idempotent-Replayed header set, instead of creating
+     * another, and retries that arrive while it is still being created wait for it.
+     * In cluster mode a transaction given an ID owned by another node is created on that node.
      * 
+     * @param idempotencyKey an optional key chosen by the client, unique per transaction it means to create
      * @param transactionDTO the transaction to create (validated)
      * @return ResponseEntity containing the created transaction and CREATED status
+     * @throws DuplicateTransactionException if the key was already used with a different transaction
      */
     @PostMapping
-    public ResponseEntity<TransactionDTO> createTransaction(@Valid @RequestBody TransactionDTO transactionDTO) {
-        Transaction transaction = transactionService.createTransaction(transactionDTO.toEntity());
-        return new ResponseEntity<>(TransactionDTO.fromEntity(transaction), HttpStatus.CREATED);
+    public ResponseEntity<TransactionDTO> createTransaction(
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) @Size(min = 1, max = 255, message = "Idempotency-Key must be 1 to 255 characters") String idempotencyKey,
+            @Valid @RequestBody TransactionDTO transactionDTO,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Transaction transaction = transactionDTO.toEntity();
+        if (forwardedToOwner(transaction.getId(), request, response, () -> objectMapper.writeValueAsBytes(transactionDTO))) {
+            return null;
+        }
+        IdempotencyStore.Outcome outcome = create(idempotencyKey, transaction);
+        return created(outcome, TransactionDTO.fromEntity(outcome.transaction()));
+    }
+
+    /**
+     * Creates a new transaction sent in the binary wire format, and returns it in the same format.
+     * The transaction is validated as a JSON one is; as with JSON, the timestamp and status are set
+     * by the server, and a transaction given an ID owned by another node of the cluster is created on that node.
+     *
+     * @param transaction the transaction to create
+     * @return ResponseEntity containing the created transaction and CREATED status
+     * @throws ConstraintViolationException if the transaction breaks a constraint of {@link TransactionDTO}
+     */
+    @PostMapping(consumes = TransactionWireHttpMessageConverter.MEDIA_TYPE_VALUE, produces = TransactionWireHttpMessageConverter.MEDIA_TYPE_VALUE)
+    public ResponseEntity<Transaction> createTransactionBinary(
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) @Size(min = 1, max = 255, message = "Idempotency-Key must be 1 to 255 characters") String idempotencyKey,
+            @RequestBody Transaction transaction,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        TransactionDTO transactionDTO = TransactionDTO.builder()
+                .id(transaction.getId() != null ? transaction.getId().toString() : null)
+                .description(transaction.getDescription())
+                .amount(transaction.getMoney().toPlainString())
+                .currency(transaction.getMoney().getCurrency().getCurrencyCode())
+                .type(transaction.getType() != null ? transaction.getType().getDisplayName() : null)
+                .build();
+        Set<ConstraintViolation<TransactionDTO>> violations = validator.validate(transactionDTO);
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+        if (forwardedToOwner(transaction.getId(), request, response, () -> {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            TransactionWireWriter writer = new TransactionWireWriter(body);
+            writer.writeTransaction(transaction);
+            writer.flush();
+            return body.toByteArray();
+        })) {
+            return null;
+        }
+        IdempotencyStore.Outcome outcome = create(idempotencyKey, transactionDTO.toEntity());
+        return created(outcome, outcome.transaction());
+    }
+
+    /**
+     * Body of a request, written again once it has been read.
+     */
+    @FunctionalInterface
+    private interface BodyWriter {
+        byte[] write() throws IOException;
+    }
+
+    /**
+     * Sends a create given an ID owned by another node of the cluster to that node, where every
+     * later request for the ID is forwarded, and writes its answer as the response.
+     *
+     * @return whether the create was forwarded, in which case the response is complete
+     */
+    private boolean forwardedToOwner(Long id, HttpServletRequest request, HttpServletResponse response,
+                                     BodyWriter body) throws IOException {
+        if (id == null || !clusterRouter.shouldForward(request, id)) {
+            return false;
+        }
+        clusterRouter.forward(clusterRouter.ownerOf(id), request, body.write(), response);
+        return true;
+    }
+
+    private IdempotencyStore.Outcome create(String idempotencyKey, Transaction transaction) {
+        if (idempotencyKey == null) {
+            return new IdempotencyStore.Outcome(transactionService.createTransaction(transaction), false);
+        }
+        return idempotencyStore.execute(idempotencyKey, IdempotencyStore.Request.of(transaction),
+                () -> transactionService.createTransaction(transaction));
+    }
+
+    private static <T> ResponseEntity<T> created(IdempotencyStore.Outcome outcome, T body) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.CREATED).eTag(eTag(outcome.transaction()));
+        if (outcome.replayed()) {
+            response.header(IDEMPOTENT_REPLAYED_HEADER, "true");
+        }
+        return response.body(body);
+    }
+
+    /**
+     * Creates a batch of transactions in one request.
+     * Every item is validated on its own; invalid items are reported with their index and
+     * do not prevent the others from being created. In cluster mode, items given an ID owned by
+     * another node are rejected, since a batch is created on one node; create them on their own.
+     *
+     * @param transactionDTOs the transactions to create, at most {@link #MAX_BATCH_SIZE}
+     * @return ResponseEntity containing the per-item results, with CREATED status if every
+     *         item was created and MULTI_STATUS otherwise
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<BatchResult<TransactionDTO>> createTransactions(
+            @RequestBody @Size(min = 1, max = MAX_BATCH_SIZE, message = "Batch must contain between 1 and " + MAX_BATCH_SIZE + " transactions")
+            List<TransactionDTO> transactionDTOs,
+            HttpServletRequest request) {
+        List<BatchItemResult<TransactionDTO>> results = new ArrayList<>(transactionDTOs.size());
+        List<Transaction> accepted = new ArrayList<>(transactionDTOs.size());
+        List<Integer> acceptedIndexes = new ArrayList<>(transactionDTOs.size());
+        for (int i = 0; i < transactionDTOs.size(); i++) {
+            BatchItemResult<Transaction> item = toBatchItem(i, transactionDTOs.get(i), request);
+            if (item.isSuccess()) {
+                accepted.add(item.getItem());
+                acceptedIndexes.add(i);
+                // Filled in with the outcome of the service below
+                results.add(null);
+            } else {
+                results.add(item.map(TransactionDTO::fromEntity));
+            }
+        }
+
+        BatchResult<Transaction> created = transactionService.createTransactions(accepted);
+        for (BatchItemResult<Transaction> result : created.getResults()) {
+            int index = acceptedIndexes.get(result.getIndex());
+            results.set(index, new BatchItemResult<>(index,
+                    result.getItem() == null ? null : TransactionDTO.fromEntity(result.getItem()), result.getError()));
+        }
+
+        BatchResult<TransactionDTO> response = new BatchResult<>(results);
+        return new ResponseEntity<>(response, response.getFailed() == 0 ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS);
+    }
+
+    /**
+     * Checks what only the request can tell about one item of a batch: its constraints, its
+     * conversion and, in cluster mode, whether this node owns its ID. The rules of a transaction
+     * are checked by the service and the uniqueness of its ID by the repository, as for single creates.
+     *
+     * @return the transaction to create, or the reason the item is rejected
+     */
+    private BatchItemResult<Transaction> toBatchItem(int index, TransactionDTO transactionDTO, HttpServletRequest request) {
+        if (transactionDTO == null) {
+            return BatchItemResult.failure(index, ErrorCode.INVALID_ARGUMENT, "Transaction must not be null");
+        }
+        Set<ConstraintViolation<TransactionDTO>> violations = validator.validate(transactionDTO);
+        if (!violations.isEmpty()) {
+            return BatchItemResult.failure(index, ErrorCode.INVALID_ARGUMENT, violations.iterator().next().getMessage());
+        }
+        Transaction transaction;
+        try {
+            transaction = transactionDTO.toEntity();
+        } catch (RuntimeException e) {
+            return BatchItemResult.failure(index, ErrorCode.INVALID_ARGUMENT, "Invalid transaction: " + e.getMessage());
+        }
+        if (transaction.getId() != null && clusterRouter.shouldForward(request, transaction.getId())) {
+            return BatchItemResult.failure(index, ErrorCode.INVALID_ARGUMENT, "Transaction ID " + transaction.getId()
+                    + " belongs to node " + clusterRouter.ownerOf(transaction.getId()) + "; create it on its own or without an ID");
+        }
+        return BatchItemResult.success(index, transaction);
     }
 
     /**
@@ -63,43 +302,241 @@ public class TransactionController {
     @GetMapping("/{id}")
     public ResponseEntity<TransactionDTO> getTransaction(@PathVariable @Digits(integer = 19, fraction = 0, message = "id should be a valid number") String id) {
         Transaction transaction = transactionService.getTransaction(Long.parseLong(id));
-        return ResponseEntity.ok(TransactionDTO.fromEntity(transaction));
+        return ResponseEntity.ok().eTag(eTag(transaction)).body(TransactionDTO.fromEntity(transaction));
+    }
+
+    /**
+     * Retrieves a specific transaction by ID in the binary wire format.
+     *
+     * @param id the ID of the transaction to retrieve
+     * @return ResponseEntity containing the found transaction
+     * @throws TransactionNotFoundException if transaction is not found
+     */
+    @GetMapping(value = "/{id}", produces = TransactionWireHttpMessageConverter.MEDIA_TYPE_VALUE)
+    public ResponseEntity<Transaction> getTransactionBinary(@PathVariable @Digits(integer = 19, fraction = 0, message = "id should be a valid number") String id) {
+        Transaction transaction = transactionService.getTransaction(Long.parseLong(id));
+        return ResponseEntity.ok().eTag(eTag(transaction)).body(transaction);
     }
 
     /**
      * Retrieves all transactions with pagination support.
+     * When {@code from} or {@code to} is given, only transactions with a timestamp in
+     * [{@code from}, {@code to}) are returned, ordered by timestamp. Transactions can also be
+     * filtered by type, status and currency; each may be repeated to accept several values.
      *
      * @param page the page number to retrieve (0-indexed)
      * @param size the number of transactions per page
+     * @param direction ordering by ID, or by timestamp for a time range: "desc" (newest first, default) or "asc" (oldest first)
+     * @param from the inclusive start of the time range, as an ISO-8601 local date-time
+     * @param to the exclusive end of the time range, as an ISO-8601 local date-time
+     * @param type the transaction types to include
+     * @param status the transaction statuses to include
+     * @param currency the currency codes to include
      * @return ResponseEntity containing the page of transactions
      */
     @GetMapping
     public ResponseEntity<Page<TransactionDTO>> getAllTransactions(
             @RequestParam(defaultValue = "0") @Range(min = 0, message = "Page must be greater than or equal to 0") int page,
-            @RequestParam(defaultValue = "10") @Range(min = 1, max = 100, message = "Size must be between 1 and 100") int size) {
-        Pageable pageable = PageRequest.of(page, size);
-        Page<Transaction> transactions = transactionService.getAllTransactions(pageable);
+            @RequestParam(defaultValue = "10") @Range(min = 1, max = 100, message = "Size must be between 1 and 100") int size,
+            @RequestParam(defaultValue = "desc") @Pattern(regexp = "(?i)asc|desc", message = "Direction must be asc or desc") String direction,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) List<TransactionType> type,
+            @RequestParam(required = false) List<TransactionStatus> status,
+            @RequestParam(required = false) List<Currency> currency,
+            HttpServletRequest request) {
+        Page<Transaction> transactions = listTransactions(request, page, size, direction, from, to, new TransactionFilter(type, status, currency));
         Page<TransactionDTO> dtoPage = transactions.map(TransactionDTO::fromEntity);
         return ResponseEntity.ok(dtoPage);
     }
 
+    /**
+     * Retrieves all transactions with pagination support in the binary wire format, which carries
+     * the total number of transactions but none of the other page metadata.
+     * Takes the same parameters as {@link #getAllTransactions}.
+     */
+    @GetMapping(produces = TransactionWireHttpMessageConverter.MEDIA_TYPE_VALUE)
+    public ResponseEntity<Page<Transaction>> getAllTransactionsBinary(
+            @RequestParam(defaultValue = "0") @Range(min = 0, message = "Page must be greater than or equal to 0") int page,
+            @RequestParam(defaultValue = "10") @Range(min = 1, max = 100, message = "Size must be between 1 and 100") int size,
+            @RequestParam(defaultValue = "desc") @Pattern(regexp = "(?i)asc|desc", message = "Direction must be asc or desc") String direction,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) List<TransactionType> type,
+            @RequestParam(required = false) List<TransactionStatus> status,
+            @RequestParam(required = false) List<Currency> currency,
+            HttpServletRequest request) {
+        return ResponseEntity.ok(listTransactions(request, page, size, direction, from, to, new TransactionFilter(type, status, currency)));
+    }
+
+    /**
+     * Lists a page of this node's transactions, or in cluster mode of every node's.
+     */
+    private Page<Transaction> listTransactions(HttpServletRequest request, int page, int size, String direction,
+                                               LocalDateTime from, LocalDateTime to, TransactionFilter filter) {
+        boolean byTimestamp = from != null || to != null;
+        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.fromString(direction),
+                byTimestamp ? TimestampIndex.TIMESTAMP_PROPERTY : TransactionRepository.ID_PROPERTY));
+        if (clusterRouter.shouldGather(request)) {
+            return clusterListings.gatherPage(request, pageable, byTimestamp,
+                    localPage -> listLocalTransactions(localPage, from, to, filter));
+        }
+        return listLocalTransactions(pageable, from, to, filter);
+    }
+
+    private Page<Transaction> listLocalTransactions(Pageable pageable, LocalDateTime from, LocalDateTime to,
+                                                    TransactionFilter filter) {
+        return from != null || to != null
+                ? transactionService.getTransactionsBetween(from, to, filter, pageable)
+                : transactionService.getAllTransactions(filter, pageable);
+    }
+
+    /**
+     * Retrieves transactions using keyset (cursor) pagination.
+     * Selected when the {@code limit} parameter is present; every page costs the same
+     * regardless of depth and no total count is computed.
+     *
+     * @param after the opaque cursor returned as {@code nextCursor} by the previous page; omit for the first page
+     * @param limit the maximum number of transactions to return
+     * @param direction ordering: "desc" (newest first, default) or "asc"; may be omitted after the first page,
+     *                  and must otherwise be the ordering of the cursor
+     * @param from the inclusive start of a time range to walk in timestamp order, as an ISO-8601 local date-time
+     * @param to the exclusive end of a time range to walk in timestamp order, as an ISO-8601 local date-time
+     * @param type the transaction types to include
+     * @param status the transaction statuses to include
+     * @param currency the currency codes to include
+     * @return ResponseEntity containing the transactions and the cursor for the next page
+     */
+    @GetMapping(params = "limit")
+    public ResponseEntity<CursorPage<TransactionDTO>> getTransactionsAfter(
+            @RequestParam(required = false) String after,
+            @RequestParam @Range(min = 1, max = 100, message = "Limit must be between 1 and 100") int limit,
+            @RequestParam(required = false) @Pattern(regexp = "(?i)asc|desc", message = "Direction must be asc or desc") String direction,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) List<TransactionType> type,
+            @RequestParam(required = false) List<TransactionStatus> status,
+            @RequestParam(required = false) List<Currency> currency,
+            HttpServletRequest request) {
+        CursorPage<Transaction> transactions = listTransactionsAfter(request, after, limit, direction, from, to, new TransactionFilter(type, status, currency));
+        return ResponseEntity.ok(transactions.map(TransactionDTO::fromEntity));
+    }
+
+    /**
+     * Retrieves transactions using keyset (cursor) pagination in the binary wire format.
+     * Takes the same parameters as {@link #getTransactionsAfter}.
+     */
+    @GetMapping(params = "limit", produces = TransactionWireHttpMessageConverter.MEDIA_TYPE_VALUE)
+    public ResponseEntity<CursorPage<Transaction>> getTransactionsAfterBinary(
+            @RequestParam(required = false) String after,
+            @RequestParam @Range(min = 1, max = 100, message = "Limit must be between 1 and 100") int limit,
+            @RequestParam(required = false) @Pattern(regexp = "(?i)asc|desc", message = "Direction must be asc or desc") String direction,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) List<TransactionType> type,
+            @RequestParam(required = false) List<TransactionStatus> status,
+            @RequestParam(required = false) List<Currency> currency,
+            HttpServletRequest request) {
+        return ResponseEntity.ok(listTransactionsAfter(request, after, limit, direction, from, to, new TransactionFilter(type, status, currency)));
+    }
+
+    /**
+     * Lists a page of this node's transactions after a cursor, or in cluster mode of every node's.
+     */
+    private CursorPage<Transaction> listTransactionsAfter(HttpServletRequest request, String after, int limit, String direction,
+                                                          LocalDateTime from, LocalDateTime to, TransactionFilter filter) {
+        if (clusterRouter.shouldGather(request)) {
+            Sort.Direction order = CursorCodec.direction(after != null ? CursorCodec.decode(after) : null, directionOf(direction));
+            return clusterListings.gatherAfter(request, limit, order, from != null || to != null,
+                    () -> listLocalTransactionsAfter(after, limit, direction, from, to, filter));
+        }
+        return listLocalTransactionsAfter(after, limit, direction, from, to, filter);
+    }
+
+    private CursorPage<Transaction> listLocalTransactionsAfter(String after, int limit, String direction, LocalDateTime from,
+                                                               LocalDateTime to, TransactionFilter filter) {
+        return from != null || to != null
+                ? transactionService.getTransactionsBetween(from, to, filter, after, limit, directionOf(direction))
+                : transactionService.getTransactionsAfter(filter, after, limit, directionOf(direction));
+    }
+
+    /**
+     * Returns the direction of a cursor listing parameter, or null if it is omitted and the cursor decides.
+     */
+    private static Sort.Direction directionOf(String direction) {
+        return direction != null ? Sort.Direction.fromString(direction) : null;
+    }
+
+    /**
+     * Searches transactions by the words of their description.
+     * Every term must appear in the description, ignoring case and accents; a term ending in
+     * {@code *} matches any word starting with it. Results are ordered by ID and paged by cursor.
+     *
+     * @param q the search terms, separated by spaces, e.g. "coffee lond*"
+     * @param after the opaque cursor returned as {@code nextCursor} by the previous page; omit for the first page
+     * @param limit the maximum number of transactions to return
+     * @param direction ordering: "desc" (newest first, default) or "asc"; may be omitted after the first page,
+     *                  and must otherwise be the ordering of the cursor
+     * @return ResponseEntity containing the matching transactions and the cursor for the next page
+     */
+    @GetMapping("/search")
+    public ResponseEntity<CursorPage<TransactionDTO>> searchTransactions(
+            @RequestParam @NotBlank(message = "Query must not be blank") @Size(max = 256, message = "Query must be at most 256 characters") String q,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") @Range(min = 1, max = 100, message = "Limit must be between 1 and 100") int limit,
+            @RequestParam(required = false) @Pattern(regexp = "(?i)asc|desc", message = "Direction must be asc or desc") String direction) {
+        CursorPage<Transaction> transactions = transactionService.searchTransactions(q, after, limit, directionOf(direction));
+        return ResponseEntity.ok(transactions.map(TransactionDTO::fromEntity));
+    }
+
     /**
      * Updates an existing transaction.
+     * With an If-Match header holding the ETag of a read, the update is only applied if the
+     * transaction has not changed since, and fails with 409 otherwise.
      * 
      * @param id the ID of the transaction to update
+     * @param ifMatch the ETag of the version the update was made against, or * for any version
      * @param transactionDTO the new transaction data (validated)
      * @return ResponseEntity containing the updated transaction
      * @throws TransactionNotFoundException if transaction is not found
+     * @throws TransactionVersionConflictException if the transaction does not match the If-Match header
      */
     @PutMapping("/{id}")
     public ResponseEntity<TransactionDTO> updateTransaction(
             @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody TransactionDTO transactionDTO) {
         Transaction transaction = transactionService.updateTransaction(
             Long.parseLong(id), 
-            transactionDTO.toEntity()
+            transactionDTO.toEntity(),
+            expectedVersion(id, ifMatch)
         );
-        return ResponseEntity.ok(TransactionDTO.fromEntity(transaction));
+        return ResponseEntity.ok().eTag(eTag(transaction)).body(TransactionDTO.fromEntity(transaction));
+    }
+
+    /**
+     * Returns the version an If-Match header asks for, or null when any version is accepted.
+     */
+    private static Long expectedVersion(String id, String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                return Long.parseLong(tag.substring(1, tag.length() - 1));
+            } catch (NumberFormatException e) {
+                // Not an ETag of ours, so it cannot match
+            }
+        }
+        throw new TransactionVersionConflictException("Transaction " + id + " does not match " + ifMatch);
+    }
+
+    private static String eTag(Transaction transaction) {
+        return "\"" + transaction.getVersion() + "\"";
     }
 
     /**
@@ -115,9 +552,86 @@ public class TransactionController {
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * Streams every transaction, ordered by ID, as newline-delimited JSON or CSV.
+     * Transactions are written to the response as they are read, so the export takes the same
+     * memory however many there are. The body is gzip-compressed when the request accepts it.
+     *
+     * @param format "ndjson" (default) or "csv"
+     * @param acceptEncoding the Accept-Encoding request header
+     * @return ResponseEntity whose body writes the export to the response
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @RequestParam(defaultValue = "ndjson") @Pattern(regexp = "(?i)ndjson|csv", message = "Format must be ndjson or csv") String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        ExportFormat exportFormat = ExportFormat.valueOf(format.toUpperCase(Locale.ROOT));
+        boolean gzip = acceptsGzip(acceptEncoding);
+        StreamingResponseBody body = out -> {
+            if (!gzip) {
+                transactionService.exportTransactions(exportFormat, out);
+                return;
+            }
+            GZIPOutputStream compressed = new GZIPOutputStream(out, TransactionExportWriter.BUFFER_SIZE);
+            transactionService.exportTransactions(exportFormat, compressed);
+            compressed.finish();
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename("transactions." + exportFormat.getExtension()).build().toString())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Streams every later change as server-sent events named "created", "updated", "deleted" or
+     * "cleared", whose data is the transaction in the format of the other endpoints. Event IDs are
+     * sequence numbers: a client reconnecting with the Last-Event-ID header, or the since parameter,
+     * receives the changes it missed, or a "reset" event if they are no longer kept, after which it
+     * should reload. Clients that read too slowly are disconnected.
+     *
+     * @param lastEventId the ID of the last event received, sent by EventSource when it reconnects
+     * @param since the ID of the last event received, for clients that cannot set headers
+     * @return the emitter of the client's events
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+            @RequestParam(required = false) Long since) {
+        return changeFeed.subscribe(lastEventId != null ? lastEventId : since);
+    }
+
     @GetMapping("/count")
     public ResponseEntity<Integer> getTotalTransactions() {
         int count = transactionService.getTotalTransactions();
         return ResponseEntity.ok(count);
     }
+
+    /**
+     * Retrieves the count and sum of transactions per currency, per type and per recent
+     * minute and hour. Served from incrementally maintained totals.
+     *
+     * @return ResponseEntity containing the totals
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<TransactionStats> getStatistics() {
+        return ResponseEntity.ok(transactionService.getStatistics());
+    }
 } 
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.hsbc.transaction.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.hsbc.transaction.enums.TransactionStatus;
 import com.hsbc.transaction.model.Money;
 import com.hsbc.transaction.model.Transaction;
@@ -12,7 +13,6 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import org.hibernate.validator.constraints.Length;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Currency;
 
@@ -23,37 +23,71 @@ import java.util.Currency;
 public class TransactionDTO {
     private String id;
     
+    @NotBlank(message = "Description is required")
+    @Length(max = 1024)
     private String description;
     
+    @NotNull(message = "Amount is required")
+    @DecimalMin(value = "0", inclusive = false, message = "Amount must be positive")
+    @DecimalMax(value = "1000000", inclusive = false, message = "Amount must be less than 1000000")
     private String amount;
     
+    @NotBlank(message = "Currency is required")
     private String currency;
 
+    @NotBlank(message = "Transaction type is required")
     private String type;
 
     private String timestamp;
 
+    /**
+     * Version of the stored transaction, assigned by the server; ignored on requests.
+     */
+    private Long version;
+
+    /**
+     * Whether the amount is a number held exactly in the currency, with no more decimal places
+     * than it has. A missing amount or an unknown currency is left to the conversion.
+     */
+    @JsonIgnore
+    @AssertTrue(message = "Amount must be a number with no more decimal places than its currency allows")
+    public boolean isAmountExact() {
+        if (amount == null || currency == null) {
+            return true;
+        }
+        Currency amountCurrency;
+        try {
+            amountCurrency = Currency.getInstance(currency);
+        } catch (IllegalArgumentException e) {
+            return true;
+        }
+        try {
+            Money.parse(amount, amountCurrency);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
     public static TransactionDTO fromEntity(Transaction transaction) {
         return TransactionDTO.builder()
                 .id(transaction.getId() != null ? transaction.getId().toString() : null)
                 .description(transaction.getDescription())
-                .amount(transaction.getMoney().getAmount().toString())
+                .amount(transaction.getMoney().toPlainString())
                 .currency(transaction.getMoney().getCurrency().toString())
                 .type(transaction.getType().getDisplayName())
                 .timestamp(transaction.getTimestamp().toString())
+                .version(transaction.getVersion())
                 .build();
     }
 
     public Transaction toEntity() {
-        Transaction transaction = Transaction.builder()
+        return Transaction.builder()
+                .id(this.id != null && !this.id.isEmpty() ? Long.parseLong(this.id) : null)
                 .description(this.description)
-                .money(Money.of(new BigDecimal(this.amount), Currency.getInstance(this.currency)))
+                .money(Money.parse(this.amount, Currency.getInstance(this.currency)))
                 .type(TransactionType.byValue(this.getType()))
                 .timestamp(LocalDateTime.now())
                 .build();
-        if (this.id != null && !this.id.isEmpty()) {
-            transaction.setId(Long.parseLong(this.id));
-        }
-        return transaction;
     }
 } 
\ No newline at end of file
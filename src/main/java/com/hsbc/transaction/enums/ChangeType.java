@@ -0,0 +1,26 @@
+package com.hsbc.transaction.enums;
+
+import lombok.Getter;
+
+/**
+ * Kinds of change pushed by the change feed.
+ */
+@Getter
+public enum ChangeType {
+    CREATED("created"),
+    UPDATED("updated"),
+    DELETED("deleted"),
+    /**
+     * Every transaction was deleted.
+     */
+    CLEARED("cleared");
+
+    /**
+     * Name of the server-sent event.
+     */
+    private final String eventName;
+
+    ChangeType(String eventName) {
+        this.eventName = eventName;
+    }
+}
@@ -25,6 +25,31 @@ public enum ErrorCode {
      */
     INVALID_ARGUMENT(1003),
 
+    /**
+     * Error code for statement job not found.
+     */
+    STATEMENT_NOT_FOUND(1004),
+
+    /**
+     * Error code for statement not rendered yet, or failed.
+     */
+    STATEMENT_NOT_READY(1005),
+
+    /**
+     * Error code for statement queue full.
+     */
+    TOO_MANY_REQUESTS(1006),
+
+    /**
+     * Error code for an update made against a version that is no longer current.
+     */
+    VERSION_CONFLICT(1007),
+
+    /**
+     * Error code for a cluster node that did not answer a forwarded request.
+     */
+    NODE_UNAVAILABLE(1008),
+
     /**
      * Error code for system inner error.
      */
@@ -0,0 +1,26 @@
+package com.hsbc.transaction.enums;
+
+import lombok.Getter;
+
+/**
+ * Formats in which the whole transaction store can be exported.
+ */
+@Getter
+public enum ExportFormat {
+    /**
+     * One JSON object per line, with the fields of the transaction API.
+     */
+    NDJSON("application/x-ndjson", "ndjson"),
+    /**
+     * RFC 4180 comma-separated values with a header row.
+     */
+    CSV("text/csv;charset=UTF-8", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+}
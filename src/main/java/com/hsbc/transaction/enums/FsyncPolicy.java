@@ -0,0 +1,21 @@
+package com.hsbc.transaction.enums;
+
+/**
+ * When an append-only file is forced to stable storage.
+ */
+public enum FsyncPolicy {
+    /**
+     * Never force; rely on the operating system to flush its page cache.
+     */
+    NONE,
+
+    /**
+     * Force at most once per configured interval.
+     */
+    INTERVAL,
+
+    /**
+     * Force after every written batch.
+     */
+    BATCH
+}
@@ -0,0 +1,11 @@
+package com.hsbc.transaction.enums;
+
+/**
+ * Lifecycle of an asynchronous statement job.
+ */
+public enum StatementJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
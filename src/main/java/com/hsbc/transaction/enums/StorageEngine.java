@@ -0,0 +1,17 @@
+package com.hsbc.transaction.enums;
+
+/**
+ * In-memory storage engine behind the transaction repository.
+ */
+public enum StorageEngine {
+    /**
+     * Transaction objects in a hash map and an ordered index. Reads return the stored instances.
+     */
+    MAP,
+
+    /**
+     * Primitive columns, with transaction objects built on every read. Uses a fraction of the heap
+     * per transaction and keeps timestamps to microsecond precision.
+     */
+    COLUMNAR
+}
@@ -0,0 +1,23 @@
+package com.hsbc.transaction.enums;
+
+/**
+ * How writes to the write-ahead log are made durable before the caller is acknowledged.
+ */
+public enum WalMode {
+    /**
+     * Every record is written and forced by the calling thread before it returns.
+     */
+    SYNC,
+
+    /**
+     * Records from concurrent callers are written by one committer thread and share a single
+     * force; each caller returns once the force covering its record has completed.
+     */
+    GROUP,
+
+    /**
+     * Callers return as soon as the record is queued; the committer forces periodically.
+     * A crash can lose the most recent writes.
+     */
+    ASYNC
+}
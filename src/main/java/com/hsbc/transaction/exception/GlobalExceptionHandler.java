@@ -6,11 +6,14 @@ import jakarta.validation.Constraint;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -25,6 +28,11 @@ import java.util.Optional;
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    /**
+     * Seconds a client is asked to wait before retrying a rejected statement.
+     */
+    private static final int RETRY_AFTER_SECONDS = 5;
+
     /**
      * Handles TransactionNotFoundException.
      * Returns HTTP 404 (Not Found) with error message.
@@ -51,6 +59,142 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResp, HttpStatus.CONFLICT);
     }
 
+    /**
+     * Handles TransactionVersionConflictException.
+     * Returns HTTP 409 (Conflict) when an update was made against a version that is no longer current.
+     *
+     * @param ex the exception
+     * @return ResponseEntity with error details
+     */
+    @ExceptionHandler(TransactionVersionConflictException.class)
+    public ResponseEntity<ErrorResp> handleTransactionVersionConflictException(TransactionVersionConflictException ex) {
+        ErrorResp errorResp = new ErrorResp(ErrorCode.VERSION_CONFLICT, ex.getMessage());
+        return new ResponseEntity<>(errorResp, HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Handles InvalidCursorException.
+     * Returns HTTP 400 (Bad Request) when a pagination cursor cannot be decoded.
+     *
+     * @param ex the exception
+     * @return ResponseEntity with error details
+     */
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ErrorResp> handleInvalidCursorException(InvalidCursorException ex) {
+        ErrorResp errorResp = new ErrorResp(ErrorCode.INVALID_ARGUMENT, ex.getMessage());
+        return new ResponseEntity<>(errorResp, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Handles InvalidTimeRangeException.
+     * Returns HTTP 400 (Bad Request) when a time range ends before it starts.
+     *
+     * @param ex the exception
+     * @return ResponseEntity with error details
+     */
+    @ExceptionHandler(InvalidTimeRangeException.class)
+    public ResponseEntity<ErrorResp> handleInvalidTimeRangeException(InvalidTimeRangeException ex) {
+        ErrorResp errorResp = new ErrorResp(ErrorCode.INVALID_ARGUMENT, ex.getMessage());
+        return new ResponseEntity<>(errorResp, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Handles InvalidSearchQueryException.
+     * Returns HTTP 400 (Bad Request) when a search term is a prefix of too many words.
+     *
+     * @param ex the exception
+     * @return ResponseEntity with error details
+     */
+    @ExceptionHandler(InvalidSearchQueryException.class)
+    public ResponseEntity<ErrorResp> handleInvalidSearchQueryException(InvalidSearchQueryException ex) {
+        ErrorResp errorResp = new ErrorResp(ErrorCode.INVALID_ARGUMENT, ex.getMessage());
+        return new ResponseEntity<>(errorResp, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Handles StatementNotFoundException.
+     * Returns HTTP 404 (Not Found) when a statement job does not exist or expired.
+     *
+     * @param ex the exception
+     * @return ResponseEntity with error details
+     */
+    @ExceptionHandler(StatementNotFoundException.class)
+    public ResponseEntity<ErrorResp> handleStatementNotFoundException(StatementNotFoundException ex) {
+        ErrorResp errorResp = new ErrorResp(ErrorCode.STATEMENT_NOT_FOUND, ex.getMessage());
+        return new ResponseEntity<>(errorResp, HttpStatus.NOT_FOUND);
+    }
+
+    /**
+     * Handles StatementNotReadyException.
+     * Returns HTTP 409 (Conflict) when a statement is downloaded before its job completed.
+     *
+     * @param ex the exception
+     * @return ResponseEntity with error details
+     */
+    @ExceptionHandler(StatementNotReadyException.class)
+    public ResponseEntity<ErrorResp> handleStatementNotReadyException(StatementNotReadyException ex) {
+        ErrorResp errorResp = new ErrorResp(ErrorCode.STATEMENT_NOT_READY, ex.getMessage());
+        return new ResponseEntity<>(errorResp, HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Handles StatementQueueFullException.
+     * Returns HTTP 429 (Too Many Requests) with a Retry-After header when the statement queue is full.
+     *
+     * @param ex the exception
+     * @return ResponseEntity with error details
+     */
+    @ExceptionHandler(StatementQueueFullException.class)
+    public ResponseEntity<ErrorResp> handleStatementQueueFullException(StatementQueueFullException ex) {
+        ErrorResp errorResp = new ErrorResp(ErrorCode.TOO_MANY_REQUESTS, ex.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(RETRY_AFTER_SECONDS))
+                .body(errorResp);
+    }
+
+    /**
+     * Handles NodeUnavailableException.
+     * Returns HTTP 503 (Service Unavailable) when the cluster node owning a transaction did not answer.
+     *
+     * @param ex the exception
+     * @return ResponseEntity with error details
+     */
+    @ExceptionHandler(NodeUnavailableException.class)
+    public ResponseEntity<ErrorResp> handleNodeUnavailableException(NodeUnavailableException ex) {
+        log.warn(ex.getMessage(), ex.getCause());
+        ErrorResp errorResp = new ErrorResp(ErrorCode.NODE_UNAVAILABLE, ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(RETRY_AFTER_SECONDS))
+                .body(errorResp);
+    }
+
+    /**
+     * Handles request bodies that cannot be read, such as malformed JSON or an unknown currency.
+     * Returns HTTP 400 (Bad Request).
+     *
+     * @param ex the exception
+     * @return ResponseEntity with error details
+     */
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<ErrorResp> handleMessageNotReadableException(HttpMessageNotReadableException ex) {
+        ErrorResp errorResp = new ErrorResp(ErrorCode.INVALID_ARGUMENT, "Malformed request body");
+        return new ResponseEntity<>(errorResp, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Handles request parameters that cannot be converted to the expected type,
+     * such as a malformed date-time.
+     * Returns HTTP 400 (Bad Request) naming the parameter.
+     *
+     * @param ex the exception
+     * @return ResponseEntity with error details
+     */
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<ErrorResp> handleTypeMismatchException(MethodArgumentTypeMismatchException ex) {
+        ErrorResp errorResp = new ErrorResp(ErrorCode.INVALID_ARGUMENT, "Invalid value for parameter " + ex.getName());
+        return new ResponseEntity<>(errorResp, HttpStatus.BAD_REQUEST);
+    }
+
     /**
      * Handles validation errors.
      * Returns HTTP 400 (Bad Request) with validation error details.
@@ -70,12 +214,17 @@ public class GlobalExceptionHandler {
 
     /**
      * Handles ConstraintViolationException.
+     * Returns the message of the first violation, or of the exception if it carries none.
      * @param ex the exception containing constraint violations
      * @return ResponseEntity with field-level error details
      */
     @ExceptionHandler(ConstraintViolationException.class)
     public ResponseEntity<ErrorResp> handleConstraintViolationExceptions(ConstraintViolationException ex) {
-        String msg = ex.getConstraintViolations().stream().findFirst().map(ConstraintViolation::getMessage).orElse("Constraint violation");
+        String msg = ex.getConstraintViolations() == null ? null
+                : ex.getConstraintViolations().stream().findFirst().map(ConstraintViolation::getMessage).orElse(null);
+        if (msg == null) {
+            msg = ex.getMessage() != null ? ex.getMessage() : "Constraint violation";
+        }
         ErrorResp errorResp = new ErrorResp(ErrorCode.INVALID_ARGUMENT, msg);
         return new ResponseEntity<>(errorResp, HttpStatus.BAD_REQUEST);
     }
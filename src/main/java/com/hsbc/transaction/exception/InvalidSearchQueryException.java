@@ -0,0 +1,7 @@
+package com.hsbc.transaction.exception;
+
+public class InvalidSearchQueryException extends RuntimeException {
+    public InvalidSearchQueryException(String message) {
+        super(message);
+    }
+}
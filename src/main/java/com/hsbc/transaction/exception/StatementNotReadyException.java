@@ -0,0 +1,7 @@
+package com.hsbc.transaction.exception;
+
+public class StatementNotReadyException extends RuntimeException {
+    public StatementNotReadyException(String message) {
+        super(message);
+    }
+}
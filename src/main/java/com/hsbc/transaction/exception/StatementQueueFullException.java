@@ -0,0 +1,7 @@
+package com.hsbc.transaction.exception;
+
+public class StatementQueueFullException extends RuntimeException {
+    public StatementQueueFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.hsbc.transaction.exception;
+
+public class TransactionVersionConflictException extends RuntimeException {
+    public TransactionVersionConflictException(String message) {
+        super(message);
+    }
+}
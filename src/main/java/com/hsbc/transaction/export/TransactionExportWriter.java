@@ -0,0 +1,275 @@
+package com.hsbc.transaction.export;
+
+import com.hsbc.transaction.enums.ExportFormat;
+import com.hsbc.transaction.model.Money;
+import com.hsbc.transaction.model.Transaction;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes transactions to a stream as NDJSON or CSV, one at a time.
+ *
+ * Each transaction is encoded as UTF-8 straight into one buffer, which is handed to the stream
+ * whenever it fills and then reused, so memory use does not grow with the number of transactions
+ * written. The fields are those of {@link com.hsbc.transaction.dto.TransactionDTO}, so an NDJSON
+ * line reads back as one; CSV rows leave out the version. The writer never closes the stream.
+ */
+public class TransactionExportWriter implements Flushable {
+
+    /**
+     * Size of the write buffer, which is also the largest chunk handed to the stream.
+     */
+    public static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String CSV_HEADER = "id,description,amount,currency,type,timestamp\r\n";
+    private static final byte[] HEX_DIGITS = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'};
+    /**
+     * Longest UTF-8 encoding or JSON escape of one char, or of a surrogate pair.
+     */
+    private static final int MAX_CHAR_BYTES = 6;
+
+    private final OutputStream out;
+    private final ExportFormat format;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private final byte[] digits = new byte[20];
+    private int position;
+    private long count;
+
+    public TransactionExportWriter(OutputStream out, ExportFormat format) throws IOException {
+        this.out = out;
+        this.format = format;
+        if (format == ExportFormat.CSV) {
+            writeAscii(CSV_HEADER);
+        }
+    }
+
+    public void write(Transaction transaction) throws IOException {
+        if (format == ExportFormat.CSV) {
+            writeCsv(transaction);
+        } else {
+            writeJson(transaction);
+        }
+        count++;
+    }
+
+    /**
+     * Returns the number of transactions written.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Hands the buffered bytes to the stream and flushes it.
+     */
+    @Override
+    public void flush() throws IOException {
+        drain();
+        out.flush();
+    }
+
+    private void writeJson(Transaction transaction) throws IOException {
+        writeAscii("{\"id\":\"");
+        writeLong(transaction.getId());
+        writeAscii("\",\"description\":");
+        writeJsonString(transaction.getDescription());
+        writeAscii(",\"amount\":\"");
+        writeAmount(transaction.getMoney());
+        writeAscii("\",\"currency\":\"");
+        writeAscii(transaction.getMoney().getCurrency().getCurrencyCode());
+        writeAscii("\",\"type\":\"");
+        writeAscii(transaction.getType().getDisplayName());
+        writeAscii("\",\"timestamp\":\"");
+        writeAscii(transaction.getTimestamp().toString());
+        writeAscii("\",\"version\":");
+        writeLong(transaction.getVersion());
+        writeAscii("}\n");
+    }
+
+    private void writeCsv(Transaction transaction) throws IOException {
+        writeLong(transaction.getId());
+        writeByte(',');
+        writeCsvField(transaction.getDescription());
+        writeByte(',');
+        writeAmount(transaction.getMoney());
+        writeByte(',');
+        writeAscii(transaction.getMoney().getCurrency().getCurrencyCode());
+        writeByte(',');
+        writeAscii(transaction.getType().getDisplayName());
+        writeByte(',');
+        writeAscii(transaction.getTimestamp().toString());
+        writeAscii("\r\n");
+    }
+
+    private void writeJsonString(String value) throws IOException {
+        if (value == null) {
+            writeAscii("null");
+            return;
+        }
+        writeByte('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                writeByte('\\');
+                writeByte(c);
+            } else if (c == '\n') {
+                writeAscii("\\n");
+            } else if (c == '\r') {
+                writeAscii("\\r");
+            } else if (c == '\t') {
+                writeAscii("\\t");
+            } else if (c < 0x20) {
+                ensure(MAX_CHAR_BYTES);
+                buffer[position++] = '\\';
+                buffer[position++] = 'u';
+                buffer[position++] = '0';
+                buffer[position++] = '0';
+                buffer[position++] = HEX_DIGITS[c >> 4];
+                buffer[position++] = HEX_DIGITS[c & 0xF];
+            } else {
+                i = writeChar(value, i);
+            }
+        }
+        writeByte('"');
+    }
+
+    /**
+     * Writes the field as is, or quoted with inner quotes doubled if it holds a comma, quote or line break.
+     */
+    private void writeCsvField(String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quoted = false;
+        for (int i = 0; i < value.length() && !quoted; i++) {
+            char c = value.charAt(i);
+            quoted = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+        if (quoted) {
+            writeByte('"');
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) == '"') {
+                writeByte('"');
+            }
+            i = writeChar(value, i);
+        }
+        if (quoted) {
+            writeByte('"');
+        }
+    }
+
+    /**
+     * Encodes the char at {@code index} as UTF-8, together with the next one if they form a surrogate pair.
+     *
+     * @return the index of the last char written
+     */
+    private int writeChar(String value, int index) throws IOException {
+        ensure(MAX_CHAR_BYTES);
+        char c = value.charAt(index);
+        if (c < 0x80) {
+            buffer[position++] = (byte) c;
+        } else if (c < 0x800) {
+            buffer[position++] = (byte) (0xC0 | c >> 6);
+            buffer[position++] = (byte) (0x80 | c & 0x3F);
+        } else if (Character.isHighSurrogate(c) && index + 1 < value.length() && Character.isLowSurrogate(value.charAt(index + 1))) {
+            int codePoint = Character.toCodePoint(c, value.charAt(++index));
+            buffer[position++] = (byte) (0xF0 | codePoint >> 18);
+            buffer[position++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+            buffer[position++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+            buffer[position++] = (byte) (0x80 | codePoint & 0x3F);
+        } else if (Character.isSurrogate(c)) {
+            // An unpaired surrogate has no UTF-8 encoding
+            buffer[position++] = '?';
+        } else {
+            buffer[position++] = (byte) (0xE0 | c >> 12);
+            buffer[position++] = (byte) (0x80 | c >> 6 & 0x3F);
+            buffer[position++] = (byte) (0x80 | c & 0x3F);
+        }
+        return index;
+    }
+
+    /**
+     * Writes the amount as {@link Money#toPlainString()} does, without building the string.
+     */
+    private void writeAmount(Money money) throws IOException {
+        long minorUnits = money.minorUnits();
+        int scale = money.scale();
+        if (minorUnits < 0) {
+            writeByte('-');
+        }
+        int length = toDigits(minorUnits);
+        ensure(Math.max(length, scale + 1) + 1);
+        int integerDigits = length - scale;
+        if (integerDigits <= 0) {
+            buffer[position++] = '0';
+            buffer[position++] = '.';
+            for (int i = integerDigits; i < 0; i++) {
+                buffer[position++] = '0';
+            }
+            System.arraycopy(digits, digits.length - length, buffer, position, length);
+            position += length;
+            return;
+        }
+        System.arraycopy(digits, digits.length - length, buffer, position, integerDigits);
+        position += integerDigits;
+        if (scale > 0) {
+            buffer[position++] = '.';
+            System.arraycopy(digits, digits.length - scale, buffer, position, scale);
+            position += scale;
+        }
+    }
+
+    private void writeLong(long value) throws IOException {
+        if (value < 0) {
+            writeByte('-');
+        }
+        int length = toDigits(value);
+        ensure(length);
+        System.arraycopy(digits, digits.length - length, buffer, position, length);
+        position += length;
+    }
+
+    /**
+     * Fills the end of {@link #digits} with the decimal digits of the absolute value.
+     *
+     * @return the number of digits
+     */
+    private int toDigits(long value) {
+        int index = digits.length;
+        // Negative values are worked on as they are, since Long.MIN_VALUE has no positive counterpart
+        long remaining = value > 0 ? -value : value;
+        do {
+            digits[--index] = (byte) ('0' - remaining % 10);
+            remaining /= 10;
+        } while (remaining != 0);
+        return digits.length - index;
+    }
+
+    private void writeAscii(String value) throws IOException {
+        ensure(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            buffer[position++] = (byte) value.charAt(i);
+        }
+    }
+
+    private void writeByte(int value) throws IOException {
+        ensure(1);
+        buffer[position++] = (byte) value;
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (position + bytes > buffer.length) {
+            drain();
+        }
+    }
+
+    private void drain() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.hsbc.transaction.feed;
+
+import com.hsbc.transaction.enums.ChangeType;
+import com.hsbc.transaction.model.Transaction;
+import lombok.Getter;
+
+/**
+ * One change held by the {@link ChangeRingBuffer}.
+ */
+@Getter
+public final class ChangeEvent {
+
+    /**
+     * Position of the change in the feed, which is also the ID of its event.
+     */
+    private final long sequence;
+    private final ChangeType type;
+    /**
+     * The saved or deleted transaction, or null for {@link ChangeType#CLEARED}.
+     */
+    private final Transaction transaction;
+    /**
+     * The encoded event data, set by the first subscriber that sends it and shared by the others.
+     */
+    private volatile String data;
+
+    public ChangeEvent(long sequence, ChangeType type, Transaction transaction) {
+        this.sequence = sequence;
+        this.type = type;
+        this.transaction = transaction;
+    }
+
+    void setData(String data) {
+        this.data = data;
+    }
+}
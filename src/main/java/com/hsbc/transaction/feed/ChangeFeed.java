@@ -0,0 +1,259 @@
+package com.hsbc.transaction.feed;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hsbc.transaction.config.FeedProperties;
+import com.hsbc.transaction.dto.TransactionDTO;
+import com.hsbc.transaction.enums.ChangeType;
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.repository.TransactionChangeListener;
+import com.hsbc.transaction.repository.TransactionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Pushes every change of the repository to subscribers of {@code GET /api/transactions/stream} as
+ * server-sent events.
+ *
+ * Changes are appended to a {@link ChangeRingBuffer} on the writing thread, which then wakes the
+ * dispatcher thread if it is asleep; nothing else happens on the write path, however many subscribers
+ * there are. Each subscriber has a virtual thread that reads the ring from its own sequence and writes
+ * the events to its connection, sleeping when it has caught up until the dispatcher wakes it. The data
+ * of an event is encoded once and shared by all subscribers.
+ *
+ * A subscriber that falls a whole ring behind, because its client reads too slowly, is disconnected.
+ * Event IDs are sequences, so a client reconnecting with {@code Last-Event-ID} resumes after the last
+ * event it received; when that event is no longer in the ring it is sent a {@code reset} event and
+ * continues with live changes. Sequences start at the startup time in microseconds, so an ID from
+ * before a restart is always older than the ring and leads to a reset rather than to wrong events.
+ */
+@Component
+public class ChangeFeed implements TransactionChangeListener {
+    private static final Logger logger = LoggerFactory.getLogger(ChangeFeed.class);
+    static final String RESET_EVENT = "reset";
+    private static final String EMPTY_DATA = "{}";
+
+    private final ChangeRingBuffer ring;
+    private final ObjectMapper objectMapper;
+    private final long heartbeatNanos;
+    private final ThreadFactory senderFactory = Thread.ofVirtual().name("change-feed-", 1).factory();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Thread dispatcher;
+    /**
+     * Set by writers when the dispatcher has changes to announce.
+     */
+    private final AtomicBoolean signalled = new AtomicBoolean();
+    private volatile boolean running = true;
+
+    private final Counter dropped;
+
+    public ChangeFeed(FeedProperties properties, TransactionRepository transactionRepository,
+                      ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        long firstSequence = System.currentTimeMillis() * 1000;
+        this.ring = new ChangeRingBuffer(properties.getCapacity(), firstSequence);
+        this.objectMapper = objectMapper;
+        this.heartbeatNanos = properties.getHeartbeat().toNanos();
+        Gauge.builder("transaction.feed.subscribers", subscribers, Set::size)
+                .description("Clients connected to the change feed")
+                .register(meterRegistry);
+        FunctionCounter.builder("transaction.feed.events", ring, buffer -> buffer.nextSequence() - firstSequence)
+                .description("Changes published to the change feed")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("transaction.feed.dropped")
+                .description("Subscribers disconnected for falling a whole ring behind")
+                .register(meterRegistry);
+        this.dispatcher = Thread.ofPlatform().name("change-feed-dispatcher").daemon().start(this::dispatch);
+        transactionRepository.addListener(this, false);
+    }
+
+    /**
+     * Subscribes a client.
+     *
+     * @param lastEventId the ID of the last event the client received, or null to receive only later changes
+     * @return the emitter of the client's events
+     */
+    public SseEmitter subscribe(Long lastEventId) {
+        // Heartbeats detect dead clients, so the connection needs no timeout
+        return subscribe(new SseEmitter(0L), lastEventId);
+    }
+
+    /**
+     * Subscribes a client whose events are sent through the given emitter.
+     */
+    public SseEmitter subscribe(SseEmitter emitter, Long lastEventId) {
+        long next = ring.nextSequence();
+        boolean resumable = lastEventId != null && lastEventId >= ring.oldestSequence() - 1 && lastEventId < next;
+        Subscriber subscriber = new Subscriber(emitter, resumable ? lastEventId + 1 : next, lastEventId != null && !resumable);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        subscribers.add(subscriber);
+        subscriber.thread = senderFactory.newThread(subscriber);
+        subscriber.thread.start();
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @Override
+    public void onSaved(Transaction previous, Transaction current) {
+        publish(previous == null ? ChangeType.CREATED : ChangeType.UPDATED, current);
+    }
+
+    @Override
+    public void onDeleted(Transaction deleted) {
+        publish(ChangeType.DELETED, deleted);
+    }
+
+    @Override
+    public void onCleared() {
+        publish(ChangeType.CLEARED, null);
+    }
+
+    private void publish(ChangeType type, Transaction transaction) {
+        ring.publish(type, transaction);
+        if (!subscribers.isEmpty() && !signalled.get() && signalled.compareAndSet(false, true)) {
+            LockSupport.unpark(dispatcher);
+        }
+    }
+
+    /**
+     * Wakes the subscribers waiting for changes whenever a writer signals some.
+     */
+    private void dispatch() {
+        while (running) {
+            if (!signalled.get()) {
+                LockSupport.park(this);
+                continue;
+            }
+            signalled.set(false);
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.waiting) {
+                    LockSupport.unpark(subscriber.thread);
+                }
+            }
+        }
+    }
+
+    /**
+     * Disconnects every subscriber, whose clients reconnect to the next instance.
+     */
+    @PreDestroy
+    public void stop() {
+        running = false;
+        LockSupport.unpark(dispatcher);
+        for (Subscriber subscriber : subscribers) {
+            subscriber.close();
+            subscriber.emitter.complete();
+        }
+    }
+
+    private String dataOf(ChangeEvent event) {
+        String data = event.getData();
+        if (data == null) {
+            try {
+                data = event.getTransaction() == null ? EMPTY_DATA
+                        : objectMapper.writeValueAsString(TransactionDTO.fromEntity(event.getTransaction()));
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException(e);
+            }
+            // Subscribers racing here encode the same data, so either copy can be kept
+            event.setData(data);
+        }
+        return data;
+    }
+
+    private final class Subscriber implements Runnable {
+        private final SseEmitter emitter;
+        private final boolean reset;
+        /**
+         * The next sequence to send, only used by the sender thread.
+         */
+        private long cursor;
+        private volatile Thread thread;
+        private volatile boolean waiting;
+        private volatile boolean closed;
+
+        private Subscriber(SseEmitter emitter, long cursor, boolean reset) {
+            this.emitter = emitter;
+            this.cursor = cursor;
+            this.reset = reset;
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (reset) {
+                    // The ID lets the client resume from here if it reconnects
+                    emitter.send(SseEmitter.event().id(Long.toString(cursor - 1)).name(RESET_EVENT).data(EMPTY_DATA));
+                } else {
+                    // Sends the response headers, so the client knows it is subscribed
+                    emitter.send(SseEmitter.event().comment("subscribed"));
+                }
+                long lastSent = System.nanoTime();
+                while (!closed && running) {
+                    ChangeEvent event = ring.read(cursor);
+                    if (event != null) {
+                        emitter.send(SseEmitter.event()
+                                .id(Long.toString(event.getSequence()))
+                                .name(event.getType().getEventName())
+                                .data(dataOf(event)));
+                        cursor++;
+                        lastSent = System.nanoTime();
+                        continue;
+                    }
+                    // Announced before checking again, so a change published in between wakes us
+                    waiting = true;
+                    if (ring.read(cursor) == null && !closed) {
+                        LockSupport.parkNanos(this, heartbeatNanos - (System.nanoTime() - lastSent));
+                    }
+                    waiting = false;
+                    if (System.nanoTime() - lastSent >= heartbeatNanos) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                        lastSent = System.nanoTime();
+                    }
+                }
+            } catch (ChangeRingBuffer.LappedException e) {
+                dropped.increment();
+                logger.debug("Disconnecting change feed subscriber that fell behind: {}", e.getMessage());
+                close();
+                emitter.complete();
+            } catch (IOException | IllegalStateException e) {
+                // The client went away or the emitter was completed
+                logger.trace("Change feed subscriber closed: {}", e.getMessage());
+            } catch (RuntimeException e) {
+                logger.warn("Change feed subscriber failed", e);
+                close();
+                emitter.completeWithError(e);
+            } finally {
+                close();
+            }
+        }
+
+        private void close() {
+            closed = true;
+            subscribers.remove(this);
+            Thread sender = thread;
+            if (sender != null) {
+                LockSupport.unpark(sender);
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.hsbc.transaction.feed;
+
+import com.hsbc.transaction.enums.ChangeType;
+import com.hsbc.transaction.model.Transaction;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fixed-size ring of the most recent changes, written by the threads applying them and read by any
+ * number of subscribers, each at its own sequence.
+ *
+ * The slots are allocated up front and a change is published by claiming the next sequence and
+ * storing its event in the slot of that sequence, so writers neither wait for each other nor for
+ * readers, and the cost of a write does not depend on the number of readers. A reader compares the
+ * sequence of the event it finds with the one it expects: a lower one means the change is not
+ * published yet, a higher one that the reader fell a whole ring behind and the change is lost.
+ */
+public class ChangeRingBuffer {
+
+    private final AtomicReferenceArray<ChangeEvent> slots;
+    private final int mask;
+    private final long firstSequence;
+    /**
+     * The next sequence to claim.
+     */
+    private final AtomicLong next;
+
+    /**
+     * @param capacity the number of changes kept, rounded up to a power of two
+     * @param firstSequence the sequence of the first change
+     */
+    public ChangeRingBuffer(int capacity, long firstSequence) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30: " + capacity);
+        }
+        this.slots = new AtomicReferenceArray<>(capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1);
+        this.mask = slots.length() - 1;
+        this.firstSequence = firstSequence;
+        this.next = new AtomicLong(firstSequence);
+    }
+
+    /**
+     * Appends a change and returns its event.
+     */
+    public ChangeEvent publish(ChangeType type, Transaction transaction) {
+        ChangeEvent event = new ChangeEvent(next.getAndIncrement(), type, transaction);
+        int index = (int) event.getSequence() & mask;
+        ChangeEvent current = slots.get(index);
+        // A writer stalled for a whole ring must not overwrite the newer change in its slot
+        while (current == null || current.getSequence() < event.getSequence()) {
+            ChangeEvent witness = slots.compareAndExchange(index, current, event);
+            if (witness == current) {
+                break;
+            }
+            current = witness;
+        }
+        return event;
+    }
+
+    /**
+     * Returns the event of the sequence, or null if it is not published yet.
+     *
+     * @throws LappedException if the change was overwritten by a later one
+     */
+    public ChangeEvent read(long sequence) {
+        ChangeEvent event = slots.get((int) sequence & mask);
+        if (event == null || event.getSequence() < sequence) {
+            return null;
+        }
+        if (event.getSequence() > sequence) {
+            throw new LappedException(sequence);
+        }
+        return event;
+    }
+
+    /**
+     * Returns the sequence the next change will get.
+     */
+    public long nextSequence() {
+        return next.get();
+    }
+
+    /**
+     * Returns the oldest sequence that can still be read.
+     */
+    public long oldestSequence() {
+        return Math.max(firstSequence, next.get() - slots.length());
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+
+    /**
+     * Thrown when a reader asks for a change that was already overwritten.
+     */
+    public static class LappedException extends RuntimeException {
+
+        public LappedException(long sequence) {
+            super("Change " + sequence + " was overwritten", null, false, false);
+        }
+    }
+}
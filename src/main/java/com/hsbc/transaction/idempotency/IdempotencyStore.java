@@ -0,0 +1,169 @@
+package com.hsbc.transaction.idempotency;
+
+import com.hsbc.transaction.config.IdempotencyProperties;
+import com.hsbc.transaction.enums.TransactionType;
+import com.hsbc.transaction.exception.DuplicateTransactionException;
+import com.hsbc.transaction.model.Money;
+import com.hsbc.transaction.model.Transaction;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the transactions created for recent {@code Idempotency-Key}s, so that a retried create
+ * returns the transaction of the first attempt instead of creating another.
+ *
+ * The first request with a key runs the create; requests with the same key that arrive while it
+ * runs wait for its result rather than running their own, and later ones get it straight back. A
+ * key reused with a different request is rejected with {@link DuplicateTransactionException}. When
+ * the create fails the key is forgotten, so a retry runs it again.
+ *
+ * Keys are kept for {@code transaction.idempotency.expire-after-write} and at most
+ * {@code transaction.idempotency.maximum-size} of them; both limits are enforced in order of first
+ * use, which is also the order in which keys expire, when a new key is added.
+ */
+@Component
+public class IdempotencyStore {
+
+    /**
+     * The fields of a create request that must match for a retry to be recognised as such.
+     */
+    public record Request(Long id, String description, Money money, TransactionType type) {
+
+        public static Request of(Transaction transaction) {
+            return new Request(transaction.getId(), transaction.getDescription(), transaction.getMoney(), transaction.getType());
+        }
+    }
+
+    /**
+     * @param replayed whether the transaction was created by an earlier request with the same key
+     */
+    public record Outcome(Transaction transaction, boolean replayed) {
+    }
+
+    private static final class Entry {
+        private final String key;
+        private final Request request;
+        private final long createdNanos;
+        private final CompletableFuture<Transaction> result = new CompletableFuture<>();
+
+        private Entry(String key, Request request, long createdNanos) {
+            this.key = key;
+            this.request = request;
+            this.createdNanos = createdNanos;
+        }
+    }
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    /**
+     * Entries in order of first use; may still hold expired entries already replaced in the map,
+     * which are at its head. The entry of a failed create is taken out from the tail, which it is
+     * still close to.
+     */
+    private final Deque<Entry> order = new ConcurrentLinkedDeque<>();
+    private final long maximumSize;
+    private final long expireAfterWriteNanos;
+
+    private final Counter replays;
+    private final Counter conflicts;
+
+    public IdempotencyStore(IdempotencyProperties properties, MeterRegistry meterRegistry) {
+        this.maximumSize = properties.getMaximumSize();
+        this.expireAfterWriteNanos = properties.getExpireAfterWrite().toNanos();
+        Gauge.builder("transaction.idempotency.keys", entries, Map::size)
+                .description("Idempotency keys remembered")
+                .register(meterRegistry);
+        this.replays = Counter.builder("transaction.idempotency.replays")
+                .description("Creates answered with the transaction of an earlier request with the same key")
+                .register(meterRegistry);
+        this.conflicts = Counter.builder("transaction.idempotency.conflicts")
+                .description("Idempotency keys reused with a different request")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs the create unless a request with the key already did or is doing so.
+     *
+     * @param key the Idempotency-Key of the request
+     * @param request the request, compared with the first one sent with the key
+     * @param create creates the transaction
+     * @return the transaction created for the key
+     * @throws DuplicateTransactionException if the key was used with a different request
+     */
+    public Outcome execute(String key, Request request, Supplier<Transaction> create) {
+        long now = System.nanoTime();
+        Entry entry = new Entry(key, request, now);
+        Entry existing;
+        while ((existing = entries.putIfAbsent(key, entry)) != null) {
+            if (!isExpired(existing, now)) {
+                return replay(existing, request);
+            }
+            entries.remove(key, existing);
+        }
+        order.add(entry);
+        evict(now);
+
+        Transaction transaction;
+        try {
+            transaction = create.get();
+        } catch (RuntimeException | Error e) {
+            entries.remove(key, entry);
+            order.removeLastOccurrence(entry);
+            entry.result.completeExceptionally(e);
+            throw e;
+        }
+        entry.result.complete(transaction);
+        return new Outcome(transaction, false);
+    }
+
+    private Outcome replay(Entry existing, Request request) {
+        if (!existing.request.equals(request)) {
+            conflicts.increment();
+            throw new DuplicateTransactionException("Idempotency-Key " + existing.key + " was already used with a different request");
+        }
+        try {
+            Transaction transaction = existing.result.join();
+            replays.increment();
+            return new Outcome(transaction, true);
+        } catch (CompletionException e) {
+            // The first request failed; report the same failure
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void evict(long now) {
+        Entry head;
+        while ((head = order.peek()) != null && (isExpired(head, now) || entries.size() > maximumSize)) {
+            if (order.removeFirstOccurrence(head)) {
+                entries.remove(head.key, head);
+            }
+        }
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return now - entry.createdNanos >= expireAfterWriteNanos;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the number of entries waiting in the eviction order, including replaced ones.
+     */
+    int queuedKeys() {
+        return order.size();
+    }
+}
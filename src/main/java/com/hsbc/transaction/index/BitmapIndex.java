@@ -0,0 +1,478 @@
+package com.hsbc.transaction.index;
+
+import com.hsbc.transaction.enums.TransactionStatus;
+import com.hsbc.transaction.enums.TransactionType;
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.model.TransactionFilter;
+import com.hsbc.transaction.repository.TransactionChangeListener;
+import com.hsbc.transaction.repository.TransactionRepository;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bitmap indexes on transaction type, status and currency, so that a filtered listing only reads
+ * the transactions it returns.
+ *
+ * Each transaction ID is given a dense row number the first time it is stored. For each value of
+ * each attribute a {@link CompressedBitmap} holds the rows that have it. A filter ORs the bitmaps
+ * of the values it accepts for an attribute and ANDs the attributes; the page is then picked from
+ * the result by position, skipping whole chunks by their counts.
+ *
+ * Rows are split into segments of {@value #SEGMENT_SIZE}, one chunk of a bitmap, each with its own
+ * bitmaps and read-write lock. A change locks the segment of its row, so changes to rows of
+ * different segments run in parallel, and a query locks one segment at a time while it combines
+ * that segment's bitmaps. Giving out a row is the only step that excludes every other change.
+ *
+ * The rows of deleted transactions keep their ID, so a re-created ID returns to its row and a
+ * listing can continue after a deleted transaction. Once they make up more than half of the rows,
+ * the live rows are renumbered in order into fresh segments and the deleted ones are dropped.
+ *
+ * Filtered listings are ordered by row, which is the order IDs were first stored. For IDs generated
+ * by the service this is ID order, except between transactions saved concurrently, which is also
+ * how a listing continues after a transaction whose row was dropped. The transactions of a page are
+ * read from the repository after the segments are released, and any that no longer match are left out.
+ */
+@Component
+public class BitmapIndex implements TransactionChangeListener {
+    private static final int INITIAL_ROWS = 1024;
+    private static final int SEGMENT_SHIFT = 16;
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;
+
+    private final TransactionRepository repository;
+
+    /**
+     * Guards the numbering of rows. Changes and row lookups hold it shared, giving out a row,
+     * compacting and clearing hold it exclusively.
+     */
+    private final ReentrantReadWriteLock rowLock = new ReentrantReadWriteLock();
+    private volatile Segment[] segments;
+    private volatile int rows;
+    private LongIntMap rowOf;
+    /**
+     * Number of rows of deleted transactions.
+     */
+    private final AtomicInteger freeRows = new AtomicInteger();
+
+    public BitmapIndex(TransactionRepository repository) {
+        this.repository = repository;
+        reset();
+        repository.addListener(this);
+    }
+
+    @Override
+    public void onSaved(Transaction previous, Transaction current) {
+        int row = lockRow(current.getId());
+        try {
+            Segment segment = segments[row >>> SEGMENT_SHIFT];
+            segment.lock.writeLock().lock();
+            try {
+                if (segment.free.get(row & (SEGMENT_SIZE - 1))) {
+                    segment.free.clear(row & (SEGMENT_SIZE - 1));
+                    freeRows.decrementAndGet();
+                } else if (previous != null) {
+                    segment.update(previous, row, false);
+                }
+                segment.update(current, row, true);
+            } finally {
+                segment.lock.writeLock().unlock();
+            }
+        } finally {
+            rowLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void onDeleted(Transaction deleted) {
+        rowLock.readLock().lock();
+        try {
+            int row = rowOf.get(deleted.getId());
+            if (row >= 0) {
+                Segment segment = segments[row >>> SEGMENT_SHIFT];
+                segment.lock.writeLock().lock();
+                try {
+                    segment.update(deleted, row, false);
+                    if (!segment.free.get(row & (SEGMENT_SIZE - 1))) {
+                        segment.free.set(row & (SEGMENT_SIZE - 1));
+                        freeRows.incrementAndGet();
+                    }
+                } finally {
+                    segment.lock.writeLock().unlock();
+                }
+            }
+        } finally {
+            rowLock.readLock().unlock();
+        }
+        if (compactionDue()) {
+            compact();
+        }
+    }
+
+    @Override
+    public void onCleared() {
+        rowLock.writeLock().lock();
+        try {
+            reset();
+        } finally {
+            rowLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns a page of the transactions matching the filter, ordered by row, newest first unless
+     * the pageable requests ascending order on {@link TransactionRepository#ID_PROPERTY}.
+     *
+     * @param filter the filter, which must restrict at least one attribute
+     */
+    public Page<Transaction> findAll(TransactionFilter filter, Pageable pageable) {
+        requireRestriction(filter);
+        Sort.Order order = pageable.getSort().getOrderFor(TransactionRepository.ID_PROPERTY);
+        boolean ascending = order != null && order.isAscending();
+        Segment[] segments = this.segments;
+        long offset = pageable.getOffset();
+        long[] ids = new long[pageable.getPageSize()];
+        int count = 0;
+        long total = 0;
+        for (int i = 0; i < segments.length; i++) {
+            Segment segment = segments[ascending ? i : segments.length - 1 - i];
+            segment.lock.readLock().lock();
+            try {
+                CompressedBitmap matches = segment.resolve(filter);
+                long cardinality = matches.cardinality();
+                total += cardinality;
+                if (offset >= cardinality) {
+                    offset -= cardinality;
+                } else if (count < ids.length) {
+                    count = segment.idsOf(matches.page(offset, ids.length - count, ascending), ids, count);
+                    offset = 0;
+                }
+            } finally {
+                segment.lock.readLock().unlock();
+            }
+        }
+        return new PageImpl<>(load(ids, count, filter), pageable, total);
+    }
+
+    /**
+     * Returns up to {@code limit} transactions matching the filter that come strictly after
+     * {@code afterId} in row order.
+     *
+     * @param filter the filter, which must restrict at least one attribute
+     * @param afterId the ID of the last transaction already seen, or null to start from the beginning
+     */
+    public List<Transaction> findAfter(TransactionFilter filter, Long afterId, Sort.Direction direction, int limit) {
+        requireRestriction(filter);
+        boolean ascending = direction.isAscending();
+        Segment[] segments;
+        // Rows from which an ascending listing starts and before which a descending one starts
+        int from = 0;
+        int before = Integer.MAX_VALUE;
+        rowLock.readLock().lock();
+        try {
+            segments = this.segments;
+            if (afterId != null) {
+                int row = rowOf.get(afterId);
+                if (row >= 0) {
+                    from = row + 1;
+                    before = row;
+                } else {
+                    from = insertionRow(segments, rows, afterId);
+                    before = from;
+                }
+            }
+        } finally {
+            rowLock.readLock().unlock();
+        }
+
+        long[] ids = new long[limit];
+        int count = 0;
+        for (int i = 0; i < segments.length && count < limit; i++) {
+            int index = ascending ? i : segments.length - 1 - i;
+            int base = index << SEGMENT_SHIFT;
+            if (ascending ? from >= base + SEGMENT_SIZE : before <= base) {
+                continue;
+            }
+            Segment segment = segments[index];
+            segment.lock.readLock().lock();
+            try {
+                CompressedBitmap matches = segment.resolve(filter);
+                long skip;
+                if (ascending) {
+                    skip = from > base ? matches.rank(from - 1) : 0;
+                } else {
+                    skip = before < base + SEGMENT_SIZE ? matches.cardinality() - matches.rank(before - 1) : 0;
+                }
+                count = segment.idsOf(matches.page(skip, limit - count, ascending), ids, count);
+            } finally {
+                segment.lock.readLock().unlock();
+            }
+        }
+        return load(ids, count, filter);
+    }
+
+    /**
+     * Returns the number of rows, including those of deleted transactions not yet dropped.
+     */
+    int rowCount() {
+        return rows;
+    }
+
+    private static void requireRestriction(TransactionFilter filter) {
+        if (filter.isEmpty()) {
+            throw new IllegalArgumentException("The filter must restrict at least one attribute");
+        }
+    }
+
+    /**
+     * Returns the row of the ID, giving it a new row if it has none, with the row lock held shared.
+     */
+    private int lockRow(long id) {
+        rowLock.readLock().lock();
+        int row = rowOf.get(id);
+        if (row >= 0) {
+            return row;
+        }
+        rowLock.readLock().unlock();
+        rowLock.writeLock().lock();
+        try {
+            row = rowOf.get(id);
+            if (row < 0) {
+                row = rows;
+                if (row >>> SEGMENT_SHIFT == segments.length) {
+                    Segment[] grown = Arrays.copyOf(segments, segments.length + 1);
+                    grown[segments.length] = new Segment();
+                    segments = grown;
+                }
+                Segment segment = segments[row >>> SEGMENT_SHIFT];
+                segment.lock.writeLock().lock();
+                try {
+                    segment.setId(row, id);
+                } finally {
+                    segment.lock.writeLock().unlock();
+                }
+                rowOf.put(id, row);
+                rows = row + 1;
+            }
+            // Downgraded, so that the bitmaps are changed without holding off the other changes
+            rowLock.readLock().lock();
+        } finally {
+            rowLock.writeLock().unlock();
+        }
+        return row;
+    }
+
+    /**
+     * Returns the first row whose ID is greater than the given one, assuming rows are in ID order.
+     */
+    private static int insertionRow(Segment[] segments, int rows, long id) {
+        for (int index = 0; index < segments.length; index++) {
+            Segment segment = segments[index];
+            int base = index << SEGMENT_SHIFT;
+            int length = Math.min(SEGMENT_SIZE, rows - base);
+            segment.lock.readLock().lock();
+            try {
+                if (length > 0 && segment.ids[length - 1] > id) {
+                    int low = 0;
+                    int high = length - 1;
+                    while (low < high) {
+                        int middle = (low + high) >>> 1;
+                        if (segment.ids[middle] > id) {
+                            high = middle;
+                        } else {
+                            low = middle + 1;
+                        }
+                    }
+                    return base + low;
+                }
+            } finally {
+                segment.lock.readLock().unlock();
+            }
+        }
+        return rows;
+    }
+
+    private boolean compactionDue() {
+        return freeRows.get() > Math.max(INITIAL_ROWS, rows / 2);
+    }
+
+    /**
+     * Renumbers the rows of live transactions in order into fresh segments, dropping the rows of
+     * deleted ones. Queries already running finish on the old segments, which no longer change.
+     */
+    private void compact() {
+        rowLock.writeLock().lock();
+        try {
+            if (!compactionDue()) {
+                return;
+            }
+            Segment[] old = segments;
+            List<Segment> compacted = new ArrayList<>();
+            LongIntMap compactedRowOf = new LongIntMap();
+            int next = 0;
+            for (int index = 0; index < old.length; index++) {
+                Segment segment = old[index];
+                int base = index << SEGMENT_SHIFT;
+                int length = Math.min(SEGMENT_SIZE, rows - base);
+                for (int local = 0; local < length; local++) {
+                    if (segment.free.get(local)) {
+                        continue;
+                    }
+                    if (next >>> SEGMENT_SHIFT == compacted.size()) {
+                        compacted.add(new Segment());
+                    }
+                    long id = segment.ids[local];
+                    compacted.get(next >>> SEGMENT_SHIFT).copyRow(segment, base + local, next, id);
+                    compactedRowOf.put(id, next++);
+                }
+            }
+            if (compacted.isEmpty()) {
+                compacted.add(new Segment());
+            }
+            segments = compacted.toArray(Segment[]::new);
+            rowOf = compactedRowOf;
+            rows = next;
+            freeRows.set(0);
+        } finally {
+            rowLock.writeLock().unlock();
+        }
+    }
+
+    private List<Transaction> load(long[] ids, int count, TransactionFilter filter) {
+        List<Transaction> transactions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            repository.findById(ids[i]).filter(filter::matches).ifPresent(transactions::add);
+        }
+        return transactions;
+    }
+
+    private void reset() {
+        segments = new Segment[]{new Segment()};
+        rows = 0;
+        rowOf = new LongIntMap();
+        freeRows.set(0);
+    }
+
+    /**
+     * The bitmaps of {@value #SEGMENT_SIZE} consecutive rows and the IDs of those rows, guarded by its lock.
+     */
+    private static final class Segment {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final CompressedBitmap[] byType = new CompressedBitmap[TransactionType.values().length];
+        private final CompressedBitmap[] byStatus = new CompressedBitmap[TransactionStatus.values().length];
+        private final Map<Currency, CompressedBitmap> byCurrency = new HashMap<>();
+        private long[] ids = new long[INITIAL_ROWS];
+        /**
+         * Rows of deleted transactions, by their position in the segment.
+         */
+        private final BitSet free = new BitSet();
+
+        Segment() {
+            Arrays.setAll(byType, i -> new CompressedBitmap());
+            Arrays.setAll(byStatus, i -> new CompressedBitmap());
+        }
+
+        void setId(int row, long id) {
+            int local = row & (SEGMENT_SIZE - 1);
+            if (local >= ids.length) {
+                ids = Arrays.copyOf(ids, Math.min(SEGMENT_SIZE, ids.length * 2));
+            }
+            ids[local] = id;
+        }
+
+        /**
+         * Writes the IDs of the given rows to {@code out} from {@code count}, and returns the new count.
+         */
+        int idsOf(int[] rows, long[] out, int count) {
+            for (int row : rows) {
+                out[count++] = ids[row & (SEGMENT_SIZE - 1)];
+            }
+            return count;
+        }
+
+        void update(Transaction transaction, int row, boolean set) {
+            if (transaction.getType() != null) {
+                apply(byType[transaction.getType().ordinal()], row, set);
+            }
+            if (transaction.getStatus() != null) {
+                apply(byStatus[transaction.getStatus().ordinal()], row, set);
+            }
+            if (transaction.getMoney() != null) {
+                Currency currency = transaction.getMoney().getCurrency();
+                apply(set ? byCurrency.computeIfAbsent(currency, c -> new CompressedBitmap()) : byCurrency.get(currency), row, set);
+            }
+        }
+
+        /**
+         * Gives {@code row} of this segment the ID and attributes of {@code from} in another one.
+         */
+        void copyRow(Segment source, int from, int row, long id) {
+            setId(row, id);
+            for (int i = 0; i < byType.length; i++) {
+                if (source.byType[i].contains(from)) {
+                    byType[i].add(row);
+                }
+            }
+            for (int i = 0; i < byStatus.length; i++) {
+                if (source.byStatus[i].contains(from)) {
+                    byStatus[i].add(row);
+                }
+            }
+            source.byCurrency.forEach((currency, bitmap) -> {
+                if (bitmap.contains(from)) {
+                    byCurrency.computeIfAbsent(currency, c -> new CompressedBitmap()).add(row);
+                }
+            });
+        }
+
+        CompressedBitmap resolve(TransactionFilter filter) {
+            CompressedBitmap result = null;
+            if (!filter.getTypes().isEmpty()) {
+                result = intersect(result, union(filter.getTypes().stream().map(type -> byType[type.ordinal()]).toList()));
+            }
+            if (!filter.getStatuses().isEmpty()) {
+                result = intersect(result, union(filter.getStatuses().stream().map(status -> byStatus[status.ordinal()]).toList()));
+            }
+            if (!filter.getCurrencies().isEmpty()) {
+                result = intersect(result, union(filter.getCurrencies().stream()
+                        .map(currency -> byCurrency.getOrDefault(currency, new CompressedBitmap())).toList()));
+            }
+            return result;
+        }
+
+        private static CompressedBitmap union(Collection<CompressedBitmap> bitmaps) {
+            CompressedBitmap union = null;
+            for (CompressedBitmap bitmap : bitmaps) {
+                union = union == null ? bitmap : CompressedBitmap.or(union, bitmap);
+            }
+            return union;
+        }
+
+        private static CompressedBitmap intersect(CompressedBitmap result, CompressedBitmap bitmap) {
+            return result == null ? bitmap : CompressedBitmap.and(result, bitmap);
+        }
+
+        private static void apply(CompressedBitmap bitmap, int row, boolean set) {
+            if (bitmap == null) {
+                return;
+            }
+            if (set) {
+                bitmap.add(row);
+            } else {
+                bitmap.remove(row);
+            }
+        }
+    }
+}
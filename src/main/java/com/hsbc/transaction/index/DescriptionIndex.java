@@ -0,0 +1,519 @@
+package com.hsbc.transaction.index;
+
+import com.hsbc.transaction.exception.InvalidSearchQueryException;
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.repository.TransactionChangeListener;
+import com.hsbc.transaction.repository.TransactionRepository;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Inverted index over transaction descriptions, so that transactions can be searched by the words
+ * they contain without reading the others.
+ *
+ * Descriptions are split into terms on anything that is not a letter or digit, lower-cased, and
+ * stripped of accents, so "Café-Zürich" yields "cafe" and "zurich". Each term maps to a posting list:
+ * the sorted IDs of the transactions containing it. Terms are kept sorted, so the terms starting with
+ * a prefix are adjacent.
+ *
+ * A query matches transactions containing every one of its terms; a term ending in {@code *} matches
+ * any term starting with it. Lists are intersected from the shortest one, locating its IDs in the
+ * others by galloping search, and the intersection stops once a page is filled. A prefix term is never
+ * expanded into one list: when it is the shortest, the lists of its terms are merged as the page is
+ * read, and otherwise each candidate's description is checked for it. Changes and searches are
+ * serialized by a read-write lock, which a search only holds while it gathers a batch of candidates;
+ * descriptions are read and checked after it is released, so a query whose candidates mostly fail
+ * a prefix term walks many of them without holding off writes meanwhile.
+ */
+@Component
+public class DescriptionIndex implements TransactionChangeListener {
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final String PREFIX_MARKER = "*";
+
+    /**
+     * Largest number of indexed terms a prefix may match; each costs a search per page of results.
+     */
+    static final int MAX_PREFIX_TERMS = 10_000;
+
+    /**
+     * Smallest number of candidates gathered under the lock at a time, when some of them may fail
+     * the check of their description.
+     */
+    static final int CANDIDATE_BATCH = 256;
+
+    private final TransactionRepository repository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, PostingList> postings = new TreeMap<>();
+
+    public DescriptionIndex(TransactionRepository repository) {
+        this.repository = repository;
+        repository.addListener(this);
+    }
+
+    /**
+     * Splits text into its distinct normalized terms, in order of first appearance.
+     */
+    public static Set<String> tokenize(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (text == null) {
+            return terms;
+        }
+        if (!isAscii(text)) {
+            String normalized = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFKD)).replaceAll("");
+            for (String term : SEPARATORS.split(normalized.toLowerCase(Locale.ROOT))) {
+                if (!term.isEmpty()) {
+                    terms.add(term);
+                }
+            }
+            return terms;
+        }
+        // Most descriptions are ASCII and need neither normalization nor a regular expression
+        StringBuilder term = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')) {
+                term.append(c);
+            } else if (c >= 'A' && c <= 'Z') {
+                term.append((char) (c + ('a' - 'A')));
+            } else if (!term.isEmpty()) {
+                terms.add(term.toString());
+                term.setLength(0);
+            }
+        }
+        return terms;
+    }
+
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void onSaved(Transaction previous, Transaction current) {
+        Set<String> removed = previous == null ? Set.of() : tokenize(previous.getDescription());
+        Set<String> added = tokenize(current.getDescription());
+        if (removed.equals(added)) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (String term : removed) {
+                if (!added.contains(term)) {
+                    remove(term, previous.getId());
+                }
+            }
+            for (String term : added) {
+                if (!removed.contains(term)) {
+                    postings.computeIfAbsent(term, t -> new PostingList()).add(current.getId());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onDeleted(Transaction deleted) {
+        Set<String> terms = tokenize(deleted.getDescription());
+        lock.writeLock().lock();
+        try {
+            for (String term : terms) {
+                remove(term, deleted.getId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onCleared() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} transactions whose description contains every term of the query,
+     * ordered by ID and strictly after {@code afterId} in the given direction. A query without any
+     * terms matches nothing.
+     *
+     * @param query the terms to search for, separated by spaces; a term ending in {@code *} is a prefix
+     * @param afterId the ID of the last transaction already seen, or null to start from the beginning
+     * @throws InvalidSearchQueryException if a prefix matches more than {@value #MAX_PREFIX_TERMS} words
+     */
+    public List<Transaction> search(String query, Long afterId, Sort.Direction direction, int limit) {
+        List<Term> terms = parse(query);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        boolean checked = terms.size() > 1 && terms.stream().anyMatch(Term::prefix);
+        List<Transaction> transactions = new ArrayList<>(limit);
+        Long after = afterId;
+        while (transactions.size() < limit) {
+            int wanted = limit - transactions.size();
+            int batch = checked ? Math.max(wanted, CANDIDATE_BATCH) : wanted;
+            long[] ids = candidates(terms, after, direction.isAscending(), batch);
+            // Transactions are read after the lock is released; leave out any changed in the meantime,
+            // and candidates without a word starting with each prefix not driving the intersection
+            for (int i = 0; i < ids.length && transactions.size() < limit; i++) {
+                repository.findById(ids[i]).filter(transaction -> matches(terms, tokenize(transaction.getDescription())))
+                        .ifPresent(transactions::add);
+            }
+            if (ids.length < batch) {
+                break;
+            }
+            after = ids[ids.length - 1];
+        }
+        return transactions;
+    }
+
+    /**
+     * Returns up to {@code limit} IDs of transactions holding every exact term of the query and one of
+     * the words of its driving prefix, if it has one, strictly after {@code afterId}; fewer only
+     * once there are no more.
+     */
+    private long[] candidates(List<Term> terms, Long afterId, boolean ascending, int limit) {
+        lock.readLock().lock();
+        try {
+            List<SortedIds> lists = new ArrayList<>(terms.size());
+            Term shortestPrefix = null;
+            List<SortedIds> shortestPrefixLists = null;
+            long shortestPrefixSize = Long.MAX_VALUE;
+            for (Term term : terms) {
+                if (!term.prefix()) {
+                    lists.add(exactIds(term.text()));
+                    continue;
+                }
+                List<SortedIds> expanded = prefixIds(term.text());
+                long size = 0;
+                for (SortedIds list : expanded) {
+                    size += list.size();
+                }
+                if (size < shortestPrefixSize) {
+                    shortestPrefix = term;
+                    shortestPrefixLists = expanded;
+                    shortestPrefixSize = size;
+                }
+            }
+            if (shortestPrefixSize == 0 || lists.stream().anyMatch(list -> list.size() == 0)) {
+                return new long[0];
+            }
+            lists.sort(Comparator.comparingInt(SortedIds::size));
+
+            // The other prefix terms are checked against the description of each candidate by the caller
+            PrimitiveIterator.OfLong driver;
+            if (shortestPrefix != null && (lists.isEmpty() || shortestPrefixSize < lists.getFirst().size())) {
+                driver = new MergedIds(shortestPrefixLists, afterId, ascending);
+            } else {
+                driver = ids(lists.removeFirst(), afterId, ascending);
+            }
+            return intersect(driver, lists, ascending, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of distinct terms indexed.
+     */
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private record Term(String text, boolean prefix) {
+    }
+
+    /**
+     * The first {@code size} elements of {@code ids}, in ascending order.
+     */
+    record SortedIds(long[] ids, int size) {
+
+        static SortedIds of(long... ids) {
+            return new SortedIds(ids, ids.length);
+        }
+    }
+
+    private static List<Term> parse(String query) {
+        List<Term> terms = new ArrayList<>();
+        if (query == null) {
+            return terms;
+        }
+        for (String word : query.trim().split("\\s+")) {
+            boolean prefix = word.endsWith(PREFIX_MARKER);
+            List<String> tokens = new ArrayList<>(tokenize(word));
+            for (int i = 0; i < tokens.size(); i++) {
+                terms.add(new Term(tokens.get(i), prefix && i == tokens.size() - 1));
+            }
+        }
+        return terms;
+    }
+
+    private static boolean matches(List<Term> terms, Set<String> description) {
+        for (Term term : terms) {
+            boolean found = term.prefix()
+                    ? description.stream().anyMatch(word -> word.startsWith(term.text()))
+                    : description.contains(term.text());
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private SortedIds exactIds(String term) {
+        PostingList list = postings.get(term);
+        return list == null ? SortedIds.of() : new SortedIds(list.ids, list.size);
+    }
+
+    /**
+     * Returns the posting lists of every term starting with {@code prefix}, without copying them.
+     */
+    private List<SortedIds> prefixIds(String prefix) {
+        List<SortedIds> lists = new ArrayList<>();
+        for (PostingList list : postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            if (lists.size() == MAX_PREFIX_TERMS) {
+                throw new InvalidSearchQueryException("'" + prefix + PREFIX_MARKER + "' matches more than "
+                        + MAX_PREFIX_TERMS + " words; use a longer prefix");
+            }
+            lists.add(new SortedIds(list.ids, list.size));
+        }
+        return lists;
+    }
+
+    /**
+     * Returns up to {@code limit} IDs present in every list, strictly after {@code afterId} in the given
+     * direction. Walks the shortest list and gallops through the others, each from where it last stopped.
+     */
+    static long[] intersect(List<SortedIds> lists, Long afterId, boolean ascending, int limit) {
+        lists = new ArrayList<>(lists);
+        lists.sort(Comparator.comparingInt(SortedIds::size));
+        SortedIds driver = lists.removeFirst();
+        return intersect(ids(driver, afterId, ascending), lists, ascending, limit);
+    }
+
+    /**
+     * Returns up to {@code limit} IDs of {@code driver} present in every one of {@code others}, stopping
+     * as soon as the page is full.
+     */
+    private static long[] intersect(PrimitiveIterator.OfLong driver, List<SortedIds> others, boolean ascending,
+                                    int limit) {
+        int[] positions = new int[others.size()];
+        for (int j = 0; j < others.size(); j++) {
+            positions[j] = ascending ? 0 : others.get(j).size() - 1;
+        }
+
+        long[] result = new long[Math.min(limit, 64)];
+        int count = 0;
+        while (count < limit && driver.hasNext()) {
+            long id = driver.nextLong();
+            boolean inAll = true;
+            for (int j = 0; j < others.size() && inAll; j++) {
+                SortedIds list = others.get(j);
+                int position = ascending ? gallopForward(list, positions[j], id) : gallopBackward(list, positions[j], id);
+                positions[j] = position;
+                inAll = position >= 0 && position < list.size() && list.ids()[position] == id;
+            }
+            if (inAll) {
+                if (count == result.length) {
+                    result = Arrays.copyOf(result, Math.min(limit, count << 1));
+                }
+                result[count++] = id;
+            }
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Returns the IDs of {@code sorted} strictly after {@code afterId} in the given direction.
+     */
+    private static PrimitiveIterator.OfLong ids(SortedIds sorted, Long afterId, boolean ascending) {
+        int start = start(sorted, afterId, ascending);
+        return new PrimitiveIterator.OfLong() {
+            private int next = start;
+
+            @Override
+            public boolean hasNext() {
+                return next >= 0 && next < sorted.size();
+            }
+
+            @Override
+            public long nextLong() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                long id = sorted.ids()[next];
+                next += ascending ? 1 : -1;
+                return id;
+            }
+        };
+    }
+
+    /**
+     * Returns the position of the first ID strictly after {@code afterId} in the given direction.
+     */
+    private static int start(SortedIds sorted, Long afterId, boolean ascending) {
+        if (afterId == null) {
+            return ascending ? 0 : sorted.size() - 1;
+        }
+        int index = Arrays.binarySearch(sorted.ids(), 0, sorted.size(), afterId);
+        int insertion = index >= 0 ? index : -index - 1;
+        return ascending ? (index >= 0 ? index + 1 : insertion) : insertion - 1;
+    }
+
+    /**
+     * The distinct IDs of several sorted lists strictly after a cursor, merged as they are read, so that
+     * reading a page costs a search of each list and a heap operation per ID rather than their union.
+     */
+    private static final class MergedIds implements PrimitiveIterator.OfLong {
+        private final PriorityQueue<int[]> heads;
+        private final List<SortedIds> lists;
+        private final boolean ascending;
+
+        MergedIds(List<SortedIds> lists, Long afterId, boolean ascending) {
+            this.lists = lists;
+            this.ascending = ascending;
+            // Each head is the index of a list and its current position
+            Comparator<int[]> order = Comparator.comparingLong(head -> lists.get(head[0]).ids()[head[1]]);
+            this.heads = new PriorityQueue<>(Math.max(1, lists.size()), ascending ? order : order.reversed());
+            for (int i = 0; i < lists.size(); i++) {
+                int position = start(lists.get(i), afterId, ascending);
+                if (position >= 0 && position < lists.get(i).size()) {
+                    heads.add(new int[]{i, position});
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !heads.isEmpty();
+        }
+
+        @Override
+        public long nextLong() {
+            if (heads.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            long id = value(heads.peek());
+            // A transaction appears once per matching term it contains
+            while (!heads.isEmpty() && value(heads.peek()) == id) {
+                int[] head = heads.poll();
+                head[1] += ascending ? 1 : -1;
+                if (head[1] >= 0 && head[1] < lists.get(head[0]).size()) {
+                    heads.add(head);
+                }
+            }
+            return id;
+        }
+
+        private long value(int[] head) {
+            return lists.get(head[0]).ids()[head[1]];
+        }
+    }
+
+    /**
+     * Returns the first position at or after {@code from} whose value is at least {@code target}, or the length.
+     */
+    private static int gallopForward(SortedIds sorted, int from, long target) {
+        long[] list = sorted.ids();
+        int length = sorted.size();
+        if (from >= length || list[from] >= target) {
+            return from;
+        }
+        int step = 1;
+        int low = from;
+        while (low + step < length && list[low + step] < target) {
+            low += step;
+            step <<= 1;
+        }
+        int high = Math.min(length, low + step + 1);
+        int index = Arrays.binarySearch(list, low + 1, high, target);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    /**
+     * Returns the last position at or before {@code from} whose value is at most {@code target}, or -1.
+     */
+    private static int gallopBackward(SortedIds sorted, int from, long target) {
+        long[] list = sorted.ids();
+        if (from < 0 || list[from] <= target) {
+            return from;
+        }
+        int step = 1;
+        int high = from;
+        while (high - step >= 0 && list[high - step] > target) {
+            high -= step;
+            step <<= 1;
+        }
+        int low = Math.max(0, high - step);
+        int index = Arrays.binarySearch(list, low, high, target);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    private void remove(String term, long id) {
+        PostingList list = postings.get(term);
+        if (list != null && list.remove(id) && list.size == 0) {
+            postings.remove(term);
+        }
+    }
+
+    /**
+     * Sorted IDs of the transactions containing one term.
+     */
+    private static final class PostingList {
+        private long[] ids = new long[2];
+        private int size;
+
+        void add(long id) {
+            // Snowflake IDs only grow, so new IDs are normally appended
+            int index = size == 0 || ids[size - 1] < id ? -size - 1 : Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                return;
+            }
+            index = -index - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+            }
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            ids[index] = id;
+            size++;
+        }
+
+        boolean remove(long id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            size--;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.hsbc.transaction.index;
+
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.model.TransactionFilter;
+import com.hsbc.transaction.repository.TransactionChangeListener;
+import com.hsbc.transaction.repository.TransactionRepository;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Orders transactions by {@link Transaction#getTimestamp() timestamp}, so that the transactions
+ * of a time range are found in O(log n) and then read one by one.
+ *
+ * Entries are (timestamp, ID) pairs with the timestamp truncated to microseconds, kept in a
+ * {@link ConcurrentSkipListSet}; the transactions themselves are read from the repository as the
+ * range is walked. The index follows every repository change, so a transaction whose timestamp
+ * is reset by an update moves to its new position. Ranges are half-open: {@code from} is
+ * inclusive and {@code to} exclusive, and either may be null for an unbounded end.
+ */
+@Component
+public class TimestampIndex implements TransactionChangeListener {
+
+    /**
+     * Sort property used to request ordering by timestamp.
+     */
+    public static final String TIMESTAMP_PROPERTY = "timestamp";
+
+    /**
+     * A position in the index: a timestamp in microseconds since the epoch, as UTC, and an ID
+     * breaking ties between transactions with the same timestamp.
+     */
+    public record Key(long epochMicros, long id) implements Comparable<Key> {
+
+        public static Key of(Transaction transaction) {
+            return new Key(toEpochMicros(transaction.getTimestamp()), transaction.getId());
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            int byTime = Long.compare(epochMicros, other.epochMicros);
+            return byTime != 0 ? byTime : Long.compare(id, other.id);
+        }
+    }
+
+    private final TransactionRepository repository;
+    private final ConcurrentSkipListSet<Key> keys = new ConcurrentSkipListSet<>();
+
+    public TimestampIndex(TransactionRepository repository) {
+        this.repository = repository;
+        repository.addListener(this);
+    }
+
+    public static long toEpochMicros(LocalDateTime timestamp) {
+        return Math.addExact(Math.multiplyExact(timestamp.toEpochSecond(ZoneOffset.UTC), 1_000_000L),
+                timestamp.getNano() / 1_000);
+    }
+
+    @Override
+    public void onSaved(Transaction previous, Transaction current) {
+        if (previous != null && previous.getTimestamp() != null) {
+            keys.remove(Key.of(previous));
+        }
+        if (current.getTimestamp() != null) {
+            keys.add(Key.of(current));
+        }
+    }
+
+    @Override
+    public void onDeleted(Transaction deleted) {
+        if (deleted.getTimestamp() != null) {
+            keys.remove(Key.of(deleted));
+        }
+    }
+
+    @Override
+    public void onCleared() {
+        keys.clear();
+    }
+
+    /**
+     * The skip list keeps keys ordered however they are added.
+     */
+    @Override
+    public boolean acceptsParallelReplay() {
+        return true;
+    }
+
+    /**
+     * Returns a weakly consistent iterator over the transactions with a timestamp in
+     * [{@code from}, {@code to}), ordered by timestamp and then ID.
+     *
+     * @param after the key of the last transaction already returned, or null to start at the beginning of the range
+     */
+    public Iterator<Transaction> iterator(LocalDateTime from, LocalDateTime to, boolean ascending, Key after) {
+        return iterator(from, to, TransactionFilter.NONE, ascending, after);
+    }
+
+    /**
+     * Returns a weakly consistent iterator over the transactions with a timestamp in
+     * [{@code from}, {@code to}) that match the filter, ordered by timestamp and then ID.
+     *
+     * @param after the key of the last transaction already returned, or null to start at the beginning of the range
+     */
+    public Iterator<Transaction> iterator(LocalDateTime from, LocalDateTime to, TransactionFilter filter,
+                                          boolean ascending, Key after) {
+        Key lower = from == null ? null : new Key(toEpochMicros(from), Long.MIN_VALUE);
+        Key upper = to == null ? null : new Key(toEpochMicros(to), Long.MIN_VALUE);
+        boolean lowerInclusive = true;
+        if (after != null && ascending && (lower == null || after.compareTo(lower) >= 0)) {
+            lower = after;
+            lowerInclusive = false;
+        } else if (after != null && !ascending && (upper == null || after.compareTo(upper) < 0)) {
+            upper = after;
+        }
+        NavigableSet<Key> range = range(lower, lowerInclusive, upper);
+        Iterator<Key> keyIterator = ascending ? range.iterator() : range.descendingIterator();
+        return new Iterator<>() {
+            private Transaction next;
+
+            @Override
+            public boolean hasNext() {
+                while (next == null && keyIterator.hasNext()) {
+                    Key key = keyIterator.next();
+                    Transaction transaction = repository.findById(key.id()).orElse(null);
+                    // Skip entries whose transaction was deleted or moved by an update in the meantime
+                    if (transaction != null && transaction.getTimestamp() != null
+                            && toEpochMicros(transaction.getTimestamp()) == key.epochMicros()
+                            && filter.matches(transaction)) {
+                        next = transaction;
+                    }
+                }
+                return next != null;
+            }
+
+            @Override
+            public Transaction next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Transaction transaction = next;
+                next = null;
+                return transaction;
+            }
+        };
+    }
+
+    /**
+     * Counts the transactions with a timestamp in [{@code from}, {@code to}).
+     * Takes time proportional to the size of the range.
+     */
+    public int count(LocalDateTime from, LocalDateTime to) {
+        return range(from == null ? null : new Key(toEpochMicros(from), Long.MIN_VALUE), true,
+                to == null ? null : new Key(toEpochMicros(to), Long.MIN_VALUE)).size();
+    }
+
+    /**
+     * Counts the transactions with a timestamp in [{@code from}, {@code to}) that match the filter.
+     * Takes time proportional to the size of the range, and reads every transaction in it unless the filter is empty.
+     */
+    public int count(LocalDateTime from, LocalDateTime to, TransactionFilter filter) {
+        if (filter.isEmpty()) {
+            return count(from, to);
+        }
+        int count = 0;
+        for (Iterator<Transaction> iterator = iterator(from, to, filter, true, null); iterator.hasNext(); iterator.next()) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the view of the keys from {@code lower} up to the exclusive {@code upper}, either of which may be null.
+     */
+    private NavigableSet<Key> range(Key lower, boolean lowerInclusive, Key upper) {
+        if (lower != null && upper != null) {
+            return lower.compareTo(upper) < 0
+                    ? keys.subSet(lower, lowerInclusive, upper, false)
+                    : Collections.emptyNavigableSet();
+        }
+        if (lower != null) {
+            return keys.tailSet(lower, lowerInclusive);
+        }
+        return upper != null ? keys.headSet(upper, false) : keys;
+    }
+}
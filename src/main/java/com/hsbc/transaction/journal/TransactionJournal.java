@@ -0,0 +1,256 @@
+package com.hsbc.transaction.journal;
+
+import com.alibaba.fastjson2.JSON;
+import com.hsbc.transaction.config.JournalProperties;
+import com.hsbc.transaction.enums.FsyncPolicy;
+import com.hsbc.transaction.model.Transaction;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Append-only journal of transactions in newline-delimited JSON.
+ *
+ * Request threads only serialize the record and hand it to a bounded queue; a single background
+ * writer drains the queue in batches, appends each batch with one {@link FileChannel#write} and
+ * forces the file according to the configured {@link FsyncPolicy}. Records are serialized on the
+ * calling thread so the journal captures the transaction as it was when it was appended.
+ *
+ * When the queue stays full, records are dropped after the offer timeout, or with
+ * {@link JournalProperties#isBlockWhenFull()} request threads wait for the writer instead. Dropped
+ * records and records the writer failed to append are counted apart from written ones.
+ */
+@Component
+public class TransactionJournal {
+    private static final Logger logger = LoggerFactory.getLogger(TransactionJournal.class);
+    private static final byte NEWLINE = '\n';
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final JournalProperties properties;
+    private final BlockingQueue<byte[]> queue;
+    private final AtomicLong enqueued = new AtomicLong();
+    private volatile long written;
+    private volatile long failed;
+    private volatile boolean running;
+
+    private final Timer flushTimer;
+    private final Counter writtenCounter;
+    private final Counter droppedCounter;
+    private final Counter failedCounter;
+
+    private FileChannel channel;
+    private Thread writer;
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+    private long lastForceNanos = System.nanoTime();
+    private boolean dirty;
+
+    public TransactionJournal(JournalProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        Gauge.builder("transaction.journal.queue.depth", queue, BlockingQueue::size)
+                .description("Journal records waiting to be written")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("transaction.journal.flush")
+                .description("Time to append and, depending on the fsync policy, force one batch")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.writtenCounter = Counter.builder("transaction.journal.records.written").register(meterRegistry);
+        this.droppedCounter = Counter.builder("transaction.journal.records.dropped")
+                .description("Records dropped because the queue stayed full")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("transaction.journal.records.failed")
+                .description("Records lost because appending their batch to the file failed")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!properties.isEnabled()) {
+            logger.info("Transaction journal is disabled");
+            return;
+        }
+        Path path = Path.of(properties.getPath());
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        channel = openChannel(path);
+        running = true;
+        writer = new Thread(this::writeLoop, "transaction-journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+        logger.info("Transaction journal appending to {} with fsync policy {}", path.toAbsolutePath(), properties.getFsyncPolicy());
+    }
+
+    /**
+     * Queues a transaction for appending. Blocks for at most the configured offer timeout
+     * when the queue is full, after which the record is dropped and counted, or until there is
+     * space if the journal is configured to block when full.
+     *
+     * @param transaction the transaction to journal
+     * @return true if the record was queued
+     */
+    public boolean append(Transaction transaction) {
+        if (!running) {
+            return false;
+        }
+        byte[] record = JSON.toJSONBytes(transaction);
+        try {
+            if (properties.isBlockWhenFull()) {
+                queue.put(record);
+                enqueued.incrementAndGet();
+                return true;
+            }
+            if (queue.offer(record, properties.getOfferTimeout().toNanos(), TimeUnit.NANOSECONDS)) {
+                enqueued.incrementAndGet();
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        droppedCounter.increment();
+        logger.warn("Journal queue full, dropped record for transaction ID: {}", transaction.getId());
+        return false;
+    }
+
+    /**
+     * Waits until every record queued before this call has been written.
+     *
+     * @param timeout the maximum time to wait
+     * @throws TimeoutException if the records were not written in time
+     * @throws IOException if appending some of the records failed while waiting
+     */
+    public void flush(Duration timeout) throws TimeoutException, IOException {
+        long target = enqueued.get();
+        long failedBefore = failed;
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (written + failed < target) {
+            if (System.nanoTime() - deadline > 0) {
+                throw new TimeoutException("Journal did not flush within " + timeout);
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        if (failed > failedBefore) {
+            throw new IOException((failed - failedBefore) + " journal records could not be appended");
+        }
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        channel.force(false);
+        channel.close();
+    }
+
+    private void writeLoop() {
+        List<byte[]> batch = new ArrayList<>(properties.getBatchSize());
+        while (running || !queue.isEmpty()) {
+            try {
+                byte[] first = queue.poll(pollMillis(), TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, properties.getBatchSize() - 1);
+                    writeBatch(batch);
+                    batch.clear();
+                } else if (dirty && properties.getFsyncPolicy() == FsyncPolicy.INTERVAL) {
+                    forceIfDue();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (IOException | UncheckedIOException e) {
+                logger.error("Error appending {} records to the journal", batch.size(), e);
+                failedCounter.increment(batch.size());
+                failed += batch.size();
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Opens the journal file for appending.
+     */
+    FileChannel openChannel(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private void writeBatch(List<byte[]> batch) throws IOException {
+        long start = System.nanoTime();
+        buffer.clear();
+        for (byte[] record : batch) {
+            ensureCapacity(record.length + 1);
+            buffer.put(record).put(NEWLINE);
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        dirty = true;
+        if (properties.getFsyncPolicy() == FsyncPolicy.BATCH) {
+            force();
+        } else if (properties.getFsyncPolicy() == FsyncPolicy.INTERVAL) {
+            forceIfDue();
+        }
+        flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        writtenCounter.increment(batch.size());
+        written += batch.size();
+    }
+
+    private void ensureCapacity(int needed) {
+        if (buffer.remaining() < needed) {
+            ByteBuffer larger = ByteBuffer.allocateDirect(Math.max(buffer.capacity() * 2, buffer.position() + needed));
+            buffer.flip();
+            larger.put(buffer);
+            buffer = larger;
+        }
+    }
+
+    private void forceIfDue() throws IOException {
+        if (System.nanoTime() - lastForceNanos >= properties.getFsyncInterval().toNanos()) {
+            force();
+        }
+    }
+
+    private void force() throws IOException {
+        channel.force(false);
+        lastForceNanos = System.nanoTime();
+        dirty = false;
+    }
+
+    private long pollMillis() {
+        if (properties.getFsyncPolicy() == FsyncPolicy.INTERVAL) {
+            return Math.max(1, Math.min(IDLE_POLL_MILLIS, properties.getFsyncInterval().toMillis()));
+        }
+        return IDLE_POLL_MILLIS;
+    }
+}
@@ -0,0 +1,42 @@
+package com.hsbc.transaction.model;
+
+import com.hsbc.transaction.enums.ErrorCode;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.function.Function;
+
+/**
+ * Outcome of one item of a batch request. Exactly one of {@code item} and {@code error} is set.
+ *
+ * @param <T> the element type
+ */
+@Data
+@AllArgsConstructor
+public class BatchItemResult<T> {
+
+    /**
+     * Position of the item in the submitted batch.
+     */
+    private int index;
+
+    private T item;
+
+    private ErrorResp error;
+
+    public static <T> BatchItemResult<T> success(int index, T item) {
+        return new BatchItemResult<>(index, item, null);
+    }
+
+    public static <T> BatchItemResult<T> failure(int index, ErrorCode errorCode, String message) {
+        return new BatchItemResult<>(index, null, new ErrorResp(errorCode, message));
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    public <R> BatchItemResult<R> map(Function<? super T, ? extends R> converter) {
+        return new BatchItemResult<>(index, item == null ? null : converter.apply(item), error);
+    }
+}
@@ -0,0 +1,31 @@
+package com.hsbc.transaction.model;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Per-item outcome of a batch request, in submission order, with success and failure counts.
+ *
+ * @param <T> the element type
+ */
+@Data
+public class BatchResult<T> {
+
+    private final int succeeded;
+
+    private final int failed;
+
+    private final List<BatchItemResult<T>> results;
+
+    public BatchResult(List<BatchItemResult<T>> results) {
+        this.results = results;
+        this.succeeded = (int) results.stream().filter(BatchItemResult::isSuccess).count();
+        this.failed = results.size() - succeeded;
+    }
+
+    public <R> BatchResult<R> map(Function<? super T, ? extends R> converter) {
+        return new BatchResult<>(results.stream().<BatchItemResult<R>>map(result -> result.map(converter)).toList());
+    }
+}
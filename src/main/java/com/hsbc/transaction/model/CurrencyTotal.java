@@ -0,0 +1,20 @@
+package com.hsbc.transaction.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Number and sum of transactions in one currency.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CurrencyTotal {
+    private String currency;
+    private long count;
+    /**
+     * Sum of the amounts in plain decimal notation, e.g. {@code "1234.50"}.
+     */
+    private String total;
+}
@@ -0,0 +1,32 @@
+package com.hsbc.transaction.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset (cursor) listing.
+ * Unlike {@link org.springframework.data.domain.Page} it carries no total count; the opaque
+ * {@code nextCursor} is passed back as {@code after} to fetch the following page and is
+ * null once the listing is exhausted.
+ *
+ * @param <T> the element type
+ */
+@Data
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    private List<T> content;
+
+    private String nextCursor;
+
+    public boolean isHasNext() {
+        return nextCursor != null;
+    }
+
+    public <R> CursorPage<R> map(Function<? super T, ? extends R> converter) {
+        return new CursorPage<>(content.stream().<R>map(converter).toList(), nextCursor);
+    }
+}
@@ -1,39 +1,213 @@
 package com.hsbc.transaction.model;
 
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.Currency;
-import java.util.Objects;
 
 /**
  * Money value object representing an amount in a specific currency.
+ *
+ * The amount is held as a {@code long} count of the currency's minor units, with as many decimal
+ * places as {@link Currency#getDefaultFractionDigits()} gives (two for currencies without minor units
+ * defined). Comparing, adding and subtracting work on primitives and throw {@link ArithmeticException}
+ * on overflow instead of losing precision; {@link #getAmount()} builds a {@link BigDecimal} only when asked.
+ * {@link #add} and {@link #subtract} return a new instance; sums over many transactions, such as
+ * the aggregates and statements, add {@link #minorUnits()} directly instead.
  */
-@Data
-@NoArgsConstructor
-public class Money {
-    private BigDecimal amount;
-    private Currency currency;
-
-    public Money(BigDecimal amount, Currency currency) {
-        this.amount = amount.setScale(2, RoundingMode.HALF_UP);
+public final class Money implements Comparable<Money> {
+    private static final int DEFAULT_SCALE = 2;
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L
+    };
+
+    private final long minorUnits;
+    private final Currency currency;
+
+    private Money(long minorUnits, Currency currency) {
+        this.minorUnits = minorUnits;
         this.currency = currency;
     }
 
-    public static Money of(BigDecimal amount, Currency currency) {
+    /**
+     * Creates money from a count of the currency's minor units, e.g. cents for USD.
+     */
+    public static Money ofMinor(long minorUnits, Currency currency) {
+        return new Money(minorUnits, requireCurrency(currency));
+    }
+
+    /**
+     * Creates money from an amount, rounded half up to the currency's decimal places.
+     */
+    @JsonCreator
+    public static Money of(@JsonProperty("amount") BigDecimal amount, @JsonProperty("currency") Currency currency) {
+        if (amount == null) {
+            throw new IllegalArgumentException("Amount cannot be null");
+        }
+        requireCurrency(currency);
+        try {
+            return new Money(amount.setScale(scaleOf(currency), RoundingMode.HALF_UP).unscaledValue().longValueExact(),
+                    currency);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount " + amount + " is out of range", e);
+        }
+    }
+
+    /**
+     * Creates money from an unscaled amount and its scale, as stored by the binary formats.
+     * No {@link BigDecimal} is built when the scale is the currency's own.
+     */
+    public static Money of(long unscaledAmount, int scale, Currency currency) {
+        if (scale == scaleOf(requireCurrency(currency))) {
+            return new Money(unscaledAmount, currency);
+        }
+        return of(BigDecimal.valueOf(unscaledAmount, scale), currency);
+    }
+
+    /**
+     * Parses a plain decimal amount such as {@code "-1234.50"} without rounding.
+     *
+     * @throws IllegalArgumentException if the amount is malformed, out of range, or has non-zero
+     *                                  digits beyond the currency's decimal places
+     */
+    public static Money parse(String amount, Currency currency) {
         if (amount == null) {
             throw new IllegalArgumentException("Amount cannot be null");
         }
-        return new Money(amount, currency);
+        int scale = scaleOf(requireCurrency(currency));
+        int length = amount.length();
+        int index = 0;
+        boolean negative = false;
+        if (length > 0 && (amount.charAt(0) == '-' || amount.charAt(0) == '+')) {
+            negative = amount.charAt(0) == '-';
+            index++;
+        }
+        long units = 0;
+        int fractionDigits = -1;
+        boolean digits = false;
+        try {
+            for (; index < length; index++) {
+                char c = amount.charAt(index);
+                if (c == '.' && fractionDigits < 0) {
+                    fractionDigits = 0;
+                } else if (c >= '0' && c <= '9') {
+                    digits = true;
+                    if (fractionDigits >= 0 && ++fractionDigits > scale) {
+                        if (c != '0') {
+                            throw new IllegalArgumentException("Amount " + amount + " has more than " + scale
+                                    + " decimal places for " + currency.getCurrencyCode());
+                        }
+                        continue;
+                    }
+                    // Accumulate negatively so that Long.MIN_VALUE stays representable
+                    units = Math.subtractExact(Math.multiplyExact(units, 10), c - '0');
+                } else {
+                    // Exponents and other forms are left to BigDecimal
+                    return exact(new BigDecimal(amount), currency);
+                }
+            }
+            if (!digits) {
+                throw new IllegalArgumentException("Invalid amount: " + amount);
+            }
+            units = Math.multiplyExact(units, POWERS_OF_TEN[scale - Math.min(Math.max(fractionDigits, 0), scale)]);
+            return new Money(negative ? units : Math.negateExact(units), currency);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount " + amount + " is out of range", e);
+        }
+    }
+
+    private static Money exact(BigDecimal amount, Currency currency) {
+        try {
+            return new Money(amount.setScale(scaleOf(currency), RoundingMode.UNNECESSARY).unscaledValue().longValueExact(),
+                    currency);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount " + amount + " cannot be held exactly in "
+                    + currency.getCurrencyCode(), e);
+        }
+    }
+
+    /**
+     * Number of decimal places money in the currency is held with.
+     */
+    public static int scaleOf(Currency currency) {
+        int digits = currency.getDefaultFractionDigits();
+        return digits < 0 ? DEFAULT_SCALE : digits;
+    }
+
+    private static Currency requireCurrency(Currency currency) {
+        if (currency == null) {
+            throw new IllegalArgumentException("Currency cannot be null");
+        }
+        return currency;
+    }
+
+    public BigDecimal getAmount() {
+        return BigDecimal.valueOf(minorUnits, scale());
+    }
+
+    public Currency getCurrency() {
+        return currency;
+    }
+
+    /**
+     * The amount as a count of the currency's minor units.
+     */
+    public long minorUnits() {
+        return minorUnits;
+    }
+
+    public int scale() {
+        return scaleOf(currency);
+    }
+
+    public int signum() {
+        return Long.signum(minorUnits);
     }
 
     public Money add(Money other) {
-        if (!this.currency.equals(other.currency)) {
-            throw new IllegalArgumentException("Cannot add money with different currencies");
+        checkSameCurrency(other);
+        return new Money(Math.addExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public Money subtract(Money other) {
+        checkSameCurrency(other);
+        return new Money(Math.subtractExact(minorUnits, other.minorUnits), currency);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        checkSameCurrency(other);
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    private void checkSameCurrency(Money other) {
+        if (!currency.equals(other.currency)) {
+            throw new IllegalArgumentException("Cannot combine money with different currencies");
+        }
+    }
+
+    /**
+     * Returns the amount in plain decimal notation with the currency's decimal places, e.g. {@code "1234.50"}.
+     */
+    public String toPlainString() {
+        String digits = Long.toString(minorUnits);
+        int scale = scale();
+        if (scale == 0) {
+            return digits;
+        }
+        int start = minorUnits < 0 ? 1 : 0;
+        StringBuilder builder = new StringBuilder(digits.length() + scale + 2).append(digits, 0, start);
+        int integerDigits = digits.length() - start - scale;
+        if (integerDigits <= 0) {
+            builder.append('0').append('.');
+            builder.repeat('0', -integerDigits);
+            builder.append(digits, start, digits.length());
+        } else {
+            builder.append(digits, start, start + integerDigits).append('.').append(digits, start + integerDigits, digits.length());
         }
-        return new Money(this.amount.add(other.amount), this.currency);
+        return builder.toString();
     }
 
     @Override
@@ -41,16 +215,16 @@ public class Money {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Money money = (Money) o;
-        return amount.compareTo(money.amount) == 0 && currency.equals(money.currency);
+        return minorUnits == money.minorUnits && currency.equals(money.currency);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(amount, currency);
+        return 31 * Long.hashCode(minorUnits) + currency.hashCode();
     }
 
     @Override
     public String toString() {
-        return amount.toString() + " " + currency.getCurrencyCode();
+        return toPlainString() + " " + currency.getCurrencyCode();
     }
-} 
\ No newline at end of file
+}
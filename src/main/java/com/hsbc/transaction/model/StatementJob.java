@@ -0,0 +1,51 @@
+package com.hsbc.transaction.model;
+
+import com.hsbc.transaction.enums.StatementJobStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * State of an asynchronous statement job, as returned when it is submitted and polled.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StatementJob {
+
+    private String id;
+
+    private StatementJobStatus status;
+
+    private LocalDateTime from;
+
+    private LocalDateTime to;
+
+    private LocalDateTime submittedAt;
+
+    private LocalDateTime completedAt;
+
+    /**
+     * Number of transactions listed, once completed.
+     */
+    private Long transactions;
+
+    /**
+     * Number of pages, once completed.
+     */
+    private Integer pages;
+
+    /**
+     * Whether the statement was served from a previous identical request instead of being rendered.
+     */
+    private boolean cached;
+
+    /**
+     * Why the job failed, if it did.
+     */
+    private String error;
+}
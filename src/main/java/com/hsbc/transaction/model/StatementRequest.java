@@ -0,0 +1,40 @@
+package com.hsbc.transaction.model;
+
+import com.hsbc.transaction.enums.TransactionStatus;
+import com.hsbc.transaction.enums.TransactionType;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Currency;
+import java.util.List;
+
+/**
+ * Request for a PDF statement of the transactions with a timestamp in [{@code from}, {@code to}),
+ * optionally restricted by type, status and currency as in {@link TransactionFilter}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StatementRequest {
+
+    @NotNull(message = "from is required")
+    private LocalDateTime from;
+
+    @NotNull(message = "to is required")
+    private LocalDateTime to;
+
+    private List<TransactionType> types;
+
+    private List<TransactionStatus> statuses;
+
+    private List<Currency> currencies;
+
+    public TransactionFilter toFilter() {
+        return new TransactionFilter(types, statuses, currencies);
+    }
+}
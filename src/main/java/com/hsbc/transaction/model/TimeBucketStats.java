@@ -0,0 +1,21 @@
+package com.hsbc.transaction.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Totals of the transactions timestamped within one minute or hour.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TimeBucketStats {
+    /**
+     * Start of the bucket, in the same local time as transaction timestamps.
+     */
+    private String start;
+    private List<CurrencyTotal> totals;
+}
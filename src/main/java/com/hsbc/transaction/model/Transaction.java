@@ -6,22 +6,43 @@ import com.hsbc.transaction.enums.TransactionStatus;
 import com.hsbc.transaction.enums.TransactionType;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.extern.jackson.Jacksonized;
 
-@Data
-@Builder
-@NoArgsConstructor
+/**
+ * An immutable snapshot of a transaction.
+ *
+ * A change is made by building a new instance, usually with {@link #toBuilder()}, and saving it in
+ * place of the old one, so a transaction that was read never changes and can be shared between
+ * threads and caches without locks or copies.
+ */
+@Getter
+@EqualsAndHashCode
+@Builder(toBuilder = true)
+@Jacksonized
 @AllArgsConstructor
-public class Transaction {
-    private Long id;
-    private String description;
-    private Money money;
-    private TransactionType type;
+public final class Transaction {
+    private final Long id;
+    private final String description;
+    private final Money money;
+    private final TransactionType type;
     @Builder.Default
-    private LocalDateTime timestamp = LocalDateTime.now();
+    private final LocalDateTime timestamp = LocalDateTime.now();
     @Builder.Default
-    private TransactionStatus status = TransactionStatus.COMPLETED;
+    private final TransactionStatus status = TransactionStatus.COMPLETED;
+    /**
+     * Number of times the transaction was saved: 1 once created, incremented by every update.
+     * 0 for a transaction that has not been saved yet.
+     */
+    private final long version;
+
+    /**
+     * Returns a copy with the given ID.
+     */
+    public Transaction withId(Long id) {
+        return toBuilder().id(id).build();
+    }
 
     @Override
     public String toString() {
@@ -32,6 +53,7 @@ public class Transaction {
                 ", type='" + type.name()     + '\'' +
                 ", timestamp=" + timestamp +
                 ", status='" + status + '\'' +
+                ", version=" + version +
                 '}';
     }
-} 
\ No newline at end of file
+}
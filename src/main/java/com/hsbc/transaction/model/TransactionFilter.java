@@ -0,0 +1,45 @@
+package com.hsbc.transaction.model;
+
+import com.hsbc.transaction.enums.TransactionStatus;
+import com.hsbc.transaction.enums.TransactionType;
+import lombok.Data;
+
+import java.util.Collection;
+import java.util.Currency;
+import java.util.Set;
+
+/**
+ * Restricts a listing by transaction type, status and currency.
+ * A transaction matches when it has one of the given values for every attribute that has any;
+ * an attribute without values does not restrict the listing.
+ */
+@Data
+public class TransactionFilter {
+
+    /**
+     * Filter matching every transaction.
+     */
+    public static final TransactionFilter NONE = new TransactionFilter(null, null, null);
+
+    private final Set<TransactionType> types;
+    private final Set<TransactionStatus> statuses;
+    private final Set<Currency> currencies;
+
+    public TransactionFilter(Collection<TransactionType> types, Collection<TransactionStatus> statuses,
+                             Collection<Currency> currencies) {
+        this.types = types == null || types.isEmpty() ? Set.of() : Set.copyOf(types);
+        this.statuses = statuses == null || statuses.isEmpty() ? Set.of() : Set.copyOf(statuses);
+        this.currencies = currencies == null || currencies.isEmpty() ? Set.of() : Set.copyOf(currencies);
+    }
+
+    public boolean isEmpty() {
+        return types.isEmpty() && statuses.isEmpty() && currencies.isEmpty();
+    }
+
+    public boolean matches(Transaction transaction) {
+        return (types.isEmpty() || types.contains(transaction.getType()))
+                && (statuses.isEmpty() || statuses.contains(transaction.getStatus()))
+                && (currencies.isEmpty() || (transaction.getMoney() != null
+                        && currencies.contains(transaction.getMoney().getCurrency())));
+    }
+}
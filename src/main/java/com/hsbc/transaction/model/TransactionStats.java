@@ -0,0 +1,31 @@
+package com.hsbc.transaction.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aggregate totals over all stored transactions, and over the most recent minutes and hours.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionStats {
+    private long count;
+    private List<CurrencyTotal> byCurrency;
+    /**
+     * Totals per currency, keyed by transaction type.
+     */
+    private Map<String, List<CurrencyTotal>> byType;
+    /**
+     * Buckets of the most recent minutes that hold transactions, oldest first.
+     */
+    private List<TimeBucketStats> byMinute;
+    /**
+     * Buckets of the most recent hours that hold transactions, oldest first.
+     */
+    private List<TimeBucketStats> byHour;
+}
@@ -0,0 +1,355 @@
+package com.hsbc.transaction.persistence;
+
+import com.hsbc.transaction.config.SnapshotProperties;
+import com.hsbc.transaction.enums.TransactionStatus;
+import com.hsbc.transaction.enums.TransactionType;
+import com.hsbc.transaction.model.Money;
+import com.hsbc.transaction.model.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Currency;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Reads and writes compact binary images of the transaction store.
+ *
+ * A snapshot is a 64-byte header, one fixed-width 48-byte row per transaction and a heap holding the
+ * UTF-8 descriptions the rows point into:
+ * <pre>
+ * header: byte[8] magic, long walLsn, long rowCount, long heapOffset, long heapLength, long createdAtMillis
+ * row:    long id, long amount in minor units, long timestamp in epoch microseconds,
+ *         long description offset in the heap (-1 for none), int description length,
+ *         byte[3] currency code, byte type, byte status, byte amount scale, 48-bit version
+ * </pre>
+ * The version takes what used to be padding, which snapshots of older releases left zero; a zero
+ * version is read as 1.
+ * Snapshots are written to a temporary file and renamed into place once forced, so a crash never
+ * leaves a partial snapshot behind. Loading maps the file and decodes row ranges in parallel.
+ */
+@Component
+public class SnapshotStore {
+    private static final Logger logger = LoggerFactory.getLogger(SnapshotStore.class);
+
+    private static final byte[] MAGIC = "TXNSNAP1".getBytes(StandardCharsets.US_ASCII);
+    private static final int HEADER_SIZE = 64;
+    private static final int ROW_SIZE = 48;
+    private static final String SUFFIX = ".snap";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    private static final int WRITE_BUFFER_SIZE = 1 << 20;
+    private static final long MAX_WINDOW = 1L << 30;
+    private static final int ROWS_PER_TASK = 1 << 16;
+    private static final long ROWS_PER_WINDOW = MAX_WINDOW / ROW_SIZE;
+    private static final byte NONE = -1;
+
+    private static final TransactionType[] TYPES = TransactionType.values();
+    private static final TransactionStatus[] STATUSES = TransactionStatus.values();
+
+    private final SnapshotProperties properties;
+    private final Map<Integer, Currency> currencies = new ConcurrentHashMap<>();
+
+    public SnapshotStore(SnapshotProperties properties) {
+        this.properties = properties;
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Writes a snapshot of the given transactions.
+     *
+     * @param transactions the transactions to write; may be a weakly consistent view of a live store
+     * @param walLsn the log position from which changes are not guaranteed to be in the snapshot
+     * @return the number of rows written
+     */
+    public long write(Iterator<Transaction> transactions, long walLsn) throws IOException {
+        Path directory = Files.createDirectories(Path.of(properties.getDirectory()));
+        Path target = snapshotPath(walLsn);
+        Path rowsFile = directory.resolve(target.getFileName() + TEMPORARY_SUFFIX);
+        Path heapFile = directory.resolve(target.getFileName() + ".heap" + TEMPORARY_SUFFIX);
+
+        long rows = 0;
+        long heapLength = 0;
+        try (FileChannel out = FileChannel.open(rowsFile, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             FileChannel heap = FileChannel.open(heapFile, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                     StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE)) {
+            ByteBuffer rowBuffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+            ByteBuffer heapBuffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+            out.position(HEADER_SIZE);
+            while (transactions.hasNext()) {
+                Transaction transaction = transactions.next();
+                byte[] description = transaction.getDescription() == null
+                        ? null : transaction.getDescription().getBytes(StandardCharsets.UTF_8);
+                if (rowBuffer.remaining() < ROW_SIZE) {
+                    drain(rowBuffer, out);
+                }
+                writeRow(rowBuffer, transaction, description == null ? -1 : heapLength, description == null ? 0 : description.length);
+                if (description != null) {
+                    heapLength += description.length;
+                    heapBuffer = appendToHeap(heapBuffer, description, heap);
+                }
+                rows++;
+            }
+            drain(rowBuffer, out);
+            drain(heapBuffer, heap);
+
+            long heapOffset = HEADER_SIZE + rows * ROW_SIZE;
+            long transferred = 0;
+            while (transferred < heapLength) {
+                transferred += heap.transferTo(transferred, heapLength - transferred, out);
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.put(MAGIC).putLong(walLsn).putLong(rows).putLong(heapOffset).putLong(heapLength).putLong(System.currentTimeMillis());
+            header.clear();
+            while (header.hasRemaining()) {
+                out.write(header, header.position());
+            }
+            out.force(true);
+        }
+        Files.move(rowsFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return rows;
+    }
+
+    /**
+     * Loads the newest readable snapshot into the sink. Rows are decoded in parallel,
+     * so the sink must be thread-safe. If the newest snapshot cannot be read, {@code reset}
+     * is called and older snapshots are tried. Temporary files left by a snapshot that was
+     * being written when the process stopped are deleted first.
+     *
+     * @return the log position to replay from, or 0 if there is no snapshot
+     * @throws IOException if there are snapshots but none of them can be read; the log segments
+     *                     before them may have been deleted, so replaying the log alone would lose data
+     */
+    public long loadLatest(Consumer<Transaction> sink, Runnable reset) throws IOException {
+        if (!properties.isEnabled()) {
+            return 0;
+        }
+        deleteTemporaryFiles();
+        List<Path> snapshots = snapshotsNewestFirst();
+        IOException unreadable = null;
+        for (Path snapshot : snapshots) {
+            try {
+                return load(snapshot, sink);
+            } catch (IOException | RuntimeException e) {
+                logger.error("Unable to load snapshot {}, trying an older one", snapshot, e);
+                reset.run();
+                if (unreadable == null) {
+                    unreadable = new IOException("None of the " + snapshots.size() + " snapshots in "
+                            + properties.getDirectory() + " can be read");
+                }
+                unreadable.addSuppressed(e);
+            }
+        }
+        if (unreadable != null) {
+            throw unreadable;
+        }
+        return 0;
+    }
+
+    /**
+     * Deletes all but the newest {@code retained} snapshots.
+     *
+     * @return the log position of the oldest snapshot kept, or 0 if there is none
+     */
+    public long prune() throws IOException {
+        List<Path> snapshots = snapshotsNewestFirst();
+        for (int i = properties.getRetained(); i < snapshots.size(); i++) {
+            Files.deleteIfExists(snapshots.get(i));
+        }
+        if (snapshots.isEmpty()) {
+            return 0;
+        }
+        return lsnOf(snapshots.get(Math.min(properties.getRetained(), snapshots.size()) - 1));
+    }
+
+    private long load(Path snapshot, Consumer<Transaction> sink) throws IOException {
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            byte[] magic = new byte[MAGIC.length];
+            header.get(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException("Not a transaction snapshot: " + snapshot);
+            }
+            long walLsn = header.getLong();
+            long rows = header.getLong();
+            long heapOffset = header.getLong();
+            long heapLength = header.getLong();
+            if (heapOffset != HEADER_SIZE + rows * ROW_SIZE || heapOffset + heapLength > channel.size()) {
+                throw new IOException("Corrupt snapshot header: " + snapshot);
+            }
+
+            List<MappedByteBuffer> rowWindows = new ArrayList<>();
+            for (long first = 0; first < rows; first += ROWS_PER_WINDOW) {
+                long count = Math.min(ROWS_PER_WINDOW, rows - first);
+                rowWindows.add(channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + first * ROW_SIZE, count * ROW_SIZE));
+            }
+            List<MappedByteBuffer> heapWindows = new ArrayList<>();
+            for (long offset = 0; offset < heapLength; offset += MAX_WINDOW) {
+                heapWindows.add(channel.map(FileChannel.MapMode.READ_ONLY, heapOffset + offset, Math.min(MAX_WINDOW, heapLength - offset)));
+            }
+
+            long tasks = (rows + ROWS_PER_TASK - 1) / ROWS_PER_TASK;
+            LongStream.range(0, tasks).parallel().forEach(task -> {
+                long first = task * ROWS_PER_TASK;
+                long last = Math.min(rows, first + ROWS_PER_TASK);
+                for (long row = first; row < last; row++) {
+                    ByteBuffer window = rowWindows.get((int) (row / ROWS_PER_WINDOW));
+                    int position = (int) (row % ROWS_PER_WINDOW) * ROW_SIZE;
+                    sink.accept(readRow(window, position, heapWindows, channel, heapOffset));
+                }
+            });
+            logger.info("Loaded {} transactions from snapshot {} in {} ms", rows, snapshot.getFileName(),
+                    (System.nanoTime() - start) / 1_000_000);
+            return walLsn;
+        }
+    }
+
+    private Transaction readRow(ByteBuffer window, int position, List<MappedByteBuffer> heapWindows,
+                                FileChannel channel, long heapOffset) {
+        long id = window.getLong(position);
+        long amountMinor = window.getLong(position + 8);
+        long micros = window.getLong(position + 16);
+        long descriptionOffset = window.getLong(position + 24);
+        int descriptionLength = window.getInt(position + 32);
+        int currencyCode = (window.get(position + 36) << 16) | (window.get(position + 37) << 8) | window.get(position + 38);
+        byte type = window.get(position + 39);
+        byte status = window.get(position + 40);
+        byte scale = window.get(position + 41);
+        long version = (window.getShort(position + 42) & 0xFFFFL) << 32 | window.getInt(position + 44) & 0xFFFFFFFFL;
+
+        return Transaction.builder()
+                .id(id)
+                .description(descriptionOffset < 0 ? null
+                        : readDescription(heapWindows, channel, heapOffset, descriptionOffset, descriptionLength))
+                .money(Money.of(amountMinor, scale, currency(currencyCode)))
+                .type(type == NONE ? null : TYPES[type])
+                .status(status == NONE ? null : STATUSES[status])
+                .timestamp(TransactionBinaryCodec.fromEpochMicros(micros))
+                .version(version == 0 ? 1 : version)
+                .build();
+    }
+
+    private static String readDescription(List<MappedByteBuffer> heapWindows, FileChannel channel,
+                                          long heapOffset, long offset, int length) {
+        byte[] bytes = new byte[length];
+        int windowIndex = (int) (offset / MAX_WINDOW);
+        int position = (int) (offset % MAX_WINDOW);
+        ByteBuffer window = heapWindows.get(windowIndex);
+        if (position + length <= window.limit()) {
+            window.get(position, bytes);
+        } else {
+            // The description straddles two mapped windows
+            try {
+                ByteBuffer target = ByteBuffer.wrap(bytes);
+                while (target.hasRemaining()) {
+                    channel.read(target, heapOffset + offset + target.position());
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private Currency currency(int packedCode) {
+        return currencies.computeIfAbsent(packedCode, code -> Currency.getInstance(new String(new char[]{
+                (char) ((code >> 16) & 0xFF), (char) ((code >> 8) & 0xFF), (char) (code & 0xFF)})));
+    }
+
+    private static void writeRow(ByteBuffer out, Transaction transaction, long descriptionOffset, int descriptionLength) {
+        Money money = transaction.getMoney();
+        String code = money.getCurrency().getCurrencyCode();
+        out.putLong(transaction.getId());
+        out.putLong(money.minorUnits());
+        out.putLong(TransactionBinaryCodec.toEpochMicros(transaction.getTimestamp()));
+        out.putLong(descriptionOffset);
+        out.putInt(descriptionLength);
+        out.put((byte) code.charAt(0)).put((byte) code.charAt(1)).put((byte) code.charAt(2));
+        out.put(transaction.getType() == null ? NONE : (byte) transaction.getType().ordinal());
+        out.put(transaction.getStatus() == null ? NONE : (byte) transaction.getStatus().ordinal());
+        out.put((byte) money.scale());
+        out.putShort((short) (transaction.getVersion() >>> 32)).putInt((int) transaction.getVersion());
+    }
+
+    private static ByteBuffer appendToHeap(ByteBuffer buffer, byte[] bytes, FileChannel heap) throws IOException {
+        if (buffer.remaining() < bytes.length) {
+            drain(buffer, heap);
+            if (buffer.capacity() < bytes.length) {
+                heap.write(ByteBuffer.wrap(bytes));
+                return buffer;
+            }
+        }
+        buffer.put(bytes);
+        return buffer;
+    }
+
+    private static void drain(ByteBuffer buffer, FileChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void deleteTemporaryFiles() throws IOException {
+        Path directory = Path.of(properties.getDirectory());
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(SnapshotStore::isTemporary).toList()) {
+                logger.warn("Deleting {} left by an unfinished snapshot", file.getFileName());
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private static boolean isTemporary(Path file) {
+        String name = file.getFileName().toString();
+        return name.endsWith(TEMPORARY_SUFFIX) && name.contains(SUFFIX) && Files.isRegularFile(file);
+    }
+
+    private List<Path> snapshotsNewestFirst() throws IOException {
+        Path directory = Path.of(properties.getDirectory());
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(SUFFIX))
+                    .sorted(Comparator.comparingLong(SnapshotStore::lsnOf).reversed())
+                    .toList();
+        }
+    }
+
+    private Path snapshotPath(long walLsn) {
+        return Path.of(properties.getDirectory()).resolve(String.format("%020d%s", walLsn, SUFFIX));
+    }
+
+    private static long lsnOf(Path snapshot) {
+        String name = snapshot.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+}
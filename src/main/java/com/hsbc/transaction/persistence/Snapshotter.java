@@ -0,0 +1,115 @@
+package com.hsbc.transaction.persistence;
+
+import com.hsbc.transaction.config.SnapshotProperties;
+import com.hsbc.transaction.repository.TransactionRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Periodically writes a snapshot of the repository and trims the write-ahead log behind it.
+ *
+ * The log is rolled to a new segment first, with repository writes held off for the roll alone,
+ * so every change logged before the roll is already applied in memory and seen by the snapshot;
+ * changes made while the snapshot is being written land in the new segment and are replayed on top
+ * of it. Writers are not blocked while the store is scanned.
+ */
+@Component
+public class Snapshotter {
+    private static final Logger logger = LoggerFactory.getLogger(Snapshotter.class);
+
+    private final SnapshotProperties properties;
+    private final SnapshotStore snapshotStore;
+    private final WriteAheadLog writeAheadLog;
+    private final TransactionRepository transactionRepository;
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+    private final boolean virtualThreads;
+
+    private ScheduledExecutorService scheduler;
+    private long lastSnapshotLsn = -1;
+
+    public Snapshotter(SnapshotProperties properties, SnapshotStore snapshotStore,
+                       WriteAheadLog writeAheadLog, TransactionRepository transactionRepository) {
+        this(properties, snapshotStore, writeAheadLog, transactionRepository, false);
+    }
+
+    /**
+     * @param virtualThreads whether snapshots are written from a virtual thread
+     */
+    @Autowired
+    public Snapshotter(SnapshotProperties properties, SnapshotStore snapshotStore,
+                       WriteAheadLog writeAheadLog, TransactionRepository transactionRepository,
+                       @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+        this.properties = properties;
+        this.snapshotStore = snapshotStore;
+        this.writeAheadLog = writeAheadLog;
+        this.transactionRepository = transactionRepository;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.isEnabled() || !writeAheadLog.isEnabled()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(virtualThreads
+                ? Thread.ofVirtual().name("transaction-snapshotter").factory()
+                : Thread.ofPlatform().name("transaction-snapshotter").daemon().factory());
+        long interval = properties.getInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::snapshotQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Writes a snapshot unless nothing was logged since the previous one.
+     *
+     * @return true if a snapshot was written
+     */
+    public boolean snapshot() throws IOException {
+        snapshotLock.lock();
+        try {
+            if (writeAheadLog.currentLsn() == lastSnapshotLsn) {
+                return false;
+            }
+            long start = System.nanoTime();
+            long lsn = transactionRepository.rollWriteAheadLog();
+            long rows = snapshotStore.write(transactionRepository.scan(), lsn);
+            lastSnapshotLsn = lsn;
+            int deletedSegments = writeAheadLog.deleteSegmentsBefore(snapshotStore.prune());
+            logger.info("Snapshot of {} transactions at LSN {} written in {} ms, {} log segments deleted",
+                    rows, lsn, (System.nanoTime() - start) / 1_000_000, deletedSegments);
+            return true;
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdown();
+        scheduler.awaitTermination(1, TimeUnit.MINUTES);
+        if (properties.isOnShutdown()) {
+            snapshotQuietly();
+        }
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException e) {
+            logger.error("Error writing snapshot", e);
+        }
+    }
+}
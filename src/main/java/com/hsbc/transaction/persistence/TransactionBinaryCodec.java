@@ -0,0 +1,132 @@
+package com.hsbc.transaction.persistence;
+
+import com.hsbc.transaction.enums.TransactionStatus;
+import com.hsbc.transaction.enums.TransactionType;
+import com.hsbc.transaction.model.Money;
+import com.hsbc.transaction.model.Transaction;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Currency;
+
+/**
+ * Compact binary encoding of a {@link Transaction}.
+ *
+ * Layout (big-endian):
+ * <pre>
+ * long   id
+ * long   unscaled amount
+ * byte   amount scale
+ * byte[3] ISO 4217 currency code
+ * byte   type ordinal, -1 for none
+ * byte   status ordinal, -1 for none
+ * long   timestamp in epoch microseconds (UTC), Long.MIN_VALUE for none
+ * int    description length in UTF-8 bytes, -1 for none
+ * byte[] description
+ * long   version
+ * </pre>
+ * The version was appended later; a record that ends before it, written by an older release, is
+ * read as version 1.
+ */
+public final class TransactionBinaryCodec {
+    /**
+     * Size of every field except the description bytes.
+     */
+    public static final int FIXED_SIZE = Long.BYTES * 4 + 1 + 3 + 1 + 1 + Integer.BYTES;
+
+    private static final byte NONE = -1;
+    private static final long NO_TIMESTAMP = Long.MIN_VALUE;
+    private static final long MICROS_PER_SECOND = 1_000_000L;
+
+    private static final TransactionType[] TYPES = TransactionType.values();
+    private static final TransactionStatus[] STATUSES = TransactionStatus.values();
+
+    private TransactionBinaryCodec() {
+    }
+
+    /**
+     * Returns an upper bound of the encoded size, cheap enough to size buffers with.
+     */
+    public static int maxEncodedSize(Transaction transaction) {
+        String description = transaction.getDescription();
+        return FIXED_SIZE + (description == null ? 0 : description.length() * 3);
+    }
+
+    /**
+     * Writes the transaction at the buffer's position.
+     *
+     * @return the number of bytes written
+     */
+    public static int encode(Transaction transaction, ByteBuffer out) {
+        int start = out.position();
+        Money money = transaction.getMoney();
+        out.putLong(transaction.getId());
+        out.putLong(money.minorUnits());
+        out.put((byte) money.scale());
+        String code = money.getCurrency().getCurrencyCode();
+        out.put((byte) code.charAt(0)).put((byte) code.charAt(1)).put((byte) code.charAt(2));
+        out.put(transaction.getType() == null ? NONE : (byte) transaction.getType().ordinal());
+        out.put(transaction.getStatus() == null ? NONE : (byte) transaction.getStatus().ordinal());
+        out.putLong(toEpochMicros(transaction.getTimestamp()));
+        if (transaction.getDescription() == null) {
+            out.putInt(NONE);
+        } else {
+            byte[] description = transaction.getDescription().getBytes(StandardCharsets.UTF_8);
+            out.putInt(description.length);
+            out.put(description);
+        }
+        out.putLong(transaction.getVersion());
+        return out.position() - start;
+    }
+
+    /**
+     * Reads one transaction from the buffer's position. The buffer's limit must be the end of the
+     * record, since a record of an older release ends before the version.
+     */
+    public static Transaction decode(ByteBuffer in) {
+        long id = in.getLong();
+        long unscaled = in.getLong();
+        int scale = in.get();
+        char[] code = {(char) in.get(), (char) in.get(), (char) in.get()};
+        byte type = in.get();
+        byte status = in.get();
+        long micros = in.getLong();
+        int descriptionLength = in.getInt();
+        String description = null;
+        if (descriptionLength >= 0 && in.hasArray()) {
+            description = new String(in.array(), in.arrayOffset() + in.position(), descriptionLength, StandardCharsets.UTF_8);
+            in.position(in.position() + descriptionLength);
+        } else if (descriptionLength >= 0) {
+            byte[] bytes = new byte[descriptionLength];
+            in.get(bytes);
+            description = new String(bytes, StandardCharsets.UTF_8);
+        }
+        long version = in.remaining() >= Long.BYTES ? in.getLong() : 1;
+        return Transaction.builder()
+                .id(id)
+                .description(description)
+                .money(Money.of(unscaled, scale, Currency.getInstance(new String(code))))
+                .type(type == NONE ? null : TYPES[type])
+                .status(status == NONE ? null : STATUSES[status])
+                .timestamp(fromEpochMicros(micros))
+                .version(version)
+                .build();
+    }
+
+    public static long toEpochMicros(LocalDateTime timestamp) {
+        if (timestamp == null) {
+            return NO_TIMESTAMP;
+        }
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * MICROS_PER_SECOND + timestamp.getNano() / 1_000;
+    }
+
+    public static LocalDateTime fromEpochMicros(long micros) {
+        if (micros == NO_TIMESTAMP) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, MICROS_PER_SECOND),
+                (int) Math.floorMod(micros, MICROS_PER_SECOND) * 1_000, ZoneOffset.UTC);
+    }
+}
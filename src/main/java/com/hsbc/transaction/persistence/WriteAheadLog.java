@@ -0,0 +1,491 @@
+package com.hsbc.transaction.persistence;
+
+import com.hsbc.transaction.config.WalProperties;
+import com.hsbc.transaction.enums.WalMode;
+import com.hsbc.transaction.model.Transaction;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary write-ahead log of repository changes.
+ *
+ * Each record is framed as {@code [int length][int crc32c][byte op][body]}. In {@link WalMode#GROUP}
+ * mode callers enqueue their record and wait on the returned future; a single committer thread
+ * writes everything queued with one gathering write and completes all waiting callers after one
+ * shared {@link FileChannel#force}. On startup the log is scanned, a torn tail left by a crash is
+ * truncated, and {@link #replay} feeds the surviving records back to the repository.
+ *
+ * A batch that fails to be written or forced is cut off the segment again before its callers are
+ * told, so it is never replayed and later records are not stranded behind a torn frame. If the
+ * batch cannot be cut off, the log refuses every later record.
+ *
+ * The log is split into segment files named after the log sequence number (LSN, the byte offset
+ * in the whole log) of their first record. {@link #rollSegment()} starts a new segment so that a
+ * snapshot can record where its tail begins, and segments covered by a snapshot can be deleted.
+ */
+@Component
+public class WriteAheadLog {
+    private static final Logger logger = LoggerFactory.getLogger(WriteAheadLog.class);
+
+    public static final byte OP_PUT = 1;
+    public static final byte OP_DELETE = 2;
+    public static final byte OP_CLEAR = 3;
+
+    private static final int HEADER_SIZE = Integer.BYTES * 2;
+    private static final String SEGMENT_SUFFIX = ".wal";
+    private static final long IDLE_POLL_MILLIS = 100;
+    private static final CompletableFuture<Void> DONE = CompletableFuture.completedFuture(null);
+
+    /**
+     * Receives records while the log is replayed.
+     */
+    public interface ReplayHandler {
+        void put(Transaction transaction);
+
+        void delete(long id);
+
+        void clear();
+    }
+
+    private record PendingRecord(ByteBuffer frame, CompletableFuture<Void> durable) {
+    }
+
+    private final WalProperties properties;
+    private final BlockingQueue<PendingRecord> queue;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final Timer commitTimer;
+    private final DistributionSummary batchSizes;
+
+    private Path directory;
+    private FileChannel channel;
+    private long segmentStart;
+    private Thread committer;
+    private volatile boolean running;
+    private long lastForceNanos = System.nanoTime();
+    private boolean dirty;
+    private volatile IOException failure;
+
+    public WriteAheadLog(WalProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        this.commitTimer = Timer.builder("transaction.wal.commit")
+                .description("Time to write and force one group of log records")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("transaction.wal.batch.size")
+                .description("Records sharing one force")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!properties.isEnabled()) {
+            logger.info("Write-ahead log is disabled");
+            return;
+        }
+        directory = Path.of(properties.getDirectory());
+        Files.createDirectories(directory);
+        List<Long> starts = segmentStarts();
+        segmentStart = starts.isEmpty() ? 0 : starts.getLast();
+        channel = openChannel(segmentPath(segmentStart));
+        long validEnd = scan(channel, null);
+        if (validEnd < channel.size()) {
+            logger.warn("Truncating torn write-ahead log tail at offset {} (file size {})", validEnd, channel.size());
+            channel.truncate(validEnd);
+            channel.force(true);
+        }
+        channel.position(validEnd);
+        running = true;
+        if (properties.getMode() != WalMode.SYNC) {
+            committer = new Thread(this::commitLoop, "transaction-wal-committer");
+            committer.setDaemon(true);
+            committer.start();
+        }
+        logger.info("Write-ahead log {} opened in {} mode at LSN {}", directory.toAbsolutePath(), properties.getMode(), segmentStart + validEnd);
+    }
+
+    public boolean isEnabled() {
+        return running;
+    }
+
+    /**
+     * Feeds every record in the log to the handler, in log order.
+     *
+     * @return the number of records replayed
+     */
+    public long replay(ReplayHandler handler) throws IOException {
+        return replay(handler, 0);
+    }
+
+    /**
+     * Feeds the records of every segment that ends after {@code fromLsn} to the handler, in log order.
+     * Records are idempotent state changes, so replaying a few records that precede {@code fromLsn}
+     * in the same segment does not change the outcome.
+     *
+     * @return the number of records replayed
+     */
+    public long replay(ReplayHandler handler, long fromLsn) throws IOException {
+        if (!running) {
+            return 0;
+        }
+        long[] count = new long[1];
+        Consumer<ByteBuffer> consumer = record -> {
+            count[0]++;
+            switch (record.get()) {
+                case OP_PUT -> handler.put(TransactionBinaryCodec.decode(record));
+                case OP_DELETE -> handler.delete(record.getLong());
+                case OP_CLEAR -> handler.clear();
+                default -> throw new IllegalStateException("Unknown write-ahead log operation");
+            }
+        };
+        List<Long> starts = segmentStarts();
+        for (int i = 0; i < starts.size(); i++) {
+            long start = starts.get(i);
+            if (start == segmentStart) {
+                scan(channel, consumer);
+            } else if (i + 1 < starts.size() && starts.get(i + 1) > fromLsn) {
+                try (FileChannel segment = FileChannel.open(segmentPath(start), StandardOpenOption.READ)) {
+                    scan(segment, consumer);
+                }
+            }
+        }
+        return count[0];
+    }
+
+    /**
+     * Returns the log sequence number the next record will be written at.
+     */
+    public long currentLsn() throws IOException {
+        writeLock.lock();
+        try {
+            return segmentStart + channel.position();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Forces the current segment and continues the log in a new one.
+     *
+     * @return the LSN at which the new segment starts; every record written
+     *         before this call lies below it
+     */
+    public long rollSegment() throws IOException {
+        writeLock.lock();
+        try {
+            long next = segmentStart + channel.position();
+            if (next == segmentStart) {
+                return next;
+            }
+            channel.force(false);
+            channel.close();
+            segmentStart = next;
+            channel = openChannel(segmentPath(segmentStart));
+            dirty = false;
+            return segmentStart;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Deletes the segments whose records all lie below {@code lsn}.
+     *
+     * @return the number of segments deleted
+     */
+    public int deleteSegmentsBefore(long lsn) throws IOException {
+        if (!running) {
+            return 0;
+        }
+        List<Long> starts = segmentStarts();
+        int deleted = 0;
+        for (int i = 0; i + 1 < starts.size() && starts.get(i + 1) <= lsn; i++) {
+            Files.deleteIfExists(segmentPath(starts.get(i)));
+            deleted++;
+        }
+        return deleted;
+    }
+
+    /**
+     * Logs the current state of a transaction.
+     *
+     * @return a future completed once the record is durable according to the configured mode
+     */
+    public CompletableFuture<Void> logPut(Transaction transaction) {
+        if (!running) {
+            return DONE;
+        }
+        ByteBuffer frame = ByteBuffer.allocate(HEADER_SIZE + 1 + TransactionBinaryCodec.maxEncodedSize(transaction));
+        frame.position(HEADER_SIZE);
+        frame.put(OP_PUT);
+        TransactionBinaryCodec.encode(transaction, frame);
+        return append(frame);
+    }
+
+    public CompletableFuture<Void> logDelete(long id) {
+        if (!running) {
+            return DONE;
+        }
+        ByteBuffer frame = ByteBuffer.allocate(HEADER_SIZE + 1 + Long.BYTES);
+        frame.position(HEADER_SIZE);
+        frame.put(OP_DELETE).putLong(id);
+        return append(frame);
+    }
+
+    public CompletableFuture<Void> logClear() {
+        if (!running) {
+            return DONE;
+        }
+        ByteBuffer frame = ByteBuffer.allocate(HEADER_SIZE + 1);
+        frame.position(HEADER_SIZE);
+        frame.put(OP_CLEAR);
+        return append(frame);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        if (committer != null) {
+            committer.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        writeLock.lock();
+        try {
+            channel.force(false);
+            channel.close();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private CompletableFuture<Void> append(ByteBuffer frame) {
+        seal(frame);
+        if (properties.getMode() == WalMode.SYNC) {
+            writeLock.lock();
+            try {
+                long start = System.nanoTime();
+                writeBatch(new ByteBuffer[]{frame}, true);
+                commitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                batchSizes.record(1);
+                return DONE;
+            } catch (IOException e) {
+                return CompletableFuture.failedFuture(e);
+            } finally {
+                writeLock.unlock();
+            }
+        }
+
+        CompletableFuture<Void> durable = properties.getMode() == WalMode.ASYNC ? DONE : new CompletableFuture<>();
+        try {
+            queue.put(new PendingRecord(frame, durable));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        }
+        return durable;
+    }
+
+    private void commitLoop() {
+        List<PendingRecord> group = new ArrayList<>(properties.getMaxBatchSize());
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingRecord first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    group.add(first);
+                    queue.drainTo(group, properties.getMaxBatchSize() - 1);
+                    commit(group);
+                } else if (dirty) {
+                    forceIdle();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (IOException | RuntimeException e) {
+                logger.error("Error committing {} write-ahead log records", group.size(), e);
+                group.forEach(record -> record.durable().completeExceptionally(e));
+            } finally {
+                group.clear();
+            }
+        }
+    }
+
+    private void forceIdle() throws IOException {
+        writeLock.lock();
+        try {
+            channel.force(false);
+            dirty = false;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void commit(List<PendingRecord> group) throws IOException {
+        long start = System.nanoTime();
+        ByteBuffer[] frames = new ByteBuffer[group.size()];
+        for (int i = 0; i < frames.length; i++) {
+            frames[i] = group.get(i).frame();
+        }
+        writeLock.lock();
+        try {
+            boolean force = properties.getMode() == WalMode.GROUP
+                    || System.nanoTime() - lastForceNanos >= properties.getFsyncInterval().toNanos();
+            writeBatch(frames, force);
+            if (force) {
+                lastForceNanos = System.nanoTime();
+            } else {
+                dirty = true;
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        commitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        batchSizes.record(frames.length);
+        for (PendingRecord record : group) {
+            record.durable().complete(null);
+        }
+    }
+
+    /**
+     * Opens a segment file for reading and appending.
+     */
+    FileChannel openChannel(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Writes a batch at the end of the current segment and forces it if asked, cutting it off
+     * again if either fails. Called with the write lock held.
+     */
+    private void writeBatch(ByteBuffer[] frames, boolean force) throws IOException {
+        if (failure != null) {
+            throw new IOException("Write-ahead log refuses records after an earlier failure", failure);
+        }
+        long batchStart = channel.position();
+        try {
+            write(frames);
+            if (force) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            cutOff(batchStart, e);
+            throw e;
+        }
+    }
+
+    private void cutOff(long batchStart, IOException cause) {
+        try {
+            channel.truncate(batchStart);
+            channel.position(batchStart);
+            channel.force(true);
+        } catch (IOException | RuntimeException e) {
+            cause.addSuppressed(e);
+            failure = cause;
+            logger.error("Could not cut a failed batch off the write-ahead log at LSN {}, refusing further records",
+                    segmentStart + batchStart, e);
+        }
+    }
+
+    private void write(ByteBuffer[] frames) throws IOException {
+        long remaining = 0;
+        for (ByteBuffer frame : frames) {
+            remaining += frame.remaining();
+        }
+        while (remaining > 0) {
+            remaining -= channel.write(frames);
+        }
+    }
+
+    private static void seal(ByteBuffer frame) {
+        frame.flip();
+        int length = frame.limit() - HEADER_SIZE;
+        CRC32C crc = new CRC32C();
+        crc.update(frame.array(), HEADER_SIZE, length);
+        frame.putInt(0, length);
+        frame.putInt(Integer.BYTES, (int) crc.getValue());
+    }
+
+    private List<Long> segmentStarts() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path segmentPath(long start) {
+        return directory.resolve(String.format("%020d%s", start, SEGMENT_SUFFIX));
+    }
+
+    /**
+     * Walks a segment from its start, handing each intact record body to the consumer.
+     *
+     * @return the offset just past the last intact record
+     */
+    private static long scan(FileChannel channel, Consumer<ByteBuffer> consumer) throws IOException {
+        long size = channel.size();
+        long offset = 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        ByteBuffer body = ByteBuffer.allocate(1024);
+        while (offset + HEADER_SIZE <= size) {
+            header.clear();
+            readFully(channel, header, offset);
+            int length = header.getInt(0);
+            int expectedCrc = header.getInt(Integer.BYTES);
+            if (length <= 0 || offset + HEADER_SIZE + length > size) {
+                break;
+            }
+            if (body.capacity() < length) {
+                body = ByteBuffer.allocate(Math.max(length, body.capacity() * 2));
+            }
+            body.clear().limit(length);
+            readFully(channel, body, offset + HEADER_SIZE);
+            CRC32C crc = new CRC32C();
+            crc.update(body.array(), 0, length);
+            if ((int) crc.getValue() != expectedCrc) {
+                break;
+            }
+            if (consumer != null) {
+                body.flip();
+                consumer.accept(body);
+            }
+            offset += HEADER_SIZE + length;
+        }
+        return offset;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new UncheckedIOException(new IOException("Unexpected end of write-ahead log"));
+            }
+        }
+    }
+}
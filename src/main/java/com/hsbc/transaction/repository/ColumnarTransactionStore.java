@@ -0,0 +1,493 @@
+package com.hsbc.transaction.repository;
+
+import com.hsbc.transaction.enums.TransactionStatus;
+import com.hsbc.transaction.enums.TransactionType;
+import com.hsbc.transaction.model.Money;
+import com.hsbc.transaction.model.Transaction;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Store keeping transactions in primitive columns instead of object graphs, roughly a tenth of
+ * the heap of {@link MapTransactionStore} per row. {@link Transaction} objects are built only
+ * when read, so every read returns a new instance.
+ *
+ * Rows are kept sorted by ID. Snowflake IDs only grow, so new rows are normally appended;
+ * an older ID shifts the rows after it, and a batch is merged in with one pass over the rows
+ * after its lowest new ID. Point lookups binary search the ID column.
+ * Per row the columns hold:
+ * <ul>
+ *   <li>the ID and the amount in the currency's minor units as {@code long};</li>
+ *   <li>an index into the store's currency list as {@code short};</li>
+ *   <li>type and status ordinals as {@code byte};</li>
+ *   <li>the timestamp in microseconds since the epoch, read as UTC, as {@code long};
+ *       finer precision is dropped;</li>
+ *   <li>a {@link DescriptionDictionary} code as {@code int}, so repeated descriptions are stored once;</li>
+ *   <li>the version as {@code long}.</li>
+ * </ul>
+ * Deleted rows are marked and skipped, and squeezed out once they make up half the store.
+ * A Fenwick tree counts them by row, so a page at any offset finds its first row in logarithmic
+ * time instead of walking the rows before it. Writes take an exclusive lock, reads a shared one.
+ */
+public class ColumnarTransactionStore implements TransactionStore {
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MIN_COMPACTION_ROWS = 1024;
+    private static final int FIRST_ITERATOR_BATCH_SIZE = 16;
+    private static final int ITERATOR_BATCH_SIZE = 256;
+
+    private static final byte NONE = -1;
+    private static final byte DELETED = -2;
+    private static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+    private static final TransactionType[] TYPES = TransactionType.values();
+    private static final TransactionStatus[] STATUSES = TransactionStatus.values();
+
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private long[] amounts = new long[INITIAL_CAPACITY];
+    private short[] currencies = new short[INITIAL_CAPACITY];
+    private byte[] types = new byte[INITIAL_CAPACITY];
+    private byte[] statuses = new byte[INITIAL_CAPACITY];
+    private long[] timestamps = new long[INITIAL_CAPACITY];
+    private int[] descriptions = new int[INITIAL_CAPACITY];
+    private long[] versions = new long[INITIAL_CAPACITY];
+
+    /**
+     * Number of rows in use, including deleted ones.
+     */
+    private int rows;
+    private int deletedRows;
+
+    /**
+     * Fenwick tree over the rows, 1-based: node {@code i} counts the deleted rows among the
+     * {@code i & -i} rows ending with row {@code i - 1}. Nodes up to {@link #rows} are kept current.
+     */
+    private int[] deletedTree = new int[INITIAL_CAPACITY + 1];
+
+    private final DescriptionDictionary dictionary = new DescriptionDictionary();
+    private final List<Currency> currencyList = new ArrayList<>();
+    private final Map<Currency, Short> currencyCodes = new HashMap<>();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    public void put(Transaction transaction) {
+        long id = transaction.getId();
+        lock.writeLock().lock();
+        try {
+            int found = search(id);
+            int row = found >= 0 ? found : -(found + 1);
+            if (found >= 0) {
+                if (statuses[row] == DELETED) {
+                    deletedRows--;
+                    countDeleted(row, -1);
+                } else if (descriptions[row] >= 0) {
+                    dictionary.release(descriptions[row]);
+                }
+            } else {
+                insertRow(row);
+                ids[row] = id;
+            }
+            write(row, transaction);
+            if (found < 0) {
+                recountDeleted(row);
+            }
+            if (dictionary.needsCompaction()) {
+                compactDictionary();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void putAll(List<Transaction> batch) {
+        Transaction[] sorted = batch.toArray(Transaction[]::new);
+        // Stable, so the last of several transactions with one ID stays last
+        Arrays.sort(sorted, Comparator.comparingLong(Transaction::getId));
+        lock.writeLock().lock();
+        try {
+            List<Transaction> added = new ArrayList<>();
+            for (Transaction transaction : sorted) {
+                int row = search(transaction.getId());
+                if (row >= 0) {
+                    if (statuses[row] == DELETED) {
+                        deletedRows--;
+                        countDeleted(row, -1);
+                    } else if (descriptions[row] >= 0) {
+                        dictionary.release(descriptions[row]);
+                    }
+                    write(row, transaction);
+                } else if (!added.isEmpty() && added.getLast().getId().equals(transaction.getId())) {
+                    added.set(added.size() - 1, transaction);
+                } else {
+                    added.add(transaction);
+                }
+            }
+            merge(added);
+            if (dictionary.needsCompaction()) {
+                compactDictionary();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Transaction get(long id) {
+        lock.readLock().lock();
+        try {
+            int row = search(id);
+            return row >= 0 && statuses[row] != DELETED ? read(row) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(long id) {
+        lock.writeLock().lock();
+        try {
+            int row = search(id);
+            if (row < 0 || statuses[row] == DELETED) {
+                return false;
+            }
+            if (descriptions[row] >= 0) {
+                dictionary.release(descriptions[row]);
+            }
+            statuses[row] = DELETED;
+            descriptions[row] = NONE;
+            deletedRows++;
+            countDeleted(row, 1);
+            if (deletedRows >= MIN_COMPACTION_ROWS && deletedRows * 2 > rows) {
+                compactRows();
+            }
+            if (dictionary.needsCompaction()) {
+                compactDictionary();
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean contains(long id) {
+        lock.readLock().lock();
+        try {
+            int row = search(id);
+            return row >= 0 && statuses[row] != DELETED;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return rows - deletedRows;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            ids = new long[INITIAL_CAPACITY];
+            amounts = new long[INITIAL_CAPACITY];
+            currencies = new short[INITIAL_CAPACITY];
+            types = new byte[INITIAL_CAPACITY];
+            statuses = new byte[INITIAL_CAPACITY];
+            timestamps = new long[INITIAL_CAPACITY];
+            descriptions = new int[INITIAL_CAPACITY];
+            versions = new long[INITIAL_CAPACITY];
+            deletedTree = new int[INITIAL_CAPACITY + 1];
+            rows = 0;
+            deletedRows = 0;
+            dictionary.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Transaction> page(long offset, int limit, boolean ascending) {
+        lock.readLock().lock();
+        try {
+            int live = rows - deletedRows;
+            if (offset >= live) {
+                return new ArrayList<>();
+            }
+            int count = (int) Math.min(limit, live - offset);
+            int step = ascending ? 1 : -1;
+            int row = liveRow(ascending ? (int) offset : live - 1 - (int) offset);
+            List<Transaction> content = new ArrayList<>(count);
+            for (; content.size() < count && row >= 0 && row < rows; row += step) {
+                if (statuses[row] != DELETED) {
+                    content.add(read(row));
+                }
+            }
+            return content;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns an iterator that reads batches of rows, each under a short shared lock,
+     * and finds its place again by ID before every batch. Batches start small and double,
+     * so a caller that only takes the first few rows does not pay for a full batch.
+     */
+    @Override
+    public Iterator<Transaction> iterator(Long afterId, boolean ascending) {
+        return new Iterator<>() {
+            private final List<Transaction> batch = new ArrayList<>(FIRST_ITERATOR_BATCH_SIZE);
+            private int batchSize = FIRST_ITERATOR_BATCH_SIZE;
+            private int position;
+            private Long lastId = afterId;
+            private boolean exhausted;
+
+            @Override
+            public boolean hasNext() {
+                if (position == batch.size() && !exhausted) {
+                    batch.clear();
+                    position = 0;
+                    exhausted = readBatch(lastId, ascending, batchSize, batch);
+                    batchSize = Math.min(batchSize * 2, ITERATOR_BATCH_SIZE);
+                    if (!batch.isEmpty()) {
+                        lastId = batch.getLast().getId();
+                    }
+                }
+                return position < batch.size();
+            }
+
+            @Override
+            public Transaction next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return batch.get(position++);
+            }
+        };
+    }
+
+    /**
+     * Reads up to {@code batchSize} live rows after {@code afterId} into {@code batch}.
+     *
+     * @return true if the end of the store was reached
+     */
+    private boolean readBatch(Long afterId, boolean ascending, int batchSize, List<Transaction> batch) {
+        lock.readLock().lock();
+        try {
+            int row;
+            if (afterId == null) {
+                row = ascending ? 0 : rows - 1;
+            } else {
+                int found = search(afterId);
+                if (ascending) {
+                    row = found >= 0 ? found + 1 : -(found + 1);
+                } else {
+                    row = found >= 0 ? found - 1 : -(found + 1) - 1;
+                }
+            }
+            int step = ascending ? 1 : -1;
+            for (; batch.size() < batchSize && row >= 0 && row < rows; row += step) {
+                if (statuses[row] != DELETED) {
+                    batch.add(read(row));
+                }
+            }
+            return row < 0 || row >= rows;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int search(long id) {
+        return Arrays.binarySearch(ids, 0, rows, id);
+    }
+
+    /**
+     * Returns the row of the live transaction with the given rank in ID order, counting from 0,
+     * by descending the Fenwick tree from its widest node.
+     */
+    private int liveRow(int rank) {
+        if (deletedRows == 0) {
+            return rank;
+        }
+        int row = 0;
+        int remaining = rank;
+        for (int width = Integer.highestOneBit(rows); width > 0; width >>= 1) {
+            int node = row + width;
+            if (node <= rows && width - deletedTree[node] <= remaining) {
+                row = node;
+                remaining -= width - deletedTree[node];
+            }
+        }
+        return row;
+    }
+
+    private void countDeleted(int row, int delta) {
+        for (int node = row + 1; node <= rows; node += node & -node) {
+            deletedTree[node] += delta;
+        }
+    }
+
+    /**
+     * Recomputes the Fenwick nodes of the rows from {@code fromRow} on, after rows were inserted or
+     * moved there. Each node adds its own row to the nodes it covers, which come before it.
+     */
+    private void recountDeleted(int fromRow) {
+        for (int node = fromRow + 1; node <= rows; node++) {
+            int count = statuses[node - 1] == DELETED ? 1 : 0;
+            for (int width = 1; width < (node & -node); width <<= 1) {
+                count += deletedTree[node - width];
+            }
+            deletedTree[node] = count;
+        }
+    }
+
+    private void insertRow(int row) {
+        if (rows == ids.length) {
+            grow();
+        }
+        int moved = rows - row;
+        if (moved > 0) {
+            System.arraycopy(ids, row, ids, row + 1, moved);
+            System.arraycopy(amounts, row, amounts, row + 1, moved);
+            System.arraycopy(currencies, row, currencies, row + 1, moved);
+            System.arraycopy(types, row, types, row + 1, moved);
+            System.arraycopy(statuses, row, statuses, row + 1, moved);
+            System.arraycopy(timestamps, row, timestamps, row + 1, moved);
+            System.arraycopy(descriptions, row, descriptions, row + 1, moved);
+            System.arraycopy(versions, row, versions, row + 1, moved);
+        }
+        rows++;
+    }
+
+    /**
+     * Merges new rows, sorted by ID and not yet stored, into the columns from the end backwards.
+     */
+    private void merge(List<Transaction> added) {
+        if (added.isEmpty()) {
+            return;
+        }
+        while (rows + added.size() > ids.length) {
+            grow();
+        }
+        int source = rows - 1;
+        int target = rows + added.size() - 1;
+        for (int i = added.size() - 1; i >= 0; i--, target--) {
+            Transaction transaction = added.get(i);
+            long id = transaction.getId();
+            for (; source >= 0 && ids[source] > id; source--, target--) {
+                moveRow(source, target);
+            }
+            ids[target] = id;
+            write(target, transaction);
+        }
+        rows += added.size();
+        recountDeleted(target + 1);
+    }
+
+    private void moveRow(int from, int to) {
+        ids[to] = ids[from];
+        amounts[to] = amounts[from];
+        currencies[to] = currencies[from];
+        types[to] = types[from];
+        statuses[to] = statuses[from];
+        timestamps[to] = timestamps[from];
+        descriptions[to] = descriptions[from];
+        versions[to] = versions[from];
+    }
+
+    private void grow() {
+        int capacity = ids.length + (ids.length >> 1);
+        ids = Arrays.copyOf(ids, capacity);
+        amounts = Arrays.copyOf(amounts, capacity);
+        currencies = Arrays.copyOf(currencies, capacity);
+        types = Arrays.copyOf(types, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+        timestamps = Arrays.copyOf(timestamps, capacity);
+        descriptions = Arrays.copyOf(descriptions, capacity);
+        versions = Arrays.copyOf(versions, capacity);
+        deletedTree = Arrays.copyOf(deletedTree, capacity + 1);
+    }
+
+    private void write(int row, Transaction transaction) {
+        Money money = transaction.getMoney();
+        amounts[row] = money == null ? 0 : money.minorUnits();
+        currencies[row] = money == null ? NONE : currencyCode(money.getCurrency());
+        types[row] = transaction.getType() == null ? NONE : (byte) transaction.getType().ordinal();
+        statuses[row] = transaction.getStatus() == null ? NONE : (byte) transaction.getStatus().ordinal();
+        timestamps[row] = transaction.getTimestamp() == null ? NO_TIMESTAMP : toEpochMicros(transaction.getTimestamp());
+        descriptions[row] = transaction.getDescription() == null ? NONE : dictionary.acquire(transaction.getDescription());
+        versions[row] = transaction.getVersion();
+    }
+
+    private Transaction read(int row) {
+        short currency = currencies[row];
+        return Transaction.builder()
+                .id(ids[row])
+                .description(descriptions[row] == NONE ? null : dictionary.get(descriptions[row]))
+                .money(currency == NONE ? null : Money.ofMinor(amounts[row], currencyList.get(currency)))
+                .type(types[row] == NONE ? null : TYPES[types[row]])
+                .timestamp(timestamps[row] == NO_TIMESTAMP ? null : fromEpochMicros(timestamps[row]))
+                .status(statuses[row] == NONE ? null : STATUSES[statuses[row]])
+                .version(versions[row])
+                .build();
+    }
+
+    private short currencyCode(Currency currency) {
+        Short code = currencyCodes.get(currency);
+        if (code == null) {
+            code = (short) currencyList.size();
+            currencyList.add(currency);
+            currencyCodes.put(currency, code);
+        }
+        return code;
+    }
+
+    private static long toEpochMicros(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + timestamp.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromEpochMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+
+    private void compactRows() {
+        int kept = 0;
+        for (int row = 0; row < rows; row++) {
+            if (statuses[row] == DELETED) {
+                continue;
+            }
+            moveRow(row, kept++);
+        }
+        rows = kept;
+        deletedRows = 0;
+        Arrays.fill(deletedTree, 1, rows + 1, 0);
+    }
+
+    private void compactDictionary() {
+        int[] remap = dictionary.compact();
+        for (int row = 0; row < rows; row++) {
+            if (descriptions[row] >= 0) {
+                descriptions[row] = remap[descriptions[row]];
+            }
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.hsbc.transaction.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Dictionary of transaction descriptions stored once each as UTF-8 in a shared byte heap.
+ * A description is referred to by an int code, and counted references let the heap be
+ * compacted once most of it is no longer referred to.
+ * Not thread-safe; the owning store guards it with its own lock.
+ */
+final class DescriptionDictionary {
+    private static final int MIN_COMPACTION_BYTES = 1 << 16;
+
+    private byte[] heap = new byte[1024];
+    private int heapSize;
+    private int[] offsets = new int[64];
+    private int[] lengths = new int[64];
+    private int[] hashes = new int[64];
+    private int[] references = new int[64];
+    private int count;
+    private long unreferencedBytes;
+
+    /**
+     * Open addressing table of {@code code + 1}, zero marking an empty slot.
+     */
+    private int[] table = new int[128];
+
+    /**
+     * Returns the code of the description, adding it if needed, and counts one more reference to it.
+     */
+    int acquire(String description) {
+        byte[] bytes = description.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(bytes);
+        int mask = table.length - 1;
+        int slot = hash & mask;
+        for (int entry = table[slot]; entry != 0; entry = table[slot]) {
+            int code = entry - 1;
+            if (hashes[code] == hash
+                    && Arrays.equals(heap, offsets[code], offsets[code] + lengths[code], bytes, 0, bytes.length)) {
+                if (references[code]++ == 0) {
+                    unreferencedBytes -= lengths[code];
+                }
+                return code;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        int code = add(bytes, hash);
+        table[slot] = code + 1;
+        if (count * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+        return code;
+    }
+
+    /**
+     * Drops one reference to the description with the given code.
+     */
+    void release(int code) {
+        if (--references[code] == 0) {
+            unreferencedBytes += lengths[code];
+        }
+    }
+
+    String get(int code) {
+        return new String(heap, offsets[code], lengths[code], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Whether enough of the heap is unreferenced to be worth a {@link #compact()}.
+     */
+    boolean needsCompaction() {
+        return unreferencedBytes >= MIN_COMPACTION_BYTES && unreferencedBytes * 2 > heapSize;
+    }
+
+    /**
+     * Drops every unreferenced description and renumbers the remaining ones.
+     *
+     * @return the new code of each old code, or -1 for dropped ones
+     */
+    int[] compact() {
+        int[] remap = new int[count];
+        byte[] compactedHeap = new byte[Math.max(1024, heapSize - (int) unreferencedBytes)];
+        int compactedSize = 0;
+        int kept = 0;
+        for (int code = 0; code < count; code++) {
+            if (references[code] == 0) {
+                remap[code] = -1;
+                continue;
+            }
+            System.arraycopy(heap, offsets[code], compactedHeap, compactedSize, lengths[code]);
+            offsets[kept] = compactedSize;
+            lengths[kept] = lengths[code];
+            hashes[kept] = hashes[code];
+            references[kept] = references[code];
+            compactedSize += lengths[code];
+            remap[code] = kept++;
+        }
+        heap = compactedHeap;
+        heapSize = compactedSize;
+        count = kept;
+        unreferencedBytes = 0;
+        rehash(Math.max(128, Integer.highestOneBit(Math.max(1, kept)) * 4));
+        return remap;
+    }
+
+    void clear() {
+        heap = new byte[1024];
+        heapSize = 0;
+        offsets = new int[64];
+        lengths = new int[64];
+        hashes = new int[64];
+        references = new int[64];
+        count = 0;
+        unreferencedBytes = 0;
+        table = new int[128];
+    }
+
+    private int add(byte[] bytes, int hash) {
+        if (heapSize + bytes.length > heap.length) {
+            heap = Arrays.copyOf(heap, Math.max(heapSize + bytes.length, heap.length + (heap.length >> 1)));
+        }
+        if (count == offsets.length) {
+            int capacity = count + (count >> 1);
+            offsets = Arrays.copyOf(offsets, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            hashes = Arrays.copyOf(hashes, capacity);
+            references = Arrays.copyOf(references, capacity);
+        }
+        System.arraycopy(bytes, 0, heap, heapSize, bytes.length);
+        int code = count++;
+        offsets[code] = heapSize;
+        lengths[code] = bytes.length;
+        hashes[code] = hash;
+        references[code] = 1;
+        heapSize += bytes.length;
+        return code;
+    }
+
+    private void rehash(int capacity) {
+        table = new int[capacity];
+        int mask = capacity - 1;
+        for (int code = 0; code < count; code++) {
+            int slot = hashes[code] & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = code + 1;
+        }
+    }
+
+    private static int hash(byte[] bytes) {
+        int hash = 1;
+        for (byte b : bytes) {
+            hash = 31 * hash + b;
+        }
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,69 @@
+package com.hsbc.transaction.repository;
+
+import com.hsbc.transaction.model.Transaction;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Store keeping the transaction objects themselves, in a hash map for point lookups and
+ * an ordered index for paging. Reads return the stored instances.
+ */
+public class MapTransactionStore implements TransactionStore {
+
+    private final Map<Long, Transaction> transactions = new ConcurrentHashMap<>();
+
+    /**
+     * Ordered index over the same transactions, keyed by ID. Point lookups stay on the
+     * hash map; paging walks this index so a page never copies the whole store.
+     */
+    private final ConcurrentNavigableMap<Long, Transaction> orderedIndex = new ConcurrentSkipListMap<>();
+
+    @Override
+    public void put(Transaction transaction) {
+        transactions.put(transaction.getId(), transaction);
+        orderedIndex.put(transaction.getId(), transaction);
+    }
+
+    @Override
+    public Transaction get(long id) {
+        return transactions.get(id);
+    }
+
+    @Override
+    public boolean remove(long id) {
+        orderedIndex.remove(id);
+        return transactions.remove(id) != null;
+    }
+
+    @Override
+    public boolean contains(long id) {
+        return transactions.containsKey(id);
+    }
+
+    @Override
+    public int size() {
+        return transactions.size();
+    }
+
+    @Override
+    public void clear() {
+        transactions.clear();
+        orderedIndex.clear();
+    }
+
+    @Override
+    public Iterator<Transaction> iterator(Long afterId, boolean ascending) {
+        NavigableMap<Long, Transaction> view;
+        if (ascending) {
+            view = afterId == null ? orderedIndex : orderedIndex.tailMap(afterId, false);
+        } else {
+            view = afterId == null ? orderedIndex.descendingMap() : orderedIndex.headMap(afterId, false).descendingMap();
+        }
+        return view.values().iterator();
+    }
+}
@@ -0,0 +1,204 @@
+package com.hsbc.transaction.repository;
+
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.util.Hashing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Store that partitions transactions by a hash of their ID over independent shards, each a
+ * complete store of its own with its own ordered index and count.
+ *
+ * Point operations go to one shard, so writers to different shards never contend on the same
+ * index. Counting adds up the shard counts. Listings in ID order merge the ordered iterators of
+ * every shard with a heap, taking the next transaction from whichever shard holds the lowest (or
+ * highest) ID. {@link #scanParallel} hands each shard to a task of the common fork-join pool.
+ */
+public class ShardedTransactionStore implements TransactionStore {
+
+    /**
+     * Largest {@code offset + limit} for which a page is merged from a page of every shard rather
+     * than from their iterators.
+     */
+    private static final int MAX_MERGED_PAGE = 1024;
+
+    private final TransactionStore[] shards;
+
+    /**
+     * @param shardCount the number of shards
+     * @param shardFactory creates the store of each shard
+     */
+    public ShardedTransactionStore(int shardCount, Supplier<? extends TransactionStore> shardFactory) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Shard count must be at least 1, was " + shardCount);
+        }
+        this.shards = new TransactionStore[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = shardFactory.get();
+        }
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * Returns the number of transactions held by the given shard.
+     */
+    public int size(int shard) {
+        return shards[shard].size();
+    }
+
+    /**
+     * Returns the index of the shard holding the given ID. The ID is mixed first, since the low
+     * bits of snowflake IDs issued less than once a millisecond are all the same.
+     */
+    public int shardOf(long id) {
+        return (int) Math.floorMod(Hashing.mix64(id), (long) shards.length);
+    }
+
+    @Override
+    public void put(Transaction transaction) {
+        shards[shardOf(transaction.getId())].put(transaction);
+    }
+
+    @Override
+    public void putAll(List<Transaction> batch) {
+        // Each shard takes its part in batch order, so the last occurrence of an ID still wins
+        List<List<Transaction>> parts = new ArrayList<>(shards.length);
+        for (int i = 0; i < shards.length; i++) {
+            parts.add(new ArrayList<>());
+        }
+        for (Transaction transaction : batch) {
+            parts.get(shardOf(transaction.getId())).add(transaction);
+        }
+        for (int i = 0; i < shards.length; i++) {
+            if (!parts.get(i).isEmpty()) {
+                shards[i].putAll(parts.get(i));
+            }
+        }
+    }
+
+    @Override
+    public Transaction get(long id) {
+        return shards[shardOf(id)].get(id);
+    }
+
+    @Override
+    public boolean remove(long id) {
+        return shards[shardOf(id)].remove(id);
+    }
+
+    @Override
+    public boolean contains(long id) {
+        return shards[shardOf(id)].contains(id);
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (TransactionStore shard : shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        for (TransactionStore shard : shards) {
+            shard.clear();
+        }
+    }
+
+    /**
+     * Merges a page of every shard for shallow pages. A deeper page walks the merged iterators
+     * from the nearer end, however the shards find their own pages, since the rank of a row in
+     * the merged listing is not known to any one shard.
+     */
+    @Override
+    public List<Transaction> page(long offset, int limit, boolean ascending) {
+        if (offset + limit > MAX_MERGED_PAGE) {
+            return TransactionStore.super.page(offset, limit, ascending);
+        }
+        // The page can only hold rows from the first offset + limit of each shard
+        List<Iterator<Transaction>> pages = new ArrayList<>(shards.length);
+        for (TransactionStore shard : shards) {
+            pages.add(shard.page(0, (int) offset + limit, ascending).iterator());
+        }
+        Iterator<Transaction> iterator = new MergingIterator(pages, ascending);
+        for (long skipped = 0; skipped < offset && iterator.hasNext(); skipped++) {
+            iterator.next();
+        }
+
+        List<Transaction> content = new ArrayList<>(limit);
+        while (content.size() < limit && iterator.hasNext()) {
+            content.add(iterator.next());
+        }
+        return content;
+    }
+
+    @Override
+    public Iterator<Transaction> iterator(Long afterId, boolean ascending) {
+        List<Iterator<Transaction>> iterators = new ArrayList<>(shards.length);
+        for (TransactionStore shard : shards) {
+            iterators.add(shard.iterator(afterId, ascending));
+        }
+        return new MergingIterator(iterators, ascending);
+    }
+
+    @Override
+    public void scanParallel(Consumer<? super Transaction> action) {
+        Arrays.stream(shards).parallel().forEach(shard -> {
+            Iterator<Transaction> iterator = shard.iterator(null, true);
+            while (iterator.hasNext()) {
+                action.accept(iterator.next());
+            }
+        });
+    }
+
+    /**
+     * K-way merge of iterators that are each ordered by ID, keeping the head of every iterator
+     * that is not exhausted in a heap.
+     */
+    private static final class MergingIterator implements Iterator<Transaction> {
+        private record Head(Transaction transaction, Iterator<Transaction> rest) {
+        }
+
+        private final PriorityQueue<Head> heads;
+
+        private MergingIterator(List<Iterator<Transaction>> iterators, boolean ascending) {
+            Comparator<Head> byId = Comparator.comparingLong(head -> head.transaction().getId());
+            this.heads = new PriorityQueue<>(Math.max(1, iterators.size()), ascending ? byId : byId.reversed());
+            for (Iterator<Transaction> iterator : iterators) {
+                if (iterator.hasNext()) {
+                    heads.add(new Head(iterator.next(), iterator));
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !heads.isEmpty();
+        }
+
+        @Override
+        public Transaction next() {
+            Head head = heads.poll();
+            if (head == null) {
+                throw new NoSuchElementException();
+            }
+            if (head.rest().hasNext()) {
+                heads.add(new Head(head.rest().next(), head.rest()));
+            }
+            return head.transaction();
+        }
+    }
+}
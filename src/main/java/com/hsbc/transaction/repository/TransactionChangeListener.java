@@ -0,0 +1,37 @@
+package com.hsbc.transaction.repository;
+
+import com.hsbc.transaction.model.Transaction;
+
+/**
+ * Receives every change applied to the {@link TransactionRepository}.
+ *
+ * Callbacks run on the writing thread while the ID's write lock is held, so changes to one ID
+ * arrive in the order they were applied; they must be quick and must not call back into the
+ * repository's write methods. Changes to different IDs may arrive concurrently.
+ */
+public interface TransactionChangeListener {
+
+    /**
+     * A transaction was created or replaced.
+     *
+     * @param previous the transaction it replaced, or null if it is new
+     * @param current the saved transaction
+     */
+    void onSaved(Transaction previous, Transaction current);
+
+    void onDeleted(Transaction deleted);
+
+    /**
+     * Every transaction was deleted.
+     */
+    void onCleared();
+
+    /**
+     * Whether the transactions replayed when the listener is registered may be passed to
+     * {@link #onSaved} in any order and from several threads at once, which lets a sharded store
+     * replay its shards in parallel.
+     */
+    default boolean acceptsParallelReplay() {
+        return false;
+    }
+}
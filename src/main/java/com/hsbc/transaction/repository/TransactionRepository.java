@@ -1,47 +1,369 @@
 package com.hsbc.transaction.repository;
 
-import com.hsbc.transaction.config.IdGeneratorConfig;
+import com.hsbc.transaction.exception.TransactionVersionConflictException;
 import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.persistence.SnapshotStore;
+import com.hsbc.transaction.persistence.WriteAheadLog;
 import com.hsbc.transaction.util.SnowflakeIdGenerator;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Repository;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
 
 /**
  * Repository interface for Transaction entity.
  * Follows DDD principles for persistence operations.
+ * Transactions are held by a {@link TransactionStore}; this class adds ID assignment,
+ * per-ID write ordering, the write-ahead log and recovery.
  */
 @Repository
 public class TransactionRepository {
-    private final Map<Long, Transaction> transactions = new ConcurrentHashMap<>();
+    private static final Logger logger = LoggerFactory.getLogger(TransactionRepository.class);
+
+    /**
+     * Sort property used to request ordering by ID. Snowflake IDs are time-ordered,
+     * so ordering by ID is equivalent to ordering by creation time.
+     */
+    public static final String ID_PROPERTY = "id";
+
+    private final TransactionStore store;
+
+    /**
+     * Per-ID write locks. A change is written to the write-ahead log, and only once it is durable
+     * applied in memory and passed to the listeners, all under the same lock, so the log records
+     * changes to one ID in the order they were applied and a change the log failed to write is
+     * never seen. Writes to IDs of different stripes still share the log's group commits.
+     */
+    private static final int LOCK_STRIPES = 64;
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
 
     private final SnowflakeIdGenerator snowflakeIdGenerator;
+    private final WriteAheadLog writeAheadLog;
+    private final SnapshotStore snapshotStore;
+    private final List<TransactionChangeListener> listeners = new CopyOnWriteArrayList<>();
 
     public TransactionRepository(SnowflakeIdGenerator snowflakeIdGenerator) {
+        this(snowflakeIdGenerator, null, null, new MapTransactionStore());
+    }
+
+    public TransactionRepository(SnowflakeIdGenerator snowflakeIdGenerator, TransactionStore store) {
+        this(snowflakeIdGenerator, null, null, store);
+    }
+
+    public TransactionRepository(SnowflakeIdGenerator snowflakeIdGenerator, WriteAheadLog writeAheadLog) {
+        this(snowflakeIdGenerator, writeAheadLog, null, new MapTransactionStore());
+    }
+
+    public TransactionRepository(SnowflakeIdGenerator snowflakeIdGenerator, WriteAheadLog writeAheadLog,
+                                 SnapshotStore snapshotStore) {
+        this(snowflakeIdGenerator, writeAheadLog, snapshotStore, new MapTransactionStore());
+    }
+
+    @Autowired
+    public TransactionRepository(SnowflakeIdGenerator snowflakeIdGenerator, WriteAheadLog writeAheadLog,
+                                 SnapshotStore snapshotStore, TransactionStore store) {
         this.snowflakeIdGenerator = snowflakeIdGenerator;
+        this.store = store;
+        this.writeAheadLog = writeAheadLog;
+        this.snapshotStore = snapshotStore;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Rebuilds the in-memory store from the latest snapshot, then replays the
+     * write-ahead log segments written after it.
+     */
+    @PostConstruct
+    public void recover() throws IOException {
+        long start = System.nanoTime();
+        long fromLsn = 0;
+        if (snapshotStore != null && snapshotStore.isEnabled()) {
+            fromLsn = snapshotStore.loadLatest(this::restore, this::reset);
+            logger.info("Loaded {} transactions from snapshot in {} ms",
+                    store.size(), (System.nanoTime() - start) / 1_000_000);
+        }
+        if (writeAheadLog == null || !writeAheadLog.isEnabled()) {
+            return;
+        }
+        long records = writeAheadLog.replay(new WriteAheadLog.ReplayHandler() {
+            @Override
+            public void put(Transaction transaction) {
+                restore(transaction);
+            }
+
+            @Override
+            public void delete(long id) {
+                store.remove(id);
+            }
+
+            @Override
+            public void clear() {
+                reset();
+            }
+        }, fromLsn);
+        logger.info("Recovered {} transactions from snapshot and {} write-ahead log records in {} ms",
+                store.size(), records, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Rolls the write-ahead log to a new segment with writes held off. A write holds its lock from
+     * logging its change until it is applied, so once every lock is held each change logged below
+     * the returned LSN is also applied to the store, and seen by a scan started afterwards.
+     *
+     * @return the LSN at which the new segment starts
+     * @throws IllegalStateException if the repository has no write-ahead log
+     */
+    public long rollWriteAheadLog() throws IOException {
+        if (writeAheadLog == null) {
+            throw new IllegalStateException("The repository has no write-ahead log");
+        }
+        lockAll();
+        try {
+            return writeAheadLog.rollSegment();
+        } finally {
+            unlockAll();
+        }
+    }
+
+    /**
+     * Registers a listener for every later change. The transactions already stored are first
+     * passed to {@link TransactionChangeListener#onSaved} as new, with writes held off meanwhile,
+     * so the listener starts from a complete and consistent view.
+     */
+    public void addListener(TransactionChangeListener listener) {
+        addListener(listener, true);
+    }
+
+    /**
+     * Registers a listener for every later change.
+     *
+     * @param replay whether the transactions already stored are first passed to the listener as new;
+     *               a listener that only follows changes, such as the change feed, skips them
+     */
+    public void addListener(TransactionChangeListener listener, boolean replay) {
+        lockAll();
+        try {
+            if (replay && listener.acceptsParallelReplay()) {
+                store.scanParallel(transaction -> listener.onSaved(null, transaction));
+            } else if (replay) {
+                Iterator<Transaction> iterator = store.iterator(null, true);
+                while (iterator.hasNext()) {
+                    listener.onSaved(null, iterator.next());
+                }
+            }
+            listeners.add(listener);
+        } finally {
+            unlockAll();
+        }
+    }
+
+    private void restore(Transaction transaction) {
+        store.put(transaction);
+    }
+
+    private void reset() {
+        store.clear();
     }
 
     /**
      * Saves a transaction to the repository.
+     * The transaction is stored with an ID, generated if it has none, and the version following
+     * the one it replaces, so the returned instance is the one stored rather than the argument.
+     * When the write-ahead log is enabled, the change is applied once it is durable
+     * according to the configured log mode, and not at all if the log fails to write it.
      *
      * @param transaction the transaction to save
      * @return the saved transaction
+     * @throws IllegalStateException if the write-ahead log failed to write the change
      */
     public Transaction save(Transaction transaction) {
-        if (transaction.getId() == null) {
-            // Generate a new ID if not provided
-            transaction.setId(snowflakeIdGenerator.nextId());
+        long id = transaction.getId() == null ? snowflakeIdGenerator.nextId() : transaction.getId();
+        Transaction saved;
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            // A generated ID cannot be stored yet, so only a given one is looked up
+            Transaction previous = transaction.getId() == null ? null : store.get(id);
+            saved = versioned(transaction, id, previous);
+            if (writeAheadLog != null) {
+                awaitDurable(writeAheadLog.logPut(saved));
+            }
+            store.put(saved);
+            notifySaved(previous, saved);
+        } finally {
+            lock.unlock();
+        }
+        return saved;
+    }
+
+    /**
+     * Atomically replaces a transaction with a changed copy of it.
+     * The current transaction is read, checked against the expected version and replaced under its
+     * ID's write lock, so concurrent updates of one transaction apply one after the other, each to
+     * the result of the previous one, and an update never brings back a deleted transaction.
+     * Readers are not blocked: they see either the old instance or the new one.
+     *
+     * @param id the ID of the transaction to update
+     * @param expectedVersion the version the change was made against, or null to update whatever is current
+     * @param change builds the replacement from the current transaction; its ID and version are ignored
+     * @return the saved transaction, or empty if there is no transaction with the ID
+     * @throws TransactionVersionConflictException if the current version is not the expected one
+     * @throws IllegalStateException if the write-ahead log failed to write the change, which is then not applied
+     */
+    public Optional<Transaction> update(long id, Long expectedVersion, UnaryOperator<Transaction> change) {
+        Transaction saved;
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            Transaction current = store.get(id);
+            if (current == null) {
+                return Optional.empty();
+            }
+            if (expectedVersion != null && expectedVersion != current.getVersion()) {
+                throw new TransactionVersionConflictException("Transaction " + id + " is at version "
+                        + current.getVersion() + ", not " + expectedVersion);
+            }
+            saved = versioned(change.apply(current), id, current);
+            if (writeAheadLog != null) {
+                awaitDurable(writeAheadLog.logPut(saved));
+            }
+            store.put(saved);
+            notifySaved(current, saved);
+        } finally {
+            lock.unlock();
+        }
+        return Optional.of(saved);
+    }
+
+    /**
+     * Saves a batch of transactions in one operation.
+     * Missing IDs are reserved as one block and the lock stripes covering the batch are held
+     * while it is logged and stored. The batch is stored once every change is durable, and not
+     * at all if the log fails to write any of them.
+     *
+     * @param batch the transactions to save
+     * @return the saved transactions, in the given order
+     * @throws IllegalStateException if the write-ahead log failed to write the batch
+     */
+    public List<Transaction> saveAll(List<Transaction> batch) {
+        return saveAll(batch, false);
+    }
+
+    /**
+     * Creates a batch of transactions in one operation, skipping those whose ID is taken.
+     * A given ID is checked and stored under the lock stripes covering the batch, so a transaction
+     * saved concurrently under the same ID is never overwritten; an ID given twice in the batch is
+     * only created for its first occurrence. The rest is saved as {@link #saveAll} does.
+     *
+     * @param batch the transactions to create
+     * @return the created transactions, in the given order, with null in place of skipped ones
+     * @throws IllegalStateException if the write-ahead log failed to write the batch
+     */
+    public List<Transaction> createAll(List<Transaction> batch) {
+        return saveAll(batch, true);
+    }
+
+    private List<Transaction> saveAll(List<Transaction> batch, boolean createOnly) {
+        long[] ids = assignIds(batch);
+
+        boolean[] covered = new boolean[LOCK_STRIPES];
+        for (long id : ids) {
+            covered[stripeOf(id)] = true;
+        }
+
+        // Stripes are taken in ascending order, as deleteAll does, so concurrent batches cannot deadlock
+        List<CompletableFuture<Void>> commits = new ArrayList<>(batch.size());
+        List<Transaction> saved = new ArrayList<>(batch.size());
+        for (int stripe = 0; stripe < LOCK_STRIPES; stripe++) {
+            if (covered[stripe]) {
+                locks[stripe].lock();
+            }
+        }
+        try {
+            List<Transaction> previous = previousOf(batch, ids, saved, createOnly);
+            List<Transaction> stored = createOnly ? saved.stream().filter(Objects::nonNull).toList() : saved;
+            if (writeAheadLog != null) {
+                for (Transaction transaction : stored) {
+                    commits.add(writeAheadLog.logPut(transaction));
+                }
+                awaitDurable(CompletableFuture.allOf(commits.toArray(CompletableFuture[]::new)));
+            }
+            store.putAll(stored);
+            for (int i = 0; i < saved.size(); i++) {
+                if (saved.get(i) != null) {
+                    notifySaved(previous.get(i), saved.get(i));
+                }
+            }
+        } finally {
+            for (int stripe = LOCK_STRIPES - 1; stripe >= 0; stripe--) {
+                if (covered[stripe]) {
+                    locks[stripe].unlock();
+                }
+            }
+        }
+        return saved;
+    }
+
+    /**
+     * Returns the ID each transaction of the batch is saved under, generating the missing ones.
+     */
+    private long[] assignIds(List<Transaction> batch) {
+        long[] ids = new long[batch.size()];
+        int missing = 0;
+        for (int i = 0; i < ids.length; i++) {
+            Long id = batch.get(i).getId();
+            if (id == null) {
+                missing++;
+            } else {
+                ids[i] = id;
+            }
+        }
+        int next = 0;
+        for (int from = 0; from < missing; from += SnowflakeIdGenerator.MAX_BATCH_SIZE) {
+            long[] generated = snowflakeIdGenerator.nextIds(Math.min(SnowflakeIdGenerator.MAX_BATCH_SIZE, missing - from));
+            for (long id : generated) {
+                while (batch.get(next).getId() != null) {
+                    next++;
+                }
+                ids[next++] = id;
+            }
         }
-        transactions.put(transaction.getId(), transaction);
-        return transaction;
+        return ids;
+    }
+
+    /**
+     * Returns the transaction to store: a copy with the given ID and the version following the
+     * replaced one, or the transaction itself when it already has both.
+     */
+    private static Transaction versioned(Transaction transaction, long id, Transaction replaced) {
+        long version = replaced == null ? 1 : replaced.getVersion() + 1;
+        Long currentId = transaction.getId();
+        if (currentId != null && currentId == id && transaction.getVersion() == version) {
+            return transaction;
+        }
+        return transaction.toBuilder().id(id).version(version).build();
     }
 
     /**
@@ -51,26 +373,65 @@ public class TransactionRepository {
      * @return an Optional containing the found transaction, or empty if not found
      */
     public Optional<Transaction> findById(Long id) {
-        return Optional.ofNullable(transactions.get(id));
+        return Optional.ofNullable(store.get(id));
     }
 
     /**
      * Returns all transactions with pagination support.
+     * Transactions are ordered by ID, newest first unless the pageable requests
+     * ascending order on {@link #ID_PROPERTY}. Only the requested page is materialized.
+     * A {@link ColumnarTransactionStore} seeks to it; other stores walk to it from the nearer end
+     * of the listing, so a page costs time proportional to that distance. {@link #findAfter}
+     * costs the same at any depth in every store and is the way to page deep into a large one.
      *
      * @param pageable the pagination information
      * @return a Page of transactions
      */
     public Page<Transaction> findAll(Pageable pageable) {
-        List<Transaction> allTransactions = new ArrayList<>(transactions.values());
-        int start = (int) pageable.getOffset();
-        int end = Math.min((start + pageable.getPageSize()), allTransactions.size());
-        
-        if (start >= allTransactions.size()) {
-            return new PageImpl<>(new ArrayList<>(), pageable, allTransactions.size());
+        int total = store.size();
+        long start = pageable.getOffset();
+        if (start >= total) {
+            return new PageImpl<>(new ArrayList<>(), pageable, total);
         }
-        
-        List<Transaction> pageContent = allTransactions.subList(start, end);
-        return new PageImpl<>(pageContent, pageable, allTransactions.size());
+
+        Sort.Order order = pageable.getSort().getOrderFor(ID_PROPERTY);
+        boolean ascending = order != null && order.isAscending();
+        return new PageImpl<>(store.page(start, pageable.getPageSize(), ascending), pageable, total);
+    }
+
+    /**
+     * Returns up to {@code limit} transactions that come strictly after {@code afterId}
+     * in the given direction, without counting or skipping over earlier entries.
+     *
+     * @param afterId the ID of the last transaction already seen, or null to start from the beginning
+     * @param direction ASC for oldest first, DESC for newest first
+     * @param limit the maximum number of transactions to return
+     * @return the transactions following {@code afterId}
+     */
+    public List<Transaction> findAfter(Long afterId, Sort.Direction direction, int limit) {
+        List<Transaction> content = new ArrayList<>(limit);
+        Iterator<Transaction> iterator = store.iterator(afterId, direction.isAscending());
+        while (content.size() < limit && iterator.hasNext()) {
+            content.add(iterator.next());
+        }
+        return content;
+    }
+
+    /**
+     * Returns a weakly consistent iterator over all transactions in ID order.
+     * Concurrent writes are neither blocked nor guaranteed to be seen.
+     */
+    public Iterator<Transaction> scan() {
+        return store.iterator(null, true);
+    }
+
+    /**
+     * Passes every transaction to the action in no particular order, fanning out over the shards
+     * of a sharded store on the common fork-join pool, so the action must be thread-safe.
+     * Concurrent writes are neither blocked nor guaranteed to be seen.
+     */
+    public void scanParallel(Consumer<? super Transaction> action) {
+        store.scanParallel(action);
     }
 
     /**
@@ -79,7 +440,7 @@ public class TransactionRepository {
      * @return the number of transactions
      */
     public int count() {
-        return transactions.size();
+        return store.size();
     }
 
     /**
@@ -87,9 +448,25 @@ public class TransactionRepository {
      *
      * @param id the ID of the transaction to delete
      * @return true if the transaction was deleted, false if it didn't exist
+     * @throws IllegalStateException if the write-ahead log failed to write the deletion, which is then not applied
      */
     public boolean deleteById(Long id) {
-        return transactions.remove(id) != null;
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            Transaction deleted = store.get(id);
+            if (deleted == null) {
+                return false;
+            }
+            if (writeAheadLog != null) {
+                awaitDurable(writeAheadLog.logDelete(id));
+            }
+            store.remove(id);
+            listeners.forEach(listener -> listener.onDeleted(deleted));
+            return true;
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -99,13 +476,85 @@ public class TransactionRepository {
      * @return true if the transaction exists, false otherwise
      */
     public boolean existsById(Long id) {
-        return transactions.containsKey(id);
+        return store.contains(id);
     }
 
     /**
      * Deletes all transactions from the repository.
      */
     public void deleteAll() {
-        transactions.clear();
+        lockAll();
+        try {
+            if (writeAheadLog != null) {
+                awaitDurable(writeAheadLog.logClear());
+            }
+            store.clear();
+            listeners.forEach(TransactionChangeListener::onCleared);
+        } finally {
+            unlockAll();
+        }
+    }
+
+    /**
+     * Returns what each transaction of the batch replaces, which for a repeated ID is its earlier
+     * occurrence, and adds what replaces it to {@code saved}. Generated IDs cannot be stored yet,
+     * so only given ones are looked up. When only creating, a taken ID adds null to both lists.
+     */
+    private List<Transaction> previousOf(List<Transaction> batch, long[] ids, List<Transaction> saved, boolean createOnly) {
+        Map<Long, Transaction> latest = new HashMap<>();
+        List<Transaction> previous = new ArrayList<>(batch.size());
+        for (int i = 0; i < ids.length; i++) {
+            boolean given = batch.get(i).getId() != null;
+            Transaction replaced = !given ? null : latest.containsKey(ids[i]) ? latest.get(ids[i]) : store.get(ids[i]);
+            if (createOnly && replaced != null) {
+                previous.add(null);
+                saved.add(null);
+                continue;
+            }
+            Transaction transaction = versioned(batch.get(i), ids[i], replaced);
+            previous.add(replaced);
+            saved.add(transaction);
+            if (given) {
+                latest.put(ids[i], transaction);
+            }
+        }
+        return previous;
+    }
+
+    private void notifySaved(Transaction previous, Transaction current) {
+        for (TransactionChangeListener listener : listeners) {
+            listener.onSaved(previous, current);
+        }
+    }
+
+    private void lockAll() {
+        for (ReentrantLock lock : locks) {
+            lock.lock();
+        }
+    }
+
+    private void unlockAll() {
+        for (ReentrantLock lock : locks) {
+            lock.unlock();
+        }
+    }
+
+    private ReentrantLock lockFor(long id) {
+        return locks[stripeOf(id)];
+    }
+
+    private static int stripeOf(long id) {
+        return Long.hashCode(id) & (LOCK_STRIPES - 1);
+    }
+
+    private static void awaitDurable(CompletableFuture<Void> commit) {
+        if (commit == null) {
+            return;
+        }
+        try {
+            commit.join();
+        } catch (CompletionException e) {
+            throw new IllegalStateException("Failed to write the change to the write-ahead log", e.getCause());
+        }
     }
 } 
\ No newline at end of file
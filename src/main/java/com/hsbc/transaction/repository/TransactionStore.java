@@ -0,0 +1,99 @@
+package com.hsbc.transaction.repository;
+
+import com.hsbc.transaction.model.Transaction;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * In-memory storage engine behind {@link TransactionRepository}, keyed and ordered by ID.
+ *
+ * Implementations are thread-safe. Write ordering per ID and durability are handled by the
+ * repository; a store only has to apply each call atomically.
+ */
+public interface TransactionStore {
+
+    /**
+     * Inserts the transaction, or replaces the stored one with the same ID.
+     */
+    void put(Transaction transaction);
+
+    /**
+     * Inserts or replaces every transaction of the batch. When an ID appears more than once,
+     * the last occurrence wins.
+     */
+    default void putAll(List<Transaction> batch) {
+        for (Transaction transaction : batch) {
+            put(transaction);
+        }
+    }
+
+    /**
+     * Returns the transaction with the given ID, or null if there is none.
+     */
+    Transaction get(long id);
+
+    /**
+     * Removes the transaction with the given ID.
+     *
+     * @return true if a transaction was removed
+     */
+    boolean remove(long id);
+
+    boolean contains(long id);
+
+    int size();
+
+    void clear();
+
+    /**
+     * Returns up to {@code limit} transactions in ID order after skipping the first {@code offset}.
+     * By default the ordered iterator is walked to the page from whichever end of the store is
+     * nearer, and a page read from the far end is reversed, so a page costs time proportional to
+     * its distance from that end; {@link #iterator} seeks by ID without walking, and is how deep
+     * listings should be read. Stores able to find a row by rank may seek here too.
+     * Concurrent writes may shift the page by the number of transactions they add or remove.
+     */
+    default List<Transaction> page(long offset, int limit, boolean ascending) {
+        long size = size();
+        long count = Math.max(0, Math.min(limit, size - offset));
+        long beyond = size - offset - count;
+        boolean reversed = beyond < offset;
+        Iterator<Transaction> iterator = iterator(null, ascending != reversed);
+        for (long skipped = 0, skip = reversed ? beyond : offset; skipped < skip && iterator.hasNext(); skipped++) {
+            iterator.next();
+        }
+
+        List<Transaction> content = new ArrayList<>((int) count);
+        while (content.size() < count && iterator.hasNext()) {
+            content.add(iterator.next());
+        }
+        if (reversed) {
+            Collections.reverse(content);
+        }
+        return content;
+    }
+
+    /**
+     * Returns a weakly consistent iterator over the transactions that come strictly after
+     * {@code afterId} in the given direction, or over all of them when {@code afterId} is null.
+     * Concurrent writes are neither blocked nor guaranteed to be seen.
+     */
+    Iterator<Transaction> iterator(Long afterId, boolean ascending);
+
+    /**
+     * Passes every transaction to the action, in no particular order and possibly from several
+     * threads at once. Stores that can split the work hand it to the common fork-join pool; by
+     * default the transactions are passed in ID order on the calling thread.
+     * Concurrent writes are neither blocked nor guaranteed to be seen.
+     */
+    default void scanParallel(Consumer<? super Transaction> action) {
+        Iterator<Transaction> iterator = iterator(null, true);
+        while (iterator.hasNext()) {
+            action.accept(iterator.next());
+        }
+    }
+}
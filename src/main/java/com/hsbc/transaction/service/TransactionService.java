@@ -1,10 +1,24 @@
 package com.hsbc.transaction.service;
 
+import com.hsbc.transaction.enums.ExportFormat;
 import com.hsbc.transaction.exception.DuplicateTransactionException;
+import com.hsbc.transaction.exception.InvalidCursorException;
+import com.hsbc.transaction.exception.InvalidSearchQueryException;
+import com.hsbc.transaction.exception.InvalidTimeRangeException;
 import com.hsbc.transaction.exception.TransactionNotFoundException;
+import com.hsbc.transaction.exception.TransactionVersionConflictException;
+import com.hsbc.transaction.model.BatchResult;
+import com.hsbc.transaction.model.CursorPage;
 import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.model.TransactionFilter;
+import com.hsbc.transaction.model.TransactionStats;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -21,6 +35,16 @@ public interface TransactionService {
      */
     Transaction createTransaction(Transaction transaction);
 
+    /**
+     * Creates a batch of transactions in one operation.
+     * Each transaction is checked on its own; rejected ones are reported and do not
+     * prevent the others from being created.
+     *
+     * @param transactions The transactions to create
+     * @return The outcome of every transaction, in the given order
+     */
+    BatchResult<Transaction> createTransactions(List<Transaction> transactions);
+
     /**
      * Retrieves a specific transaction by ID.
      * 
@@ -32,12 +56,96 @@ public interface TransactionService {
 
     /**
      * Retrieves all transactions with pagination support.
+     * A page costs time proportional to its distance from the nearer end of the listing;
+     * {@link #getTransactionsAfter} costs the same at any depth.
      * 
      * @param pageable pagination information
      * @return Page of transactions
      */
     Page<Transaction> getAllTransactions(Pageable pageable);
 
+    /**
+     * Retrieves the transactions matching a filter with pagination support.
+     * Matches are found through bitmap indexes, so only the returned transactions are read.
+     *
+     * @param filter the type, status and currency filter; an empty filter matches every transaction
+     * @param pageable pagination information
+     * @return Page of transactions
+     */
+    Page<Transaction> getAllTransactions(TransactionFilter filter, Pageable pageable);
+
+    /**
+     * Retrieves transactions using keyset pagination.
+     * The cost of a page does not depend on how deep into the listing it is,
+     * and no total count is computed.
+     *
+     * @param cursor the opaque cursor returned with the previous page, or null for the first page
+     * @param limit the maximum number of transactions to return
+     * @param direction the ordering, or null for newest first; after the first page, null or the cursor's ordering
+     * @return the page of transactions and the cursor for the next one
+     * @throws InvalidCursorException if the cursor cannot be decoded or belongs to a listing in another direction
+     */
+    CursorPage<Transaction> getTransactionsAfter(String cursor, int limit, Sort.Direction direction);
+
+    /**
+     * Retrieves the transactions matching a filter using keyset pagination.
+     *
+     * @param filter the type, status and currency filter; an empty filter matches every transaction
+     * @param cursor the opaque cursor returned with the previous page, or null for the first page
+     * @param limit the maximum number of transactions to return
+     * @param direction the ordering, or null for newest first; after the first page, null or the cursor's ordering
+     * @return the page of transactions and the cursor for the next one
+     * @throws InvalidCursorException if the cursor cannot be decoded or belongs to a listing in another direction
+     */
+    CursorPage<Transaction> getTransactionsAfter(TransactionFilter filter, String cursor, int limit, Sort.Direction direction);
+
+    /**
+     * Searches transactions by the words of their description, using keyset pagination in ID order.
+     * A transaction matches when its description contains every term of the query, compared without
+     * case or accents; a term ending in {@code *} matches any word starting with it.
+     *
+     * @param query the terms to search for, separated by spaces
+     * @param cursor the opaque cursor returned with the previous page, or null for the first page
+     * @param limit the maximum number of transactions to return
+     * @param direction the ordering, or null for newest first; after the first page, null or the cursor's ordering
+     * @return the page of matching transactions and the cursor for the next one
+     * @throws InvalidCursorException if the cursor cannot be decoded or belongs to a listing in another direction
+     * @throws InvalidSearchQueryException if a prefix term matches too many words
+     */
+    CursorPage<Transaction> searchTransactions(String query, String cursor, int limit, Sort.Direction direction);
+
+    /**
+     * Retrieves the transactions with a timestamp in [{@code from}, {@code to}), ordered by
+     * timestamp in the direction of the pageable's sort on {@code timestamp}, newest first by default.
+     * Finding the range costs O(log n); the total count takes time proportional to the range.
+     *
+     * @param from the inclusive lower bound, or null for no lower bound
+     * @param to the exclusive upper bound, or null for no upper bound
+     * @param filter the type, status and currency filter; an empty filter matches every transaction
+     * @param pageable pagination information
+     * @return Page of transactions
+     * @throws InvalidTimeRangeException if {@code from} is after {@code to}
+     */
+    Page<Transaction> getTransactionsBetween(LocalDateTime from, LocalDateTime to, TransactionFilter filter, Pageable pageable);
+
+    /**
+     * Retrieves the transactions with a timestamp in [{@code from}, {@code to}) using keyset
+     * pagination, ordered by timestamp. A page costs O(log n + limit) wherever it starts.
+     *
+     * @param from the inclusive lower bound, or null for no lower bound
+     * @param to the exclusive upper bound, or null for no upper bound
+     * @param filter the type, status and currency filter; an empty filter matches every transaction
+     * @param cursor the opaque cursor returned with the previous page of the same range, or null for the first page
+     * @param limit the maximum number of transactions to return
+     * @param direction the ordering, or null for newest first; after the first page, null or the cursor's ordering
+     * @return the page of transactions and the cursor for the next one
+     * @throws InvalidTimeRangeException if {@code from} is after {@code to}
+     * @throws InvalidCursorException if the cursor cannot be decoded, does not belong to a time range listing
+     *         or belongs to a listing in another direction
+     */
+    CursorPage<Transaction> getTransactionsBetween(LocalDateTime from, LocalDateTime to, TransactionFilter filter,
+                                                   String cursor, int limit, Sort.Direction direction);
+
     /**
      * Updates an existing transaction.
      * 
@@ -48,6 +156,19 @@ public interface TransactionService {
      */
     Transaction updateTransaction(Long id, Transaction transaction);
 
+    /**
+     * Updates an existing transaction if it is still at the expected version.
+     * The check and the replacement are one atomic step.
+     *
+     * @param id The ID of the transaction to update
+     * @param transaction The new transaction data
+     * @param expectedVersion The version the update was made against, or null to skip the check
+     * @return The updated transaction, at the next version
+     * @throws TransactionNotFoundException if no transaction is found with the given ID
+     * @throws TransactionVersionConflictException if the transaction is no longer at the expected version
+     */
+    Transaction updateTransaction(Long id, Transaction transaction, Long expectedVersion);
+
     /**
      * Deletes a transaction from the system.
      * 
@@ -62,4 +183,25 @@ public interface TransactionService {
      * @return The total number of transactions
      */
     int getTotalTransactions();
+
+    /**
+     * Retrieves the totals per currency, per type and per recent minute and hour.
+     * The cost does not depend on the number of transactions.
+     *
+     * @return the current totals
+     */
+    TransactionStats getStatistics();
+
+    /**
+     * Writes every transaction to the stream in the given format, ordered by ID, without holding
+     * more than one transaction and a write buffer in memory. Writes are not blocked meanwhile:
+     * a transaction stored for the whole export is written once, as it was before or after any
+     * concurrent update, and transactions created after the export started are left out.
+     *
+     * @param format the output format
+     * @param out the stream to write to, which is flushed but not closed
+     * @return the number of transactions written
+     * @throws IOException if writing to the stream fails
+     */
+    long exportTransactions(ExportFormat format, OutputStream out) throws IOException;
 } 
\ No newline at end of file
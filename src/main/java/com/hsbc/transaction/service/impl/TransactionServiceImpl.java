@@ -1,34 +1,42 @@
 package com.hsbc.transaction.service.impl;
 
+import com.hsbc.transaction.enums.ErrorCode;
+import com.hsbc.transaction.enums.ExportFormat;
+import com.hsbc.transaction.export.TransactionExportWriter;
+import com.hsbc.transaction.model.BatchItemResult;
+import com.hsbc.transaction.model.BatchResult;
+import com.hsbc.transaction.aggregate.TransactionAggregator;
+import com.hsbc.transaction.cache.TransactionPageCache;
+import com.hsbc.transaction.model.CursorPage;
 import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.model.TransactionFilter;
+import com.hsbc.transaction.model.TransactionStats;
 import com.hsbc.transaction.repository.TransactionRepository;
 import com.hsbc.transaction.service.TransactionService;
+import com.hsbc.transaction.exception.InvalidCursorException;
+import com.hsbc.transaction.exception.InvalidTimeRangeException;
 import com.hsbc.transaction.exception.TransactionNotFoundException;
-import com.alibaba.fastjson2.JSON;
-import com.alibaba.fastjson2.JSONWriter;
+import com.hsbc.transaction.index.BitmapIndex;
+import com.hsbc.transaction.index.DescriptionIndex;
+import com.hsbc.transaction.index.TimestampIndex;
+import com.hsbc.transaction.journal.TransactionJournal;
 import com.hsbc.transaction.enums.TransactionStatus;
-import com.itextpdf.text.Document;
-import com.itextpdf.text.DocumentException;
-import com.itextpdf.text.Element;
-import com.itextpdf.text.Font;
-import com.itextpdf.text.PageSize;
-import com.itextpdf.text.Paragraph;
+import com.hsbc.transaction.util.CursorCodec;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import java.math.BigDecimal;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.io.FileWriter;
-
-import com.itextpdf.text.pdf.BaseFont;
-import com.itextpdf.text.pdf.PdfWriter;
 
 /**
  * Implementation of the TransactionService interface.
@@ -39,13 +47,26 @@ import com.itextpdf.text.pdf.PdfWriter;
 public class TransactionServiceImpl implements TransactionService {
     private static final Logger logger = LoggerFactory.getLogger(TransactionServiceImpl.class);
     private final TransactionRepository transactionRepository;
+    private final TransactionJournal transactionJournal;
+    private final TransactionPageCache transactionPageCache;
+    private final TransactionAggregator transactionAggregator;
+    private final TimestampIndex timestampIndex;
+    private final BitmapIndex bitmapIndex;
+    private final DescriptionIndex descriptionIndex;
 
-    public TransactionServiceImpl(TransactionRepository transactionRepository) {
+    public TransactionServiceImpl(TransactionRepository transactionRepository, TransactionJournal transactionJournal,
+                                  TransactionPageCache transactionPageCache, TransactionAggregator transactionAggregator,
+                                  TimestampIndex timestampIndex, BitmapIndex bitmapIndex, DescriptionIndex descriptionIndex) {
         this.transactionRepository = transactionRepository;
+        this.transactionJournal = transactionJournal;
+        this.transactionPageCache = transactionPageCache;
+        this.transactionAggregator = transactionAggregator;
+        this.timestampIndex = timestampIndex;
+        this.bitmapIndex = bitmapIndex;
+        this.descriptionIndex = descriptionIndex;
     }
 
     @Override
-    @CacheEvict(value = "allTransactions", allEntries = true)
     public Transaction createTransaction(Transaction transactionRequest) {
         logger.info("Creating new transaction with description: {}", transactionRequest.getDescription());
 
@@ -55,37 +76,60 @@ public class TransactionServiceImpl implements TransactionService {
             throw new IllegalArgumentException("Transaction with ID " + transactionRequest.getId() + " already exists");
         }
 
-        // Validate amount
-        if (transactionRequest.getMoney().getAmount().compareTo(BigDecimal.ZERO) <= 0) {
-            throw new IllegalArgumentException("Transaction amount must be positive");
+        String error = validate(transactionRequest);
+        if (error != null) {
+            throw new IllegalArgumentException(error);
         }
 
         // Save and return
         Transaction savedTransaction = transactionRepository.save(transactionRequest);
         logger.info("Transaction created successfully with ID: {}", savedTransaction.getId());
 
-        // write to pdf
-        logger.info("Writing transaction to JSON: {}", savedTransaction);
-        writeToJSON(savedTransaction);
+        // Hand off to the background journal writer
+        transactionJournal.append(savedTransaction);
 
         return savedTransaction;
     }
 
-    private void writeToJSON(Transaction transaction) {
-        try {
-            // Convert transaction to JSON
-            String jsonContent = JSON.toJSONString(transaction, JSONWriter.Feature.PrettyFormat); // true for pretty printing
-            logger.info("JSON content: {}", jsonContent);
-            
-            // Write to file
-            try (FileWriter writer = new FileWriter("transaction.json")) {
-                writer.write(jsonContent);
+    @Override
+    public BatchResult<Transaction> createTransactions(List<Transaction> transactionRequests) {
+        logger.info("Creating batch of {} transactions", transactionRequests.size());
+
+        List<BatchItemResult<Transaction>> results = new ArrayList<>(transactionRequests.size());
+        List<Transaction> accepted = new ArrayList<>(transactionRequests.size());
+        List<Integer> acceptedIndexes = new ArrayList<>(transactionRequests.size());
+        for (int i = 0; i < transactionRequests.size(); i++) {
+            Transaction transactionRequest = transactionRequests.get(i);
+            String error = validate(transactionRequest);
+            if (error != null) {
+                results.add(BatchItemResult.failure(i, ErrorCode.INVALID_ARGUMENT, error));
+            } else {
+                // Filled in with the saved transaction below
+                results.add(null);
+                accepted.add(transactionRequest);
+                acceptedIndexes.add(i);
+            }
+        }
+
+        // IDs are checked for duplicates while the batch is stored, so a concurrent create cannot take them in between
+        List<Transaction> created = accepted.isEmpty() ? List.of() : transactionRepository.createAll(accepted);
+        List<Transaction> saved = new ArrayList<>(created.size());
+        for (int i = 0; i < created.size(); i++) {
+            int index = acceptedIndexes.get(i);
+            Transaction transaction = created.get(i);
+            if (transaction == null) {
+                results.set(index, BatchItemResult.failure(index, ErrorCode.DUPLICATE_TRANSACTION,
+                        "Transaction with ID " + accepted.get(i).getId() + " already exists"));
+            } else {
+                results.set(index, BatchItemResult.success(index, transaction));
+                saved.add(transaction);
             }
-            
-            logger.info("JSON file created successfully for transaction ID: {}", transaction.getId());
-        } catch (IOException e) {
-            logger.error("Error creating JSON file for transaction ID: " + transaction.getId(), e);
         }
+        saved.forEach(transactionJournal::append);
+
+        BatchResult<Transaction> result = new BatchResult<>(results);
+        logger.info("Batch created {} transactions, rejected {}", result.getSucceeded(), result.getFailed());
+        return result;
     }
 
     @Override
@@ -100,10 +144,10 @@ public class TransactionServiceImpl implements TransactionService {
     }
 
     @Override
-    @Cacheable(value = "allTransactions")
     public Page<Transaction> getAllTransactions(Pageable pageable) {
         logger.debug("Fetching all transactions with pageable: {}", pageable);
-        Page<Transaction> transactions = transactionRepository.findAll(pageable);
+        Page<Transaction> transactions = transactionPageCache.get(pageable,
+                () -> transactionRepository.findAll(pageable), transactionRepository::count);
         logger.info("Found {} transactions in page {} of size {}",
                 transactions.getNumberOfElements(),
                 pageable.getPageNumber(),
@@ -111,40 +155,187 @@ public class TransactionServiceImpl implements TransactionService {
         return transactions;
     }
 
+    @Override
+    public Page<Transaction> getAllTransactions(TransactionFilter filter, Pageable pageable) {
+        if (filter.isEmpty()) {
+            return getAllTransactions(pageable);
+        }
+        logger.debug("Fetching transactions matching {} with pageable: {}", filter, pageable);
+        return bitmapIndex.findAll(filter, pageable);
+    }
+
+    @Override
+    public CursorPage<Transaction> getTransactionsAfter(String cursor, int limit, Sort.Direction direction) {
+        return getTransactionsAfter(TransactionFilter.NONE, cursor, limit, direction);
+    }
+
+    @Override
+    public CursorPage<Transaction> getTransactionsAfter(TransactionFilter filter, String cursor, int limit,
+                                                        Sort.Direction direction) {
+        return cursorPage(cursor, limit, direction, (afterId, order, count) -> {
+            logger.debug("Fetching up to {} transactions after {} in {} order", limit, afterId, order);
+            return filter.isEmpty()
+                    ? transactionRepository.findAfter(afterId, order, count)
+                    : bitmapIndex.findAfter(filter, afterId, order, count);
+        });
+    }
+
+    @Override
+    public CursorPage<Transaction> searchTransactions(String query, String cursor, int limit, Sort.Direction direction) {
+        return cursorPage(cursor, limit, direction, (afterId, order, count) -> {
+            logger.debug("Searching up to {} transactions for '{}' after {} in {} order", limit, query, afterId, order);
+            return descriptionIndex.search(query, afterId, order, count);
+        });
+    }
+
+    /**
+     * Loads a page of a listing ordered by ID, strictly after the position in {@code cursor}.
+     */
+    @FunctionalInterface
+    private interface IdPageLoader {
+        List<Transaction> load(Long afterId, Sort.Direction direction, int limit);
+    }
+
+    private CursorPage<Transaction> cursorPage(String cursor, int limit, Sort.Direction direction, IdPageLoader loader) {
+        CursorCodec.Cursor decoded = cursor != null && !cursor.isEmpty() ? CursorCodec.decode(cursor) : null;
+        Long afterId = decoded != null ? decoded.lastId() : null;
+        direction = CursorCodec.direction(decoded, direction);
+
+        // Fetch one extra row to learn whether another page exists without counting
+        List<Transaction> transactions = loader.load(afterId, direction, limit + 1);
+        String nextCursor = null;
+        if (transactions.size() > limit) {
+            transactions = transactions.subList(0, limit);
+            nextCursor = CursorCodec.encode(direction, transactions.getLast().getId());
+        }
+        return new CursorPage<>(transactions, nextCursor);
+    }
+
+    @Override
+    public Page<Transaction> getTransactionsBetween(LocalDateTime from, LocalDateTime to, TransactionFilter filter,
+                                                    Pageable pageable) {
+        checkRange(from, to);
+        logger.debug("Fetching transactions from {} to {} matching {} with pageable: {}", from, to, filter, pageable);
+        Sort.Order order = pageable.getSort().getOrderFor(TimestampIndex.TIMESTAMP_PROPERTY);
+        Iterator<Transaction> iterator = timestampIndex.iterator(from, to, filter, order != null && order.isAscending(), null);
+        for (long skipped = 0; skipped < pageable.getOffset() && iterator.hasNext(); skipped++) {
+            iterator.next();
+        }
+        List<Transaction> content = new ArrayList<>(pageable.getPageSize());
+        while (content.size() < pageable.getPageSize() && iterator.hasNext()) {
+            content.add(iterator.next());
+        }
+        return new PageImpl<>(content, pageable, timestampIndex.count(from, to, filter));
+    }
+
+    @Override
+    public CursorPage<Transaction> getTransactionsBetween(LocalDateTime from, LocalDateTime to, TransactionFilter filter,
+                                                          String cursor, int limit, Sort.Direction direction) {
+        checkRange(from, to);
+        TimestampIndex.Key after = null;
+        CursorCodec.Cursor decoded = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            decoded = CursorCodec.decode(cursor);
+            if (decoded.lastTimestamp() == null) {
+                throw new InvalidCursorException("Cursor does not belong to a time range listing: " + cursor);
+            }
+            after = new TimestampIndex.Key(decoded.lastTimestamp(), decoded.lastId());
+        }
+        direction = CursorCodec.direction(decoded, direction);
+        logger.debug("Fetching up to {} transactions from {} to {} after {} in {} order", limit, from, to, after, direction);
+
+        Iterator<Transaction> iterator = timestampIndex.iterator(from, to, filter, direction.isAscending(), after);
+        List<Transaction> transactions = new ArrayList<>(limit);
+        while (transactions.size() < limit && iterator.hasNext()) {
+            transactions.add(iterator.next());
+        }
+        String nextCursor = null;
+        if (iterator.hasNext()) {
+            TimestampIndex.Key last = TimestampIndex.Key.of(transactions.getLast());
+            nextCursor = CursorCodec.encode(direction, last.epochMicros(), last.id());
+        }
+        return new CursorPage<>(transactions, nextCursor);
+    }
+
+    /**
+     * Returns why a transaction cannot be created, or null if it can; shared by single and batch creates.
+     */
+    private static String validate(Transaction transaction) {
+        if (transaction.getMoney().signum() <= 0) {
+            return "Transaction amount must be positive";
+        }
+        return null;
+    }
+
+    private static void checkRange(LocalDateTime from, LocalDateTime to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new InvalidTimeRangeException("from must not be after to");
+        }
+    }
+
     @Override
     public int getTotalTransactions() {
         return transactionRepository.count();
     }
 
     @Override
-    @CacheEvict(value = { "transactions", "allTransactions" }, allEntries = true)
+    public TransactionStats getStatistics() {
+        return transactionAggregator.statistics();
+    }
+
+    @Override
+    public long exportTransactions(ExportFormat format, OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        // IDs only grow, so stopping at the newest one stored now leaves out later creates and lets the export end
+        List<Transaction> newest = transactionRepository.findAfter(null, Sort.Direction.DESC, 1);
+        TransactionExportWriter writer = new TransactionExportWriter(out, format);
+        if (!newest.isEmpty()) {
+            long lastId = newest.getFirst().getId();
+            Iterator<Transaction> iterator = transactionRepository.scan();
+            while (iterator.hasNext()) {
+                Transaction transaction = iterator.next();
+                if (transaction.getId() > lastId) {
+                    break;
+                }
+                writer.write(transaction);
+            }
+        }
+        writer.flush();
+        logger.info("Exported {} transactions as {} in {} ms", writer.getCount(), format,
+                (System.nanoTime() - start) / 1_000_000);
+        return writer.getCount();
+    }
+
+    @Override
+    @CacheEvict(value = "transactions", key = "#id")
     public Transaction updateTransaction(Long id, Transaction transactionRequest) {
+        return updateTransaction(id, transactionRequest, null);
+    }
+
+    @Override
+    @CacheEvict(value = "transactions", key = "#id")
+    public Transaction updateTransaction(Long id, Transaction transactionRequest, Long expectedVersion) {
         logger.debug("Updating transaction with ID: {}", id);
 
-        // Get existing transaction
-        Transaction existingTransaction = transactionRepository.findById(id)
+        // Replaces the stored instance atomically, so concurrent updates cannot lose each other's changes
+        Transaction updatedTransaction = transactionRepository.update(id, expectedVersion, existing -> existing.toBuilder()
+                        .description(transactionRequest.getDescription())
+                        .money(transactionRequest.getMoney())
+                        .type(transactionRequest.getType())
+                        .status(TransactionStatus.COMPLETED)
+                        .timestamp(LocalDateTime.now())
+                        .build())
                 .orElseThrow(() -> {
                     logger.error("Transaction with ID {} not found for update", id);
                     return new TransactionNotFoundException("Transaction with ID " + id + " not found");
                 });
-
-        // Update fields
-        existingTransaction.setDescription(transactionRequest.getDescription());
-        existingTransaction.setMoney(transactionRequest.getMoney());
-        existingTransaction.setType(transactionRequest.getType());
-        // Set status to completed
-        existingTransaction.setStatus(TransactionStatus.COMPLETED);
-        existingTransaction.setTimestamp(LocalDateTime.now());
-
-        // Save and return
-        Transaction updatedTransaction = transactionRepository.save(existingTransaction);
         logger.info("Transaction updated successfully: {}", updatedTransaction);
 
         return updatedTransaction;
     }
 
     @Override
-    @CacheEvict(value = { "transactions", "allTransactions" }, allEntries = true)
+    @CacheEvict(value = "transactions", key = "#id")
     public void deleteTransaction(Long id) {
         logger.info("Attempting to delete transaction with ID: {}", id);
 
@@ -0,0 +1,158 @@
+package com.hsbc.transaction.statement;
+
+import com.hsbc.transaction.model.Money;
+import com.hsbc.transaction.model.StatementRequest;
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.model.TransactionFilter;
+import com.itextpdf.text.BaseColor;
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.Element;
+import com.itextpdf.text.Font;
+import com.itextpdf.text.PageSize;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.Phrase;
+import com.itextpdf.text.pdf.ColumnText;
+import com.itextpdf.text.pdf.PdfPCell;
+import com.itextpdf.text.pdf.PdfPTable;
+import com.itextpdf.text.pdf.PdfPageEventHelper;
+import com.itextpdf.text.pdf.PdfWriter;
+
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.Currency;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Renders a statement as a PDF: a header describing the request, one table row per transaction
+ * and the totals per currency.
+ *
+ * The table is laid out and written in chunks of {@code rowsPerFlush} rows, and iText writes each
+ * page to the stream once it is full, so memory use depends on the chunk size and not on the length
+ * of the statement. Text uses the standard Helvetica font, which cannot show characters outside
+ * Windows-1252; they are left out.
+ */
+class StatementRenderer {
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final Font TITLE_FONT = new Font(Font.FontFamily.HELVETICA, 16, Font.BOLD);
+    private static final Font TEXT_FONT = new Font(Font.FontFamily.HELVETICA, 9);
+    private static final Font HEADER_FONT = new Font(Font.FontFamily.HELVETICA, 9, Font.BOLD);
+    private static final Font FOOTER_FONT = new Font(Font.FontFamily.HELVETICA, 8, Font.NORMAL, BaseColor.GRAY);
+    private static final String[] COLUMNS = {"Date", "ID", "Description", "Type", "Amount", "Currency"};
+    private static final float[] COLUMN_WIDTHS = {2.4f, 2.4f, 5f, 1.4f, 1.8f, 1.2f};
+
+    /**
+     * Outcome of rendering one statement.
+     */
+    record Rendered(long transactions, int pages) {
+    }
+
+    private final int rowsPerFlush;
+
+    StatementRenderer(int rowsPerFlush) {
+        this.rowsPerFlush = rowsPerFlush;
+    }
+
+    /**
+     * Writes the statement to the stream, which is left open.
+     *
+     * @param transactions the transactions to list, in the order they should appear
+     */
+    Rendered render(StatementRequest request, Iterator<Transaction> transactions, OutputStream out) throws DocumentException {
+        Document document = new Document(PageSize.A4, 36, 36, 36, 48);
+        PdfWriter writer = PdfWriter.getInstance(document, out);
+        writer.setCloseStream(false);
+        writer.setPageEvent(new PageFooter());
+        document.open();
+
+        document.add(new Paragraph("Transaction Statement", TITLE_FONT));
+        document.add(new Paragraph("Period: " + DATE_TIME.format(request.getFrom()) + " to "
+                + DATE_TIME.format(request.getTo()) + " (exclusive)", TEXT_FONT));
+        TransactionFilter filter = request.toFilter();
+        if (!filter.isEmpty()) {
+            document.add(new Paragraph("Filter: " + describe(filter), TEXT_FONT));
+        }
+        Paragraph generated = new Paragraph("Generated: " + DATE_TIME.format(LocalDateTime.now()), TEXT_FONT);
+        generated.setSpacingAfter(12);
+        document.add(generated);
+
+        PdfPTable table = new PdfPTable(COLUMN_WIDTHS);
+        table.setWidthPercentage(100);
+        table.setHeaderRows(1);
+        // An incomplete table gives up its rows once they are written, so only one chunk is held at a time
+        table.setComplete(false);
+        for (String column : COLUMNS) {
+            PdfPCell cell = new PdfPCell(new Phrase(column, HEADER_FONT));
+            cell.setBackgroundColor(BaseColor.LIGHT_GRAY);
+            table.addCell(cell);
+        }
+
+        Map<Currency, long[]> totals = new TreeMap<>(Comparator.comparing(Currency::getCurrencyCode));
+        long count = 0;
+        while (transactions.hasNext()) {
+            Transaction transaction = transactions.next();
+            Money money = transaction.getMoney();
+            table.addCell(new Phrase(DATE_TIME.format(transaction.getTimestamp()), TEXT_FONT));
+            table.addCell(new Phrase(String.valueOf(transaction.getId()), TEXT_FONT));
+            table.addCell(new Phrase(transaction.getDescription(), TEXT_FONT));
+            table.addCell(new Phrase(transaction.getType().getDisplayName(), TEXT_FONT));
+            PdfPCell amount = new PdfPCell(new Phrase(money.toPlainString(), TEXT_FONT));
+            amount.setHorizontalAlignment(Element.ALIGN_RIGHT);
+            table.addCell(amount);
+            table.addCell(new Phrase(money.getCurrency().getCurrencyCode(), TEXT_FONT));
+
+            long[] total = totals.computeIfAbsent(money.getCurrency(), currency -> new long[2]);
+            total[0]++;
+            total[1] = Math.addExact(total[1], money.minorUnits());
+            if (++count % rowsPerFlush == 0) {
+                document.add(table);
+            }
+        }
+        table.setComplete(true);
+        document.add(table);
+
+        Paragraph summary = new Paragraph(count == 0 ? "No transactions in this period." : "Totals", HEADER_FONT);
+        summary.setSpacingBefore(12);
+        document.add(summary);
+        for (Map.Entry<Currency, long[]> total : totals.entrySet()) {
+            document.add(new Paragraph(total.getKey().getCurrencyCode() + ": "
+                    + Money.ofMinor(total.getValue()[1], total.getKey()).toPlainString()
+                    + " in " + total.getValue()[0] + " transactions", TEXT_FONT));
+        }
+
+        int pages = writer.getPageNumber();
+        document.close();
+        return new Rendered(count, pages);
+    }
+
+    private static String describe(TransactionFilter filter) {
+        StringBuilder description = new StringBuilder();
+        if (!filter.getTypes().isEmpty()) {
+            description.append("types ").append(filter.getTypes()).append(' ');
+        }
+        if (!filter.getStatuses().isEmpty()) {
+            description.append("statuses ").append(filter.getStatuses()).append(' ');
+        }
+        if (!filter.getCurrencies().isEmpty()) {
+            description.append("currencies ").append(filter.getCurrencies()).append(' ');
+        }
+        return description.toString().trim();
+    }
+
+    /**
+     * Writes the page number at the bottom of every page.
+     */
+    private static final class PageFooter extends PdfPageEventHelper {
+
+        @Override
+        public void onEndPage(PdfWriter writer, Document document) {
+            ColumnText.showTextAligned(writer.getDirectContent(), Element.ALIGN_CENTER,
+                    new Phrase("Page " + writer.getPageNumber(), FOOTER_FONT),
+                    (document.left() + document.right()) / 2, document.bottom() - 24, 0);
+        }
+    }
+}
@@ -0,0 +1,482 @@
+package com.hsbc.transaction.statement;
+
+import com.hsbc.transaction.config.StatementProperties;
+import com.hsbc.transaction.enums.StatementJobStatus;
+import com.hsbc.transaction.exception.InvalidTimeRangeException;
+import com.hsbc.transaction.exception.StatementNotFoundException;
+import com.hsbc.transaction.exception.StatementNotReadyException;
+import com.hsbc.transaction.exception.StatementQueueFullException;
+import com.hsbc.transaction.index.TimestampIndex;
+import com.hsbc.transaction.model.StatementJob;
+import com.hsbc.transaction.model.StatementRequest;
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.model.TransactionFilter;
+import com.hsbc.transaction.repository.TransactionChangeListener;
+import com.hsbc.transaction.repository.TransactionRepository;
+import com.itextpdf.text.DocumentException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Renders PDF statements in the background, so that request threads only submit and poll jobs.
+ *
+ * Jobs run on a fixed pool of {@code transaction.statement.workers} threads behind a queue of
+ * {@code transaction.statement.queue-capacity}; a submission that finds the queue full is rejected
+ * with {@link StatementQueueFullException} instead of waiting. Statements are written to files under
+ * {@code transaction.statement.directory} and served from there.
+ *
+ * The most recent statements are remembered by request, so an identical request is answered with the
+ * file already rendered, and one submitted while the same statement is rendering joins that job. The
+ * service follows repository changes and forgets a statement as soon as a transaction it covers is
+ * created, updated or deleted; a statement whose transactions change while it is rendering is still
+ * returned to its job but not remembered. Files are deleted once neither the cache nor a retained job
+ * refers to them.
+ */
+@Service
+public class StatementService implements TransactionChangeListener {
+    private static final Logger logger = LoggerFactory.getLogger(StatementService.class);
+    /**
+     * Prefix of every file the service writes, so that it only ever deletes its own files.
+     */
+    private static final String FILE_PREFIX = "statement-";
+    private static final String PDF_SUFFIX = ".pdf";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final StatementProperties properties;
+    private final TimestampIndex timestampIndex;
+    private final StatementRenderer renderer;
+    private final Path directory;
+    private final ThreadPoolExecutor executor;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    /**
+     * Jobs rendering or waiting to, by request key.
+     */
+    private final Map<String, Job> pending = new ConcurrentHashMap<>();
+    /**
+     * Rendered statements by request key, least recently used first. Guarded by {@link #cacheLock}.
+     */
+    private final LinkedHashMap<String, Rendered> cache = new LinkedHashMap<>(16, 0.75f, true);
+    /**
+     * Size of the cache, readable without its lock.
+     */
+    private volatile int cached;
+    private final ReentrantLock cacheLock = new ReentrantLock();
+    private final AtomicLong lastSweepNanos = new AtomicLong(System.nanoTime());
+
+    private final Timer renderTimer;
+    private final Counter cacheHits;
+    private final Counter rejected;
+
+    public StatementService(StatementProperties properties, TimestampIndex timestampIndex,
+                            TransactionRepository transactionRepository, MeterRegistry meterRegistry) {
+        this(properties, timestampIndex, transactionRepository, meterRegistry, false);
+    }
+
+    /**
+     * @param virtualThreads whether workers are virtual threads; the pool still bounds how many statements render at once
+     */
+    @Autowired
+    public StatementService(StatementProperties properties, TimestampIndex timestampIndex,
+                            TransactionRepository transactionRepository, MeterRegistry meterRegistry,
+                            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.properties = properties;
+        this.timestampIndex = timestampIndex;
+        this.renderer = new StatementRenderer(properties.getRowsPerFlush());
+        this.directory = Path.of(properties.getDirectory());
+        ThreadFactory threadFactory = virtualThreads
+                ? Thread.ofVirtual().name("statement-worker-", 1).factory()
+                : Thread.ofPlatform().name("statement-worker-", 1).daemon().factory();
+        this.executor = new ThreadPoolExecutor(properties.getWorkers(), properties.getWorkers(), 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()), threadFactory);
+        Gauge.builder("transaction.statement.queue.depth", executor, pool -> pool.getQueue().size())
+                .description("Statement jobs waiting for a worker")
+                .register(meterRegistry);
+        this.renderTimer = Timer.builder("transaction.statement.render")
+                .description("Time to render one statement")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.cacheHits = Counter.builder("transaction.statement.cache.hits")
+                .description("Statements served without rendering")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("transaction.statement.rejected")
+                .description("Submissions rejected because the queue was full")
+                .register(meterRegistry);
+        transactionRepository.addListener(this);
+    }
+
+    /**
+     * Creates the statement directory and removes the statements and temporary files left by a
+     * previous run, whose cache is gone. Anything else in the directory is left alone.
+     */
+    @PostConstruct
+    public void start() throws IOException {
+        Files.createDirectories(directory);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory,
+                FILE_PREFIX + "*{" + PDF_SUFFIX + "," + TEMPORARY_SUFFIX + "}")) {
+            for (Path file : files) {
+                if (Files.isRegularFile(file)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Submits a statement for rendering.
+     *
+     * @return the job, already completed if the same statement was rendered before
+     * @throws InvalidTimeRangeException if {@code from} is after {@code to}
+     * @throws StatementQueueFullException if the queue of jobs is full
+     */
+    public StatementJob submit(StatementRequest request) {
+        if (request.getFrom().isAfter(request.getTo())) {
+            throw new InvalidTimeRangeException("from must not be after to");
+        }
+        sweepIfDue();
+        Job job = new Job(UUID.randomUUID().toString(), request);
+
+        Rendered hit;
+        cacheLock.lock();
+        try {
+            hit = cache.get(job.key);
+        } finally {
+            cacheLock.unlock();
+        }
+        if (hit != null) {
+            cacheHits.increment();
+            job.complete(hit, true);
+            jobs.put(job.id, job);
+            logger.debug("Statement job {} served from cache", job.id);
+            return job.view();
+        }
+
+        Job running = pending.putIfAbsent(job.key, job);
+        if (running != null) {
+            return running.view();
+        }
+        jobs.put(job.id, job);
+        try {
+            executor.execute(() -> render(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            pending.remove(job.key, job);
+            rejected.increment();
+            throw new StatementQueueFullException("Too many statements are being generated, retry later");
+        }
+        logger.info("Statement job {} queued for {} to {}", job.id, request.getFrom(), request.getTo());
+        return job.view();
+    }
+
+    /**
+     * Returns the current state of a job.
+     *
+     * @throws StatementNotFoundException if there is no such job, or it expired
+     */
+    public StatementJob getJob(String id) {
+        return find(id).view();
+    }
+
+    /**
+     * Returns the file of a completed statement.
+     *
+     * @throws StatementNotFoundException if there is no such job, or it expired
+     * @throws StatementNotReadyException if the job has not completed, or failed
+     */
+    public Path getStatement(String id) {
+        Job job = find(id);
+        if (job.status == StatementJobStatus.FAILED) {
+            throw new StatementNotReadyException("Statement job " + id + " failed: " + job.error);
+        }
+        if (job.status != StatementJobStatus.COMPLETED) {
+            throw new StatementNotReadyException("Statement job " + id + " is not completed yet");
+        }
+        return job.rendered.file();
+    }
+
+    @Override
+    public void onSaved(Transaction previous, Transaction current) {
+        invalidate(previous);
+        invalidate(current);
+    }
+
+    @Override
+    public void onDeleted(Transaction deleted) {
+        invalidate(deleted);
+    }
+
+    @Override
+    public void onCleared() {
+        cacheLock.lock();
+        try {
+            pending.values().forEach(job -> job.stale = true);
+            cache.clear();
+            cached = 0;
+        } finally {
+            cacheLock.unlock();
+        }
+    }
+
+    private Job find(String id) {
+        Job job = jobs.get(id);
+        if (job == null || job.isExpired(properties.getJobRetention().toNanos())) {
+            throw new StatementNotFoundException("Statement job " + id + " not found");
+        }
+        return job;
+    }
+
+    private void render(Job job) {
+        job.status = StatementJobStatus.RUNNING;
+        long start = System.nanoTime();
+        Path temporary = null;
+        try {
+            temporary = Files.createTempFile(directory, FILE_PREFIX, TEMPORARY_SUFFIX);
+            StatementRenderer.Rendered result;
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temporary), 64 * 1024)) {
+                Iterator<Transaction> transactions = timestampIndex.iterator(
+                        job.request.getFrom(), job.request.getTo(), job.scope.filter(), true, null);
+                result = renderer.render(job.request, transactions, out);
+            }
+            Path file = Files.move(temporary, directory.resolve(fileName(job)), StandardCopyOption.ATOMIC_MOVE);
+            Rendered rendered = new Rendered(job.scope, file, result.transactions(), result.pages());
+            remember(job, rendered);
+            job.complete(rendered, false);
+            logger.info("Statement job {} rendered {} transactions on {} pages in {} ms", job.id,
+                    result.transactions(), result.pages(), (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException | DocumentException | RuntimeException e) {
+            logger.error("Error rendering statement job {}", job.id, e);
+            job.fail(e.getMessage());
+            deleteQuietly(temporary);
+        } finally {
+            pending.remove(job.key, job);
+            renderTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Caches the statement unless a transaction it covers changed while it was rendering.
+     * The check is made under {@link #cacheLock}, which {@link #invalidate} also holds, so no change is missed.
+     */
+    private void remember(Job job, Rendered rendered) {
+        cacheLock.lock();
+        try {
+            if (job.stale) {
+                return;
+            }
+            cache.put(job.key, rendered);
+            Iterator<Rendered> eldest = cache.values().iterator();
+            while (cache.size() > properties.getCacheSize()) {
+                eldest.next();
+                eldest.remove();
+            }
+            cached = cache.size();
+        } finally {
+            cacheLock.unlock();
+        }
+    }
+
+    /**
+     * Forgets the statements covering the transaction. Runs on every repository change, so it does no I/O
+     * and returns at once when nothing is cached or pending.
+     */
+    private void invalidate(Transaction transaction) {
+        if (transaction == null || transaction.getTimestamp() == null || (cached == 0 && pending.isEmpty())) {
+            return;
+        }
+        cacheLock.lock();
+        try {
+            for (Job job : pending.values()) {
+                if (job.scope.covers(transaction)) {
+                    job.stale = true;
+                }
+            }
+            if (cache.values().removeIf(rendered -> rendered.scope().covers(transaction))) {
+                cached = cache.size();
+            }
+        } finally {
+            cacheLock.unlock();
+        }
+    }
+
+    /**
+     * Drops expired jobs and deletes the files no longer referenced, at most once per minute.
+     */
+    private void sweepIfDue() {
+        long last = lastSweepNanos.get();
+        long now = System.nanoTime();
+        if (now - last < SWEEP_INTERVAL_NANOS || !lastSweepNanos.compareAndSet(last, now)) {
+            return;
+        }
+        long retention = properties.getJobRetention().toNanos();
+        jobs.values().removeIf(job -> job.isExpired(retention));
+
+        // A file is named after the job that rendered it, which is retained from submission
+        Set<Path> referenced = new HashSet<>();
+        cacheLock.lock();
+        try {
+            cache.values().forEach(rendered -> referenced.add(rendered.file().getFileName()));
+        } finally {
+            cacheLock.unlock();
+        }
+        for (Job job : jobs.values()) {
+            referenced.add(Path.of(fileName(job)));
+            Rendered rendered = job.rendered;
+            if (rendered != null) {
+                referenced.add(rendered.file().getFileName());
+            }
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, FILE_PREFIX + "*" + PDF_SUFFIX)) {
+            for (Path file : files) {
+                if (!referenced.contains(file.getFileName())) {
+                    deleteQuietly(file);
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Error listing statement directory {}", directory, e);
+        }
+    }
+
+    private static String fileName(Job job) {
+        return FILE_PREFIX + job.id + PDF_SUFFIX;
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Error deleting statement file {}", file, e);
+        }
+    }
+
+    /**
+     * Identifies requests for the same statement, with the filter sets in a fixed order.
+     */
+    private static String keyOf(StatementRequest request, TransactionFilter filter) {
+        return request.getFrom() + "|" + request.getTo()
+                + "|" + filter.getTypes().stream().map(Enum::name).sorted().toList()
+                + "|" + filter.getStatuses().stream().map(Enum::name).sorted().toList()
+                + "|" + filter.getCurrencies().stream().map(currency -> currency.getCurrencyCode()).sorted().toList();
+    }
+
+    /**
+     * The transactions a statement lists: timestamps in [{@code fromMicros}, {@code toMicros}) matching the filter.
+     */
+    private record Scope(long fromMicros, long toMicros, TransactionFilter filter) {
+
+        boolean covers(Transaction transaction) {
+            long micros = TimestampIndex.toEpochMicros(transaction.getTimestamp());
+            return micros >= fromMicros && micros < toMicros && filter.matches(transaction);
+        }
+    }
+
+    private record Rendered(Scope scope, Path file, long transactions, int pages) {
+    }
+
+    private static final class Job {
+        final String id;
+        final StatementRequest request;
+        final Scope scope;
+        final String key;
+        final LocalDateTime submittedAt = LocalDateTime.now();
+        volatile StatementJobStatus status = StatementJobStatus.QUEUED;
+        volatile Rendered rendered;
+        volatile boolean cached;
+        volatile String error;
+        volatile LocalDateTime completedAt;
+        volatile long finishedNanos;
+        /**
+         * Set when a transaction the statement covers changes while it is pending, so the result is not cached.
+         */
+        volatile boolean stale;
+
+        Job(String id, StatementRequest request) {
+            this.id = id;
+            this.request = request;
+            TransactionFilter filter = request.toFilter();
+            this.scope = new Scope(TimestampIndex.toEpochMicros(request.getFrom()),
+                    TimestampIndex.toEpochMicros(request.getTo()), filter);
+            this.key = keyOf(request, filter);
+        }
+
+        void complete(Rendered rendered, boolean cached) {
+            this.rendered = rendered;
+            this.cached = cached;
+            finish(StatementJobStatus.COMPLETED);
+        }
+
+        void fail(String error) {
+            this.error = error;
+            finish(StatementJobStatus.FAILED);
+        }
+
+        private void finish(StatementJobStatus status) {
+            completedAt = LocalDateTime.now();
+            finishedNanos = System.nanoTime();
+            this.status = status;
+        }
+
+        boolean isExpired(long retentionNanos) {
+            StatementJobStatus current = status;
+            return (current == StatementJobStatus.COMPLETED || current == StatementJobStatus.FAILED)
+                    && System.nanoTime() - finishedNanos > retentionNanos;
+        }
+
+        StatementJob view() {
+            Rendered result = rendered;
+            return StatementJob.builder()
+                    .id(id)
+                    .status(status)
+                    .from(request.getFrom())
+                    .to(request.getTo())
+                    .submittedAt(submittedAt)
+                    .completedAt(completedAt)
+                    .transactions(result == null ? null : result.transactions())
+                    .pages(result == null ? null : result.pages())
+                    .cached(cached)
+                    .error(error)
+                    .build();
+        }
+    }
+}
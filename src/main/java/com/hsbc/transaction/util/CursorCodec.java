@@ -0,0 +1,89 @@
+package com.hsbc.transaction.util;
+
+import com.hsbc.transaction.exception.InvalidCursorException;
+import org.springframework.data.domain.Sort;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/**
+ * Encodes keyset pagination positions as opaque, URL-safe tokens.
+ *
+ * A token carries the listing direction and the ID of the last element returned, so a client
+ * only needs to echo it back to continue the listing in the same order. Tokens of listings
+ * ordered by timestamp also carry the last element's timestamp.
+ */
+public final class CursorCodec {
+    private static final byte ASCENDING = 'a';
+    private static final byte DESCENDING = 'd';
+    private static final int TOKEN_BYTES = 1 + Long.BYTES;
+    private static final int TIMESTAMP_TOKEN_BYTES = TOKEN_BYTES + Long.BYTES;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private CursorCodec() {
+    }
+
+    /**
+     * A decoded cursor position.
+     *
+     * @param direction the direction of the listing the cursor belongs to
+     * @param lastId the ID of the last element already returned
+     * @param lastTimestamp the timestamp of the last element already returned, in microseconds
+     *                      since the epoch, or null for listings ordered by ID
+     */
+    public record Cursor(Sort.Direction direction, long lastId, Long lastTimestamp) {
+    }
+
+    /**
+     * Returns the direction of a page of a cursor listing. A cursor carries the direction of its
+     * listing, so a requested direction may be omitted after the first page, but must not differ.
+     *
+     * @param cursor the decoded cursor, or null for the first page
+     * @param requested the requested direction, or null for the cursor's, or newest first on the first page
+     * @throws InvalidCursorException if the requested direction is not the direction of the cursor
+     */
+    public static Sort.Direction direction(Cursor cursor, Sort.Direction requested) {
+        if (cursor == null) {
+            return requested != null ? requested : Sort.Direction.DESC;
+        }
+        if (requested != null && requested != cursor.direction()) {
+            throw new InvalidCursorException("Cursor belongs to a listing in " + cursor.direction()
+                    + " order, not " + requested + "; omit direction to continue it");
+        }
+        return cursor.direction();
+    }
+
+    public static String encode(Sort.Direction direction, long lastId) {
+        ByteBuffer buffer = ByteBuffer.allocate(TOKEN_BYTES);
+        buffer.put(direction.isAscending() ? ASCENDING : DESCENDING);
+        buffer.putLong(lastId);
+        return ENCODER.encodeToString(buffer.array());
+    }
+
+    public static String encode(Sort.Direction direction, long lastTimestamp, long lastId) {
+        ByteBuffer buffer = ByteBuffer.allocate(TIMESTAMP_TOKEN_BYTES);
+        buffer.put(direction.isAscending() ? ASCENDING : DESCENDING);
+        buffer.putLong(lastId);
+        buffer.putLong(lastTimestamp);
+        return ENCODER.encodeToString(buffer.array());
+    }
+
+    public static Cursor decode(String token) {
+        byte[] bytes;
+        try {
+            bytes = DECODER.decode(token);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid cursor: " + token);
+        }
+        if ((bytes.length != TOKEN_BYTES && bytes.length != TIMESTAMP_TOKEN_BYTES)
+                || (bytes[0] != ASCENDING && bytes[0] != DESCENDING)) {
+            throw new InvalidCursorException("Invalid cursor: " + token);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        Sort.Direction direction = buffer.get() == ASCENDING ? Sort.Direction.ASC : Sort.Direction.DESC;
+        long lastId = buffer.getLong();
+        return new Cursor(direction, lastId, buffer.hasRemaining() ? buffer.getLong() : null);
+    }
+}
@@ -0,0 +1,24 @@
+package com.hsbc.transaction.util;
+
+/**
+ * Hash functions for spreading IDs over partitions.
+ */
+public final class Hashing {
+
+    private Hashing() {
+    }
+
+    /**
+     * MurmurHash3 finalizer. Every bit of the result depends on every bit of the value, so IDs
+     * that differ only in a few bits, such as snowflake IDs that all have sequence 0 because they
+     * were issued in different milliseconds, are spread over the whole range.
+     */
+    public static long mix64(long value) {
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB9FE1A85EC53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -1,74 +1,152 @@
 package com.hsbc.transaction.util;
 
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongPredicate;
+
 /**
  * Snowflake ID Generator
  * A distributed unique ID generator inspired by Twitter's Snowflake.
  *
  * This implementation generates 64-bit unique IDs based on the current timestamp,
  * It could get a better performance than UUID.
+ *
+ * The last issued timestamp and sequence are packed into a single {@link AtomicLong}
+ * and advanced with compare-and-set, so callers never block on a monitor. When the
+ * sequence of the current millisecond is used up, the sequence carries over into the
+ * next millisecond instead of spinning until the clock ticks; the generator may run
+ * at most {@link #MAX_LEAD_MS} ahead of the clock before callers are parked briefly.
+ *
+ * An ID is made of 41 bits of milliseconds since the custom epoch, a 5-bit datacenter ID,
+ * a 5-bit worker ID and a 12-bit sequence, so up to 32 workers in each of 32 datacenters
+ * issue IDs without coordination. A generator may also be restricted to the IDs a node owns
+ * in a cluster; it then skips over the others.
  */
 public class SnowflakeIdGenerator {
     private static final long EPOCH = 1609459200000L; // Custom epoch (2021-01-01)
-    private static final long WORKER_ID_BITS = 1L;
-    private static final long DATACENTER_ID_BITS = 1L;
+    private static final long WORKER_ID_BITS = 5L;
+    private static final long DATACENTER_ID_BITS = 5L;
     private static final long SEQUENCE_BITS = 12L;
 
-    private static final long MAX_WORKER_ID = ~(-1L << WORKER_ID_BITS);
-    private static final long MAX_DATACENTER_ID = ~(-1L << DATACENTER_ID_BITS);
+    public static final long MAX_WORKER_ID = ~(-1L << WORKER_ID_BITS);
+    public static final long MAX_DATACENTER_ID = ~(-1L << DATACENTER_ID_BITS);
+    private static final long SEQUENCE_MASK = ~(-1L << SEQUENCE_BITS);
 
     private static final long WORKER_ID_SHIFT = SEQUENCE_BITS;
     private static final long DATACENTER_ID_SHIFT = SEQUENCE_BITS + WORKER_ID_BITS;
     private static final long TIMESTAMP_SHIFT = SEQUENCE_BITS + WORKER_ID_BITS + DATACENTER_ID_BITS;
 
-    private final long workerId;
-    private final long datacenterId;
-    private long sequence = 0L;
-    private long lastTimestamp = -1L;
+    /**
+     * Largest number of IDs reserved by one {@link #nextIds(int)} call: one millisecond's sequence.
+     */
+    public static final int MAX_BATCH_SIZE = 1 << SEQUENCE_BITS;
+
+    /**
+     * How far, in milliseconds, issued timestamps may run ahead of the clock.
+     */
+    static final long MAX_LEAD_MS = 10L;
+
+    private final long nodeBits;
+
+    /**
+     * Accepts the IDs this generator may issue, or null to issue every ID.
+     */
+    private final LongPredicate owned;
+
+    /**
+     * Last issued {@code (timestamp - EPOCH) << SEQUENCE_BITS | sequence}. Incrementing it
+     * moves to the next sequence, carrying into the next millisecond on overflow.
+     */
+    private final AtomicLong lastState = new AtomicLong(-1L);
 
     public SnowflakeIdGenerator(long workerId, long datacenterId) {
+        this(workerId, datacenterId, null);
+    }
+
+    /**
+     * @param workerId the worker ID, between 0 and {@link #MAX_WORKER_ID}
+     * @param datacenterId the datacenter ID, between 0 and {@link #MAX_DATACENTER_ID}
+     * @param owned accepts the IDs to issue, or null to issue every ID; rejected IDs are skipped,
+     *              so each ID takes on average one attempt per accepted share of the ID space
+     */
+    public SnowflakeIdGenerator(long workerId, long datacenterId, LongPredicate owned) {
         if (workerId > MAX_WORKER_ID || workerId < 0) {
             throw new IllegalArgumentException("Worker ID can't be greater than " + MAX_WORKER_ID + " or less than 0");
         }
         if (datacenterId > MAX_DATACENTER_ID || datacenterId < 0) {
             throw new IllegalArgumentException("Datacenter ID can't be greater than " + MAX_DATACENTER_ID + " or less than 0");
         }
-        this.workerId = workerId;
-        this.datacenterId = datacenterId;
+        this.nodeBits = (datacenterId << DATACENTER_ID_SHIFT) | (workerId << WORKER_ID_SHIFT);
+        this.owned = owned;
     }
 
-    public synchronized long nextId() {
-        long timestamp = timeGen();
-
-        if (timestamp < lastTimestamp) {
-            throw new RuntimeException("Clock moved backwards. Refusing to generate id");
+    public long nextId() {
+        while (true) {
+            long id = toId(reserve(1));
+            if (owned == null || owned.test(id)) {
+                return id;
+            }
         }
+    }
 
-        if (lastTimestamp == timestamp) {
-            sequence = (sequence + 1) & ~(-1L << SEQUENCE_BITS);
-            if (sequence == 0) {
-                timestamp = tilNextMillis(lastTimestamp);
+    /**
+     * Reserves {@code count} IDs in a single atomic step, or in a few when IDs are
+     * skipped because they are not owned. The IDs are unique, strictly increasing, and
+     * greater than every ID issued before the call.
+     *
+     * @param count the number of IDs, between 1 and {@link #MAX_BATCH_SIZE}
+     * @return the reserved IDs in ascending order
+     */
+    public long[] nextIds(int count) {
+        if (count < 1 || count > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Count must be between 1 and " + MAX_BATCH_SIZE);
+        }
+        long[] ids = new long[count];
+        int filled = 0;
+        while (filled < count) {
+            int wanted = count - filled;
+            long first = reserve(wanted);
+            for (int i = 0; i < wanted; i++) {
+                long id = toId(first + i);
+                if (owned == null || owned.test(id)) {
+                    ids[filled++] = id;
+                }
             }
-        } else {
-            sequence = 0L;
         }
+        return ids;
+    }
 
-        lastTimestamp = timestamp;
+    /**
+     * Advances the packed state by {@code count} and returns the first reserved state.
+     */
+    private long reserve(int count) {
+        while (true) {
+            long last = lastState.get();
+            long now = timeGen() - EPOCH;
+            long lastTimestamp = last >>> SEQUENCE_BITS;
+            if (last >= 0 && lastTimestamp - now > MAX_LEAD_MS) {
+                throw new RuntimeException("Clock moved backwards. Refusing to generate id");
+            }
 
-        return ((timestamp - EPOCH) << TIMESTAMP_SHIFT) |
-                (datacenterId << DATACENTER_ID_SHIFT) |
-                (workerId << WORKER_ID_SHIFT) |
-                sequence;
+            long first = now > lastTimestamp || last < 0 ? now << SEQUENCE_BITS : last + 1;
+            long end = first + count - 1;
+            if ((end >>> SEQUENCE_BITS) - now > MAX_LEAD_MS) {
+                // Sequence space is used up well ahead of the clock; wait for it to catch up
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                continue;
+            }
+            if (lastState.compareAndSet(last, end)) {
+                return first;
+            }
+        }
     }
 
-    private long tilNextMillis(long lastTimestamp) {
-        long timestamp = timeGen();
-        while (timestamp <= lastTimestamp) {
-            timestamp = timeGen();
-        }
-        return timestamp;
+    private long toId(long state) {
+        return ((state >>> SEQUENCE_BITS) << TIMESTAMP_SHIFT) | nodeBits | (state & SEQUENCE_MASK);
     }
 
-    private long timeGen() {
+    long timeGen() {
         return System.currentTimeMillis();
     }
-} 
\ No newline at end of file
+}
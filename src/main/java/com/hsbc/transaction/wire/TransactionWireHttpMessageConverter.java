@@ -0,0 +1,97 @@
+package com.hsbc.transaction.wire;
+
+import com.hsbc.transaction.model.CursorPage;
+import com.hsbc.transaction.model.Transaction;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Reads and writes transactions in the binary wire format of {@link TransactionWireWriter}.
+ *
+ * Writes a {@link Transaction}, and a {@link CursorPage} or {@link Page} of transactions as a list
+ * message; reads a {@link Transaction}. Pages and lists of any other element type are left to
+ * the JSON converter.
+ */
+public class TransactionWireHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final String MEDIA_TYPE_VALUE = "application/x-transaction-binary";
+    public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(MEDIA_TYPE_VALUE);
+
+    /**
+     * Buffer size for messages of one transaction, which hold a few dozen bytes unless the description is long.
+     */
+    static final int SINGLE_BUFFER_SIZE = 512;
+
+    public TransactionWireHttpMessageConverter() {
+        super(MEDIA_TYPE);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return Transaction.class == clazz;
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return type == Transaction.class && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        if (!canWrite(mediaType)) {
+            return false;
+        }
+        if (Transaction.class == clazz) {
+            return true;
+        }
+        // Only the declared type tells which elements a page holds
+        return (CursorPage.class.isAssignableFrom(clazz) || Page.class.isAssignableFrom(clazz))
+                && type instanceof ParameterizedType parameterized
+                && parameterized.getActualTypeArguments()[0] == Transaction.class;
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        return readInternal(Transaction.class, inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        try {
+            return new TransactionWireReader(inputMessage.getBody(), SINGLE_BUFFER_SIZE).readTransaction();
+        } catch (IOException e) {
+            throw new HttpMessageNotReadableException("Malformed transaction message: " + e.getMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(Object body, Type type, HttpOutputMessage outputMessage) throws IOException {
+        TransactionWireWriter writer;
+        if (body instanceof Transaction transaction) {
+            writer = new TransactionWireWriter(outputMessage.getBody(), SINGLE_BUFFER_SIZE);
+            writer.writeTransaction(transaction);
+        } else if (body instanceof CursorPage<?> page) {
+            writer = new TransactionWireWriter(outputMessage.getBody());
+            writer.writeList(cast(page.getContent()), -1, page.getNextCursor());
+        } else {
+            Page<?> page = (Page<?>) body;
+            writer = new TransactionWireWriter(outputMessage.getBody());
+            writer.writeList(cast(page.getContent()), page.getTotalElements(), null);
+        }
+        writer.flush();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Transaction> cast(List<?> content) {
+        return (List<Transaction>) content;
+    }
+}
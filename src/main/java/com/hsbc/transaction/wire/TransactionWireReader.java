@@ -0,0 +1,251 @@
+package com.hsbc.transaction.wire;
+
+import com.hsbc.transaction.enums.TransactionStatus;
+import com.hsbc.transaction.enums.TransactionType;
+import com.hsbc.transaction.model.Money;
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.persistence.TransactionBinaryCodec;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+
+import static com.hsbc.transaction.wire.TransactionWireWriter.FLAG_DESCRIPTION;
+import static com.hsbc.transaction.wire.TransactionWireWriter.FLAG_ID;
+import static com.hsbc.transaction.wire.TransactionWireWriter.FLAG_TIMESTAMP;
+import static com.hsbc.transaction.wire.TransactionWireWriter.FLAG_VERSION;
+
+/**
+ * Reads messages written by {@link TransactionWireWriter}.
+ *
+ * The stream is read through one reused buffer and descriptions are decoded from it in place;
+ * the currency of the previous record is reused when the next one has the same code. Malformed
+ * input fails with an {@link IOException} rather than a runtime exception. The reader never
+ * closes the stream.
+ */
+public class TransactionWireReader {
+
+    /**
+     * Largest record accepted, which bounds what a malformed or hostile message can make the reader allocate.
+     */
+    public static final int MAX_RECORD_SIZE = 1024 * 1024;
+
+    /**
+     * Default size of the read buffer.
+     */
+    public static final int BUFFER_SIZE = 8 * 1024;
+    private static final int MIN_BUFFER_SIZE = 16;
+    private static final TransactionType[] TYPES = TransactionType.values();
+    private static final TransactionStatus[] STATUSES = TransactionStatus.values();
+
+    /**
+     * A list message.
+     *
+     * @param total the total number of matches, or -1 if it was not counted
+     * @param nextCursor the cursor of the following page, or null
+     */
+    public record Listing(List<Transaction> transactions, long total, String nextCursor) {
+    }
+
+    private final InputStream in;
+    private final byte[] buffer;
+    private int position;
+    private int limit;
+    /**
+     * Bytes consumed before the start of the buffer.
+     */
+    private long buffered;
+
+    private int lastCurrencyKey = -1;
+    private Currency lastCurrency;
+
+    public TransactionWireReader(InputStream in) {
+        this(in, BUFFER_SIZE);
+    }
+
+    /**
+     * @param bufferSize the size of the read buffer; longer descriptions are read into their own array
+     */
+    public TransactionWireReader(InputStream in, int bufferSize) {
+        this.in = in;
+        this.buffer = new byte[Math.max(bufferSize, MIN_BUFFER_SIZE)];
+    }
+
+    /**
+     * Reads a message holding one transaction.
+     */
+    public Transaction readTransaction() throws IOException {
+        readVersion();
+        return readRecord();
+    }
+
+    /**
+     * Reads a message holding a list of transactions.
+     */
+    public Listing readList() throws IOException {
+        readVersion();
+        long total = unzigzag(readVarint());
+        long cursorLength = readVarint() - 1;
+        if (cursorLength < -1 || cursorLength > MAX_RECORD_SIZE) {
+            throw new IOException("Invalid cursor length " + cursorLength);
+        }
+        String nextCursor = cursorLength >= 0 ? readString((int) cursorLength) : null;
+        long count = readVarint();
+        if (count < 0) {
+            throw new IOException("Invalid record count " + count);
+        }
+        List<Transaction> transactions = new ArrayList<>((int) Math.min(count, 1024));
+        for (long i = 0; i < count; i++) {
+            transactions.add(readRecord());
+        }
+        return new Listing(transactions, total, nextCursor);
+    }
+
+    private void readVersion() throws IOException {
+        int version = readByte();
+        if (version != TransactionWireWriter.VERSION) {
+            throw new IOException("Unsupported wire format version " + version);
+        }
+    }
+
+    private Transaction readRecord() throws IOException {
+        long length = readVarint();
+        if (length < 0 || length > MAX_RECORD_SIZE) {
+            throw new IOException("Record length " + length + " is negative or exceeds the limit of " + MAX_RECORD_SIZE);
+        }
+        long end = offset() + length;
+        int flags = readByte();
+        Long id = (flags & FLAG_ID) != 0 ? readVarint() : null;
+        long minorUnits = unzigzag(readVarint());
+        require(5);
+        Currency currency = currency(buffer[position], buffer[position + 1], buffer[position + 2]);
+        int type = buffer[position + 3] & 0xFF;
+        int status = buffer[position + 4] & 0xFF;
+        position += 5;
+        if (type > TYPES.length || status > STATUSES.length) {
+            throw new IOException("Unknown transaction type " + type + " or status " + status);
+        }
+        long micros = (flags & FLAG_TIMESTAMP) != 0 ? unzigzag(readVarint()) : 0;
+        String description = null;
+        if ((flags & FLAG_DESCRIPTION) != 0) {
+            long descriptionLength = readVarint();
+            if (descriptionLength < 0 || descriptionLength > end - offset()) {
+                throw new IOException("Description length " + descriptionLength + " is negative or overruns its record");
+            }
+            description = readString((int) descriptionLength);
+        }
+        long version = (flags & FLAG_VERSION) != 0 ? readVarint() : 0;
+        long remaining = end - offset();
+        if (remaining < 0) {
+            throw new IOException("Record is longer than its length of " + length + " bytes");
+        }
+        // Fields added by later versions
+        skip(remaining);
+
+        return Transaction.builder()
+                .id(id)
+                .description(description)
+                .money(Money.ofMinor(minorUnits, currency))
+                .type(type == 0 ? null : TYPES[type - 1])
+                .status(status == 0 ? null : STATUSES[status - 1])
+                .timestamp((flags & FLAG_TIMESTAMP) != 0 ? TransactionBinaryCodec.fromEpochMicros(micros) : null)
+                .version(version)
+                .build();
+    }
+
+    private Currency currency(byte first, byte second, byte third) throws IOException {
+        int key = (first & 0xFF) << 16 | (second & 0xFF) << 8 | third & 0xFF;
+        if (key != lastCurrencyKey) {
+            try {
+                lastCurrency = Currency.getInstance(new String(new byte[]{first, second, third}, StandardCharsets.US_ASCII));
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Unknown currency code", e);
+            }
+            lastCurrencyKey = key;
+        }
+        return lastCurrency;
+    }
+
+    private String readString(int length) throws IOException {
+        if (length <= buffer.length) {
+            require(length);
+            String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+        byte[] bytes = new byte[length];
+        int copied = limit - position;
+        System.arraycopy(buffer, position, bytes, 0, copied);
+        buffered += limit;
+        position = 0;
+        limit = 0;
+        if (in.readNBytes(bytes, copied, length - copied) != length - copied) {
+            throw truncated();
+        }
+        buffered += length - copied;
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private long readVarint() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Varint is longer than 10 bytes");
+    }
+
+    private int readByte() throws IOException {
+        require(1);
+        return buffer[position++] & 0xFF;
+    }
+
+    private void skip(long bytes) throws IOException {
+        while (bytes > 0) {
+            require(1);
+            int skipped = (int) Math.min(bytes, limit - position);
+            position += skipped;
+            bytes -= skipped;
+        }
+    }
+
+    /**
+     * Makes at least {@code bytes} bytes, at most the buffer size, available from {@link #position}.
+     */
+    private void require(int bytes) throws IOException {
+        if (limit - position >= bytes) {
+            return;
+        }
+        int available = limit - position;
+        System.arraycopy(buffer, position, buffer, 0, available);
+        buffered += position;
+        position = 0;
+        limit = available;
+        while (limit < bytes) {
+            int read = in.read(buffer, limit, buffer.length - limit);
+            if (read < 0) {
+                throw truncated();
+            }
+            limit += read;
+        }
+    }
+
+    private long offset() {
+        return buffered + position;
+    }
+
+    private static EOFException truncated() {
+        return new EOFException("Transaction message is truncated");
+    }
+
+    private static long unzigzag(long value) {
+        return value >>> 1 ^ -(value & 1);
+    }
+}
@@ -0,0 +1,249 @@
+package com.hsbc.transaction.wire;
+
+import com.hsbc.transaction.model.Money;
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.persistence.TransactionBinaryCodec;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Writes transactions in the compact binary wire format served as
+ * {@value TransactionWireHttpMessageConverter#MEDIA_TYPE_VALUE}.
+ *
+ * A message starts with a version byte and holds either one transaction record or a list:
+ * <pre>
+ * list:   zigzag varint total number of matches, -1 when not counted
+ *         varint       next cursor length in bytes + 1, 0 for none
+ *         byte[]       next cursor (ASCII)
+ *         varint       number of records
+ *         record...
+ *
+ * record: varint       length of the rest of the record
+ *         byte         flags: 1 = id present, 2 = timestamp present, 4 = description present,
+ *                      8 = version present
+ *         varint       id
+ *         zigzag varint amount in minor units of the currency
+ *         byte[3]      ISO 4217 currency code
+ *         byte         type ordinal + 1, 0 for none
+ *         byte         status ordinal + 1, 0 for none
+ *         zigzag varint timestamp in epoch microseconds (UTC)
+ *         varint       description length in UTF-8 bytes
+ *         byte[]       description
+ *         varint       version
+ * </pre>
+ * Varints are unsigned LEB128. Absent fields take no bytes. Readers skip bytes left in a record
+ * after the fields they know, so fields can be appended in later versions.
+ *
+ * Like {@link com.hsbc.transaction.export.TransactionExportWriter}, everything is encoded straight
+ * into one reused buffer, which is handed to the stream when full. The writer never closes the stream.
+ */
+public class TransactionWireWriter implements Flushable {
+
+    public static final int VERSION = 1;
+
+    static final int FLAG_ID = 1;
+    static final int FLAG_TIMESTAMP = 2;
+    static final int FLAG_DESCRIPTION = 4;
+    static final int FLAG_VERSION = 8;
+
+    /**
+     * Default size of the write buffer, which is also the largest chunk handed to the stream.
+     */
+    public static final int BUFFER_SIZE = 8 * 1024;
+    /**
+     * Longest varint, and longest UTF-8 encoding of one char or surrogate pair.
+     */
+    private static final int MAX_VARINT_BYTES = 10;
+
+    private final OutputStream out;
+    private final byte[] buffer;
+    private int position;
+
+    public TransactionWireWriter(OutputStream out) {
+        this(out, BUFFER_SIZE);
+    }
+
+    /**
+     * @param bufferSize the size of the write buffer; a smaller one suits messages of one transaction
+     */
+    public TransactionWireWriter(OutputStream out, int bufferSize) {
+        this.out = out;
+        this.buffer = new byte[Math.max(bufferSize, MAX_VARINT_BYTES)];
+    }
+
+    /**
+     * Writes a message holding one transaction.
+     */
+    public void writeTransaction(Transaction transaction) throws IOException {
+        writeByte(VERSION);
+        writeRecord(transaction);
+    }
+
+    /**
+     * Writes a message holding a list of transactions.
+     *
+     * @param total the total number of matches, or -1 if it was not counted
+     * @param nextCursor the cursor of the following page, or null
+     */
+    public void writeList(List<Transaction> transactions, long total, String nextCursor) throws IOException {
+        writeByte(VERSION);
+        writeVarint(zigzag(total));
+        if (nextCursor == null) {
+            writeVarint(0);
+        } else {
+            writeVarint(nextCursor.length() + 1L);
+            for (int i = 0; i < nextCursor.length(); i++) {
+                writeByte(nextCursor.charAt(i));
+            }
+        }
+        writeVarint(transactions.size());
+        for (Transaction transaction : transactions) {
+            writeRecord(transaction);
+        }
+    }
+
+    /**
+     * Hands the buffered bytes to the stream and flushes it.
+     */
+    @Override
+    public void flush() throws IOException {
+        drain();
+        out.flush();
+    }
+
+    private void writeRecord(Transaction transaction) throws IOException {
+        Money money = transaction.getMoney();
+        Long id = transaction.getId();
+        long amount = zigzag(money.minorUnits());
+        long micros = transaction.getTimestamp() == null ? 0 : zigzag(TransactionBinaryCodec.toEpochMicros(transaction.getTimestamp()));
+        String description = transaction.getDescription();
+        int descriptionLength = description == null ? 0 : utf8Length(description);
+        long version = transaction.getVersion();
+
+        int flags = (id == null ? 0 : FLAG_ID)
+                | (transaction.getTimestamp() == null ? 0 : FLAG_TIMESTAMP)
+                | (description == null ? 0 : FLAG_DESCRIPTION)
+                | (version == 0 ? 0 : FLAG_VERSION);
+        // Sizes are worked out up front, so the length prefix is written without going back over the record
+        long length = 1 + (id == null ? 0 : varintSize(id)) + varintSize(amount) + 3 + 1 + 1
+                + (transaction.getTimestamp() == null ? 0 : varintSize(micros))
+                + (description == null ? 0 : varintSize(descriptionLength) + descriptionLength)
+                + (version == 0 ? 0 : varintSize(version));
+
+        writeVarint(length);
+        writeByte(flags);
+        if (id != null) {
+            writeVarint(id);
+        }
+        writeVarint(amount);
+        String code = money.getCurrency().getCurrencyCode();
+        ensure(5);
+        buffer[position++] = (byte) code.charAt(0);
+        buffer[position++] = (byte) code.charAt(1);
+        buffer[position++] = (byte) code.charAt(2);
+        buffer[position++] = (byte) (transaction.getType() == null ? 0 : transaction.getType().ordinal() + 1);
+        buffer[position++] = (byte) (transaction.getStatus() == null ? 0 : transaction.getStatus().ordinal() + 1);
+        if (transaction.getTimestamp() != null) {
+            writeVarint(micros);
+        }
+        if (description != null) {
+            writeVarint(descriptionLength);
+            writeUtf8(description);
+        }
+        if (version != 0) {
+            writeVarint(version);
+        }
+    }
+
+    private void writeUtf8(String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            ensure(MAX_VARINT_BYTES);
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                buffer[position++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[position++] = (byte) (0xC0 | c >> 6);
+                buffer[position++] = (byte) (0x80 | c & 0x3F);
+            } else if (isSurrogatePair(value, i)) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer[position++] = (byte) (0xF0 | codePoint >> 18);
+                buffer[position++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                buffer[position++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                buffer[position++] = (byte) (0x80 | codePoint & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                // An unpaired surrogate has no UTF-8 encoding
+                buffer[position++] = '?';
+            } else {
+                buffer[position++] = (byte) (0xE0 | c >> 12);
+                buffer[position++] = (byte) (0x80 | c >> 6 & 0x3F);
+                buffer[position++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of bytes {@link #writeUtf8} writes for the value.
+     */
+    static int utf8Length(String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (isSurrogatePair(value, i)) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                length++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private static boolean isSurrogatePair(String value, int index) {
+        return Character.isHighSurrogate(value.charAt(index)) && index + 1 < value.length()
+                && Character.isLowSurrogate(value.charAt(index + 1));
+    }
+
+    static long zigzag(long value) {
+        return value << 1 ^ value >> 63;
+    }
+
+    static int varintSize(long value) {
+        return value == 0 ? 1 : (63 - Long.numberOfLeadingZeros(value)) / 7 + 1;
+    }
+
+    private void writeVarint(long value) throws IOException {
+        ensure(MAX_VARINT_BYTES);
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) (value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    private void writeByte(int value) throws IOException {
+        ensure(1);
+        buffer[position++] = (byte) value;
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (position + bytes > buffer.length) {
+            drain();
+        }
+    }
+
+    private void drain() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+}
@@ -12,6 +12,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
@@ -34,10 +36,16 @@ class StressTest {
     @Autowired
     private TransactionRepository transactionRepository;
 
-    private static final int CONCURRENT_USERS = 50;
-    private static final int TRANSACTIONS_PER_USER = 20;
+    // Override with -Dstress.users and -Dstress.transactionsPerUser for a heavier run
+    private static final int CONCURRENT_USERS = Integer.getInteger("stress.users", 50);
+    private static final int TRANSACTIONS_PER_USER = Integer.getInteger("stress.transactionsPerUser", 20);
     private static final int TOTAL_TRANSACTIONS = CONCURRENT_USERS * TRANSACTIONS_PER_USER;
 
+    @DynamicPropertySource
+    static void dataDirectories(DynamicPropertyRegistry registry) {
+        TestDataDirectories.register(registry);
+    }
+
     @BeforeEach
     void setUp() {
         // Clear all transactions before each test
@@ -0,0 +1,37 @@
+package com.hsbc.transaction;
+
+import org.springframework.test.context.DynamicPropertyRegistry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Points the files an application context writes (journal, write-ahead log, snapshots and
+ * statements) at a new directory under {@code target}, so tests neither read nor leave data
+ * in the working directory and {@code mvn clean} removes them.
+ */
+public final class TestDataDirectories {
+
+    private TestDataDirectories() {
+    }
+
+    /**
+     * Registers the file properties for one test class's context; each call gets its own directory,
+     * since the context outlives the class in the context cache.
+     */
+    public static void register(DynamicPropertyRegistry registry) {
+        Path directory;
+        try {
+            Files.createDirectories(Path.of("target"));
+            directory = Files.createTempDirectory(Path.of("target"), "test-data-").toAbsolutePath();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        registry.add("transaction.journal.path", () -> directory.resolve("transaction-journal.ndjson").toString());
+        registry.add("transaction.wal.directory", () -> directory.resolve("wal").toString());
+        registry.add("transaction.snapshot.directory", () -> directory.resolve("snapshots").toString());
+        registry.add("transaction.statement.directory", () -> directory.resolve("statements").toString());
+    }
+}
@@ -0,0 +1,113 @@
+package com.hsbc.transaction.aggregate;
+
+import com.hsbc.transaction.config.StatsProperties;
+import com.hsbc.transaction.enums.TransactionType;
+import com.hsbc.transaction.model.CurrencyTotal;
+import com.hsbc.transaction.model.Money;
+import com.hsbc.transaction.model.TimeBucketStats;
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.model.TransactionStats;
+import com.hsbc.transaction.repository.TransactionRepository;
+import com.hsbc.transaction.util.SnowflakeIdGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Currency;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("TransactionAggregator Unit Tests")
+class TransactionAggregatorTest {
+
+    private static final Currency USD = Currency.getInstance("USD");
+    private static final Currency JPY = Currency.getInstance("JPY");
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 5, 1, 12, 30, 20);
+
+    private TransactionRepository repository;
+    private TransactionAggregator aggregator;
+
+    @BeforeEach
+    void setUp() {
+        repository = new TransactionRepository(new SnowflakeIdGenerator(1, 1));
+        StatsProperties properties = new StatsProperties();
+        properties.setMinuteBuckets(5);
+        properties.setHourBuckets(2);
+        aggregator = new TransactionAggregator(repository, properties, Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+    }
+
+    private Transaction save(String amount, Currency currency, TransactionType type, LocalDateTime timestamp) {
+        return repository.save(Transaction.builder()
+                .description("Aggregated")
+                .money(Money.parse(amount, currency))
+                .type(type)
+                .timestamp(timestamp)
+                .build());
+    }
+
+    @Test
+    @DisplayName("Should total per currency and per type")
+    void statistics_TotalsPerCurrencyAndType() {
+        save("10.50", USD, TransactionType.PAYMENT, NOW);
+        save("4.50", USD, TransactionType.DEPOSIT, NOW);
+        save("300", JPY, TransactionType.PAYMENT, NOW);
+
+        TransactionStats stats = aggregator.statistics();
+        assertEquals(3, stats.getCount());
+        assertEquals(List.of(new CurrencyTotal("JPY", 1, "300"), new CurrencyTotal("USD", 2, "15.00")), stats.getByCurrency());
+        assertEquals(List.of(new CurrencyTotal("JPY", 1, "300"), new CurrencyTotal("USD", 1, "10.50")),
+                stats.getByType().get("PAYMENT"));
+        assertEquals(List.of(), stats.getByType().get("TRANSFER"));
+    }
+
+    @Test
+    @DisplayName("Should take back the old values on update and delete")
+    void statistics_ReversesUpdatesAndDeletes() {
+        Transaction updated = save("10.00", USD, TransactionType.PAYMENT, NOW.minusMinutes(1));
+        Transaction deleted = save("7.00", USD, TransactionType.TRANSFER, NOW);
+
+        repository.save(Transaction.builder().id(updated.getId()).description("Updated")
+                .money(Money.parse("25.00", USD)).type(TransactionType.DEPOSIT).timestamp(NOW).build());
+        repository.deleteById(deleted.getId());
+
+        TransactionStats stats = aggregator.statistics();
+        assertEquals(List.of(new CurrencyTotal("USD", 1, "25.00")), stats.getByCurrency());
+        assertEquals(List.of(), stats.getByType().get("PAYMENT"));
+        assertEquals(List.of(), stats.getByType().get("TRANSFER"));
+        assertEquals(List.of(new TimeBucketStats("2024-05-01T12:30", List.of(new CurrencyTotal("USD", 1, "25.00")))),
+                stats.getByMinute());
+    }
+
+    @Test
+    @DisplayName("Should keep only the most recent time buckets")
+    void statistics_RollsTimeBuckets() {
+        save("1.00", USD, TransactionType.PAYMENT, NOW.minusMinutes(10));
+        save("2.00", USD, TransactionType.PAYMENT, NOW.minusMinutes(4));
+        save("3.00", USD, TransactionType.PAYMENT, NOW.minusMinutes(4).withSecond(59));
+        save("4.00", USD, TransactionType.PAYMENT, NOW.minusHours(1));
+
+        TransactionStats stats = aggregator.statistics();
+        assertEquals(List.of("2024-05-01T12:26"), stats.getByMinute().stream().map(TimeBucketStats::getStart).toList());
+        assertEquals(List.of(new CurrencyTotal("USD", 2, "5.00")), stats.getByMinute().getFirst().getTotals());
+        assertEquals(List.of("2024-05-01T11:00", "2024-05-01T12:00"),
+                stats.getByHour().stream().map(TimeBucketStats::getStart).toList());
+        assertEquals(4, stats.getCount());
+    }
+
+    @Test
+    @DisplayName("Should start from the stored transactions and reset on delete all")
+    void addListener_ReplaysExistingTransactions() {
+        save("8.00", USD, TransactionType.PAYMENT, NOW);
+        TransactionAggregator late = new TransactionAggregator(repository, new StatsProperties(),
+                Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+        assertEquals(1, late.statistics().getCount());
+
+        repository.deleteAll();
+        assertEquals(0, late.statistics().getCount());
+        assertEquals(List.of(), late.statistics().getByHour());
+    }
+}
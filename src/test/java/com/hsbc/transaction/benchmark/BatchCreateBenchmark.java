@@ -0,0 +1,76 @@
+package com.hsbc.transaction.benchmark;
+
+import com.hsbc.transaction.config.WalProperties;
+import com.hsbc.transaction.enums.TransactionType;
+import com.hsbc.transaction.model.Money;
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.persistence.WriteAheadLog;
+import com.hsbc.transaction.repository.TransactionRepository;
+import com.hsbc.transaction.util.SnowflakeIdGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares creates per second of one caller saving transactions one at a time with saving
+ * them in batches, with the write-ahead log in its default mode. Not part of the default test run. Run with:
+ * <pre>
+ * mvn test -Dtest=BatchCreateBenchmark -Djacoco.skip=true -Dbenchmark.seconds=5
+ * </pre>
+ */
+@Tag("benchmark")
+@DisplayName("Batch Create Benchmark")
+class BatchCreateBenchmark {
+
+    private static final int[] BATCH_SIZES = {1, 100, 1000, 5000};
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void createsPerSecondByBatchSize() throws Exception {
+        int seconds = Integer.getInteger("benchmark.seconds", 5);
+        Money money = Money.of(new BigDecimal("42.00"), Currency.getInstance("USD"));
+
+        System.out.printf("%10s %16s%n", "batch", "creates/s");
+        for (int batchSize : BATCH_SIZES) {
+            WalProperties properties = new WalProperties();
+            properties.setDirectory(tempDir.resolve("batch-" + batchSize).toString());
+            WriteAheadLog writeAheadLog = new WriteAheadLog(properties, new SimpleMeterRegistry());
+            writeAheadLog.start();
+            TransactionRepository repository = new TransactionRepository(new SnowflakeIdGenerator(1, 1), writeAheadLog);
+
+            long created = 0;
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+            long start = System.nanoTime();
+            while (System.nanoTime() < deadline) {
+                List<Transaction> batch = new ArrayList<>(batchSize);
+                for (int i = 0; i < batchSize; i++) {
+                    batch.add(Transaction.builder()
+                            .description("Batch benchmark")
+                            .money(money)
+                            .type(TransactionType.PAYMENT)
+                            .build());
+                }
+                if (batchSize == 1) {
+                    repository.save(batch.getFirst());
+                } else {
+                    repository.saveAll(batch);
+                }
+                created += batchSize;
+            }
+            double throughput = created * 1e9 / (System.nanoTime() - start);
+            writeAheadLog.stop();
+            System.out.printf("%10d %16.0f%n", batchSize, throughput);
+        }
+    }
+}
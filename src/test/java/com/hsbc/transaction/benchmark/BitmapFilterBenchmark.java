@@ -0,0 +1,111 @@
+package com.hsbc.transaction.benchmark;
+
+import com.hsbc.transaction.enums.TransactionType;
+import com.hsbc.transaction.index.BitmapIndex;
+import com.hsbc.transaction.model.Money;
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.model.TransactionFilter;
+import com.hsbc.transaction.repository.ColumnarTransactionStore;
+import com.hsbc.transaction.repository.TransactionRepository;
+import com.hsbc.transaction.util.SnowflakeIdGenerator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Compares answering a filtered listing (first page of 20 and the total) through the bitmap
+ * indexes with scanning every transaction, for filters of different selectivity. Transactions are
+ * kept in the columnar store so that 10M of them fit the default test heap. Not part of the default
+ * test run. Run with:
+ * <pre>
+ * mvn test -Dtest=BitmapFilterBenchmark -Djacoco.skip=true -Dbenchmark.rows=10000000
+ * </pre>
+ * Currencies are skewed: USD 50%, EUR 25%, GBP 15%, JPY 8%, CHF 1.5%, SEK 0.5%; types are uniform.
+ */
+@Tag("benchmark")
+@DisplayName("Bitmap Filter Benchmark")
+class BitmapFilterBenchmark {
+
+    private static final String[] CODES = {"USD", "EUR", "GBP", "JPY", "CHF", "SEK"};
+    private static final int[] PERCENT_TENTHS = {500, 250, 150, 80, 15, 5};
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    @Test
+    void bitmapVersusScan() {
+        int rows = Integer.getInteger("benchmark.rows", 10_000_000);
+        TransactionRepository repository = new TransactionRepository(new SnowflakeIdGenerator(1, 1), new ColumnarTransactionStore());
+        BitmapIndex index = new BitmapIndex(repository);
+
+        Random random = new Random(42);
+        long start = System.nanoTime();
+        List<Transaction> batch = new ArrayList<>(SnowflakeIdGenerator.MAX_BATCH_SIZE);
+        for (int i = 0; i < rows; i++) {
+            batch.add(Transaction.builder()
+                    .description("Filter benchmark " + (i % 1000))
+                    .money(Money.ofMinor(1 + random.nextInt(100_000), currency(random)))
+                    .type(TYPES[random.nextInt(TYPES.length)])
+                    .build());
+            if (batch.size() == SnowflakeIdGenerator.MAX_BATCH_SIZE || i == rows - 1) {
+                repository.saveAll(batch);
+                batch = new ArrayList<>(SnowflakeIdGenerator.MAX_BATCH_SIZE);
+            }
+        }
+        System.out.printf("Saved %d transactions with bitmap indexes in %d ms%n", rows, (System.nanoTime() - start) / 1_000_000);
+
+        Map<String, TransactionFilter> filters = Map.of(
+                "SEK DEPOSIT", new TransactionFilter(Set.of(TransactionType.DEPOSIT), Set.of(), Set.of(Currency.getInstance("SEK"))),
+                "CHF or SEK", new TransactionFilter(Set.of(), Set.of(), Set.of(Currency.getInstance("CHF"), Currency.getInstance("SEK"))),
+                "USD TRANSFER", new TransactionFilter(Set.of(TransactionType.TRANSFER), Set.of(), Set.of(Currency.getInstance("USD"))));
+        System.out.printf("%-14s %10s %12s %12s%n", "filter", "matches", "scan ms", "bitmap ms");
+        for (Map.Entry<String, TransactionFilter> entry : filters.entrySet()) {
+            TransactionFilter filter = entry.getValue();
+
+            start = System.nanoTime();
+            List<Transaction> firstPage = new ArrayList<>(20);
+            long scanned = 0;
+            for (Iterator<Transaction> iterator = repository.scan(); iterator.hasNext(); ) {
+                Transaction transaction = iterator.next();
+                if (filter.matches(transaction)) {
+                    if (firstPage.size() < 20) {
+                        firstPage.add(transaction);
+                    }
+                    scanned++;
+                }
+            }
+            long scanNanos = System.nanoTime() - start;
+
+            long bitmapNanos = Long.MAX_VALUE;
+            Page<Transaction> page = null;
+            for (int round = 0; round < 5; round++) {
+                start = System.nanoTime();
+                page = index.findAll(filter, PageRequest.of(0, 20));
+                bitmapNanos = Math.min(bitmapNanos, System.nanoTime() - start);
+            }
+            if (page.getTotalElements() != scanned) {
+                throw new IllegalStateException("Bitmap total " + page.getTotalElements() + " differs from scan " + scanned);
+            }
+            System.out.printf("%-14s %10d %12.1f %12.3f%n", entry.getKey(), scanned, scanNanos / 1e6, bitmapNanos / 1e6);
+        }
+    }
+
+    private static Currency currency(Random random) {
+        int dice = random.nextInt(1000);
+        for (int i = 0; i < CODES.length; i++) {
+            dice -= PERCENT_TENTHS[i];
+            if (dice < 0) {
+                return Currency.getInstance(CODES[i]);
+            }
+        }
+        return Currency.getInstance(CODES[0]);
+    }
+}
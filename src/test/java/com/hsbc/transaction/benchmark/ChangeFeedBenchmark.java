@@ -0,0 +1,134 @@
+package com.hsbc.transaction.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hsbc.transaction.config.FeedProperties;
+import com.hsbc.transaction.enums.TransactionType;
+import com.hsbc.transaction.feed.ChangeFeed;
+import com.hsbc.transaction.model.Money;
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.repository.TransactionRepository;
+import com.hsbc.transaction.util.SnowflakeIdGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Currency;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures what the change feed adds to a save on the writing thread, with no subscribers and with
+ * thousands of them, and whether the events reach every subscriber. Saves are made at a fixed rate,
+ * in bursts of 100; the writer's CPU time per save is compared with a repository without the feed.
+ * Subscribers format their events as they would for a connection but discard the bytes.
+ * Not part of the default test run. Run with:
+ * <pre>
+ * mvn test -Dtest=ChangeFeedBenchmark -Djacoco.skip=true -Dbenchmark.rate=1000 -Dbenchmark.seconds=2 -Dbenchmark.subscribers=0,100,1000,5000
+ * </pre>
+ */
+@Tag("benchmark")
+@DisplayName("Change Feed Benchmark")
+class ChangeFeedBenchmark {
+
+    private static final Currency USD = Currency.getInstance("USD");
+    private static final int BURST = 100;
+
+    /**
+     * Formats each event as it would be written and counts it.
+     */
+    private static class DiscardingEmitter extends SseEmitter {
+        private final LongAdder received;
+
+        DiscardingEmitter(LongAdder received) {
+            this.received = received;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            for (ResponseBodyEmitter.DataWithMediaType part : builder.build()) {
+                part.getData().toString();
+            }
+            received.increment();
+        }
+    }
+
+    @Test
+    void writePathCost() throws InterruptedException {
+        int rate = Integer.getInteger("benchmark.rate", 1000);
+        int seconds = Integer.getInteger("benchmark.seconds", 2);
+        String[] subscriberCounts = System.getProperty("benchmark.subscribers", "0,100,1000,5000").split(",");
+        int rows = rate * seconds;
+
+        System.out.printf("%-11s %16s %14s %12s %8s%n", "subscribers", "writer us/save", "delivered", "drained ms", "dropped");
+        for (int round = 0; round < 2; round++) {
+            // Baseline without the feed
+            TransactionRepository baseline = new TransactionRepository(new SnowflakeIdGenerator(1, 1));
+            long cpuNanos = saveAtRate(baseline, rows, rate);
+            if (round == 1) {
+                System.out.printf("%-11s %16.2f%n", "no feed", cpuNanos / 1e3 / rows);
+            }
+
+            for (String count : subscriberCounts) {
+                int subscribers = Integer.parseInt(count.trim());
+                TransactionRepository repository = new TransactionRepository(new SnowflakeIdGenerator(1, 1));
+                SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+                ChangeFeed feed = new ChangeFeed(new FeedProperties(), repository, new ObjectMapper(), meterRegistry);
+                LongAdder received = new LongAdder();
+                for (int i = 0; i < subscribers; i++) {
+                    feed.subscribe(new DiscardingEmitter(received), null);
+                }
+
+                cpuNanos = saveAtRate(repository, rows, rate);
+                long end = System.nanoTime();
+                // Each subscriber was also sent a comment when it subscribed
+                long expected = (long) rows * subscribers + subscribers;
+                while (received.sum() < expected && feed.getSubscriberCount() > 0 && System.nanoTime() - end < 60_000_000_000L) {
+                    Thread.sleep(5);
+                }
+                long drainedMillis = (System.nanoTime() - end) / 1_000_000;
+                double dropped = meterRegistry.get("transaction.feed.dropped").counter().count();
+                feed.stop();
+
+                if (round == 1) {
+                    System.out.printf("%-11d %16.2f %13.1f%% %12d %8.0f%n", subscribers, cpuNanos / 1e3 / rows,
+                            subscribers == 0 ? 100 : (received.sum() - subscribers) * 100.0 / rows / subscribers,
+                            drainedMillis, dropped);
+                }
+            }
+        }
+    }
+
+    /**
+     * Saves the rows at the rate and returns the CPU time the saving thread spent.
+     */
+    private static long saveAtRate(TransactionRepository repository, int rows, int rate) throws InterruptedException {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        LocalDateTime now = LocalDateTime.now();
+        long cpuNanos = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < rows; i += BURST) {
+            long cpuStart = threads.getCurrentThreadCpuTime();
+            for (int j = i; j < Math.min(i + BURST, rows); j++) {
+                repository.save(Transaction.builder()
+                        .description("Change feed benchmark " + j)
+                        .money(Money.of(BigDecimal.valueOf(j, 2), USD))
+                        .type(TransactionType.PAYMENT)
+                        .timestamp(now)
+                        .build());
+            }
+            cpuNanos += threads.getCurrentThreadCpuTime() - cpuStart;
+            long due = start + (i + BURST) * 1_000_000_000L / rate;
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                Thread.sleep(wait / 1_000_000, (int) (wait % 1_000_000));
+            }
+        }
+        return cpuNanos;
+    }
+}
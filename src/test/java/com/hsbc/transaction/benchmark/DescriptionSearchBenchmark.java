@@ -0,0 +1,101 @@
+package com.hsbc.transaction.benchmark;
+
+import com.hsbc.transaction.enums.TransactionType;
+import com.hsbc.transaction.index.DescriptionIndex;
+import com.hsbc.transaction.model.Money;
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.repository.ColumnarTransactionStore;
+import com.hsbc.transaction.repository.TransactionRepository;
+import com.hsbc.transaction.util.SnowflakeIdGenerator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Compares finding the newest 20 transactions whose description contains some words through the
+ * description index with scanning every description for them. Descriptions look like
+ * "Card payment Tesco London ref 004217", drawn from 6 kinds, 40 merchants and 20 cities with a
+ * random reference. Not part of the default test run. Run with:
+ * <pre>
+ * mvn test -Dtest=DescriptionSearchBenchmark -Djacoco.skip=true -Dbenchmark.rows=2000000
+ * </pre>
+ */
+@Tag("benchmark")
+@DisplayName("Description Search Benchmark")
+class DescriptionSearchBenchmark {
+
+    private static final String[] KINDS = {"Card payment", "Direct debit", "Standing order", "Refund", "Transfer to", "Cash withdrawal"};
+    private static final String[] MERCHANTS = {
+            "Tesco", "Sainsbury", "Waitrose", "Aldi", "Lidl", "Amazon", "Netflix", "Spotify", "Uber", "Deliveroo",
+            "Starbucks", "Costa", "Pret", "Greggs", "Boots", "Argos", "Currys", "Ikea", "Zara", "Primark",
+            "Shell", "BP", "Esso", "Trainline", "Ryanair", "Easyjet", "Airbnb", "Booking", "Apple", "Google",
+            "Vodafone", "EE", "Octopus", "Thames", "Council", "HMRC", "Landlord", "Gym", "Cinema", "Café Nero"};
+    private static final String[] CITIES = {
+            "London", "Leeds", "Leicester", "Liverpool", "Manchester", "Birmingham", "Bristol", "Glasgow", "Edinburgh", "Cardiff",
+            "Belfast", "Oxford", "Cambridge", "York", "Bath", "Brighton", "Nottingham", "Sheffield", "Newcastle", "Zürich"};
+    private static final String[] QUERIES = {"tesco", "tesco london", "lon*", "card costa lee*", "ref 004217", "cafe zurich",
+            "000*", "c* 000*"};
+
+    @Test
+    void indexVersusScan() {
+        int rows = Integer.getInteger("benchmark.rows", 2_000_000);
+        TransactionRepository repository = new TransactionRepository(new SnowflakeIdGenerator(1, 1), new ColumnarTransactionStore());
+        DescriptionIndex index = new DescriptionIndex(repository);
+
+        Random random = new Random(42);
+        Money money = Money.parse("10.00", Currency.getInstance("GBP"));
+        long start = System.nanoTime();
+        List<Transaction> batch = new ArrayList<>(SnowflakeIdGenerator.MAX_BATCH_SIZE);
+        for (int i = 0; i < rows; i++) {
+            batch.add(Transaction.builder()
+                    .description(String.format("%s %s %s ref %06d", KINDS[random.nextInt(KINDS.length)],
+                            MERCHANTS[random.nextInt(MERCHANTS.length)], CITIES[random.nextInt(CITIES.length)], random.nextInt(1_000_000)))
+                    .money(money)
+                    .type(TransactionType.PAYMENT)
+                    .build());
+            if (batch.size() == SnowflakeIdGenerator.MAX_BATCH_SIZE || i == rows - 1) {
+                repository.saveAll(batch);
+                batch = new ArrayList<>(SnowflakeIdGenerator.MAX_BATCH_SIZE);
+            }
+        }
+        System.out.printf("Saved %d transactions with the description index (%d terms) in %d ms%n",
+                rows, index.termCount(), (System.nanoTime() - start) / 1_000_000);
+
+        System.out.printf("%-18s %8s %10s %10s%n", "query", "found", "scan ms", "index ms");
+        for (String query : QUERIES) {
+            String[] words = query.toLowerCase(Locale.ROOT).replace("*", "").split(" ");
+            start = System.nanoTime();
+            List<Long> scanned = new ArrayList<>();
+            for (Iterator<Transaction> iterator = repository.scan(); iterator.hasNext(); ) {
+                Transaction transaction = iterator.next();
+                String description = transaction.getDescription().toLowerCase(Locale.ROOT);
+                boolean all = true;
+                for (String word : words) {
+                    all &= description.contains(word);
+                }
+                if (all) {
+                    scanned.add(transaction.getId());
+                }
+            }
+            long scanNanos = System.nanoTime() - start;
+
+            long indexNanos = Long.MAX_VALUE;
+            int found = 0;
+            for (int round = 0; round < 5; round++) {
+                start = System.nanoTime();
+                found = index.search(query, null, Sort.Direction.DESC, 20).size();
+                indexNanos = Math.min(indexNanos, System.nanoTime() - start);
+            }
+            System.out.printf("%-18s %8d %10.1f %10.3f   (scan matched %d)%n",
+                    query, found, scanNanos / 1e6, indexNanos / 1e6, scanned.size());
+        }
+    }
+}
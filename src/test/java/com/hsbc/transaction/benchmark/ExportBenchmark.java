@@ -0,0 +1,122 @@
+package com.hsbc.transaction.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hsbc.transaction.dto.TransactionDTO;
+import com.hsbc.transaction.enums.ExportFormat;
+import com.hsbc.transaction.enums.TransactionType;
+import com.hsbc.transaction.export.TransactionExportWriter;
+import com.hsbc.transaction.model.Money;
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.repository.ColumnarTransactionStore;
+import com.hsbc.transaction.repository.TransactionRepository;
+import com.hsbc.transaction.util.SnowflakeIdGenerator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.Iterator;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compares exporting the store by fetching pages of 100 and serializing each as a JSON array, as a
+ * client of the list endpoint would, with streaming it through {@link TransactionExportWriter}.
+ * Output goes to a stream that only counts bytes; allocation is measured on the exporting thread.
+ * Not part of the default test run. Run with:
+ * <pre>
+ * mvn test -Dtest=ExportBenchmark -Djacoco.skip=true -Dbenchmark.rows=2000000
+ * </pre>
+ */
+@Tag("benchmark")
+@DisplayName("Export Benchmark")
+class ExportBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+
+    @Test
+    void pagedVersusStreamed() throws IOException {
+        int rows = Integer.getInteger("benchmark.rows", 2_000_000);
+        TransactionRepository repository = new TransactionRepository(new SnowflakeIdGenerator(1, 1), new ColumnarTransactionStore());
+        Currency[] currencies = {Currency.getInstance("USD"), Currency.getInstance("EUR"), Currency.getInstance("GBP")};
+        LocalDateTime now = LocalDateTime.now();
+        List<Transaction> batch = new ArrayList<>(SnowflakeIdGenerator.MAX_BATCH_SIZE);
+        for (int i = 0; i < rows; i++) {
+            batch.add(Transaction.builder()
+                    .description("Invoice " + (i % 50_000) + ", supplier \"Acme\"")
+                    .money(Money.ofMinor(100 + i % 100_000, currencies[i % currencies.length]))
+                    .type(TransactionType.values()[i % TransactionType.values().length])
+                    .timestamp(now.plusNanos(i * 1000L))
+                    .build());
+            if (batch.size() == SnowflakeIdGenerator.MAX_BATCH_SIZE || i == rows - 1) {
+                repository.saveAll(batch);
+                batch = new ArrayList<>(SnowflakeIdGenerator.MAX_BATCH_SIZE);
+            }
+        }
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        System.out.printf("%-22s %10s %10s %12s %12s%n", "method", "ms", "MB", "MB/s", "alloc B/row");
+        for (int round = 0; round < 2; round++) {
+            measure("paged JSON arrays", rows, out -> {
+                Long after = null;
+                List<Transaction> page;
+                while (!(page = repository.findAfter(after, Sort.Direction.ASC, PAGE_SIZE)).isEmpty()) {
+                    out.write(objectMapper.writeValueAsBytes(page.stream().map(TransactionDTO::fromEntity).toList()));
+                    after = page.getLast().getId();
+                }
+            });
+            measure("streamed NDJSON", rows, out -> stream(repository, ExportFormat.NDJSON, out));
+            measure("streamed CSV", rows, out -> stream(repository, ExportFormat.CSV, out));
+            measure("streamed NDJSON gzip", rows, out -> {
+                GZIPOutputStream compressed = new GZIPOutputStream(out, TransactionExportWriter.BUFFER_SIZE);
+                stream(repository, ExportFormat.NDJSON, compressed);
+                compressed.finish();
+            });
+        }
+    }
+
+    private static void stream(TransactionRepository repository, ExportFormat format, OutputStream out) throws IOException {
+        TransactionExportWriter writer = new TransactionExportWriter(out, format);
+        for (Iterator<Transaction> iterator = repository.scan(); iterator.hasNext(); ) {
+            writer.write(iterator.next());
+        }
+        writer.flush();
+    }
+
+    private interface Export {
+        void run(OutputStream out) throws IOException;
+    }
+
+    private static void measure(String name, int rows, Export export) throws IOException {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        CountingOutputStream out = new CountingOutputStream();
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        export.run(out);
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        double megabytes = out.bytes / 1_048_576.0;
+        System.out.printf("%-22s %10d %10.1f %12.1f %12d%n", name, elapsed / 1_000_000, megabytes,
+                megabytes / (elapsed / 1e9), allocated / rows);
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+    }
+}
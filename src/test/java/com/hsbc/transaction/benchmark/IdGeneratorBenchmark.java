@@ -0,0 +1,99 @@
+package com.hsbc.transaction.benchmark;
+
+import com.hsbc.transaction.util.SnowflakeIdGenerator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Compares IDs per second of the compare-and-set {@link SnowflakeIdGenerator} with the previous
+ * {@code synchronized} implementation, kept below for reference. Not part of the default test run. Run with:
+ * <pre>
+ * mvn test -Dtest=IdGeneratorBenchmark -Djacoco.skip=true -Dbenchmark.seconds=3
+ * </pre>
+ */
+@Tag("benchmark")
+@DisplayName("ID Generator Benchmark")
+class IdGeneratorBenchmark {
+
+    private static final int[] THREADS = {1, 8, 32};
+
+    @Test
+    void idsPerSecondByThreads() throws Exception {
+        int seconds = Integer.getInteger("benchmark.seconds", 3);
+
+        System.out.printf("%8s %20s %20s %20s%n", "threads", "synchronized ids/s", "cas ids/s", "cas nextIds(100)/s");
+        for (int threads : THREADS) {
+            SynchronizedSnowflakeIdGenerator legacy = new SynchronizedSnowflakeIdGenerator();
+            SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, 1);
+            double legacyRate = run(legacy::nextId, 1, threads, seconds);
+            double casRate = run(generator::nextId, 1, threads, seconds);
+            double batchRate = run(() -> generator.nextIds(100)[0], 100, threads, seconds);
+            System.out.printf("%8d %20.0f %20.0f %20.0f%n", threads, legacyRate, casRate, batchRate);
+        }
+    }
+
+    private static double run(LongSupplier nextId, int idsPerCall, int threads, int seconds) throws InterruptedException {
+        LongAdder ids = new LongAdder();
+        LongAdder blackhole = new LongAdder();
+        CountDownLatch done = new CountDownLatch(threads);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                long count = 0;
+                long sink = 0;
+                while (System.nanoTime() < deadline) {
+                    sink ^= nextId.getAsLong();
+                    count += idsPerCall;
+                }
+                ids.add(count);
+                blackhole.add(sink);
+                done.countDown();
+            });
+        }
+        done.await();
+        long elapsed = System.nanoTime() - start;
+        executor.shutdown();
+        return ids.sum() * 1e9 / elapsed;
+    }
+
+    /**
+     * The monitor-based generator this benchmark compares against.
+     */
+    private static class SynchronizedSnowflakeIdGenerator {
+        private static final long EPOCH = 1609459200000L;
+        private static final long SEQUENCE_BITS = 12L;
+        private static final long NODE_BITS = (1L << 13) | (1L << 12);
+
+        private long sequence = 0L;
+        private long lastTimestamp = -1L;
+
+        synchronized long nextId() {
+            long timestamp = System.currentTimeMillis();
+            if (timestamp < lastTimestamp) {
+                throw new RuntimeException("Clock moved backwards. Refusing to generate id");
+            }
+            if (lastTimestamp == timestamp) {
+                sequence = (sequence + 1) & ~(-1L << SEQUENCE_BITS);
+                if (sequence == 0) {
+                    while (timestamp <= lastTimestamp) {
+                        timestamp = System.currentTimeMillis();
+                    }
+                }
+            } else {
+                sequence = 0L;
+            }
+            lastTimestamp = timestamp;
+            return ((timestamp - EPOCH) << 14) | NODE_BITS | sequence;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.hsbc.transaction.benchmark;
+
+import com.hsbc.transaction.config.IdempotencyProperties;
+import com.hsbc.transaction.config.WalProperties;
+import com.hsbc.transaction.enums.TransactionType;
+import com.hsbc.transaction.idempotency.IdempotencyStore;
+import com.hsbc.transaction.model.Money;
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.persistence.WriteAheadLog;
+import com.hsbc.transaction.repository.TransactionRepository;
+import com.hsbc.transaction.util.SnowflakeIdGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Currency;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Replays a retry storm: every create is sent several times, concurrently and in random order, and
+ * saved through the write-ahead log in its default mode. Compares sending the requests without an
+ * idempotency key, where every retry creates a row, with sending them through the
+ * {@link IdempotencyStore}. Not part of the default test run. Run with:
+ * <pre>
+ * mvn test -Dtest=IdempotencyBenchmark -Djacoco.skip=true -Dbenchmark.creates=2000 -Dbenchmark.retries=10 -Dbenchmark.clients=200
+ * </pre>
+ */
+@Tag("benchmark")
+@DisplayName("Idempotency Benchmark")
+class IdempotencyBenchmark {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void retryStorm() throws Exception {
+        int creates = Integer.getInteger("benchmark.creates", 2000);
+        int retries = Integer.getInteger("benchmark.retries", 10);
+        int clients = Integer.getInteger("benchmark.clients", 200);
+        Money money = Money.of(new BigDecimal("42.00"), Currency.getInstance("USD"));
+
+        List<Integer> requests = new ArrayList<>(creates * retries);
+        for (int i = 0; i < creates; i++) {
+            for (int j = 0; j < retries; j++) {
+                requests.add(i);
+            }
+        }
+        Collections.shuffle(requests, new Random(42));
+
+        System.out.printf("%-16s %10s %12s %10s %10s%n", "mode", "requests", "rows saved", "ms", "requests/s");
+        for (int round = 0; round < 2; round++) {
+            for (boolean idempotent : new boolean[]{false, true}) {
+                WalProperties properties = new WalProperties();
+                properties.setDirectory(tempDir.resolve("round-" + round + "-" + idempotent).toString());
+                WriteAheadLog writeAheadLog = new WriteAheadLog(properties, new SimpleMeterRegistry());
+                writeAheadLog.start();
+                TransactionRepository repository = new TransactionRepository(new SnowflakeIdGenerator(1, 1), writeAheadLog);
+                IdempotencyStore store = new IdempotencyStore(new IdempotencyProperties(), new SimpleMeterRegistry());
+
+                long start = System.nanoTime();
+                try (ExecutorService executor = Executors.newFixedThreadPool(clients, Thread.ofVirtual().factory())) {
+                    List<Future<?>> futures = new ArrayList<>(requests.size());
+                    for (int create : requests) {
+                        futures.add(executor.submit(() -> {
+                            Transaction transaction = Transaction.builder()
+                                    .description("Retried create " + create)
+                                    .money(money)
+                                    .type(TransactionType.PAYMENT)
+                                    .build();
+                            if (idempotent) {
+                                store.execute("key-" + create, IdempotencyStore.Request.of(transaction),
+                                        () -> repository.save(transaction));
+                            } else {
+                                repository.save(transaction);
+                            }
+                        }));
+                    }
+                    for (Future<?> future : futures) {
+                        future.get();
+                    }
+                }
+                long elapsedNanos = System.nanoTime() - start;
+                writeAheadLog.stop();
+
+                if (round == 1) {
+                    System.out.printf("%-16s %10d %12d %10d %10.0f%n", idempotent ? "Idempotency-Key" : "no key",
+                            requests.size(), repository.count(), elapsedNanos / 1_000_000, requests.size() * 1e9 / elapsedNanos);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.hsbc.transaction.benchmark;
+
+import com.hsbc.transaction.enums.TransactionType;
+import com.hsbc.transaction.model.Money;
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.repository.TransactionRepository;
+import com.hsbc.transaction.util.SnowflakeIdGenerator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Has concurrent clients add one minor unit to the amount of a few hot transactions, either by
+ * reading the transaction and saving a changed copy, as updates used to, or through the atomic
+ * {@link TransactionRepository#update}. Reports throughput and how many increments were lost, which
+ * is the expected total less the sum of the amounts. Not part of the default test run. Run with:
+ * <pre>
+ * mvn test -Dtest=OptimisticUpdateBenchmark -Djacoco.skip=true -Dbenchmark.updates=200000 -Dbenchmark.clients=8 -Dbenchmark.hot=4
+ * </pre>
+ */
+@Tag("benchmark")
+@DisplayName("Optimistic Update Benchmark")
+class OptimisticUpdateBenchmark {
+
+    @Test
+    void concurrentUpdates() throws Exception {
+        int updates = Integer.getInteger("benchmark.updates", 200_000);
+        int clients = Integer.getInteger("benchmark.clients", 8);
+        int hot = Integer.getInteger("benchmark.hot", 4);
+        Currency usd = Currency.getInstance("USD");
+        Money increment = Money.ofMinor(1, usd);
+
+        System.out.printf("%-20s %10s %10s %12s %10s%n", "mode", "updates", "ms", "updates/s", "lost");
+        for (int round = 0; round < 2; round++) {
+            for (boolean atomic : new boolean[]{false, true}) {
+                TransactionRepository repository = new TransactionRepository(new SnowflakeIdGenerator(1, 1));
+                long[] ids = new long[hot];
+                for (int i = 0; i < hot; i++) {
+                    ids[i] = repository.save(Transaction.builder()
+                            .description("Hot " + i)
+                            .money(Money.ofMinor(0, usd))
+                            .type(TransactionType.DEPOSIT)
+                            .build()).getId();
+                }
+
+                long start = System.nanoTime();
+                try (ExecutorService executor = Executors.newFixedThreadPool(clients)) {
+                    List<Future<?>> futures = new ArrayList<>(clients);
+                    for (int client = 0; client < clients; client++) {
+                        futures.add(executor.submit(() -> {
+                            ThreadLocalRandom random = ThreadLocalRandom.current();
+                            for (int i = 0; i < updates / clients; i++) {
+                                long id = ids[random.nextInt(hot)];
+                                if (atomic) {
+                                    repository.update(id, null, current -> current.toBuilder()
+                                            .money(current.getMoney().add(increment))
+                                            .build());
+                                } else {
+                                    Transaction current = repository.findById(id).orElseThrow();
+                                    repository.save(current.toBuilder().money(current.getMoney().add(increment)).build());
+                                }
+                            }
+                        }));
+                    }
+                    for (Future<?> future : futures) {
+                        future.get();
+                    }
+                }
+                long elapsedNanos = System.nanoTime() - start;
+
+                long applied = 0;
+                for (long id : ids) {
+                    applied += repository.findById(id).orElseThrow().getMoney().minorUnits();
+                }
+                int total = updates / clients * clients;
+                if (round == 1) {
+                    System.out.printf("%-20s %10d %10d %12.0f %10d%n", atomic ? "atomic update" : "read, then save",
+                            total, elapsedNanos / 1_000_000, total / (elapsedNanos / 1e9), total - applied);
+                }
+            }
+        }
+    }
+}
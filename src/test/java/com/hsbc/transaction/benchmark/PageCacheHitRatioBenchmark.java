@@ -0,0 +1,117 @@
+package com.hsbc.transaction.benchmark;
+
+import com.hsbc.transaction.cache.BoundedCache;
+import com.hsbc.transaction.cache.BoundedCacheManager;
+import com.hsbc.transaction.cache.TransactionPageCache;
+import com.hsbc.transaction.config.CacheProperties;
+import com.hsbc.transaction.enums.TransactionType;
+import com.hsbc.transaction.model.Money;
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.repository.TransactionRepository;
+import com.hsbc.transaction.util.SnowflakeIdGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures the page cache hit ratio under a mixed 80% read / 20% write load, with the previous
+ * blanket eviction on every write and with targeted invalidation. Not part of the default test run. Run with:
+ * <pre>
+ * mvn test -Dtest=PageCacheHitRatioBenchmark -Djacoco.skip=true -Dbenchmark.rows=100000 -Dbenchmark.operations=200000
+ * </pre>
+ * Reads list a page of 10, newest first 70% of the time, with lower page numbers more likely.
+ * Writes are 60% creates, 30% updates (half of them to one of the 1000 newest transactions) and 10% deletes.
+ */
+@Tag("benchmark")
+@DisplayName("Page Cache Hit Ratio Benchmark")
+class PageCacheHitRatioBenchmark {
+
+    @Test
+    void hitRatioUnderMixedLoad() {
+        int rows = Integer.getInteger("benchmark.rows", 100_000);
+        int operations = Integer.getInteger("benchmark.operations", 200_000);
+
+        System.out.printf("%12s %12s %12s %12s%n", "invalidation", "page reads", "hits", "hit ratio");
+        for (boolean blanket : new boolean[]{true, false}) {
+            double[] result = run(rows, operations, blanket);
+            System.out.printf("%12s %12.0f %12.0f %11.1f%%%n", blanket ? "blanket" : "targeted",
+                    result[0], result[1], 100 * result[1] / result[0]);
+        }
+    }
+
+    private static double[] run(int rows, int operations, boolean blanket) {
+        Random random = new Random(42);
+        TransactionRepository repository = new TransactionRepository(new SnowflakeIdGenerator(1, 1));
+        CacheProperties properties = new CacheProperties();
+        CacheProperties.Spec spec = new CacheProperties.Spec();
+        spec.setMaximumSize(1000);
+        properties.getCaches().put(TransactionPageCache.CACHE_NAME, spec);
+        BoundedCacheManager cacheManager = new BoundedCacheManager(properties);
+        cacheManager.afterPropertiesSet();
+        BoundedCache cache = (BoundedCache) cacheManager.getCache(TransactionPageCache.CACHE_NAME);
+        TransactionPageCache pageCache = new TransactionPageCache(repository, cacheManager, new SimpleMeterRegistry());
+
+        List<Long> ids = new ArrayList<>(rows + operations);
+        for (int i = 0; i < rows; i++) {
+            ids.add(create(repository).getId());
+        }
+
+        long reads = 0;
+        long loads = 0;
+        for (int op = 0; op < operations; op++) {
+            int dice = random.nextInt(100);
+            if (dice < 80) {
+                Sort.Direction direction = random.nextInt(10) < 7 ? Sort.Direction.DESC : Sort.Direction.ASC;
+                int page = Math.min(19, (int) (-Math.log(1 - random.nextDouble()) * 3));
+                Pageable pageable = PageRequest.of(page, 10, Sort.by(direction, TransactionRepository.ID_PROPERTY));
+                long[] loaded = new long[1];
+                pageCache.get(pageable, () -> {
+                    loaded[0]++;
+                    return repository.findAll(pageable);
+                }, repository::count);
+                reads++;
+                loads += loaded[0];
+                continue;
+            }
+
+            if (dice < 92) {
+                Transaction created = create(repository);
+                ids.add(created.getId());
+            } else if (dice < 98) {
+                int index = random.nextBoolean()
+                        ? ids.size() - 1 - random.nextInt(Math.min(1000, ids.size()))
+                        : random.nextInt(ids.size());
+                Transaction transaction = repository.findById(ids.get(index)).orElseThrow();
+                repository.save(transaction.toBuilder().description("Updated " + op).build());
+            } else {
+                int index = random.nextInt(ids.size());
+                long id = ids.get(index);
+                ids.set(index, ids.getLast());
+                ids.removeLast();
+                repository.deleteById(id);
+            }
+            if (blanket) {
+                cache.clear();
+            }
+        }
+        return new double[]{reads, reads - loads};
+    }
+
+    private static Transaction create(TransactionRepository repository) {
+        return repository.save(Transaction.builder()
+                .description("Hit ratio benchmark")
+                .money(Money.of(new BigDecimal("10.00"), Currency.getInstance("USD")))
+                .type(TransactionType.PAYMENT)
+                .build());
+    }
+}
@@ -0,0 +1,128 @@
+package com.hsbc.transaction.benchmark;
+
+import com.hsbc.transaction.enums.StorageEngine;
+import com.hsbc.transaction.enums.TransactionType;
+import com.hsbc.transaction.model.Money;
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.repository.ColumnarTransactionStore;
+import com.hsbc.transaction.repository.MapTransactionStore;
+import com.hsbc.transaction.repository.TransactionRepository;
+import com.hsbc.transaction.repository.TransactionStore;
+import com.hsbc.transaction.util.SnowflakeIdGenerator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Currency;
+
+/**
+ * Measures first-page latency of {@link TransactionRepository#findAll(Pageable)} as the store grows,
+ * and compares offset pages deep into the listing with cursor pages at the same depth, on both
+ * storage engines with one transaction in a hundred deleted.
+ * Not part of the default test run (surefire only picks up *Test classes). Run with:
+ * <pre>
+ * mvn test -Dtest=RepositoryPagingBenchmark -Djacoco.skip=true \
+ *     -Dbenchmark.rows=10000,100000,1000000,10000000 -DargLine=-Xmx12g
+ * </pre>
+ */
+@Tag("benchmark")
+@DisplayName("Repository Paging Benchmark")
+class RepositoryPagingBenchmark {
+
+    private static final int PAGE_SIZE = 10;
+    private static final int WARMUP_ITERATIONS = 2_000;
+    private static final int MEASURED_ITERATIONS = 5_000;
+    private static final int DEEP_ITERATIONS = 20;
+
+    private static long[] sizes() {
+        return Arrays.stream(System.getProperty("benchmark.rows", "10000,100000,1000000").split(","))
+                .mapToLong(Long::parseLong)
+                .toArray();
+    }
+
+    @Test
+    void pageLatencyByStoreSize() {
+        long[] sizes = sizes();
+
+        TransactionRepository repository = new TransactionRepository(new SnowflakeIdGenerator(1, 1));
+        Money money = Money.of(new BigDecimal("100.00"), Currency.getInstance("USD"));
+        Pageable firstPage = PageRequest.of(0, PAGE_SIZE);
+
+        System.out.printf("%12s %16s %16s%n", "rows", "page p50 (us)", "page p99 (us)");
+        for (long size : sizes) {
+            while (repository.count() < size) {
+                repository.save(Transaction.builder()
+                        .description("Benchmark transaction " + repository.count())
+                        .money(money)
+                        .type(TransactionType.PAYMENT)
+                        .build());
+            }
+
+            for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+                repository.findAll(firstPage);
+            }
+            long[] samples = new long[MEASURED_ITERATIONS];
+            for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+                long start = System.nanoTime();
+                repository.findAll(firstPage);
+                samples[i] = System.nanoTime() - start;
+            }
+            Arrays.sort(samples);
+            System.out.printf("%12d %16.2f %16.2f%n", size,
+                    samples[samples.length / 2] / 1_000.0,
+                    samples[(int) (samples.length * 0.99)] / 1_000.0);
+        }
+    }
+
+    @Test
+    void offsetVersusCursorByDepth() {
+        Money money = Money.of(new BigDecimal("100.00"), Currency.getInstance("USD"));
+        System.out.printf("%-9s %12s %12s %18s %18s%n", "engine", "rows", "depth", "offset p50 (us)", "cursor p50 (us)");
+        for (StorageEngine engine : StorageEngine.values()) {
+            for (long size : sizes()) {
+                TransactionStore store = engine == StorageEngine.MAP ? new MapTransactionStore() : new ColumnarTransactionStore();
+                TransactionRepository repository = new TransactionRepository(new SnowflakeIdGenerator(1, 1), store);
+                long[] ids = new long[(int) size];
+                for (int i = 0; i < size; i++) {
+                    ids[i] = repository.save(Transaction.builder()
+                            .description("Benchmark transaction " + i)
+                            .money(money)
+                            .type(TransactionType.PAYMENT)
+                            .build()).getId();
+                }
+                for (int i = 0; i < size; i += 100) {
+                    repository.deleteById(ids[i]);
+                }
+                // Newest first, as the default listing
+                long[] live = Arrays.stream(ids).filter(id -> repository.existsById(id)).toArray();
+
+                for (int depth : new int[]{PAGE_SIZE, live.length / 2, live.length - PAGE_SIZE}) {
+                    Pageable page = PageRequest.of(depth / PAGE_SIZE, PAGE_SIZE);
+                    long afterId = live[live.length - depth];
+                    long offset = median(() -> repository.findAll(page));
+                    long cursor = median(() -> repository.findAfter(afterId, Sort.Direction.DESC, PAGE_SIZE));
+                    System.out.printf("%-9s %12d %12d %18.2f %18.2f%n", engine, size, depth, offset / 1_000.0, cursor / 1_000.0);
+                }
+            }
+        }
+    }
+
+    private static long median(Runnable page) {
+        long[] samples = new long[DEEP_ITERATIONS];
+        for (int i = 0; i < DEEP_ITERATIONS * 2; i++) {
+            long start = System.nanoTime();
+            page.run();
+            // The first half warms up
+            if (i >= DEEP_ITERATIONS) {
+                samples[i - DEEP_ITERATIONS] = System.nanoTime() - start;
+            }
+        }
+        Arrays.sort(samples);
+        return samples[DEEP_ITERATIONS / 2];
+    }
+}
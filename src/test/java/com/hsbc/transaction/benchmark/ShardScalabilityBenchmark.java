@@ -0,0 +1,129 @@
+package com.hsbc.transaction.benchmark;
+
+import com.hsbc.transaction.enums.StorageEngine;
+import com.hsbc.transaction.enums.TransactionType;
+import com.hsbc.transaction.model.Money;
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.repository.ColumnarTransactionStore;
+import com.hsbc.transaction.repository.MapTransactionStore;
+import com.hsbc.transaction.repository.ShardedTransactionStore;
+import com.hsbc.transaction.repository.TransactionRepository;
+import com.hsbc.transaction.repository.TransactionStore;
+import com.hsbc.transaction.util.SnowflakeIdGenerator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares a single store with a sharded one as the number of client threads grows from 1 to 64.
+ * Each client runs a mix of 50% reads by ID, 30% creates, 15% updates and 5% first pages on a
+ * preloaded repository, without the write-ahead log; then a full scan summing every amount is timed
+ * in ID order and with {@link TransactionRepository#scanParallel}. Scaling needs as many cores as
+ * threads. Not part of the default test run. Run with:
+ * <pre>
+ * mvn test -Dtest=ShardScalabilityBenchmark -Djacoco.skip=true -Dbenchmark.engine=COLUMNAR -Dbenchmark.shards=16 -Dbenchmark.rows=200000 -Dbenchmark.operations=400000
+ * </pre>
+ */
+@Tag("benchmark")
+@DisplayName("Shard Scalability Benchmark")
+class ShardScalabilityBenchmark {
+
+    private static final Currency USD = Currency.getInstance("USD");
+
+    @Test
+    void threadsVersusShards() throws Exception {
+        StorageEngine engine = StorageEngine.valueOf(System.getProperty("benchmark.engine", "COLUMNAR"));
+        int shards = Integer.getInteger("benchmark.shards", 16);
+        int rows = Integer.getInteger("benchmark.rows", 200_000);
+        int operations = Integer.getInteger("benchmark.operations", 400_000);
+        Supplier<TransactionStore> single = () -> engine == StorageEngine.MAP ? new MapTransactionStore() : new ColumnarTransactionStore();
+
+        System.out.printf("%-8s %-12s %8s %12s %12s %14s%n", "engine", "store", "threads", "ops/s", "scan ms", "parallel ms");
+        for (int round = 0; round < 2; round++) {
+            for (int threads = 1; threads <= 64; threads *= 2) {
+                for (int shardCount : new int[]{1, shards}) {
+                    TransactionStore store = shardCount == 1 ? single.get() : new ShardedTransactionStore(shardCount, single);
+                    TransactionRepository repository = new TransactionRepository(new SnowflakeIdGenerator(1, 1), store);
+                    List<Transaction> batch = new ArrayList<>(rows);
+                    for (int i = 0; i < rows; i++) {
+                        batch.add(transaction(i));
+                    }
+                    long[] ids = repository.saveAll(batch).stream().mapToLong(Transaction::getId).toArray();
+
+                    double opsPerSecond = mixedWorkload(repository, ids, threads, operations);
+
+                    long start = System.nanoTime();
+                    long sequentialSum = 0;
+                    Iterator<Transaction> iterator = repository.scan();
+                    while (iterator.hasNext()) {
+                        sequentialSum += iterator.next().getMoney().minorUnits();
+                    }
+                    long scanNanos = System.nanoTime() - start;
+                    start = System.nanoTime();
+                    LongAdder parallelSum = new LongAdder();
+                    repository.scanParallel(transaction -> parallelSum.add(transaction.getMoney().minorUnits()));
+                    long parallelNanos = System.nanoTime() - start;
+                    assertEquals(sequentialSum, parallelSum.sum());
+
+                    if (round == 1) {
+                        System.out.printf("%-8s %-12s %8d %12.0f %12.1f %14.1f%n", engine,
+                                shardCount == 1 ? "single" : shardCount + " shards", threads, opsPerSecond,
+                                scanNanos / 1e6, parallelNanos / 1e6);
+                    }
+                }
+            }
+        }
+    }
+
+    private static double mixedWorkload(TransactionRepository repository, long[] ids, int threads, int operations)
+            throws Exception {
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            List<Future<?>> futures = new ArrayList<>(threads);
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < operations / threads; i++) {
+                        int dice = random.nextInt(100);
+                        long id = ids[random.nextInt(ids.length)];
+                        if (dice < 50) {
+                            repository.findById(id);
+                        } else if (dice < 80) {
+                            repository.save(transaction(i));
+                        } else if (dice < 95) {
+                            repository.update(id, null, current -> current.toBuilder().description("Updated " + current.getVersion()).build());
+                        } else {
+                            repository.findAll(PageRequest.of(0, 20));
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        return operations / threads * threads / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private static Transaction transaction(int i) {
+        return Transaction.builder()
+                .description("Card payment " + (i % 1000))
+                .money(Money.ofMinor(100 + i % 10_000, USD))
+                .type(TransactionType.PAYMENT)
+                .build();
+    }
+}
@@ -0,0 +1,96 @@
+package com.hsbc.transaction.benchmark;
+
+import com.hsbc.transaction.config.SnapshotProperties;
+import com.hsbc.transaction.config.WalProperties;
+import com.hsbc.transaction.enums.TransactionStatus;
+import com.hsbc.transaction.enums.TransactionType;
+import com.hsbc.transaction.enums.WalMode;
+import com.hsbc.transaction.model.Money;
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.persistence.SnapshotStore;
+import com.hsbc.transaction.persistence.Snapshotter;
+import com.hsbc.transaction.persistence.WriteAheadLog;
+import com.hsbc.transaction.repository.TransactionRepository;
+import com.hsbc.transaction.util.SnowflakeIdGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.Currency;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares startup time when rebuilding the repository from the full write-ahead log
+ * with loading a snapshot. Not part of the default test run. Run with:
+ * <pre>
+ * mvn test -Dtest=SnapshotStartupBenchmark -Djacoco.skip=true -Dbenchmark.rows=10000000 -DargLine=-Xmx8g
+ * </pre>
+ */
+@Tag("benchmark")
+@DisplayName("Snapshot Startup Benchmark")
+class SnapshotStartupBenchmark {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void startupTimeFromLogAndSnapshot() throws Exception {
+        int rows = Integer.getInteger("benchmark.rows", 1_000_000);
+        SnowflakeIdGenerator idGenerator = new SnowflakeIdGenerator(1, 1);
+
+        WalProperties walProperties = new WalProperties();
+        walProperties.setDirectory(tempDir.resolve("wal").toString());
+        walProperties.setMode(WalMode.ASYNC);
+        SnapshotProperties snapshotProperties = new SnapshotProperties();
+        snapshotProperties.setDirectory(tempDir.resolve("snapshots").toString());
+        SnapshotStore snapshotStore = new SnapshotStore(snapshotProperties);
+
+        WriteAheadLog writeAheadLog = new WriteAheadLog(walProperties, new SimpleMeterRegistry());
+        writeAheadLog.start();
+        TransactionRepository repository = new TransactionRepository(idGenerator, writeAheadLog);
+        Money money = Money.of(new BigDecimal("125.50"), Currency.getInstance("USD"));
+        for (int i = 0; i < rows; i++) {
+            repository.save(Transaction.builder()
+                    .description("Snapshot benchmark payment " + i)
+                    .money(money)
+                    .type(TransactionType.PAYMENT)
+                    .status(TransactionStatus.COMPLETED)
+                    .build());
+        }
+        writeAheadLog.stop();
+
+        long logMillis = timeRecovery(idGenerator, walProperties, null, rows);
+
+        writeAheadLog = new WriteAheadLog(walProperties, new SimpleMeterRegistry());
+        writeAheadLog.start();
+        repository = new TransactionRepository(idGenerator, writeAheadLog);
+        repository.recover();
+        long writeStart = System.nanoTime();
+        new Snapshotter(snapshotProperties, snapshotStore, writeAheadLog, repository).snapshot();
+        long snapshotWriteMillis = (System.nanoTime() - writeStart) / 1_000_000;
+        writeAheadLog.stop();
+
+        long snapshotMillis = timeRecovery(idGenerator, walProperties, snapshotStore, rows);
+
+        System.out.printf("%12s %20s %20s %20s%n", "rows", "log replay ms", "snapshot write ms", "snapshot load ms");
+        System.out.printf("%12d %20d %20d %20d%n", rows, logMillis, snapshotWriteMillis, snapshotMillis);
+    }
+
+    private static long timeRecovery(SnowflakeIdGenerator idGenerator, WalProperties walProperties,
+                                     SnapshotStore snapshotStore, int expectedRows) throws Exception {
+        WriteAheadLog writeAheadLog = new WriteAheadLog(walProperties, new SimpleMeterRegistry());
+        writeAheadLog.start();
+        TransactionRepository repository = new TransactionRepository(idGenerator, writeAheadLog, snapshotStore);
+        long start = System.nanoTime();
+        repository.recover();
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+        writeAheadLog.stop();
+        assertEquals(expectedRows, repository.count());
+        return elapsed;
+    }
+}
@@ -0,0 +1,134 @@
+package com.hsbc.transaction.benchmark;
+
+import com.hsbc.transaction.config.StatementProperties;
+import com.hsbc.transaction.enums.StatementJobStatus;
+import com.hsbc.transaction.enums.TransactionType;
+import com.hsbc.transaction.index.TimestampIndex;
+import com.hsbc.transaction.model.Money;
+import com.hsbc.transaction.model.StatementJob;
+import com.hsbc.transaction.model.StatementRequest;
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.repository.ColumnarTransactionStore;
+import com.hsbc.transaction.repository.TransactionRepository;
+import com.hsbc.transaction.statement.StatementService;
+import com.hsbc.transaction.util.SnowflakeIdGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+
+/**
+ * Renders statements of growing length, once laying out the table in chunks as the service does and
+ * once as a single table, and reports time, size and the peak heap used while rendering. Also times
+ * an identical request served from the cache. Not part of the default test run. Run with:
+ * <pre>
+ * mvn test -Dtest=StatementBenchmark -Djacoco.skip=true -Dbenchmark.rows=200000
+ * </pre>
+ */
+@Tag("benchmark")
+@DisplayName("Statement Benchmark")
+class StatementBenchmark {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void chunkedVersusWholeTable() throws Exception {
+        int rows = Integer.getInteger("benchmark.rows", 200_000);
+        TransactionRepository repository = new TransactionRepository(new SnowflakeIdGenerator(1, 1), new ColumnarTransactionStore());
+        TimestampIndex timestampIndex = new TimestampIndex(repository);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<Transaction> batch = new ArrayList<>(SnowflakeIdGenerator.MAX_BATCH_SIZE);
+        for (int i = 0; i < rows; i++) {
+            batch.add(Transaction.builder()
+                    .description("Card payment merchant " + (i % 500) + " London")
+                    .money(Money.ofMinor(100 + i % 10_000, Currency.getInstance(i % 3 == 0 ? "EUR" : "USD")))
+                    .type(TransactionType.PAYMENT)
+                    .timestamp(start.plusSeconds(i))
+                    .build());
+            if (batch.size() == SnowflakeIdGenerator.MAX_BATCH_SIZE || i == rows - 1) {
+                repository.saveAll(batch);
+                batch = new ArrayList<>(SnowflakeIdGenerator.MAX_BATCH_SIZE);
+            }
+        }
+
+        System.gc();
+        System.out.printf("Heap used by %d stored transactions: %d MB%n", rows,
+                ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() / 1_048_576);
+        System.out.printf("%-8s %10s %8s %8s %10s %14s%n", "layout", "rows", "pages", "ms", "MB", "peak heap MB");
+        for (int length : new int[]{rows / 20, rows / 4, rows}) {
+            StatementRequest request = StatementRequest.builder().from(start).to(start.plusSeconds(length)).build();
+            for (boolean chunked : new boolean[]{true, false}) {
+                StatementService service = startService(repository, timestampIndex, chunked ? 200 : Integer.MAX_VALUE);
+                try {
+                    System.gc();
+                    resetPeakHeap();
+                    long begin = System.nanoTime();
+                    StatementJob job = await(service, service.submit(request));
+                    long elapsed = System.nanoTime() - begin;
+                    System.out.printf("%-8s %10d %8d %8d %10.1f %14d%n", chunked ? "chunked" : "whole",
+                            job.getTransactions(), job.getPages(), elapsed / 1_000_000,
+                            Files.size(service.getStatement(job.getId())) / 1_048_576.0, peakHeap() / 1_048_576);
+
+                    begin = System.nanoTime();
+                    StatementJob repeated = service.submit(request);
+                    if (chunked && length == rows) {
+                        System.out.printf("repeated request served from cache: %s in %d us%n", repeated.isCached(),
+                                (System.nanoTime() - begin) / 1_000);
+                    }
+                } finally {
+                    service.stop();
+                }
+            }
+        }
+    }
+
+    private StatementService startService(TransactionRepository repository, TimestampIndex timestampIndex,
+                                          int rowsPerFlush) throws Exception {
+        StatementProperties properties = new StatementProperties();
+        properties.setDirectory(tempDir.resolve("statements-" + rowsPerFlush).toString());
+        properties.setWorkers(1);
+        properties.setRowsPerFlush(rowsPerFlush);
+        StatementService service = new StatementService(properties, timestampIndex, repository, new SimpleMeterRegistry());
+        service.start();
+        return service;
+    }
+
+    private static StatementJob await(StatementService service, StatementJob job) throws InterruptedException {
+        StatementJob current = service.getJob(job.getId());
+        while (current.getStatus() == StatementJobStatus.QUEUED || current.getStatus() == StatementJobStatus.RUNNING) {
+            Thread.sleep(5);
+            current = service.getJob(job.getId());
+        }
+        return current;
+    }
+
+    private static void resetPeakHeap() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    private static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+}
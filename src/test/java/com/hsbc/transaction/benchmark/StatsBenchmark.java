@@ -0,0 +1,77 @@
+package com.hsbc.transaction.benchmark;
+
+import com.hsbc.transaction.aggregate.TransactionAggregator;
+import com.hsbc.transaction.config.StatsProperties;
+import com.hsbc.transaction.enums.TransactionType;
+import com.hsbc.transaction.model.Money;
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.repository.TransactionRepository;
+import com.hsbc.transaction.util.SnowflakeIdGenerator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Compares reading totals per currency from the aggregates with paging through every
+ * transaction with cursor paging, as a dashboard had to before. Not part of the default test run. Run with:
+ * <pre>
+ * mvn test -Dtest=StatsBenchmark -Djacoco.skip=true -Dbenchmark.rows=1000000
+ * </pre>
+ */
+@Tag("benchmark")
+@DisplayName("Stats Benchmark")
+class StatsBenchmark {
+
+    private static final Currency[] CURRENCIES = {
+            Currency.getInstance("USD"), Currency.getInstance("EUR"), Currency.getInstance("GBP"), Currency.getInstance("JPY")
+    };
+
+    @Test
+    void statsVersusFullScan() {
+        int rows = Integer.getInteger("benchmark.rows", 1_000_000);
+        TransactionRepository repository = new TransactionRepository(new SnowflakeIdGenerator(1, 1));
+        TransactionAggregator aggregator = new TransactionAggregator(repository, new StatsProperties());
+
+        Random random = new Random(42);
+        long start = System.nanoTime();
+        for (int i = 0; i < rows; i++) {
+            repository.save(Transaction.builder()
+                    .description("Stats benchmark")
+                    .money(Money.of(BigDecimal.valueOf(random.nextInt(1_000_000), 2), CURRENCIES[random.nextInt(CURRENCIES.length)]))
+                    .type(TransactionType.values()[random.nextInt(3)])
+                    .build());
+        }
+        System.out.printf("Saved %d transactions with aggregates in %d ms%n", rows, (System.nanoTime() - start) / 1_000_000);
+
+        for (int round = 0; round < 3; round++) {
+            start = System.nanoTime();
+            Map<Currency, BigDecimal> totals = new HashMap<>();
+            Long afterId = null;
+            List<Transaction> transactions;
+            do {
+                transactions = repository.findAfter(afterId, Sort.Direction.ASC, 100);
+                transactions.forEach(t -> totals.merge(t.getMoney().getCurrency(), t.getMoney().getAmount(), BigDecimal::add));
+                afterId = transactions.isEmpty() ? afterId : transactions.getLast().getId();
+            } while (transactions.size() == 100);
+            long scanNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            int reads = 10_000;
+            long count = 0;
+            for (int i = 0; i < reads; i++) {
+                count += aggregator.statistics().getCount();
+            }
+            long statsNanos = (System.nanoTime() - start) / reads;
+            System.out.printf("cursor scan %8.1f ms   stats read %8.1f us   (%d)%n",
+                    scanNanos / 1e6, statsNanos / 1e3, count / reads);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.hsbc.transaction.benchmark;
+
+import com.hsbc.transaction.enums.StorageEngine;
+import com.hsbc.transaction.enums.TransactionType;
+import com.hsbc.transaction.model.Money;
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.repository.ColumnarTransactionStore;
+import com.hsbc.transaction.repository.MapTransactionStore;
+import com.hsbc.transaction.repository.TransactionRepository;
+import com.hsbc.transaction.repository.TransactionStore;
+import com.hsbc.transaction.util.SnowflakeIdGenerator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Measures the retained heap per transaction of each storage engine. Not part of the default
+ * test run. Run with:
+ * <pre>
+ * mvn test -Dtest=StorageFootprintBenchmark -Djacoco.skip=true -Dbenchmark.rows=1000000 -Dbenchmark.descriptions=10000
+ * </pre>
+ * Every row is built the way a request builds it, with its own description string, money and timestamp.
+ * Descriptions repeat out of {@code benchmark.descriptions} distinct ones.
+ */
+@Tag("benchmark")
+@DisplayName("Storage Footprint Benchmark")
+class StorageFootprintBenchmark {
+
+    private static final Currency[] CURRENCIES = {
+            Currency.getInstance("USD"), Currency.getInstance("EUR"), Currency.getInstance("GBP"), Currency.getInstance("HKD")
+    };
+
+    @Test
+    void heapPerTransaction() {
+        int rows = Integer.getInteger("benchmark.rows", 1_000_000);
+        int descriptions = Integer.getInteger("benchmark.descriptions", 10_000);
+
+        System.out.printf("%10s %14s %16s%n", "engine", "bytes per row", "rows per GB");
+        double[] bytesPerRow = new double[StorageEngine.values().length];
+        for (StorageEngine engine : StorageEngine.values()) {
+            long before = usedHeap();
+            TransactionStore store = engine == StorageEngine.MAP ? new MapTransactionStore() : new ColumnarTransactionStore();
+            TransactionRepository repository = new TransactionRepository(new SnowflakeIdGenerator(1, 1), store);
+            load(repository, rows, descriptions);
+            long after = usedHeap();
+            assertEquals(rows, repository.count());
+
+            bytesPerRow[engine.ordinal()] = (double) (after - before) / rows;
+            System.out.printf("%10s %14.1f %16.0f%n", engine, bytesPerRow[engine.ordinal()],
+                    (1L << 30) / bytesPerRow[engine.ordinal()]);
+            // Keep the store reachable until it has been measured
+            repository.deleteAll();
+        }
+        System.out.printf("Columnar stores %.1fx more transactions per GB%n",
+                bytesPerRow[StorageEngine.MAP.ordinal()] / bytesPerRow[StorageEngine.COLUMNAR.ordinal()]);
+    }
+
+    private static void load(TransactionRepository repository, int rows, int descriptions) {
+        Random random = new Random(42);
+        for (int i = 0; i < rows; i++) {
+            repository.save(Transaction.builder()
+                    .description("Payment to merchant " + random.nextInt(descriptions))
+                    .money(Money.of(BigDecimal.valueOf(random.nextInt(100_000_000), 2), CURRENCIES[random.nextInt(CURRENCIES.length)]))
+                    .type(TransactionType.values()[random.nextInt(3)])
+                    .build());
+        }
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
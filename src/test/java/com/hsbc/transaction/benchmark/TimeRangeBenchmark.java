@@ -0,0 +1,78 @@
+package com.hsbc.transaction.benchmark;
+
+import com.hsbc.transaction.enums.TransactionType;
+import com.hsbc.transaction.index.TimestampIndex;
+import com.hsbc.transaction.model.Money;
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.repository.TransactionRepository;
+import com.hsbc.transaction.util.SnowflakeIdGenerator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Currency;
+import java.util.Iterator;
+import java.util.Random;
+
+/**
+ * Compares reading the transactions of a one hour window through the timestamp index with
+ * scanning every transaction and filtering on the timestamp, as clients had to before.
+ * Transactions are spread one second apart. Not part of the default test run. Run with:
+ * <pre>
+ * mvn test -Dtest=TimeRangeBenchmark -Djacoco.skip=true -Dbenchmark.rows=1000000
+ * </pre>
+ */
+@Tag("benchmark")
+@DisplayName("Time Range Benchmark")
+class TimeRangeBenchmark {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Test
+    void indexedRangeVersusScan() {
+        int rows = Integer.getInteger("benchmark.rows", 1_000_000);
+        TransactionRepository repository = new TransactionRepository(new SnowflakeIdGenerator(1, 1));
+        TimestampIndex index = new TimestampIndex(repository);
+
+        Money money = Money.parse("10.00", Currency.getInstance("USD"));
+        long start = System.nanoTime();
+        for (int i = 0; i < rows; i++) {
+            repository.save(Transaction.builder()
+                    .description("Time range benchmark")
+                    .money(money)
+                    .type(TransactionType.PAYMENT)
+                    .timestamp(START.plusSeconds(i))
+                    .build());
+        }
+        System.out.printf("Saved %d transactions with the timestamp index in %d ms%n", rows, (System.nanoTime() - start) / 1_000_000);
+
+        Random random = new Random(42);
+        for (int round = 0; round < 3; round++) {
+            LocalDateTime from = START.plusSeconds(random.nextInt(Math.max(1, rows - 3600)));
+            LocalDateTime to = from.plusHours(1);
+
+            start = System.nanoTime();
+            int scanned = 0;
+            Iterator<Transaction> all = repository.scan();
+            while (all.hasNext()) {
+                LocalDateTime timestamp = all.next().getTimestamp();
+                if (!timestamp.isBefore(from) && timestamp.isBefore(to)) {
+                    scanned++;
+                }
+            }
+            long scanNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            int found = 0;
+            Iterator<Transaction> range = index.iterator(from, to, true, null);
+            while (range.hasNext()) {
+                range.next();
+                found++;
+            }
+            long indexNanos = System.nanoTime() - start;
+            System.out.printf("scan %8.1f ms (%d)   index %8.3f ms (%d)%n",
+                    scanNanos / 1e6, scanned, indexNanos / 1e6, found);
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.hsbc.transaction.benchmark;
+
+import com.hsbc.transaction.TransactionManagementApplication;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Starts the application once on platform threads and once with {@code spring.threads.virtual.enabled},
+ * holds 1k and 10k keep-alive connections open against each, and has every connection create
+ * transactions back to back. Reports creates per second and latency percentiles. The client runs one
+ * virtual thread per connection in the same JVM, so it shares the CPUs with the server.
+ * Not part of the default test run. Run with:
+ * <pre>
+ * mvn test -Dtest=VirtualThreadLoadBenchmark -Djacoco.skip=true -Dbenchmark.connections=1000,10000 -Dbenchmark.warmup=10 -Dbenchmark.seconds=10
+ * </pre>
+ * Each connection takes a file descriptor on both ends, so 10k connections need {@code ulimit -n} above 20k.
+ */
+@Tag("benchmark")
+@DisplayName("Virtual Thread Load Benchmark")
+class VirtualThreadLoadBenchmark {
+
+    private static final byte[] BODY = """
+            {"description":"Load test","amount":"12.50","currency":"USD","type":"DEPOSIT"}"""
+            .getBytes(StandardCharsets.US_ASCII);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void platformVersusVirtualThreads() throws Exception {
+        int[] connectionCounts = Arrays.stream(System.getProperty("benchmark.connections", "1000,10000").split(","))
+                .mapToInt(count -> Integer.parseInt(count.trim()))
+                .toArray();
+        int warmup = Integer.getInteger("benchmark.warmup", 10);
+        int seconds = Integer.getInteger("benchmark.seconds", 10);
+
+        System.out.printf("%8s %12s %12s %10s %10s %10s %8s%n",
+                "threads", "connections", "creates/s", "p50 ms", "p99 ms", "max ms", "errors");
+        for (boolean virtual : new boolean[]{false, true}) {
+            String mode = virtual ? "virtual" : "platform";
+            try (ConfigurableApplicationContext context = start(mode, virtual)) {
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                for (int connections : connectionCounts) {
+                    Result result = run(port, connections, warmup, seconds);
+                    System.out.printf("%8s %12d %12.0f %10.2f %10.2f %10.2f %8d%n", mode, connections,
+                            result.requests() / (double) seconds, result.percentile(0.50), result.percentile(0.99),
+                            result.percentile(1.0), result.errors);
+                }
+            }
+        }
+    }
+
+    private ConfigurableApplicationContext start(String mode, boolean virtual) {
+        Path data = tempDir.resolve(mode);
+        // Passed as arguments, so they take precedence over application.yml
+        return new SpringApplicationBuilder(TransactionManagementApplication.class).run(
+                "--server.port=0",
+                "--server.tomcat.max-connections=20000",
+                "--server.tomcat.accept-count=10000",
+                "--server.tomcat.max-keep-alive-requests=-1",
+                "--spring.threads.virtual.enabled=" + virtual,
+                "--logging.level.com.hsbc=WARN",
+                "--transaction.journal.path=" + data.resolve("journal.ndjson"),
+                "--transaction.wal.directory=" + data.resolve("wal"),
+                "--transaction.snapshot.directory=" + data.resolve("snapshots"),
+                "--transaction.statement.directory=" + data.resolve("statements"));
+    }
+
+    /**
+     * Opens every connection, lets them create for the warmup, then records every request completed
+     * during the measured window.
+     */
+    private static Result run(int port, int connections, int warmup, int seconds) throws Exception {
+        CountDownLatch connected = new CountDownLatch(connections);
+        LongAdder errors = new LongAdder();
+        // Start and end of the measured window, zero until every connection is open
+        AtomicLongArray window = new AtomicLongArray(2);
+        List<Future<long[]>> latencies = new ArrayList<>(connections);
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < connections; i++) {
+                latencies.add(clients.submit(() -> {
+                    try (Socket socket = new Socket()) {
+                        socket.connect(new InetSocketAddress("localhost", port), 60_000);
+                        socket.setSoTimeout(60_000);
+                        connected.countDown();
+                        connected.await();
+                        return createUntil(socket, window, errors);
+                    } catch (IOException e) {
+                        connected.countDown();
+                        errors.increment();
+                        return new long[0];
+                    }
+                }));
+            }
+            connected.await();
+            long start = System.nanoTime() + TimeUnit.SECONDS.toNanos(warmup);
+            window.set(0, start);
+            window.set(1, start + TimeUnit.SECONDS.toNanos(seconds));
+        }
+
+        long[] all = new long[0];
+        for (Future<long[]> future : latencies) {
+            long[] recorded = future.get();
+            int length = all.length;
+            all = Arrays.copyOf(all, length + recorded.length);
+            System.arraycopy(recorded, 0, all, length, recorded.length);
+        }
+        Arrays.sort(all);
+        return new Result(all, errors.sum());
+    }
+
+    private static long[] createUntil(Socket socket, AtomicLongArray window, LongAdder errors) throws IOException {
+        byte[] request = ("POST /api/transactions HTTP/1.1\r\nHost: localhost\r\n"
+                + "Content-Type: application/json\r\nContent-Length: " + BODY.length + "\r\n\r\n")
+                .getBytes(StandardCharsets.US_ASCII);
+        OutputStream out = socket.getOutputStream();
+        InputStream in = new BufferedInputStream(socket.getInputStream());
+        long[] recorded = new long[256];
+        int count = 0;
+        while (true) {
+            long begin = System.nanoTime();
+            long start = window.get(0);
+            long end = window.get(1);
+            if (end != 0 && begin >= end) {
+                return Arrays.copyOf(recorded, count);
+            }
+            out.write(request);
+            out.write(BODY);
+            out.flush();
+            int status = readResponse(in);
+            long elapsed = System.nanoTime() - begin;
+            if (status != 201) {
+                errors.increment();
+            } else if (start != 0 && begin >= start && begin + elapsed < end) {
+                if (count == recorded.length) {
+                    recorded = Arrays.copyOf(recorded, count * 2);
+                }
+                recorded[count++] = elapsed;
+            }
+        }
+    }
+
+    /**
+     * Reads one response, skipping a Content-Length or chunked body, and returns its status code.
+     */
+    private static int readResponse(InputStream in) throws IOException {
+        String statusLine = readLine(in);
+        int status = Integer.parseInt(statusLine.substring(9, 12));
+        int contentLength = 0;
+        boolean chunked = false;
+        for (String header = readLine(in); !header.isEmpty(); header = readLine(in)) {
+            if (header.regionMatches(true, 0, "Content-Length:", 0, 15)) {
+                contentLength = Integer.parseInt(header.substring(15).trim());
+            } else if (header.regionMatches(true, 0, "Transfer-Encoding:", 0, 18)) {
+                chunked = header.substring(18).trim().equalsIgnoreCase("chunked");
+            }
+        }
+        if (!chunked) {
+            in.skipNBytes(contentLength);
+            return status;
+        }
+        for (int size = Integer.parseInt(readLine(in), 16); size > 0; size = Integer.parseInt(readLine(in), 16)) {
+            in.skipNBytes(size);
+            readLine(in);
+        }
+        readLine(in);
+        return status;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        for (int b = in.read(); b != '\n'; b = in.read()) {
+            if (b < 0) {
+                throw new IOException("Connection closed");
+            }
+            if (b != '\r') {
+                line.append((char) b);
+            }
+        }
+        return line.toString();
+    }
+
+    private record Result(long[] latencies, long errors) {
+
+        long requests() {
+            return latencies.length;
+        }
+
+        double percentile(double percentile) {
+            if (latencies.length == 0) {
+                return Double.NaN;
+            }
+            int index = (int) Math.min(latencies.length - 1, Math.ceil(percentile * latencies.length) - 1);
+            return latencies[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.hsbc.transaction.benchmark;
+
+import com.hsbc.transaction.config.WalProperties;
+import com.hsbc.transaction.enums.TransactionType;
+import com.hsbc.transaction.enums.WalMode;
+import com.hsbc.transaction.model.Money;
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.persistence.WriteAheadLog;
+import com.hsbc.transaction.repository.TransactionRepository;
+import com.hsbc.transaction.util.SnowflakeIdGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.Currency;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compares repository creates per second with the write-ahead log in each {@link WalMode}.
+ * Not part of the default test run. Run with:
+ * <pre>
+ * mvn test -Dtest=WalThroughputBenchmark -Djacoco.skip=true -Dbenchmark.threads=32 -Dbenchmark.seconds=5
+ * </pre>
+ * The log is written under the JUnit temporary directory, so results reflect that file system's fsync cost.
+ */
+@Tag("benchmark")
+@DisplayName("Write-Ahead Log Throughput Benchmark")
+class WalThroughputBenchmark {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void createsPerSecondByMode() throws Exception {
+        int threads = Integer.getInteger("benchmark.threads", 32);
+        int seconds = Integer.getInteger("benchmark.seconds", 5);
+
+        System.out.printf("%8s %8s %16s%n", "mode", "threads", "creates/s");
+        for (WalMode mode : WalMode.values()) {
+            WalProperties properties = new WalProperties();
+            properties.setDirectory(tempDir.resolve(mode.name().toLowerCase()).toString());
+            properties.setMode(mode);
+            WriteAheadLog writeAheadLog = new WriteAheadLog(properties, new SimpleMeterRegistry());
+            writeAheadLog.start();
+            TransactionRepository repository = new TransactionRepository(new SnowflakeIdGenerator(1, 1), writeAheadLog);
+
+            double throughput = run(repository, threads, seconds);
+            writeAheadLog.stop();
+            System.out.printf("%8s %8d %16.0f%n", mode, threads, throughput);
+        }
+    }
+
+    private static double run(TransactionRepository repository, int threads, int seconds) throws InterruptedException {
+        Money money = Money.of(new BigDecimal("100.00"), Currency.getInstance("USD"));
+        LongAdder creates = new LongAdder();
+        CountDownLatch done = new CountDownLatch(threads);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    repository.save(Transaction.builder()
+                            .description("WAL benchmark")
+                            .money(money)
+                            .type(TransactionType.PAYMENT)
+                            .build());
+                    creates.increment();
+                }
+                done.countDown();
+            });
+        }
+        done.await();
+        long elapsed = System.nanoTime() - start;
+        executor.shutdown();
+        return creates.sum() * 1e9 / elapsed;
+    }
+}
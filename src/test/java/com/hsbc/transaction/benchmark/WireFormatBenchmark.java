@@ -0,0 +1,152 @@
+package com.hsbc.transaction.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hsbc.transaction.dto.TransactionDTO;
+import com.hsbc.transaction.enums.TransactionType;
+import com.hsbc.transaction.model.Money;
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.wire.TransactionWireReader;
+import com.hsbc.transaction.wire.TransactionWireWriter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compares a single transaction and a page of transactions as the JSON the API returns today
+ * (mapped to {@link TransactionDTO}, pages with their Spring {@link Page} metadata) with the binary
+ * wire format. Reports payload size, plain and gzipped, and time and allocation to encode and decode
+ * on the measuring thread. JSON is decoded into DTOs, without the page metadata.
+ * Not part of the default test run. Run with:
+ * <pre>
+ * mvn test -Dtest=WireFormatBenchmark -Djacoco.skip=true -Dbenchmark.iterations=200000
+ * </pre>
+ */
+@Tag("benchmark")
+@DisplayName("Wire Format Benchmark")
+class WireFormatBenchmark {
+
+    private static final TypeReference<List<TransactionDTO>> DTO_LIST = new TypeReference<>() {
+    };
+
+    @Test
+    void jsonVersusBinary() throws IOException {
+        int iterations = Integer.getInteger("benchmark.iterations", 200_000);
+        ObjectMapper objectMapper = new ObjectMapper();
+        Currency[] currencies = {Currency.getInstance("USD"), Currency.getInstance("EUR"), Currency.getInstance("GBP")};
+        LocalDateTime now = LocalDateTime.now();
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            transactions.add(Transaction.builder()
+                    .id(1_790_000_000_000_000_000L + i * 4_096L)
+                    .description("Card payment merchant " + i + " London")
+                    .money(Money.ofMinor(100 + i * 137L, currencies[i % currencies.length]))
+                    .type(TransactionType.values()[i % TransactionType.values().length])
+                    .timestamp(now.plusSeconds(i))
+                    .build());
+        }
+
+        System.out.printf("%-16s %-7s %9s %9s %11s %11s %13s %13s%n", "payload", "format", "bytes", "gzipped",
+                "encode us", "decode us", "encode alloc", "decode alloc");
+        for (int round = 0; round < 2; round++) {
+            for (int size : new int[]{1, 100}) {
+                List<Transaction> content = transactions.subList(0, size);
+                String payload = size == 1 ? "1 transaction" : size + " per page";
+                int repeat = Math.max(1, iterations / size);
+
+                Codec json = size == 1
+                        ? new Codec(() -> objectMapper.writeValueAsBytes(TransactionDTO.fromEntity(content.get(0))),
+                                bytes -> objectMapper.readValue(bytes, TransactionDTO.class))
+                        : new Codec(() -> objectMapper.writeValueAsBytes(new PageImpl<>(content, PageRequest.of(3, size,
+                                Sort.by(Sort.Direction.DESC, "id")), 1_000_000).map(TransactionDTO::fromEntity)),
+                                bytes -> objectMapper.readTree(bytes).get("content").traverse(objectMapper).readValueAs(DTO_LIST));
+                // Buffers sized as the HTTP converter sizes them
+                int bufferSize = size == 1 ? 512 : TransactionWireWriter.BUFFER_SIZE;
+                Codec binary = new Codec(() -> {
+                    ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+                    TransactionWireWriter writer = new TransactionWireWriter(out, bufferSize);
+                    if (size == 1) {
+                        writer.writeTransaction(content.get(0));
+                    } else {
+                        writer.writeList(content, 1_000_000, null);
+                    }
+                    writer.flush();
+                    return out.toByteArray();
+                }, bytes -> {
+                    TransactionWireReader reader = new TransactionWireReader(new ByteArrayInputStream(bytes), bufferSize);
+                    return size == 1 ? reader.readTransaction() : reader.readList();
+                });
+
+                if (round == 1) {
+                    measure(payload, "JSON", json, repeat);
+                    measure(payload, "binary", binary, repeat);
+                } else {
+                    measure(null, null, json, repeat);
+                    measure(null, null, binary, repeat);
+                }
+            }
+        }
+    }
+
+    private interface Encoder {
+        byte[] encode() throws IOException;
+    }
+
+    private interface Decoder {
+        Object decode(byte[] bytes) throws IOException;
+    }
+
+    private record Codec(Encoder encoder, Decoder decoder) {
+    }
+
+    /**
+     * Prints the results unless the payload is null, which makes the run a warmup.
+     */
+    private static void measure(String payload, String format, Codec codec, int repeat) throws IOException {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        byte[] encoded = codec.encoder().encode();
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(gzipped)) {
+            out.write(encoded);
+        }
+
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        long sink = 0;
+        for (int i = 0; i < repeat; i++) {
+            sink += codec.encoder().encode().length;
+        }
+        long encodeNanos = System.nanoTime() - start;
+        long encodeAllocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+        allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        start = System.nanoTime();
+        for (int i = 0; i < repeat; i++) {
+            sink += codec.decoder().decode(encoded) == null ? 0 : 1;
+        }
+        long decodeNanos = System.nanoTime() - start;
+        long decodeAllocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+        if (payload != null) {
+            System.out.printf("%-16s %-7s %9d %9d %11.2f %11.2f %13d %13d%n", payload, format, encoded.length,
+                    gzipped.size(), encodeNanos / 1e3 / repeat, decodeNanos / 1e3 / repeat,
+                    encodeAllocated / repeat, decodeAllocated / repeat);
+        } else if (sink == 42) {
+            System.out.print("");
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.hsbc.transaction.cache;
+
+import com.hsbc.transaction.config.CacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("BoundedCache Unit Tests")
+class BoundedCacheTest {
+
+    @Test
+    @DisplayName("Should never hold more than the maximum number of entries")
+    void put_RespectsMaximumSize() {
+        BoundedCache cache = new BoundedCache("test", 100, null, false);
+
+        for (int i = 0; i < 10_000; i++) {
+            cache.put(i, "value-" + i);
+        }
+
+        assertTrue(cache.size() <= 100);
+        assertEquals(10_000, cache.putCount());
+        assertEquals(cache.putCount() - cache.size(), cache.evictionCount());
+    }
+
+    @Test
+    @DisplayName("Should drop entries evicted by key or expired from the clock")
+    void evict_DoesNotGrowTheClock() throws Exception {
+        BoundedCache cache = new BoundedCache("test", 100, null, false);
+        for (int i = 0; i < 1_000_000; i++) {
+            cache.put(i, "value-" + i);
+            cache.evict(i);
+        }
+        assertEquals(0, cache.size());
+        assertTrue(cache.clockLength() <= 2 * 100 + 1, "Clock holds " + cache.clockLength() + " entries");
+
+        BoundedCache expiring = new BoundedCache("expiring", 100, Duration.ofMillis(1), false);
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 100; i++) {
+                expiring.put(round * 100 + i, "value");
+            }
+            Thread.sleep(5);
+            for (int i = 0; i < 100; i++) {
+                assertNull(expiring.get(round * 100 + i));
+            }
+        }
+        assertTrue(expiring.clockLength() <= 2 * 100 + 1, "Clock holds " + expiring.clockLength() + " entries");
+    }
+
+    @Test
+    @DisplayName("Should keep frequently read entries while flooded with one-off keys")
+    void put_FrequentEntriesSurviveScan() {
+        BoundedCache cache = new BoundedCache("test", 100, null, false);
+        int hotMisses = 0;
+        for (int cold = 0; cold < 20_000; cold++) {
+            cache.put("cold-" + cold, "cold");
+            // Each hot key is read once every 200 cold keys, too rarely for an LRU cache of 100 to keep it
+            int hot = (cold / 4) % 50;
+            if (cold % 4 == 0 && cache.get("hot-" + hot) == null) {
+                cache.put("hot-" + hot, "hot");
+                hotMisses++;
+            }
+        }
+
+        int hotRetained = 0;
+        for (int hot = 0; hot < 50; hot++) {
+            if (cache.get("hot-" + hot) != null) {
+                hotRetained++;
+            }
+        }
+        assertTrue(hotRetained >= 45, "Hot keys should stay cached, kept " + hotRetained);
+        assertTrue(hotMisses < 250, "Hot keys should rarely miss, missed " + hotMisses + " of 5000 reads");
+    }
+
+    @Test
+    @DisplayName("Should expire entries after the configured time since write")
+    void get_ExpiresAfterWrite() throws Exception {
+        BoundedCache cache = new BoundedCache("test", 10, Duration.ofMillis(50), false);
+        cache.put("key", "value");
+        assertEquals("value", cache.get("key", String.class));
+
+        Thread.sleep(80);
+
+        assertNull(cache.get("key"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("Should count hits and misses and publish them as cache metrics")
+    void metrics_CountHitsAndMisses() {
+        BoundedCache cache = new BoundedCache("test", 10, null, false);
+        cache.put("key", "value");
+        cache.get("key");
+        cache.get("key");
+        cache.get("missing");
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new BoundedCacheMetrics(cache, List.of()).bindTo(registry);
+
+        assertEquals(2, cache.hitCount());
+        assertEquals(1, cache.missCount());
+        assertEquals(2.0, registry.get("cache.gets").tag("cache", "test").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", "test").tag("result", "miss").functionCounter().count());
+        assertEquals(10.0, registry.get("cache.maximum.size").tag("cache", "test").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Should create configured caches on startup and others from the defaults")
+    void cacheManager_UsesConfiguredSpecs() {
+        CacheProperties properties = new CacheProperties();
+        CacheProperties.Spec spec = new CacheProperties.Spec();
+        spec.setMaximumSize(5);
+        properties.getCaches().put("small", spec);
+        BoundedCacheManager cacheManager = new BoundedCacheManager(properties);
+        cacheManager.afterPropertiesSet();
+
+        assertTrue(cacheManager.getCacheNames().contains("small"));
+        assertEquals(5, ((BoundedCache) cacheManager.getCache("small")).getMaximumSize());
+        assertEquals(10_000, ((BoundedCache) cacheManager.getCache("other")).getMaximumSize());
+    }
+}
@@ -0,0 +1,126 @@
+package com.hsbc.transaction.cache;
+
+import com.hsbc.transaction.enums.TransactionType;
+import com.hsbc.transaction.model.Money;
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.repository.TransactionRepository;
+import com.hsbc.transaction.util.SnowflakeIdGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("TransactionPageCache Unit Tests")
+class TransactionPageCacheTest {
+
+    private static final Pageable NEWEST = PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, TransactionRepository.ID_PROPERTY));
+    private static final Pageable OLDEST = PageRequest.of(0, 10, Sort.by(Sort.Direction.ASC, TransactionRepository.ID_PROPERTY));
+
+    private TransactionRepository repository;
+    private TransactionPageCache pageCache;
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        repository = new TransactionRepository(new SnowflakeIdGenerator(1, 1));
+        pageCache = new TransactionPageCache(repository, new ConcurrentMapCacheManager(), new SimpleMeterRegistry());
+        for (int i = 0; i < 30; i++) {
+            create("Seed " + i);
+        }
+    }
+
+    private Transaction create(String description) {
+        return repository.save(Transaction.builder()
+                .description(description)
+                .money(Money.of(new BigDecimal("10.00"), Currency.getInstance("USD")))
+                .type(TransactionType.PAYMENT)
+                .build());
+    }
+
+    private Page<Transaction> read(Pageable pageable) {
+        return pageCache.get(pageable, () -> {
+            loads.incrementAndGet();
+            return repository.findAll(pageable);
+        }, repository::count);
+    }
+
+    @Test
+    @DisplayName("Should serve a page from the cache until a write affects it")
+    void get_CachesUntilAffected() {
+        read(NEWEST);
+        read(NEWEST);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should keep a page when an ID outside it is updated and drop it when one inside is")
+    void onUpdated_OnlyAffectsContainingPages() {
+        Page<Transaction> newest = read(NEWEST);
+        Transaction oldest = repository.findAll(OLDEST).getContent().getFirst();
+
+        repository.save(oldest.toBuilder().description("Updated").build());
+        read(NEWEST);
+        assertEquals(1, loads.get());
+
+        repository.save(newest.getContent().get(3).toBuilder().description("Updated").build());
+        assertEquals("Updated", read(NEWEST).getContent().get(3).getDescription());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should keep full oldest-first pages and drop the newest-first page on create")
+    void onCreated_OnlyAffectsPagesAtOrAfterTheNewId() {
+        read(NEWEST);
+        read(OLDEST);
+
+        Transaction created = create("New");
+
+        Page<Transaction> oldest = read(OLDEST);
+        assertEquals(2, loads.get());
+        assertEquals(31, oldest.getTotalElements(), "Total is read live");
+
+        Page<Transaction> newest = read(NEWEST);
+        assertEquals(3, loads.get());
+        assertEquals(created.getId(), newest.getContent().getFirst().getId());
+    }
+
+    @Test
+    @DisplayName("Should drop pages at or after a deleted ID")
+    void onDeleted_ShiftsLaterPages() {
+        Pageable secondOldest = PageRequest.of(1, 10, Sort.by(Sort.Direction.ASC, TransactionRepository.ID_PROPERTY));
+        Page<Transaction> first = read(OLDEST);
+        read(secondOldest);
+
+        Transaction deleted = first.getContent().get(5);
+        repository.deleteById(deleted.getId());
+
+        read(OLDEST);
+        Page<Transaction> second = read(secondOldest);
+        assertEquals(4, loads.get());
+        assertEquals(10, second.getNumberOfElements());
+    }
+
+    @Test
+    @DisplayName("Should drop every page when all transactions are deleted")
+    void onCleared_DropsAllPages() {
+        read(NEWEST);
+        read(OLDEST);
+
+        repository.deleteAll();
+
+        assertTrue(read(NEWEST).isEmpty());
+        assertTrue(read(OLDEST).isEmpty());
+        assertEquals(4, loads.get());
+    }
+}
@@ -0,0 +1,197 @@
+package com.hsbc.transaction.cluster;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hsbc.transaction.TransactionManagementApplication;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs two nodes of a cluster on localhost, each with its own data directories.
+ */
+@DisplayName("Cluster Integration Tests")
+class ClusterIntegrationTest {
+
+    private static final int NODES = 2;
+
+    @TempDir
+    static Path dataDirectory;
+
+    private static final List<ConfigurableApplicationContext> contexts = new ArrayList<>();
+    private static final List<String> urls = new ArrayList<>();
+    private static final HttpClient client = HttpClient.newHttpClient();
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeAll
+    static void startNodes() throws IOException {
+        List<String> nodes = new ArrayList<>();
+        for (int i = 0; i < NODES; i++) {
+            try (ServerSocket socket = new ServerSocket(0)) {
+                urls.add("http://localhost:" + socket.getLocalPort());
+            }
+            nodes.add("--transaction.cluster.nodes.node-" + i + "=" + urls.get(i));
+        }
+        for (int i = 0; i < NODES; i++) {
+            Path node = dataDirectory.resolve("node-" + i);
+            List<String> args = new ArrayList<>(nodes);
+            args.addAll(List.of(
+                    "--server.port=" + URI.create(urls.get(i)).getPort(),
+                    "--transaction.cluster.enabled=true",
+                    "--transaction.cluster.node-id=node-" + i,
+                    "--transaction.cluster.registry-directory=" + dataDirectory.resolve("cluster"),
+                    "--transaction.wal.directory=" + node.resolve("wal"),
+                    "--transaction.snapshot.directory=" + node.resolve("snapshots"),
+                    "--transaction.journal.path=" + node.resolve("journal.ndjson"),
+                    "--transaction.statement.directory=" + node.resolve("statements")));
+            contexts.add(new SpringApplicationBuilder(TransactionManagementApplication.class).run(args.toArray(String[]::new)));
+        }
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        contexts.forEach(ConfigurableApplicationContext::close);
+    }
+
+    private static HttpResponse<String> send(HttpRequest.Builder request) throws Exception {
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static JsonNode create(int node, String description) throws Exception {
+        HttpResponse<String> response = send(HttpRequest.newBuilder(URI.create(urls.get(node) + "/api/transactions"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"description\":\"" + description
+                        + "\",\"amount\":\"10.00\",\"currency\":\"USD\",\"type\":\"PAYMENT\"}")));
+        assertEquals(201, response.statusCode(), response.body());
+        return objectMapper.readTree(response.body());
+    }
+
+    @Test
+    @DisplayName("Should create on the owning node and serve, update and delete a transaction from any node")
+    void requestsForOneTransaction_AreForwardedToItsOwner() throws Exception {
+        Set<Long> workerIds = new HashSet<>();
+        for (int node = 0; node < NODES; node++) {
+            JsonNode created = create(node, "Forwarded " + node);
+            long id = created.get("id").asLong();
+            ClusterRouter router = contexts.get(node).getBean(ClusterRouter.class);
+            assertTrue(router.owns(id), "Created on the node that owns it");
+            workerIds.add((id >>> 12) & 31);
+
+            int other = (node + 1) % NODES;
+            String url = urls.get(other) + "/api/transactions/" + id;
+            HttpResponse<String> read = send(HttpRequest.newBuilder(URI.create(url)).GET());
+            assertEquals(200, read.statusCode());
+            assertEquals("Forwarded " + node, objectMapper.readTree(read.body()).get("description").asText());
+            assertEquals("\"1\"", read.headers().firstValue("ETag").orElseThrow());
+
+            HttpResponse<String> updated = send(HttpRequest.newBuilder(URI.create(url))
+                    .header("Content-Type", "application/json")
+                    .header("If-Match", "\"1\"")
+                    .PUT(HttpRequest.BodyPublishers.ofString("{\"description\":\"Updated\",\"amount\":\"20.00\",\"currency\":\"USD\",\"type\":\"PAYMENT\"}")));
+            assertEquals(200, updated.statusCode(), updated.body());
+            assertEquals("\"2\"", updated.headers().firstValue("ETag").orElseThrow());
+            HttpResponse<String> stale = send(HttpRequest.newBuilder(URI.create(url))
+                    .header("Content-Type", "application/json")
+                    .header("If-Match", "\"1\"")
+                    .PUT(HttpRequest.BodyPublishers.ofString("{\"description\":\"Stale\",\"amount\":\"30.00\",\"currency\":\"USD\",\"type\":\"PAYMENT\"}")));
+            assertEquals(409, stale.statusCode());
+
+            assertEquals(204, send(HttpRequest.newBuilder(URI.create(url)).DELETE()).statusCode());
+            for (String base : urls) {
+                assertEquals(404, send(HttpRequest.newBuilder(URI.create(base + "/api/transactions/" + id)).GET()).statusCode());
+            }
+        }
+        assertEquals(NODES, workerIds.size(), "Each node takes its own worker ID");
+    }
+
+    @Test
+    @DisplayName("Should gather offset and cursor listings from every node in ID order")
+    void listings_AreGatheredFromEveryNode() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 15; i++) {
+            ids.add(create(i % NODES, "Listed " + i).get("id").asLong());
+        }
+
+        HttpResponse<String> page = send(HttpRequest.newBuilder(URI.create(urls.get(0) + "/api/transactions?page=0&size=100")).GET());
+        assertEquals(200, page.statusCode());
+        JsonNode pageBody = objectMapper.readTree(page.body());
+        List<Long> listed = new ArrayList<>();
+        pageBody.get("content").forEach(transaction -> listed.add(transaction.get("id").asLong()));
+        assertTrue(listed.containsAll(ids));
+        assertEquals(listed.size(), pageBody.get("totalElements").asInt());
+        assertEquals(listed.stream().sorted(Comparator.reverseOrder()).toList(), listed);
+
+        List<Long> walked = new ArrayList<>();
+        String cursor = null;
+        do {
+            String query = "/api/transactions?limit=4&direction=asc" + (cursor != null ? "&after=" + cursor : "");
+            JsonNode body = objectMapper.readTree(send(HttpRequest.newBuilder(URI.create(urls.get(1) + query)).GET()).body());
+            body.get("content").forEach(transaction -> walked.add(transaction.get("id").asLong()));
+            cursor = body.get("nextCursor").isNull() ? null : body.get("nextCursor").asText();
+        } while (cursor != null);
+        assertEquals(listed.reversed(), walked);
+    }
+
+    @Test
+    @DisplayName("Should create a transaction given an ID on the node owning the ID and serve it from any node")
+    void createWithId_IsForwardedToItsOwner() throws Exception {
+        for (int node = 0; node < NODES; node++) {
+            int owner = (node + 1) % NODES;
+            ClusterRouter ownerRouter = contexts.get(owner).getBean(ClusterRouter.class);
+            long id = 1_000_000L * (node + 1);
+            while (!ownerRouter.owns(id)) {
+                id++;
+            }
+
+            String body = "{\"id\":\"" + id + "\",\"description\":\"Given " + node
+                    + "\",\"amount\":\"10.00\",\"currency\":\"USD\",\"type\":\"PAYMENT\"}";
+            HttpRequest.Builder create = HttpRequest.newBuilder(URI.create(urls.get(node) + "/api/transactions"))
+                    .header("Content-Type", "application/json")
+                    .header("Idempotency-Key", "given-" + id)
+                    .POST(HttpRequest.BodyPublishers.ofString(body));
+            HttpResponse<String> created = send(create);
+            assertEquals(201, created.statusCode(), created.body());
+            assertEquals(id, objectMapper.readTree(created.body()).get("id").asLong());
+            HttpResponse<String> retried = send(create);
+            assertEquals(201, retried.statusCode(), retried.body());
+            assertEquals("true", retried.headers().firstValue("Idempotent-Replayed").orElseThrow());
+
+            for (String base : urls) {
+                HttpResponse<String> read = send(HttpRequest.newBuilder(URI.create(base + "/api/transactions/" + id)).GET());
+                assertEquals(200, read.statusCode(), read.body());
+                assertEquals("Given " + node, objectMapper.readTree(read.body()).get("description").asText());
+            }
+
+            long batchId = id + 1;
+            while (!ownerRouter.owns(batchId)) {
+                batchId++;
+            }
+            HttpResponse<String> batch = send(HttpRequest.newBuilder(URI.create(urls.get(node) + "/api/transactions/batch"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("[" + body.replace(String.valueOf(id), String.valueOf(batchId)) + "]")));
+            assertEquals(207, batch.statusCode(), batch.body());
+            assertTrue(objectMapper.readTree(batch.body()).get("results").get(0).get("error").get("message").asText()
+                    .contains("node-" + owner), batch.body());
+            assertEquals(404, send(HttpRequest.newBuilder(URI.create(urls.get(owner) + "/api/transactions/" + batchId)).GET()).statusCode());
+        }
+    }
+}
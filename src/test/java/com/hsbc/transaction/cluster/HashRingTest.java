@@ -0,0 +1,53 @@
+package com.hsbc.transaction.cluster;
+
+import com.hsbc.transaction.util.SnowflakeIdGenerator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("HashRing Unit Tests")
+class HashRingTest {
+
+    private static final long[] IDS = new SnowflakeIdGenerator(1, 1).nextIds(4000);
+
+    @Test
+    @DisplayName("Should spread consecutive IDs evenly and agree on owners whatever the node order")
+    void ownerOf_SpreadsIdsEvenly() {
+        HashRing ring = new HashRing(List.of("a", "b", "c", "d"), 128);
+        HashRing reordered = new HashRing(List.of("d", "b", "a", "c"), 128);
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (long id : IDS) {
+            assertEquals(ring.ownerOf(id), reordered.ownerOf(id));
+            counts.merge(ring.ownerOf(id), 1, Integer::sum);
+        }
+        assertEquals(4, counts.size());
+        for (int count : counts.values()) {
+            // 1000 per node on average
+            assertTrue(count > 700 && count < 1300, "Unbalanced ring: " + counts);
+        }
+    }
+
+    @Test
+    @DisplayName("Should only move IDs to a new node when one is added")
+    void ownerOf_AddingNodeMovesOnlyItsShare() {
+        HashRing before = new HashRing(List.of("a", "b", "c"), 128);
+        HashRing after = new HashRing(List.of("a", "b", "c", "d"), 128);
+
+        int moved = 0;
+        for (long id : IDS) {
+            if (!before.ownerOf(id).equals(after.ownerOf(id))) {
+                assertEquals("d", after.ownerOf(id));
+                moved++;
+            }
+        }
+        // A quarter of the IDs on average
+        assertTrue(moved > 700 && moved < 1300, "Moved " + moved);
+        assertThrows(IllegalArgumentException.class, () -> new HashRing(List.of(), 128));
+    }
+}
@@ -1,23 +1,40 @@
 package com.hsbc.transaction.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hsbc.transaction.TestDataDirectories;
 import com.hsbc.transaction.dto.TransactionDTO;
 import com.hsbc.transaction.enums.TransactionType;
 import com.hsbc.transaction.model.Money;
 import com.hsbc.transaction.model.Transaction;
 import com.hsbc.transaction.service.TransactionService;
+import com.hsbc.transaction.wire.TransactionWireHttpMessageConverter;
+import com.hsbc.transaction.wire.TransactionWireReader;
+import com.hsbc.transaction.wire.TransactionWireWriter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.Currency;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -35,6 +52,14 @@ class TransactionControllerIntegrationTest {
     @Autowired
     private TransactionService transactionService;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @DynamicPropertySource
+    static void dataDirectories(DynamicPropertyRegistry registry) {
+        TestDataDirectories.register(registry);
+    }
+
     @Test
     @DisplayName("Should perform full lifecycle: Create -> Update -> Delete transaction")
     void shouldPerformFullTransactionLifecycle() throws Exception {
@@ -99,6 +124,25 @@ class TransactionControllerIntegrationTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    @DisplayName("Should reject amounts with more decimal places than their currency allows")
+    void shouldRejectAmountsBeyondCurrencyScale() throws Exception {
+        for (String[] amount : new String[][]{{"10.005", "USD"}, {"1.5", "JPY"}}) {
+            TransactionDTO request = TransactionDTO.builder()
+                    .description("Too precise")
+                    .amount(amount[0])
+                    .currency(amount[1])
+                    .type("PAYMENT")
+                    .build();
+            mockMvc.perform(post("/api/transactions")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.code").value(1003))
+                    .andExpect(jsonPath("$.message").value("Amount must be a number with no more decimal places than its currency allows"));
+        }
+    }
+
     @Test
     @DisplayName("Should handle invalid transaction ID format")
     void shouldHandleInvalidTransactionId() throws Exception {
@@ -183,6 +227,562 @@ class TransactionControllerIntegrationTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    @DisplayName("Should walk transactions with cursor pagination")
+    void shouldWalkTransactionsWithCursorPagination() throws Exception {
+        createTestTransaction("Cursor 1", "100.00");
+        createTestTransaction("Cursor 2", "200.00");
+        createTestTransaction("Cursor 3", "300.00");
+
+        MvcResult firstPage = mockMvc.perform(get("/api/transactions")
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andExpect(jsonPath("$.nextCursor").isString())
+                .andExpect(jsonPath("$.totalElements").doesNotExist())
+                .andReturn();
+
+        var firstBody = objectMapper.readTree(firstPage.getResponse().getContentAsString());
+        long newest = firstBody.get("content").get(0).get("id").asLong();
+        long second = firstBody.get("content").get(1).get("id").asLong();
+        assertTrue(newest > second, "Cursor pages should be newest first");
+
+        MvcResult secondPage = mockMvc.perform(get("/api/transactions")
+                        .param("limit", "2")
+                        .param("after", firstBody.get("nextCursor").asText()))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        var secondBody = objectMapper.readTree(secondPage.getResponse().getContentAsString());
+        assertTrue(secondBody.get("content").get(0).get("id").asLong() < second,
+                "Next page should continue after the cursor");
+    }
+
+    @Test
+    @DisplayName("Should reject an invalid pagination cursor")
+    void shouldRejectInvalidCursor() throws Exception {
+        mockMvc.perform(get("/api/transactions")
+                        .param("limit", "10")
+                        .param("after", "not-a-cursor"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value(1003));
+    }
+
+    @Test
+    @DisplayName("Should continue a cursor listing in its direction and reject another one")
+    void shouldRejectCursorWithConflictingDirection() throws Exception {
+        createTestTransaction("Direction 1", "100.00");
+        createTestTransaction("Direction 2", "200.00");
+        createTestTransaction("Direction 3", "300.00");
+
+        MvcResult firstPage = mockMvc.perform(get("/api/transactions")
+                        .param("limit", "1")
+                        .param("direction", "asc"))
+                .andExpect(status().isOk())
+                .andReturn();
+        var firstBody = objectMapper.readTree(firstPage.getResponse().getContentAsString());
+        long first = firstBody.get("content").get(0).get("id").asLong();
+        String cursor = firstBody.get("nextCursor").asText();
+
+        for (String direction : new String[]{"asc", "ASC", null}) {
+            var request = get("/api/transactions").param("limit", "1").param("after", cursor);
+            if (direction != null) {
+                request.param("direction", direction);
+            }
+            MvcResult page = mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn();
+            long next = objectMapper.readTree(page.getResponse().getContentAsString()).get("content").get(0).get("id").asLong();
+            assertTrue(next > first, "Next page should continue in ascending order");
+        }
+
+        mockMvc.perform(get("/api/transactions")
+                        .param("limit", "1")
+                        .param("after", cursor)
+                        .param("direction", "desc"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value(1003))
+                .andExpect(jsonPath("$.message").value("Cursor belongs to a listing in ASC order, not DESC; omit direction to continue it"));
+    }
+
+    @Test
+    @DisplayName("Should walk the transactions of a time range with cursor pagination")
+    void shouldWalkTimeRange() throws Exception {
+        LocalDateTime from = LocalDateTime.now();
+        createTestTransaction("Range 1", "100.00");
+        createTestTransaction("Range 2", "200.00");
+        createTestTransaction("Range 3", "300.00");
+        LocalDateTime to = LocalDateTime.now().plusNanos(1_000);
+
+        MvcResult firstPage = mockMvc.perform(get("/api/transactions")
+                        .param("limit", "2")
+                        .param("direction", "asc")
+                        .param("from", from.toString())
+                        .param("to", to.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].description").value("Range 1"))
+                .andExpect(jsonPath("$.content[1].description").value("Range 2"))
+                .andReturn();
+
+        String cursor = objectMapper.readTree(firstPage.getResponse().getContentAsString()).get("nextCursor").asText();
+        mockMvc.perform(get("/api/transactions")
+                        .param("limit", "2")
+                        .param("after", cursor)
+                        .param("from", from.toString())
+                        .param("to", to.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].description").value("Range 3"))
+                .andExpect(jsonPath("$.hasNext").value(false));
+
+        mockMvc.perform(get("/api/transactions")
+                        .param("from", from.toString())
+                        .param("to", to.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(3))
+                .andExpect(jsonPath("$.content[0].description").value("Range 3"));
+    }
+
+    @Test
+    @DisplayName("Should reject a time range that ends before it starts or is malformed")
+    void shouldRejectInvalidTimeRange() throws Exception {
+        mockMvc.perform(get("/api/transactions")
+                        .param("from", "2024-05-01T10:00:00")
+                        .param("to", "2024-05-01T09:00:00"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value(1003));
+
+        mockMvc.perform(get("/api/transactions")
+                        .param("limit", "10")
+                        .param("from", "yesterday"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value(1003));
+    }
+
+    @Test
+    @DisplayName("Should filter transactions by type and currency")
+    void shouldFilterByTypeAndCurrency() throws Exception {
+        for (String type : new String[]{"DEPOSIT", "PAYMENT", "DEPOSIT"}) {
+            transactionService.createTransaction(TransactionDTO.builder()
+                    .description("Filtered " + type).amount("1.00").currency("SEK").type(type).build().toEntity());
+        }
+
+        mockMvc.perform(get("/api/transactions")
+                        .param("currency", "SEK")
+                        .param("type", "DEPOSIT")
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andExpect(jsonPath("$.content[0].description").value("Filtered DEPOSIT"))
+                .andExpect(jsonPath("$.content[1].description").value("Filtered DEPOSIT"))
+                .andExpect(jsonPath("$.content[0].currency").value("SEK"));
+
+        mockMvc.perform(get("/api/transactions")
+                        .param("limit", "1")
+                        .param("currency", "SEK")
+                        .param("type", "PAYMENT", "TRANSFER"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].description").value("Filtered PAYMENT"));
+
+        mockMvc.perform(get("/api/transactions")
+                        .param("type", "REFUND"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value(1003));
+    }
+
+    @Test
+    @DisplayName("Should search descriptions by words and prefixes")
+    void shouldSearchDescriptions() throws Exception {
+        createTestTransaction("Search Café Zürich 1", "10.00");
+        createTestTransaction("Search Café Zürich 2", "20.00");
+        createTestTransaction("Search Bakery Zürich", "30.00");
+
+        MvcResult firstPage = mockMvc.perform(get("/api/transactions/search")
+                        .param("q", "search cafe zur*")
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].description").value("Search Café Zürich 2"))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andReturn();
+
+        String cursor = objectMapper.readTree(firstPage.getResponse().getContentAsString()).get("nextCursor").asText();
+        mockMvc.perform(get("/api/transactions/search")
+                        .param("q", "search cafe zur*")
+                        .param("limit", "1")
+                        .param("after", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].description").value("Search Café Zürich 1"));
+
+        mockMvc.perform(get("/api/transactions/search").param("q", " "))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value(1003));
+    }
+
+    @Test
+    @DisplayName("Should stream the store as NDJSON and gzip-compressed CSV")
+    void shouldExportTransactions() throws Exception {
+        createTestTransaction("Export \"quoted\", line", "12.34");
+
+        MvcResult ndjson = mockMvc.perform(get("/api/transactions/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"transactions.ndjson\""))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        List<String> lines = body.lines().toList();
+        assertTrue(lines.size() >= 1);
+        assertTrue(lines.stream().anyMatch(line -> line.contains("\"description\":\"Export \\\"quoted\\\", line\",\"amount\":\"12.34\"")));
+
+        MvcResult csv = mockMvc.perform(get("/api/transactions/export")
+                        .param("format", "CSV")
+                        .header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        byte[] compressed = mockMvc.perform(asyncDispatch(csv))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            List<String> rows = new String(in.readAllBytes(), StandardCharsets.UTF_8).lines().toList();
+            assertEquals("id,description,amount,currency,type,timestamp", rows.getFirst());
+            assertEquals(lines.size() + 1, rows.size());
+            assertTrue(rows.stream().anyMatch(row -> row.contains(",\"Export \"\"quoted\"\", line\",12.34,USD,PAYMENT,")));
+        }
+
+        mockMvc.perform(get("/api/transactions/export").param("format", "xml"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value(1003));
+    }
+
+    @Test
+    @DisplayName("Should render a statement in the background and serve the PDF")
+    void shouldGenerateStatement() throws Exception {
+        createTestTransaction("Statement coffee", "3.20");
+        LocalDateTime now = LocalDateTime.now();
+        String request = "{\"from\":\"" + now.minusMinutes(1) + "\",\"to\":\"" + now.plusMinutes(1) + "\"}";
+
+        MvcResult submitted = mockMvc.perform(post("/api/statements")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(request))
+                .andExpect(status().isAccepted())
+                .andExpect(header().exists("Location"))
+                .andExpect(jsonPath("$.id").exists())
+                .andReturn();
+        String jobId = objectMapper.readTree(submitted.getResponse().getContentAsString()).get("id").asText();
+
+        String state = "QUEUED";
+        for (int attempt = 0; attempt < 300 && !state.equals("COMPLETED") && !state.equals("FAILED"); attempt++) {
+            Thread.sleep(20);
+            state = objectMapper.readTree(mockMvc.perform(get("/api/statements/{id}", jobId))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString()).get("status").asText();
+        }
+        assertEquals("COMPLETED", state);
+
+        byte[] pdf = mockMvc.perform(get("/api/statements/{id}/pdf", jobId))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_PDF))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals("%PDF", new String(pdf, 0, 4, StandardCharsets.US_ASCII));
+
+        mockMvc.perform(get("/api/statements/{id}", "unknown"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.code").value(1004));
+        mockMvc.perform(post("/api/statements")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"from\":\"" + now + "\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value(1003));
+    }
+
+    @Test
+    @DisplayName("Should create a batch and report invalid items by index")
+    void shouldCreateBatchWithPartialFailure() throws Exception {
+        int before = transactionService.getTotalTransactions();
+        List<TransactionDTO> batch = List.of(
+                TransactionDTO.builder().description("Batch 1").amount("10.00").currency("USD").type("PAYMENT").build(),
+                TransactionDTO.builder().description("Batch 2").amount("abc").currency("USD").type("PAYMENT").build(),
+                TransactionDTO.builder().description("Batch 3").amount("30.00").currency("EUR").type("TRANSFER").build());
+
+        mockMvc.perform(post("/api/transactions/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(batch)))
+                .andExpect(status().isMultiStatus())
+                .andExpect(jsonPath("$.succeeded").value(2))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.results[0].item.id").exists())
+                .andExpect(jsonPath("$.results[1].index").value(1))
+                .andExpect(jsonPath("$.results[1].error.code").value(1003))
+                .andExpect(jsonPath("$.results[2].item.description").value("Batch 3"));
+
+        assertEquals(before + 2, transactionService.getTotalTransactions());
+    }
+
+    @Test
+    @DisplayName("Should reject an empty batch")
+    void shouldRejectEmptyBatch() throws Exception {
+        mockMvc.perform(post("/api/transactions/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Should create, get and list transactions in the binary wire format")
+    void shouldServeBinaryWireFormat() throws Exception {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        TransactionWireWriter writer = new TransactionWireWriter(body);
+        writer.writeTransaction(Transaction.builder()
+                .description("Binary café")
+                .money(Money.parse("33.30", Currency.getInstance("EUR")))
+                .type(TransactionType.DEPOSIT)
+                .build());
+        writer.flush();
+
+        MvcResult createResult = mockMvc.perform(post("/api/transactions")
+                        .contentType(TransactionWireHttpMessageConverter.MEDIA_TYPE)
+                        .accept(TransactionWireHttpMessageConverter.MEDIA_TYPE)
+                        .content(body.toByteArray()))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(TransactionWireHttpMessageConverter.MEDIA_TYPE))
+                .andReturn();
+        Transaction created = readBinary(createResult).readTransaction();
+        assertEquals("Binary café", created.getDescription());
+        assertEquals(Money.parse("33.30", Currency.getInstance("EUR")), created.getMoney());
+        assertTrue(created.getId() != null && created.getTimestamp() != null);
+
+        MvcResult getResult = mockMvc.perform(get("/api/transactions/{id}", created.getId())
+                        .accept(TransactionWireHttpMessageConverter.MEDIA_TYPE))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertEquals(created, readBinary(getResult).readTransaction());
+
+        MvcResult cursorResult = mockMvc.perform(get("/api/transactions")
+                        .param("limit", "5")
+                        .param("currency", "EUR")
+                        .accept(TransactionWireHttpMessageConverter.MEDIA_TYPE))
+                .andExpect(status().isOk())
+                .andReturn();
+        TransactionWireReader.Listing cursorPage = readBinary(cursorResult).readList();
+        assertEquals(created, cursorPage.transactions().get(0));
+        assertEquals(-1, cursorPage.total());
+
+        MvcResult pageResult = mockMvc.perform(get("/api/transactions")
+                        .param("size", "5")
+                        .accept(TransactionWireHttpMessageConverter.MEDIA_TYPE))
+                .andExpect(status().isOk())
+                .andReturn();
+        TransactionWireReader.Listing page = readBinary(pageResult).readList();
+        assertEquals(transactionService.getTotalTransactions(), page.total());
+        assertEquals(created, page.transactions().get(0));
+
+        // JSON stays the default, and errors are JSON for clients that accept it
+        mockMvc.perform(get("/api/transactions/{id}", created.getId()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.description").value("Binary café"));
+        mockMvc.perform(get("/api/transactions/{id}", 1)
+                        .accept(TransactionWireHttpMessageConverter.MEDIA_TYPE, MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.code").exists());
+        mockMvc.perform(post("/api/transactions")
+                        .contentType(TransactionWireHttpMessageConverter.MEDIA_TYPE)
+                        .accept(TransactionWireHttpMessageConverter.MEDIA_TYPE, MediaType.APPLICATION_JSON)
+                        .content(new byte[]{TransactionWireWriter.VERSION, 40, 0}))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Should reject binary transactions that break the constraints of JSON ones as bad requests")
+    void shouldValidateBinaryTransactions() throws Exception {
+        Transaction valid = Transaction.builder()
+                .description("Binary")
+                .money(Money.parse("10.00", Currency.getInstance("EUR")))
+                .type(TransactionType.PAYMENT)
+                .build();
+        Map<Transaction, String> invalid = Map.of(
+                valid.toBuilder().type(null).build(), "Transaction type is required",
+                valid.toBuilder().money(Money.parse("0.00", Currency.getInstance("EUR"))).build(), "Amount must be positive",
+                valid.toBuilder().money(Money.parse("-5.00", Currency.getInstance("EUR"))).build(), "Amount must be positive",
+                valid.toBuilder().description(null).build(), "Description is required");
+        for (Map.Entry<Transaction, String> transaction : invalid.entrySet()) {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            TransactionWireWriter writer = new TransactionWireWriter(body);
+            writer.writeTransaction(transaction.getKey());
+            writer.flush();
+
+            mockMvc.perform(post("/api/transactions")
+                            .contentType(TransactionWireHttpMessageConverter.MEDIA_TYPE)
+                            .accept(TransactionWireHttpMessageConverter.MEDIA_TYPE, MediaType.APPLICATION_JSON)
+                            .content(body.toByteArray()))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.code").value(1003))
+                    .andExpect(jsonPath("$.message").value(transaction.getValue()));
+        }
+    }
+
+    private static TransactionWireReader readBinary(MvcResult result) {
+        return new TransactionWireReader(new ByteArrayInputStream(result.getResponse().getContentAsByteArray()));
+    }
+
+    @Test
+    @DisplayName("Should publish hit and miss counts of the transaction cache")
+    void shouldPublishCacheMetrics() throws Exception {
+        String id = transactionService.createTransaction(TransactionDTO.builder()
+                .description("Cached").amount("12.00").currency("USD").type("PAYMENT").build().toEntity()).getId().toString();
+
+        mockMvc.perform(get("/api/transactions/{id}", id)).andExpect(status().isOk());
+        mockMvc.perform(get("/api/transactions/{id}", id)).andExpect(status().isOk());
+
+        assertTrue(meterRegistry.get("cache.gets").tag("cache", "transactions").tag("result", "hit").functionCounter().count() >= 1);
+    }
+
+    @Test
+    @DisplayName("Should reflect creates, updates and deletes in the statistics")
+    void shouldServeStatistics() throws Exception {
+        BigDecimal[] before = chfTotals();
+        Transaction kept = transactionService.createTransaction(TransactionDTO.builder()
+                .description("Stats kept").amount("10.00").currency("CHF").type("DEPOSIT").build().toEntity());
+        Transaction deleted = transactionService.createTransaction(TransactionDTO.builder()
+                .description("Stats deleted").amount("5.00").currency("CHF").type("DEPOSIT").build().toEntity());
+        transactionService.updateTransaction(kept.getId(), TransactionDTO.builder()
+                .description("Stats updated").amount("12.50").currency("CHF").type("DEPOSIT").build().toEntity());
+        transactionService.deleteTransaction(deleted.getId());
+
+        BigDecimal[] after = chfTotals();
+        assertEquals(BigDecimal.ONE, after[0].subtract(before[0]));
+        assertEquals(new BigDecimal("12.50"), after[1].subtract(before[1]));
+    }
+
+    /**
+     * Returns the CHF count and total from the statistics endpoint.
+     */
+    private BigDecimal[] chfTotals() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/transactions/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.byType.DEPOSIT").isArray())
+                .andReturn();
+        for (var total : objectMapper.readTree(result.getResponse().getContentAsString()).get("byCurrency")) {
+            if (total.get("currency").asText().equals("CHF")) {
+                return new BigDecimal[]{new BigDecimal(total.get("count").asText()), new BigDecimal(total.get("total").asText())};
+            }
+        }
+        return new BigDecimal[]{BigDecimal.ZERO, new BigDecimal("0.00")};
+    }
+
+    @Test
+    @DisplayName("Should create one transaction per Idempotency-Key and reject the key with a different payload")
+    void shouldDeduplicateCreatesByIdempotencyKey() throws Exception {
+        String key = "retry-" + System.nanoTime();
+        String body = objectMapper.writeValueAsString(TransactionDTO.builder()
+                .description("Retried payment")
+                .amount("25.00")
+                .currency("USD")
+                .type("PAYMENT")
+                .build());
+        int countBefore = transactionService.getTotalTransactions();
+
+        MvcResult first = mockMvc.perform(post("/api/transactions")
+                        .header(TransactionController.IDEMPOTENCY_KEY_HEADER, key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist(TransactionController.IDEMPOTENT_REPLAYED_HEADER))
+                .andReturn();
+        String id = objectMapper.readTree(first.getResponse().getContentAsString()).get("id").asText();
+
+        mockMvc.perform(post("/api/transactions")
+                        .header(TransactionController.IDEMPOTENCY_KEY_HEADER, key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(TransactionController.IDEMPOTENT_REPLAYED_HEADER, "true"))
+                .andExpect(jsonPath("$.id").value(id));
+        assertEquals(countBefore + 1, transactionService.getTotalTransactions());
+
+        mockMvc.perform(post("/api/transactions")
+                        .header(TransactionController.IDEMPOTENCY_KEY_HEADER, key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body.replace("25.00", "26.00")))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.code").value(1001));
+
+        mockMvc.perform(post("/api/transactions")
+                        .header(TransactionController.IDEMPOTENCY_KEY_HEADER, "k".repeat(256))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Should tag transactions with their version and reject updates against a stale one")
+    void shouldRejectUpdatesAgainstStaleVersion() throws Exception {
+        Transaction transaction = transactionService.createTransaction(
+                Transaction.builder()
+                        .description("Versioned Transaction")
+                        .money(Money.of(new BigDecimal("100.00"), Currency.getInstance("USD")))
+                        .type(TransactionType.PAYMENT)
+                        .build()
+        );
+        String body = objectMapper.writeValueAsString(TransactionDTO.builder()
+                .description("Updated Transaction")
+                .amount("150.00")
+                .currency("USD")
+                .type("PAYMENT")
+                .build());
+
+        mockMvc.perform(get("/api/transactions/{id}", transaction.getId().toString()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.version").value(1));
+
+        mockMvc.perform(put("/api/transactions/{id}", transaction.getId().toString())
+                        .header(HttpHeaders.IF_MATCH, "\"1\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""))
+                .andExpect(jsonPath("$.version").value(2));
+
+        mockMvc.perform(put("/api/transactions/{id}", transaction.getId().toString())
+                        .header(HttpHeaders.IF_MATCH, "\"1\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body.replace("150.00", "175.00")))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.code").value(1007));
+
+        mockMvc.perform(put("/api/transactions/{id}", transaction.getId().toString())
+                        .header(HttpHeaders.IF_MATCH, "*")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body.replace("150.00", "175.00")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(3))
+                .andExpect(jsonPath("$.amount").value("175.00"));
+    }
+
+    @Test
+    @DisplayName("Should push changes to subscribers of the stream")
+    void shouldStreamChanges() throws Exception {
+        MvcResult subscription = mockMvc.perform(get("/api/transactions/stream")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        createTestTransaction("Streamed payment", "12.00");
+
+        long deadline = System.currentTimeMillis() + 5000;
+        String events = subscription.getResponse().getContentAsString();
+        while (!events.contains("Streamed payment") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            events = subscription.getResponse().getContentAsString();
+        }
+        assertTrue(subscription.getResponse().getContentType().startsWith(MediaType.TEXT_EVENT_STREAM_VALUE));
+        assertTrue(events.contains("event:created\ndata:{\"id\":"), events);
+        assertTrue(events.contains("\"description\":\"Streamed payment\""), events);
+    }
+
     private void createTestTransaction(String description, String amount) {
         transactionService.createTransaction(
                 Transaction.builder()
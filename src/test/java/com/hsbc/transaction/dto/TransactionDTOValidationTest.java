@@ -102,6 +102,28 @@ class TransactionDTOValidationTest {
         assertTrue(violations.stream().anyMatch(v -> v.getMessage().equals("Amount must be less than 1000000")));
     }
 
+    @Test
+    @DisplayName("Should fail validation when amount has more decimal places than its currency")
+    void validate_AmountBeyondCurrencyScale() {
+        // Arrange
+        TransactionDTO dto = TransactionDTO.builder()
+                .id("1")
+                .description("Valid description")
+                .amount("1.5")
+                .currency("JPY")
+                .type("PAYMENT")
+                .build();
+
+        // Act
+        Set<ConstraintViolation<TransactionDTO>> violations = validator.validate(dto);
+
+        // Assert
+        assertTrue(violations.stream().anyMatch(v -> v.getMessage()
+                .equals("Amount must be a number with no more decimal places than its currency allows")));
+        dto.setAmount("1.0");
+        assertTrue(validator.validate(dto).isEmpty(), "Trailing zeros beyond the currency's decimal places are exact");
+    }
+
     @Test
     @DisplayName("Should fail validation when description exceeds maximum length")
     void validate_DescriptionExceedsMaxLength() {
@@ -0,0 +1,96 @@
+package com.hsbc.transaction.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hsbc.transaction.dto.TransactionDTO;
+import com.hsbc.transaction.enums.ExportFormat;
+import com.hsbc.transaction.enums.TransactionType;
+import com.hsbc.transaction.model.Money;
+import com.hsbc.transaction.model.Transaction;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Currency;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("TransactionExportWriter Unit Tests")
+class TransactionExportWriterTest {
+
+    private static Transaction transaction(long id, String description, String amount, String currency) {
+        return Transaction.builder()
+                .id(id)
+                .description(description)
+                .money(Money.parse(amount, Currency.getInstance(currency)))
+                .type(TransactionType.TRANSFER)
+                .timestamp(LocalDateTime.of(2024, 5, 1, 9, 30, 15, 123_000_000))
+                .build();
+    }
+
+    private static String export(ExportFormat format, Transaction... transactions) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TransactionExportWriter writer = new TransactionExportWriter(out, format);
+        for (Transaction transaction : transactions) {
+            writer.write(transaction);
+        }
+        writer.flush();
+        assertEquals(transactions.length, writer.getCount());
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("Should write NDJSON lines that read back as the API representation")
+    void ndjson_ReadsBackAsDto() throws IOException {
+        Transaction quoted = transaction(42, "Say \"hi\"\\ to\nCafé 😀\u0001", "1234.50", "EUR");
+        Transaction yen = transaction(-7, "Plain", "5", "JPY");
+
+        String[] lines = export(ExportFormat.NDJSON, quoted, yen).split("\n");
+
+        assertEquals(2, lines.length);
+        ObjectMapper objectMapper = new ObjectMapper();
+        assertEquals(TransactionDTO.fromEntity(quoted), objectMapper.readValue(lines[0], TransactionDTO.class));
+        assertEquals(TransactionDTO.fromEntity(yen), objectMapper.readValue(lines[1], TransactionDTO.class));
+    }
+
+    @Test
+    @DisplayName("Should write a CSV header and quote only the fields that need it")
+    void csv_QuotesFieldsWhenNeeded() throws IOException {
+        String csv = export(ExportFormat.CSV,
+                transaction(1, "Rent, May", "0.05", "USD"),
+                transaction(2, "A \"quoted\" word", "1000000.00", "USD"),
+                transaction(3, "Zürich", "12.30", "CHF"));
+
+        assertEquals("id,description,amount,currency,type,timestamp\r\n"
+                + "1,\"Rent, May\",0.05,USD,TRANSFER,2024-05-01T09:30:15.123\r\n"
+                + "2,\"A \"\"quoted\"\" word\",1000000.00,USD,TRANSFER,2024-05-01T09:30:15.123\r\n"
+                + "3,Zürich,12.30,CHF,TRANSFER,2024-05-01T09:30:15.123\r\n", csv);
+    }
+
+    @Test
+    @DisplayName("Should hand the stream chunks no larger than the buffer, whatever the export size")
+    void write_ReusesBoundedBuffer() throws IOException {
+        int[] largestWrite = new int[1];
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public synchronized void write(byte[] bytes, int offset, int length) {
+                largestWrite[0] = Math.max(largestWrite[0], length);
+                super.write(bytes, offset, length);
+            }
+        };
+        TransactionExportWriter writer = new TransactionExportWriter(out, ExportFormat.NDJSON);
+        String description = "é".repeat(1000);
+        for (int i = 0; i < 1000; i++) {
+            writer.write(transaction(i, description, "10.00", "USD"));
+        }
+        writer.flush();
+
+        assertTrue(out.size() > 10 * TransactionExportWriter.BUFFER_SIZE);
+        assertTrue(largestWrite[0] <= TransactionExportWriter.BUFFER_SIZE);
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(1000, lines.length);
+        assertTrue(lines[999].startsWith("{\"id\":\"999\",\"description\":\"" + description + "\""));
+    }
+}
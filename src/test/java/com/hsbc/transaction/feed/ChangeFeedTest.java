@@ -0,0 +1,204 @@
+package com.hsbc.transaction.feed;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hsbc.transaction.config.FeedProperties;
+import com.hsbc.transaction.enums.TransactionType;
+import com.hsbc.transaction.model.Money;
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.repository.TransactionRepository;
+import com.hsbc.transaction.util.SnowflakeIdGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Currency;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ChangeFeed Unit Tests")
+class ChangeFeedTest {
+
+    private static final Pattern EVENT_ID = Pattern.compile("^id:(\\d+)");
+
+    private TransactionRepository repository;
+    private SimpleMeterRegistry meterRegistry;
+    private ChangeFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        repository = new TransactionRepository(new SnowflakeIdGenerator(1, 1));
+        meterRegistry = new SimpleMeterRegistry();
+        FeedProperties properties = new FeedProperties();
+        properties.setCapacity(8);
+        properties.setHeartbeat(Duration.ofSeconds(30));
+        feed = new ChangeFeed(properties, repository, new ObjectMapper(), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        feed.stop();
+    }
+
+    /**
+     * Records the text of every event instead of writing it to a response.
+     */
+    private static class RecordingEmitter extends SseEmitter {
+        private final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+        private final CountDownLatch completed = new CountDownLatch(1);
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            StringBuilder text = new StringBuilder();
+            for (ResponseBodyEmitter.DataWithMediaType part : builder.build()) {
+                text.append(part.getData());
+            }
+            events.add(text.toString());
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+
+        String next() throws InterruptedException {
+            String event = events.poll(5, TimeUnit.SECONDS);
+            assertNotNull(event, "No event received");
+            return event;
+        }
+    }
+
+    private Transaction save(String description) {
+        return repository.save(transaction(null, description));
+    }
+
+    private static Transaction transaction(Long id, String description) {
+        return Transaction.builder()
+                .id(id)
+                .description(description)
+                .money(Money.of(new BigDecimal("10.00"), Currency.getInstance("USD")))
+                .type(TransactionType.PAYMENT)
+                .timestamp(LocalDateTime.of(2024, 5, 1, 9, 30))
+                .build();
+    }
+
+    private static long idOf(String event) {
+        Matcher matcher = EVENT_ID.matcher(event);
+        assertTrue(matcher.find(), event);
+        return Long.parseLong(matcher.group(1));
+    }
+
+    @Test
+    @DisplayName("Should push created, updated, deleted and cleared events in order")
+    void subscribe_ReceivesChanges() throws InterruptedException {
+        save("Existing");
+        RecordingEmitter emitter = new RecordingEmitter();
+        feed.subscribe(emitter, null);
+        assertEquals(":subscribed\n\n", emitter.next());
+
+        Transaction created = save("Coffee");
+        repository.save(transaction(created.getId(), "Coffee and cake"));
+        repository.deleteById(created.getId());
+        repository.deleteAll();
+
+        String createdEvent = emitter.next();
+        assertTrue(createdEvent.contains("event:created\ndata:{\"id\":\"" + created.getId() + "\""), createdEvent);
+        assertTrue(createdEvent.contains("\"description\":\"Coffee\""), createdEvent);
+        String updatedEvent = emitter.next();
+        assertTrue(updatedEvent.contains("event:updated\n"), updatedEvent);
+        assertTrue(updatedEvent.contains("\"description\":\"Coffee and cake\""), updatedEvent);
+        String deletedEvent = emitter.next();
+        assertTrue(deletedEvent.contains("event:deleted\n"), deletedEvent);
+        String clearedEvent = emitter.next();
+        assertTrue(clearedEvent.contains("event:cleared\ndata:{}"), clearedEvent);
+
+        assertEquals(idOf(createdEvent) + 1, idOf(updatedEvent));
+        assertEquals(idOf(createdEvent) + 3, idOf(clearedEvent));
+        assertEquals(5, meterRegistry.get("transaction.feed.events").functionCounter().count());
+    }
+
+    @Test
+    @DisplayName("Should resume after the last event received, or reset when it is no longer kept")
+    void subscribe_ResumesFromLastEventId() throws InterruptedException {
+        RecordingEmitter first = new RecordingEmitter();
+        feed.subscribe(first, null);
+        first.next();
+        save("One");
+        long lastEventId = idOf(first.next());
+        save("Two");
+        save("Three");
+
+        RecordingEmitter resumed = new RecordingEmitter();
+        feed.subscribe(resumed, lastEventId);
+        resumed.next();
+        assertTrue(resumed.next().contains("\"description\":\"Two\""));
+        assertTrue(resumed.next().contains("\"description\":\"Three\""));
+
+        for (int i = 0; i < 8; i++) {
+            save("Filler " + i);
+        }
+        RecordingEmitter reset = new RecordingEmitter();
+        feed.subscribe(reset, lastEventId);
+        String resetEvent = reset.next();
+        assertTrue(resetEvent.contains("event:" + ChangeFeed.RESET_EVENT + "\n"), resetEvent);
+        save("Four");
+        String liveEvent = reset.next();
+        assertEquals(idOf(resetEvent) + 1, idOf(liveEvent));
+        assertTrue(liveEvent.contains("\"description\":\"Four\""));
+    }
+
+    @Test
+    @DisplayName("Should disconnect a subscriber that falls a whole ring behind")
+    void subscribe_DropsSlowSubscriber() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter() {
+            private int sent;
+
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                super.send(builder);
+                // Stalls on the first change, as a client that stopped reading would
+                try {
+                    if (++sent > 1) {
+                        release.await();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        RecordingEmitter fast = new RecordingEmitter();
+        feed.subscribe(slow, null);
+        feed.subscribe(fast, null);
+        slow.next();
+        fast.next();
+
+        save("First");
+        slow.next();
+        fast.next();
+        // The other subscriber keeps up and is unaffected
+        for (int i = 0; i < 20; i++) {
+            save("Burst " + i);
+            assertTrue(fast.next().contains("\"description\":\"Burst " + i + "\""));
+        }
+        release.countDown();
+
+        assertTrue(slow.completed.await(5, TimeUnit.SECONDS));
+        assertEquals(1, meterRegistry.get("transaction.feed.dropped").counter().count());
+        assertEquals(1, feed.getSubscriberCount());
+        assertEquals(1, fast.completed.getCount());
+    }
+}
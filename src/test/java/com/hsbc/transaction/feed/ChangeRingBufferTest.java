@@ -0,0 +1,51 @@
+package com.hsbc.transaction.feed;
+
+import com.hsbc.transaction.enums.ChangeType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ChangeRingBuffer Unit Tests")
+class ChangeRingBufferTest {
+
+    @Test
+    @DisplayName("Should round the capacity up to a power of two")
+    void capacity_RoundedToPowerOfTwo() {
+        assertEquals(1, new ChangeRingBuffer(1, 0).capacity());
+        assertEquals(8, new ChangeRingBuffer(5, 0).capacity());
+        assertEquals(8, new ChangeRingBuffer(8, 0).capacity());
+        assertThrows(IllegalArgumentException.class, () -> new ChangeRingBuffer(0, 0));
+    }
+
+    @Test
+    @DisplayName("Should return published changes in sequence and nothing beyond them")
+    void read_ReturnsPublishedChanges() {
+        ChangeRingBuffer ring = new ChangeRingBuffer(4, 100);
+        assertNull(ring.read(100));
+
+        ring.publish(ChangeType.CREATED, null);
+        ring.publish(ChangeType.DELETED, null);
+
+        assertEquals(ChangeType.CREATED, ring.read(100).getType());
+        assertEquals(101, ring.read(101).getSequence());
+        assertNull(ring.read(102));
+        assertEquals(102, ring.nextSequence());
+        assertEquals(100, ring.oldestSequence());
+    }
+
+    @Test
+    @DisplayName("Should report a change overwritten by a later one")
+    void read_DetectsLappedReader() {
+        ChangeRingBuffer ring = new ChangeRingBuffer(4, 0);
+        for (int i = 0; i < 6; i++) {
+            ring.publish(ChangeType.UPDATED, null);
+        }
+
+        assertThrows(ChangeRingBuffer.LappedException.class, () -> ring.read(1));
+        assertEquals(2, ring.oldestSequence());
+        assertEquals(2, ring.read(2).getSequence());
+        assertEquals(5, ring.read(5).getSequence());
+        assertNull(ring.read(6));
+    }
+}
@@ -0,0 +1,166 @@
+package com.hsbc.transaction.idempotency;
+
+import com.hsbc.transaction.config.IdempotencyProperties;
+import com.hsbc.transaction.enums.TransactionType;
+import com.hsbc.transaction.exception.DuplicateTransactionException;
+import com.hsbc.transaction.model.Money;
+import com.hsbc.transaction.model.Transaction;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("IdempotencyStore Unit Tests")
+class IdempotencyStoreTest {
+
+    private final AtomicLong ids = new AtomicLong();
+    private final AtomicInteger creates = new AtomicInteger();
+
+    private static IdempotencyStore store(long maximumSize, Duration expireAfterWrite) {
+        IdempotencyProperties properties = new IdempotencyProperties();
+        properties.setMaximumSize(maximumSize);
+        properties.setExpireAfterWrite(expireAfterWrite);
+        return new IdempotencyStore(properties, new SimpleMeterRegistry());
+    }
+
+    private static Transaction transaction(String description, String amount) {
+        return Transaction.builder()
+                .description(description)
+                .money(Money.of(new BigDecimal(amount), Currency.getInstance("USD")))
+                .type(TransactionType.PAYMENT)
+                .build();
+    }
+
+    private IdempotencyStore.Outcome create(IdempotencyStore store, String key, Transaction transaction) {
+        return store.execute(key, IdempotencyStore.Request.of(transaction), () -> {
+            creates.incrementAndGet();
+            return transaction.withId(ids.incrementAndGet());
+        });
+    }
+
+    @Test
+    @DisplayName("Should return the transaction of the first request to retries with the same key")
+    void execute_ReplaysRetries() {
+        IdempotencyStore store = store(100, Duration.ofHours(1));
+
+        IdempotencyStore.Outcome first = create(store, "key-1", transaction("Coffee", "4.50"));
+        IdempotencyStore.Outcome retry = create(store, "key-1", transaction("Coffee", "4.50"));
+        IdempotencyStore.Outcome other = create(store, "key-2", transaction("Coffee", "4.50"));
+
+        assertFalse(first.replayed());
+        assertTrue(retry.replayed());
+        assertSame(first.transaction(), retry.transaction());
+        assertNotEquals(first.transaction().getId(), other.transaction().getId());
+        assertEquals(2, creates.get());
+    }
+
+    @Test
+    @DisplayName("Should reject a key reused with a different request")
+    void execute_RejectsDifferentRequest() {
+        IdempotencyStore store = store(100, Duration.ofHours(1));
+        create(store, "key-1", transaction("Coffee", "4.50"));
+
+        assertThrows(DuplicateTransactionException.class, () -> create(store, "key-1", transaction("Coffee", "5.00")));
+        assertThrows(DuplicateTransactionException.class, () -> create(store, "key-1", transaction("Tea", "4.50")));
+        assertEquals(1, creates.get());
+    }
+
+    @Test
+    @DisplayName("Should run concurrent retries once and hand every one the same transaction")
+    void execute_SingleFlightsConcurrentRetries() throws Exception {
+        IdempotencyStore store = store(100, Duration.ofHours(1));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<IdempotencyStore.Outcome>> outcomes = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            outcomes.add(executor.submit(() -> store.execute("key-1", IdempotencyStore.Request.of(transaction("Rent", "900.00")), () -> {
+                started.countDown();
+                creates.incrementAndGet();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return transaction("Rent", "900.00");
+            })));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 20; i++) {
+                outcomes.add(executor.submit(() -> create(store, "key-1", transaction("Rent", "900.00"))));
+            }
+            release.countDown();
+
+            Transaction created = outcomes.getFirst().get(5, TimeUnit.SECONDS).transaction();
+            for (Future<IdempotencyStore.Outcome> outcome : outcomes.subList(1, outcomes.size())) {
+                assertTrue(outcome.get(5, TimeUnit.SECONDS).replayed());
+                assertSame(created, outcome.get().transaction());
+            }
+        }
+        assertEquals(1, creates.get());
+    }
+
+    @Test
+    @DisplayName("Should forget a key whose create failed, so a retry runs it again")
+    void execute_ForgetsFailedCreate() {
+        IdempotencyStore store = store(100, Duration.ofHours(1));
+        Transaction transaction = transaction("Coffee", "4.50");
+
+        assertThrows(IllegalStateException.class, () -> store.execute("key-1", IdempotencyStore.Request.of(transaction), () -> {
+            throw new IllegalStateException("Storage unavailable");
+        }));
+        assertEquals(0, store.size());
+
+        assertFalse(create(store, "key-1", transaction).replayed());
+        assertEquals(1, creates.get());
+    }
+
+    @Test
+    @DisplayName("Should not keep the keys of failed creates in the eviction order")
+    void execute_FailedCreatesLeaveNoEntries() {
+        IdempotencyStore store = store(100, Duration.ofHours(1));
+        create(store, "kept", transaction("Coffee", "4.50"));
+        for (int i = 0; i < 1_000; i++) {
+            Transaction transaction = transaction("Coffee " + i, "4.50");
+            assertThrows(IllegalStateException.class, () -> store.execute("failed-" + transaction.getDescription(),
+                    IdempotencyStore.Request.of(transaction), () -> {
+                        throw new IllegalStateException("Storage unavailable");
+                    }));
+        }
+
+        assertEquals(1, store.size());
+        assertEquals(1, store.queuedKeys());
+        assertTrue(create(store, "kept", transaction("Coffee", "4.50")).replayed());
+    }
+
+    @Test
+    @DisplayName("Should forget the oldest keys beyond the maximum size and keys past their expiry")
+    void execute_BoundsAndExpiresKeys() throws InterruptedException {
+        IdempotencyStore bounded = store(3, Duration.ofHours(1));
+        for (int i = 0; i < 5; i++) {
+            create(bounded, "key-" + i, transaction("Coffee", "4.50"));
+        }
+        assertEquals(3, bounded.size());
+        assertFalse(create(bounded, "key-0", transaction("Coffee", "4.50")).replayed());
+        assertTrue(create(bounded, "key-4", transaction("Coffee", "4.50")).replayed());
+
+        IdempotencyStore expiring = store(100, Duration.ofMillis(20));
+        create(expiring, "key-1", transaction("Coffee", "4.50"));
+        Thread.sleep(40);
+        assertFalse(create(expiring, "key-1", transaction("Coffee", "4.50")).replayed());
+        assertEquals(1, expiring.size());
+    }
+}
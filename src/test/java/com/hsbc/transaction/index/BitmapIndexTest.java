@@ -0,0 +1,189 @@
+package com.hsbc.transaction.index;
+
+import com.hsbc.transaction.enums.TransactionStatus;
+import com.hsbc.transaction.enums.TransactionType;
+import com.hsbc.transaction.model.Money;
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.model.TransactionFilter;
+import com.hsbc.transaction.repository.TransactionRepository;
+import com.hsbc.transaction.util.SnowflakeIdGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("BitmapIndex Unit Tests")
+class BitmapIndexTest {
+
+    private static final Currency USD = Currency.getInstance("USD");
+    private static final Currency EUR = Currency.getInstance("EUR");
+    private static final Currency GBP = Currency.getInstance("GBP");
+
+    private TransactionRepository repository;
+    private BitmapIndex index;
+
+    @BeforeEach
+    void setUp() {
+        repository = new TransactionRepository(new SnowflakeIdGenerator(1, 1));
+        index = new BitmapIndex(repository);
+    }
+
+    private Transaction save(String description, TransactionType type, Currency currency) {
+        return repository.save(Transaction.builder()
+                .description(description)
+                .money(Money.parse("10.00", currency))
+                .type(type)
+                .build());
+    }
+
+    private static TransactionFilter filter(Set<TransactionType> types, Set<Currency> currencies) {
+        return new TransactionFilter(types, Set.of(), currencies);
+    }
+
+    private static List<String> descriptions(List<Transaction> transactions) {
+        return transactions.stream().map(Transaction::getDescription).toList();
+    }
+
+    @Test
+    @DisplayName("Should AND attributes and OR the values of one attribute")
+    void findAll_CombinesFilters() {
+        save("USD payment", TransactionType.PAYMENT, USD);
+        save("EUR payment", TransactionType.PAYMENT, EUR);
+        save("USD deposit", TransactionType.DEPOSIT, USD);
+        save("GBP payment", TransactionType.PAYMENT, GBP);
+
+        Page<Transaction> page = index.findAll(filter(Set.of(TransactionType.PAYMENT), Set.of(USD, GBP)),
+                PageRequest.of(0, 10, Sort.by(Sort.Direction.ASC, TransactionRepository.ID_PROPERTY)));
+        assertEquals(List.of("USD payment", "GBP payment"), descriptions(page.getContent()));
+        assertEquals(2, page.getTotalElements());
+
+        TransactionFilter completed = new TransactionFilter(Set.of(), Set.of(TransactionStatus.COMPLETED), Set.of());
+        assertEquals(4, index.findAll(completed, PageRequest.of(0, 1)).getTotalElements());
+        assertEquals(0, index.findAll(filter(Set.of(), Set.of(Currency.getInstance("JPY"))), PageRequest.of(0, 10)).getTotalElements());
+    }
+
+    @Test
+    @DisplayName("Should move a transaction between bitmaps on update and drop it on delete")
+    void findAll_FollowsUpdatesAndDeletes() {
+        Transaction updated = save("Updated", TransactionType.PAYMENT, USD);
+        Transaction deleted = save("Deleted", TransactionType.PAYMENT, USD);
+
+        repository.save(Transaction.builder().id(updated.getId()).description("Updated")
+                .money(Money.parse("10.00", EUR)).type(TransactionType.TRANSFER).build());
+        repository.deleteById(deleted.getId());
+
+        TransactionFilter usdPayments = filter(Set.of(TransactionType.PAYMENT), Set.of(USD));
+        assertEquals(0, index.findAll(usdPayments, PageRequest.of(0, 10)).getTotalElements());
+        assertEquals(List.of("Updated"), descriptions(index.findAll(filter(Set.of(TransactionType.TRANSFER), Set.of(EUR)),
+                PageRequest.of(0, 10)).getContent()));
+
+        repository.deleteAll();
+        assertEquals(0, index.findAll(filter(Set.of(TransactionType.TRANSFER), Set.of()), PageRequest.of(0, 10)).getTotalElements());
+    }
+
+    @Test
+    @DisplayName("Should page by offset and continue after an ID in both directions")
+    void findAfter_ContinuesAfterId() {
+        for (int i = 0; i < 10; i++) {
+            save("Payment " + i, TransactionType.PAYMENT, USD);
+            save("Deposit " + i, TransactionType.DEPOSIT, USD);
+        }
+        TransactionFilter payments = filter(Set.of(TransactionType.PAYMENT), Set.of());
+
+        List<Transaction> second = index.findAll(payments, PageRequest.of(1, 3)).getContent();
+        assertEquals(List.of("Payment 6", "Payment 5", "Payment 4"), descriptions(second));
+
+        List<Transaction> firstThree = index.findAfter(payments, null, Sort.Direction.ASC, 3);
+        assertEquals(List.of("Payment 0", "Payment 1", "Payment 2"), descriptions(firstThree));
+        assertEquals(List.of("Payment 3", "Payment 4"),
+                descriptions(index.findAfter(payments, firstThree.getLast().getId(), Sort.Direction.ASC, 2)));
+        assertEquals(List.of("Payment 1", "Payment 0"),
+                descriptions(index.findAfter(payments, firstThree.getLast().getId(), Sort.Direction.DESC, 5)));
+    }
+
+    @Test
+    @DisplayName("Should drop the rows of deleted transactions and keep the order and cursors of the others")
+    void onDeleted_ReclaimsRows() {
+        List<Transaction> saved = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            saved.add(save("Payment " + i, i % 2 == 0 ? TransactionType.PAYMENT : TransactionType.DEPOSIT, USD));
+        }
+        // Every transaction but the multiples of 10 goes, the last ones after the rows were compacted
+        for (int i = 0; i < saved.size(); i++) {
+            if (i % 10 != 0) {
+                repository.deleteById(saved.get(i).getId());
+            }
+        }
+        assertTrue(index.rowCount() < 1500, "Rows kept: " + index.rowCount());
+
+        TransactionFilter payments = filter(Set.of(TransactionType.PAYMENT), Set.of());
+        Page<Transaction> page = index.findAll(payments, PageRequest.of(0, 5, Sort.by(Sort.Direction.ASC, TransactionRepository.ID_PROPERTY)));
+        assertEquals(300, page.getTotalElements());
+        assertEquals(List.of("Payment 0", "Payment 10", "Payment 20", "Payment 30", "Payment 40"), descriptions(page.getContent()));
+
+        // Continues after a deleted transaction whose row was dropped
+        long deletedId = saved.get(15).getId();
+        assertEquals(List.of("Payment 20", "Payment 30"), descriptions(index.findAfter(payments, deletedId, Sort.Direction.ASC, 2)));
+        assertEquals(List.of("Payment 10", "Payment 0"), descriptions(index.findAfter(payments, deletedId, Sort.Direction.DESC, 5)));
+
+        Transaction recreated = repository.save(saved.get(15));
+        assertEquals("Payment 15", descriptions(index.findAll(filter(Set.of(TransactionType.DEPOSIT), Set.of()),
+                PageRequest.of(0, 1)).getContent()).getFirst());
+        assertEquals(recreated.getId(), saved.get(15).getId());
+    }
+
+    @Test
+    @DisplayName("Should stay consistent with the repository under concurrent writes, deletes and queries")
+    void concurrentChanges_MatchRepository() throws Exception {
+        TransactionFilter payments = filter(Set.of(TransactionType.PAYMENT), Set.of());
+        ExecutorService executor = Executors.newFixedThreadPool(5);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < 2000; i++) {
+                        Transaction transaction = save("Payment", i % 4 == 0 ? TransactionType.DEPOSIT : TransactionType.PAYMENT, USD);
+                        if (i % 3 != 2) {
+                            repository.deleteById(transaction.getId());
+                        }
+                    }
+                }));
+            }
+            Future<?> reader = executor.submit(() -> {
+                while (writers.stream().anyMatch(writer -> !writer.isDone())) {
+                    index.findAll(payments, PageRequest.of(3, 20));
+                    index.findAfter(payments, null, Sort.Direction.DESC, 20);
+                }
+            });
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+            reader.get();
+        } finally {
+            executor.shutdown();
+        }
+
+        List<Long> expected = new ArrayList<>();
+        repository.scan().forEachRemaining(transaction -> {
+            if (payments.matches(transaction)) {
+                expected.add(transaction.getId());
+            }
+        });
+        List<Long> indexed = index.findAll(payments, PageRequest.of(0, expected.size() + 1,
+                Sort.by(Sort.Direction.ASC, TransactionRepository.ID_PROPERTY))).getContent().stream().map(Transaction::getId).toList();
+        assertEquals(expected.size(), indexed.size());
+        assertEquals(Set.copyOf(expected), Set.copyOf(indexed));
+    }
+}
@@ -0,0 +1,98 @@
+package com.hsbc.transaction.index;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CompressedBitmap Unit Tests")
+class CompressedBitmapTest {
+
+    /**
+     * Fills a bitmap and a reference set with the same values: a dense run, sparse values
+     * and a chunk just above the array limit, so every container kind is exercised.
+     */
+    private static CompressedBitmap fill(Random random, TreeSet<Integer> reference, int density) {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (int value = 0; value < 200_000; value++) {
+            if (random.nextInt(100) < density) {
+                bitmap.add(value);
+                reference.add(value);
+            }
+        }
+        for (int i = 0; i < CompressedBitmap.ARRAY_MAX + 10; i++) {
+            int value = 5 * 65536 + random.nextInt(65536);
+            bitmap.add(value);
+            reference.add(value);
+        }
+        return bitmap;
+    }
+
+    private static List<Integer> toList(int[] values) {
+        List<Integer> list = new ArrayList<>(values.length);
+        for (int value : values) {
+            list.add(value);
+        }
+        return list;
+    }
+
+    @Test
+    @DisplayName("Should add, remove and count like a set across container kinds")
+    void addRemove_MatchesReference() {
+        Random random = new Random(42);
+        TreeSet<Integer> reference = new TreeSet<>();
+        CompressedBitmap bitmap = fill(random, reference, 30);
+
+        for (int i = 0; i < 100_000; i++) {
+            int value = random.nextInt(400_000);
+            bitmap.remove(value);
+            reference.remove(value);
+        }
+
+        assertEquals(reference.size(), bitmap.cardinality());
+        for (int value = 0; value < 400_000; value += 7) {
+            assertEquals(reference.contains(value), bitmap.contains(value), "value " + value);
+        }
+        assertEquals(reference.headSet(150_000, true).size(), bitmap.rank(150_000));
+    }
+
+    @Test
+    @DisplayName("Should page in both directions, skipping whole chunks")
+    void page_ReturnsValuesByPosition() {
+        TreeSet<Integer> reference = new TreeSet<>();
+        CompressedBitmap bitmap = fill(new Random(7), reference, 50);
+        List<Integer> ascending = new ArrayList<>(reference);
+        List<Integer> descending = new ArrayList<>(reference.descendingSet());
+
+        assertEquals(ascending.subList(0, 10), toList(bitmap.page(0, 10, true)));
+        assertEquals(ascending.subList(70_000, 70_100), toList(bitmap.page(70_000, 100, true)));
+        assertEquals(descending.subList(5_000, 5_100), toList(bitmap.page(5_000, 100, false)));
+        assertEquals(descending.subList(descending.size() - 3, descending.size()),
+                toList(bitmap.page(descending.size() - 3, 10, false)));
+        assertEquals(0, bitmap.page(reference.size(), 10, true).length);
+    }
+
+    @Test
+    @DisplayName("Should intersect and unite like sets")
+    void andOr_MatchReference() {
+        Random random = new Random(11);
+        TreeSet<Integer> left = new TreeSet<>();
+        TreeSet<Integer> right = new TreeSet<>();
+        CompressedBitmap a = fill(random, left, 40);
+        CompressedBitmap b = fill(random, right, 3);
+
+        TreeSet<Integer> intersection = new TreeSet<>(left);
+        intersection.retainAll(right);
+        TreeSet<Integer> union = new TreeSet<>(left);
+        union.addAll(right);
+
+        assertEquals(new ArrayList<>(intersection), toList(CompressedBitmap.and(a, b).page(0, intersection.size(), true)));
+        assertEquals(new ArrayList<>(union), toList(CompressedBitmap.or(a, b).page(0, union.size(), true)));
+        assertEquals(left.size(), a.cardinality(), "Operands are left unchanged");
+    }
+}
@@ -0,0 +1,220 @@
+package com.hsbc.transaction.index;
+
+import com.hsbc.transaction.enums.TransactionType;
+import com.hsbc.transaction.exception.InvalidSearchQueryException;
+import com.hsbc.transaction.model.Money;
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.repository.TransactionRepository;
+import com.hsbc.transaction.util.SnowflakeIdGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("DescriptionIndex Unit Tests")
+class DescriptionIndexTest {
+
+    private TransactionRepository repository;
+    private DescriptionIndex index;
+
+    @BeforeEach
+    void setUp() {
+        repository = new TransactionRepository(new SnowflakeIdGenerator(1, 1));
+        index = new DescriptionIndex(repository);
+    }
+
+    private Transaction save(String description) {
+        return repository.save(Transaction.builder()
+                .description(description)
+                .money(Money.parse("10.00", Currency.getInstance("USD")))
+                .type(TransactionType.PAYMENT)
+                .build());
+    }
+
+    private List<String> search(String query) {
+        return index.search(query, null, Sort.Direction.ASC, 100).stream().map(Transaction::getDescription).toList();
+    }
+
+    @Test
+    @DisplayName("Should split on punctuation, lower-case and strip accents")
+    void tokenize_NormalizesTerms() {
+        assertEquals(Set.of("cafe", "zurich", "ref", "00123"), DescriptionIndex.tokenize("Café-Zürich, REF#00123 café"));
+        assertEquals(Set.of(), DescriptionIndex.tokenize(" -- "));
+    }
+
+    @Test
+    @DisplayName("Should require every term and match prefixes")
+    void search_AndsTermsAndMatchesPrefixes() {
+        save("Coffee at Café Zürich");
+        save("Coffee beans London");
+        save("Train ticket London");
+
+        assertEquals(List.of("Coffee beans London"), search("london COFFEE"));
+        assertEquals(List.of("Coffee at Café Zürich"), search("cafe zur*"));
+        assertEquals(List.of("Coffee beans London", "Train ticket London"), search("lond*"));
+        assertEquals(List.of("Coffee at Café Zürich", "Coffee beans London"), search("c* *"), "A lone * is ignored");
+        assertEquals(List.of(), search("coffee paris"));
+        assertEquals(List.of(), search("!!!"));
+    }
+
+    @Test
+    @DisplayName("Should follow description updates and deletes")
+    void search_FollowsUpdatesAndDeletes() {
+        Transaction updated = save("Groceries Tesco");
+        Transaction deleted = save("Groceries Aldi");
+
+        repository.save(Transaction.builder().id(updated.getId()).description("Fuel Tesco")
+                .money(updated.getMoney()).type(updated.getType()).build());
+        repository.deleteById(deleted.getId());
+
+        assertEquals(List.of(), search("groceries"));
+        assertEquals(List.of("Fuel Tesco"), search("tesco"));
+        assertEquals(List.of(), search("aldi"));
+
+        repository.deleteAll();
+        assertEquals(0, index.termCount());
+    }
+
+    @Test
+    @DisplayName("Should continue strictly after an ID in both directions")
+    void search_ContinuesAfterId() {
+        List<Transaction> saved = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            saved.add(save("Rent payment " + i));
+        }
+        long third = saved.get(2).getId();
+
+        assertEquals(List.of(saved.get(3).getId(), saved.get(4).getId()),
+                index.search("rent", third, Sort.Direction.ASC, 2).stream().map(Transaction::getId).toList());
+        assertEquals(List.of(saved.get(1).getId(), saved.get(0).getId()),
+                index.search("rent pay*", third, Sort.Direction.DESC, 10).stream().map(Transaction::getId).toList());
+    }
+
+    @Test
+    @DisplayName("Should page through a prefix matching many terms in both directions")
+    void search_PagesThroughBroadPrefixes() {
+        List<Transaction> saved = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            saved.add(save("Item w" + i + " tag" + i % 3));
+        }
+
+        // Merged from the shortest prefix, walked from the exact term, and checked against descriptions
+        Map<String, Predicate<String>> queries = Map.of(
+                "w1* ta*", description -> description.startsWith("Item w1"),
+                "w* tag1", description -> description.endsWith("tag1"),
+                "w* t*", description -> true);
+        for (Map.Entry<String, Predicate<String>> query : queries.entrySet()) {
+            for (Sort.Direction direction : Sort.Direction.values()) {
+                List<Long> expected = saved.stream().filter(transaction -> query.getValue().test(transaction.getDescription()))
+                        .map(Transaction::getId).toList();
+                if (direction.isDescending()) {
+                    expected = expected.reversed();
+                }
+                List<Long> walked = new ArrayList<>();
+                List<Transaction> page;
+                do {
+                    page = index.search(query.getKey(), walked.isEmpty() ? null : walked.getLast(), direction, 7);
+                    page.forEach(transaction -> walked.add(transaction.getId()));
+                } while (page.size() == 7);
+                assertEquals(expected, walked, query.getKey() + " " + direction);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject a prefix matching too many words")
+    void search_RejectsTooBroadPrefixes() {
+        for (int i = 0; i <= DescriptionIndex.MAX_PREFIX_TERMS; i++) {
+            save("Ref r" + i);
+        }
+
+        assertThrows(InvalidSearchQueryException.class, () -> search("r*"));
+        assertEquals(List.of("Ref r1234"), search("r1234*"));
+    }
+
+    @Test
+    @DisplayName("Should keep gathering candidates until a page of them matches every prefix")
+    void search_ChecksPrefixesAcrossBatches() {
+        for (int i = 0; i < 2 * DescriptionIndex.CANDIDATE_BATCH; i++) {
+            save("Coffee " + i);
+        }
+        for (int i = 0; i < 3 * DescriptionIndex.CANDIDATE_BATCH; i++) {
+            save("Zebra crossing " + i);
+            if (i % DescriptionIndex.CANDIDATE_BATCH == 0) {
+                save("Zebra coffee " + i);
+            }
+        }
+
+        assertEquals(List.of("Zebra coffee 0", "Zebra coffee 256", "Zebra coffee 512"), search("zebra co*"));
+        List<Transaction> last = index.search("zebra co*", null, Sort.Direction.DESC, 2);
+        assertEquals(List.of("Zebra coffee 512", "Zebra coffee 256"), last.stream().map(Transaction::getDescription).toList());
+        assertEquals(List.of("Zebra coffee 0"), index.search("zebra co*", last.getLast().getId(), Sort.Direction.DESC, 2)
+                .stream().map(Transaction::getDescription).toList());
+    }
+
+    @Test
+    @DisplayName("Should not hold off writes while checking the descriptions of candidates")
+    void search_ChecksCandidatesOutsideTheLock() {
+        AtomicBoolean writeWhileChecking = new AtomicBoolean();
+        repository = new TransactionRepository(new SnowflakeIdGenerator(1, 1)) {
+            @Override
+            public Optional<Transaction> findById(Long id) {
+                if (writeWhileChecking.compareAndSet(true, false)) {
+                    Runnable write = () -> DescriptionIndexTest.this.save("Written while checking");
+                    assertDoesNotThrow(() -> CompletableFuture.runAsync(write).get(5, TimeUnit.SECONDS));
+                }
+                return super.findById(id);
+            }
+        };
+        index = new DescriptionIndex(repository);
+        for (int i = 0; i < 10; i++) {
+            save("Coffee " + i);
+        }
+        save("Zebra coffee");
+
+        writeWhileChecking.set(true);
+        assertEquals(List.of("Zebra coffee"), search("zebra co*"));
+        assertEquals(List.of("Written while checking"), search("written"));
+    }
+
+    @Test
+    @DisplayName("Should intersect sorted lists like a set intersection")
+    void intersect_MatchesReference() {
+        Random random = new Random(42);
+        List<DescriptionIndex.SortedIds> lists = new ArrayList<>();
+        TreeSet<Long> expected = null;
+        for (int density : new int[]{50, 5, 30}) {
+            long[] ids = LongStream.range(0, 100_000).filter(id -> random.nextInt(100) < density).toArray();
+            lists.add(DescriptionIndex.SortedIds.of(ids));
+            TreeSet<Long> set = new TreeSet<>(LongStream.of(ids).boxed().toList());
+            if (expected == null) {
+                expected = set;
+            } else {
+                expected.retainAll(set);
+            }
+        }
+
+        long after = expected.first() + 1;
+        assertEquals(new ArrayList<>(expected.tailSet(after, false)).subList(0, 50),
+                LongStream.of(DescriptionIndex.intersect(lists, after, true, 50)).boxed().toList());
+        assertEquals(new ArrayList<>(expected.headSet(90_000L, false).descendingSet()).subList(0, 50),
+                LongStream.of(DescriptionIndex.intersect(lists, 90_000L, false, 50)).boxed().toList());
+        assertEquals(expected.size(), DescriptionIndex.intersect(lists, null, true, Integer.MAX_VALUE).length);
+    }
+}
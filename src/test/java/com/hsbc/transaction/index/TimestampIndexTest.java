@@ -0,0 +1,117 @@
+package com.hsbc.transaction.index;
+
+import com.hsbc.transaction.enums.StorageEngine;
+import com.hsbc.transaction.enums.TransactionType;
+import com.hsbc.transaction.model.Money;
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.repository.ColumnarTransactionStore;
+import com.hsbc.transaction.repository.TransactionRepository;
+import com.hsbc.transaction.util.SnowflakeIdGenerator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("TimestampIndex Unit Tests")
+class TimestampIndexTest {
+
+    private static final Currency USD = Currency.getInstance("USD");
+    private static final LocalDateTime NINE = LocalDateTime.of(2024, 5, 1, 9, 0);
+
+    private TransactionRepository repository;
+    private TimestampIndex index;
+
+    private void setUp(StorageEngine engine) {
+        repository = engine == StorageEngine.COLUMNAR
+                ? new TransactionRepository(new SnowflakeIdGenerator(1, 1), new ColumnarTransactionStore())
+                : new TransactionRepository(new SnowflakeIdGenerator(1, 1));
+        index = new TimestampIndex(repository);
+    }
+
+    private Transaction save(String description, LocalDateTime timestamp) {
+        return repository.save(Transaction.builder()
+                .description(description)
+                .money(Money.parse("10.00", USD))
+                .type(TransactionType.PAYMENT)
+                .timestamp(timestamp)
+                .build());
+    }
+
+    private List<String> descriptions(Iterator<Transaction> iterator) {
+        List<String> descriptions = new ArrayList<>();
+        iterator.forEachRemaining(transaction -> descriptions.add(transaction.getDescription()));
+        return descriptions;
+    }
+
+    @ParameterizedTest
+    @EnumSource(StorageEngine.class)
+    @DisplayName("Should return the transactions from the inclusive start to the exclusive end in timestamp order")
+    void iterator_ReturnsHalfOpenRange(StorageEngine engine) {
+        setUp(engine);
+        save("10:00", NINE.plusHours(1));
+        save("08:59", NINE.minusMinutes(1));
+        save("09:00", NINE);
+        save("09:30", NINE.plusMinutes(30));
+
+        assertEquals(List.of("09:00", "09:30"), descriptions(index.iterator(NINE, NINE.plusHours(1), true, null)));
+        assertEquals(List.of("10:00", "09:30", "09:00"), descriptions(index.iterator(NINE, null, false, null)));
+        assertEquals(List.of("08:59"), descriptions(index.iterator(null, NINE, true, null)));
+        assertEquals(2, index.count(NINE, NINE.plusHours(1)));
+        assertEquals(0, index.count(NINE, NINE));
+    }
+
+    @ParameterizedTest
+    @EnumSource(StorageEngine.class)
+    @DisplayName("Should move a transaction whose timestamp is reset by an update and drop deleted ones")
+    void iterator_FollowsUpdatesAndDeletes(StorageEngine engine) {
+        setUp(engine);
+        Transaction moved = save("Moved", NINE.plusMinutes(10));
+        Transaction deleted = save("Deleted", NINE.plusMinutes(20));
+        save("Kept", NINE.plusMinutes(30));
+
+        repository.save(Transaction.builder().id(moved.getId()).description("Moved")
+                .money(moved.getMoney()).type(moved.getType()).timestamp(NINE.plusHours(2)).build());
+        repository.deleteById(deleted.getId());
+
+        assertEquals(List.of("Kept"), descriptions(index.iterator(NINE, NINE.plusHours(1), true, null)));
+        assertEquals(List.of("Moved"), descriptions(index.iterator(NINE.plusHours(1), null, true, null)));
+        assertEquals(2, index.count(null, null));
+    }
+
+    @ParameterizedTest
+    @EnumSource(StorageEngine.class)
+    @DisplayName("Should continue strictly after a key, including among equal timestamps")
+    void iterator_ContinuesAfterKey(StorageEngine engine) {
+        setUp(engine);
+        Transaction first = save("First", NINE);
+        save("Second", NINE);
+        save("Third", NINE.plusMinutes(1));
+
+        TimestampIndex.Key after = TimestampIndex.Key.of(first);
+        assertEquals(List.of("Second", "Third"), descriptions(index.iterator(NINE, null, true, after)));
+        assertEquals(List.of(), descriptions(index.iterator(NINE, null, false, after)));
+        // A key outside the range leaves the range as it is
+        assertEquals(List.of("First", "Second", "Third"),
+                descriptions(index.iterator(NINE, null, true, new TimestampIndex.Key(0, 0))));
+    }
+
+    @ParameterizedTest
+    @EnumSource(StorageEngine.class)
+    @DisplayName("Should index transactions stored before it was created and clear on delete all")
+    void constructor_IndexesExistingTransactions(StorageEngine engine) {
+        setUp(engine);
+        save("Existing", NINE);
+        TimestampIndex late = new TimestampIndex(repository);
+        assertEquals(List.of("Existing"), descriptions(late.iterator(null, null, true, null)));
+
+        repository.deleteAll();
+        assertEquals(0, late.count(null, null));
+    }
+}
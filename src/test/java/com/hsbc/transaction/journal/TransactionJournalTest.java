@@ -0,0 +1,156 @@
+package com.hsbc.transaction.journal;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONObject;
+import com.hsbc.transaction.config.JournalProperties;
+import com.hsbc.transaction.enums.FsyncPolicy;
+import com.hsbc.transaction.enums.TransactionType;
+import com.hsbc.transaction.model.Money;
+import com.hsbc.transaction.model.Transaction;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Currency;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("TransactionJournal Unit Tests")
+class TransactionJournalTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private TransactionJournal journal;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (journal != null) {
+            journal.stop();
+        }
+    }
+
+    private static JournalProperties properties(Path path, FsyncPolicy policy) {
+        JournalProperties properties = new JournalProperties();
+        properties.setPath(path.toString());
+        properties.setFsyncPolicy(policy);
+        properties.setBatchSize(64);
+        return properties;
+    }
+
+    private TransactionJournal startJournal(FsyncPolicy policy) throws Exception {
+        journal = new TransactionJournal(properties(tempDir.resolve("journal.ndjson"), policy), meterRegistry);
+        journal.start();
+        return journal;
+    }
+
+    private static Transaction transaction(long id) {
+        return Transaction.builder()
+                .id(id)
+                .description("Journal " + id)
+                .money(Money.of(new BigDecimal("12.50"), Currency.getInstance("USD")))
+                .type(TransactionType.DEPOSIT)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should append every record from concurrent writers as one JSON line each")
+    void append_ConcurrentWritersKeepEveryRecord() throws Exception {
+        startJournal(FsyncPolicy.BATCH);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 2_000; i++) {
+            long id = i;
+            executor.execute(() -> assertTrue(journal.append(transaction(id))));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        journal.flush(Duration.ofSeconds(10));
+
+        List<String> lines = Files.readAllLines(tempDir.resolve("journal.ndjson"));
+        Set<Long> ids = lines.stream().map(JSON::parseObject).map(o -> o.getLong("id")).collect(Collectors.toSet());
+        assertEquals(2_000, lines.size());
+        assertEquals(2_000, ids.size());
+        assertEquals(2_000, meterRegistry.counter("transaction.journal.records.written").count());
+        assertTrue(meterRegistry.timer("transaction.journal.flush").count() > 0);
+    }
+
+    @Test
+    @DisplayName("Should append to the existing journal across restarts")
+    void append_AppendsAcrossRestarts() throws Exception {
+        startJournal(FsyncPolicy.NONE).append(transaction(1L));
+        journal.stop();
+        startJournal(FsyncPolicy.INTERVAL).append(transaction(2L));
+        journal.flush(Duration.ofSeconds(5));
+
+        List<String> lines = Files.readAllLines(tempDir.resolve("journal.ndjson"));
+        assertEquals(2, lines.size());
+        JSONObject second = JSON.parseObject(lines.get(1));
+        assertEquals(2L, second.getLong("id"));
+        assertEquals("Journal 2", second.getString("description"));
+    }
+
+    @Test
+    @DisplayName("Should wait for queue space instead of dropping records when configured to block")
+    void append_BlocksWhenFull() throws Exception {
+        JournalProperties properties = properties(tempDir.resolve("journal.ndjson"), FsyncPolicy.NONE);
+        properties.setQueueCapacity(1);
+        properties.setOfferTimeout(Duration.ZERO);
+        properties.setBlockWhenFull(true);
+        journal = new TransactionJournal(properties, meterRegistry);
+        journal.start();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 500; i++) {
+            long id = i;
+            executor.execute(() -> assertTrue(journal.append(transaction(id))));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        journal.flush(Duration.ofSeconds(10));
+
+        assertEquals(500, Files.readAllLines(tempDir.resolve("journal.ndjson")).size());
+        assertEquals(0, meterRegistry.counter("transaction.journal.records.dropped").count());
+    }
+
+    @Test
+    @DisplayName("Should count records it failed to append apart from written ones and fail the flush")
+    void flush_ReportsFailedAppends() throws Exception {
+        AtomicReference<FileChannel> channel = new AtomicReference<>();
+        journal = new TransactionJournal(properties(tempDir.resolve("journal.ndjson"), FsyncPolicy.BATCH), meterRegistry) {
+            @Override
+            FileChannel openChannel(Path path) throws IOException {
+                channel.set(super.openChannel(path));
+                return channel.get();
+            }
+        };
+        journal.start();
+        channel.get().close();
+
+        for (long id = 0; id < 10; id++) {
+            assertTrue(journal.append(transaction(id)));
+        }
+        assertThrows(IOException.class, () -> journal.flush(Duration.ofSeconds(10)));
+        assertEquals(10, meterRegistry.counter("transaction.journal.records.failed").count());
+        assertEquals(0, meterRegistry.counter("transaction.journal.records.written").count());
+
+        assertThrows(ClosedChannelException.class, journal::stop);
+        journal = null;
+    }
+}
@@ -0,0 +1,74 @@
+package com.hsbc.transaction.model;
+
+import com.alibaba.fastjson2.JSON;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Money Unit Tests")
+class MoneyTest {
+
+    private static final Currency USD = Currency.getInstance("USD");
+    private static final Currency JPY = Currency.getInstance("JPY");
+    private static final Currency BHD = Currency.getInstance("BHD");
+
+    @Test
+    @DisplayName("Should hold amounts in the currency's minor units")
+    void parse_UsesCurrencyFractionDigits() {
+        assertEquals(123_450, Money.parse("1234.5", USD).minorUnits());
+        assertEquals(1234, Money.parse("1234", JPY).minorUnits());
+        assertEquals(1234, Money.parse("1234.00", JPY).minorUnits());
+        assertEquals(1_234_567, Money.parse("1234.567", BHD).minorUnits());
+        assertEquals(-50, Money.parse("-.5", USD).minorUnits());
+    }
+
+    @Test
+    @DisplayName("Should reject amounts that would lose precision or overflow")
+    void parse_RejectsLossyAmounts() {
+        assertThrows(IllegalArgumentException.class, () -> Money.parse("10.005", USD));
+        assertThrows(IllegalArgumentException.class, () -> Money.parse("100.50", JPY));
+        assertThrows(IllegalArgumentException.class, () -> Money.parse("92233720368547758.08", USD));
+        assertThrows(IllegalArgumentException.class, () -> Money.parse("12a", USD));
+        assertThrows(IllegalArgumentException.class, () -> Money.parse("", USD));
+    }
+
+    @Test
+    @DisplayName("Should format and parse back without loss")
+    void toPlainString_RoundTrips() {
+        for (String amount : new String[]{"0.00", "0.05", "-0.05", "1234.50", "-92233720368547758.08", "92233720368547758.07"}) {
+            assertEquals(amount, Money.parse(amount, USD).toPlainString());
+        }
+        assertEquals("1234", Money.ofMinor(1234, JPY).toPlainString());
+        assertEquals("0.001", Money.ofMinor(1, BHD).toPlainString());
+        assertEquals(new BigDecimal("1234.50"), Money.parse("1234.5", USD).getAmount());
+    }
+
+    @Test
+    @DisplayName("Should add, subtract and compare with overflow and currency checks")
+    void arithmetic_IsChecked() {
+        Money ten = Money.parse("10.00", USD);
+        Money three = Money.parse("3.25", USD);
+        assertEquals(Money.parse("13.25", USD), ten.add(three));
+        assertEquals(Money.parse("-6.75", USD), three.subtract(ten));
+        assertTrue(ten.compareTo(three) > 0);
+        assertEquals(1, ten.signum());
+
+        assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MAX_VALUE, USD).add(Money.ofMinor(1, USD)));
+        assertThrows(IllegalArgumentException.class, () -> ten.add(Money.parse("1", JPY)));
+    }
+
+    @Test
+    @DisplayName("Should round half up when created from a BigDecimal and keep the JSON shape")
+    void of_RoundsAndSerializes() {
+        assertEquals(1001, Money.of(new BigDecimal("10.005"), USD).minorUnits());
+        assertEquals(Money.ofMinor(1001, USD), Money.of(100_100, 4, USD));
+
+        String json = JSON.toJSONString(Money.parse("12.30", USD));
+        assertEquals("{\"amount\":12.30,\"currency\":\"USD\"}", json);
+        assertEquals(Money.parse("12.30", USD), JSON.parseObject(json, Money.class));
+    }
+}
@@ -0,0 +1,266 @@
+package com.hsbc.transaction.persistence;
+
+import com.hsbc.transaction.config.SnapshotProperties;
+import com.hsbc.transaction.config.WalProperties;
+import com.hsbc.transaction.enums.TransactionStatus;
+import com.hsbc.transaction.enums.TransactionType;
+import com.hsbc.transaction.model.Money;
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.repository.TransactionRepository;
+import com.hsbc.transaction.util.SnowflakeIdGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.temporal.ChronoUnit;
+import java.util.Currency;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("SnapshotStore Unit Tests")
+class SnapshotStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final SnowflakeIdGenerator idGenerator = new SnowflakeIdGenerator(1, 1);
+    private WriteAheadLog writeAheadLog;
+    private SnapshotStore snapshotStore;
+    private TransactionRepository repository;
+    private Snapshotter snapshotter;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (writeAheadLog != null) {
+            writeAheadLog.stop();
+        }
+    }
+
+    private void open() throws IOException {
+        open(properties -> new WriteAheadLog(properties, new SimpleMeterRegistry()));
+    }
+
+    private void open(Function<WalProperties, WriteAheadLog> logFactory) throws IOException {
+        WalProperties walProperties = new WalProperties();
+        walProperties.setDirectory(tempDir.resolve("wal").toString());
+        writeAheadLog = logFactory.apply(walProperties);
+        writeAheadLog.start();
+
+        SnapshotProperties snapshotProperties = new SnapshotProperties();
+        snapshotProperties.setDirectory(tempDir.resolve("snapshots").toString());
+        snapshotStore = new SnapshotStore(snapshotProperties);
+
+        repository = new TransactionRepository(idGenerator, writeAheadLog, snapshotStore);
+        repository.recover();
+        snapshotter = new Snapshotter(snapshotProperties, snapshotStore, writeAheadLog, repository);
+    }
+
+    private void reopen() throws Exception {
+        writeAheadLog.stop();
+        open();
+    }
+
+    private static Transaction transaction(String description, String amount) {
+        return Transaction.builder()
+                .description(description)
+                .money(Money.of(new BigDecimal(amount), Currency.getInstance("JPY")))
+                .type(TransactionType.DEPOSIT)
+                .status(TransactionStatus.COMPLETED)
+                .build();
+    }
+
+    private List<Path> files(String directory) throws IOException {
+        try (Stream<Path> files = Files.list(tempDir.resolve(directory))) {
+            return files.sorted().toList();
+        }
+    }
+
+    @Test
+    @DisplayName("Should restore every field from a snapshot")
+    void recover_LoadsSnapshot() throws Exception {
+        open();
+        Transaction full = repository.save(transaction("Café € payment", "1234.56"));
+        full = repository.save(full);
+        Transaction sparse = repository.save(Transaction.builder()
+                .money(Money.of(new BigDecimal("-0.01"), Currency.getInstance("GBP")))
+                .build());
+        assertTrue(snapshotter.snapshot());
+
+        reopen();
+
+        assertEquals(2, repository.count());
+        Transaction restored = repository.findById(full.getId()).orElseThrow();
+        assertEquals("Café € payment", restored.getDescription());
+        assertEquals(full.getMoney(), restored.getMoney());
+        assertEquals(TransactionType.DEPOSIT, restored.getType());
+        assertEquals(TransactionStatus.COMPLETED, restored.getStatus());
+        assertEquals(full.getTimestamp().truncatedTo(ChronoUnit.MICROS), restored.getTimestamp());
+        assertEquals(2, restored.getVersion());
+
+        Transaction restoredSparse = repository.findById(sparse.getId()).orElseThrow();
+        assertNull(restoredSparse.getDescription());
+        assertNull(restoredSparse.getType());
+        assertEquals(sparse.getMoney(), restoredSparse.getMoney());
+    }
+
+    @Test
+    @DisplayName("Should replay changes logged after the snapshot on top of it")
+    void recover_ReplaysLogTail() throws Exception {
+        open();
+        Transaction updated = repository.save(transaction("Before snapshot", "10.00"));
+        Transaction deleted = repository.save(transaction("Deleted later", "20.00"));
+        snapshotter.snapshot();
+
+        repository.save(updated.toBuilder().description("After snapshot").build());
+        repository.deleteById(deleted.getId());
+        Transaction added = repository.save(transaction("Added later", "30.00"));
+
+        reopen();
+
+        assertEquals(2, repository.count());
+        assertEquals("After snapshot", repository.findById(updated.getId()).orElseThrow().getDescription());
+        assertEquals(2, repository.findById(updated.getId()).orElseThrow().getVersion());
+        assertFalse(repository.existsById(deleted.getId()));
+        assertTrue(repository.existsById(added.getId()));
+    }
+
+    @Test
+    @DisplayName("Should keep the configured number of snapshots and delete log segments behind them")
+    void snapshot_PrunesSnapshotsAndLog() throws Exception {
+        open();
+        for (int i = 0; i < 4; i++) {
+            repository.save(transaction("Round " + i, "1.00"));
+            assertTrue(snapshotter.snapshot());
+        }
+
+        assertEquals(2, files("snapshots").size());
+        // Only the segments starting at the two kept snapshots remain
+        assertEquals(2, files("wal").size());
+
+        reopen();
+        assertEquals(4, repository.count());
+    }
+
+    @Test
+    @DisplayName("Should wait for a write that is durable but not yet applied before rolling the log")
+    void snapshot_WaitsForDurableWrites() throws Exception {
+        CountDownLatch logged = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        open(properties -> new WriteAheadLog(properties, new SimpleMeterRegistry()) {
+            @Override
+            public CompletableFuture<Void> logPut(Transaction transaction) {
+                CompletableFuture<Void> durable = super.logPut(transaction);
+                if (!"Slow".equals(transaction.getDescription())) {
+                    return durable;
+                }
+                // Hold the write between its record being durable and its change being applied
+                return durable.thenRunAsync(() -> {
+                    logged.countDown();
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+        });
+        repository.save(transaction("Before", "1.00"));
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+            Future<Transaction> slow = executor.submit(() -> repository.save(transaction("Slow", "2.00")));
+            assertTrue(logged.await(10, TimeUnit.SECONDS));
+            Future<Boolean> snapshot = executor.submit(snapshotter::snapshot);
+            assertThrows(TimeoutException.class, () -> snapshot.get(200, TimeUnit.MILLISECONDS));
+
+            release.countDown();
+            Transaction saved = slow.get(10, TimeUnit.SECONDS);
+            assertTrue(snapshot.get(10, TimeUnit.SECONDS));
+
+            reopen();
+            assertEquals(2, repository.count());
+            assertTrue(repository.existsById(saved.getId()));
+        }
+    }
+
+    @Test
+    @DisplayName("Should skip a snapshot when nothing changed")
+    void snapshot_SkipsWhenUnchanged() throws Exception {
+        open();
+        repository.save(transaction("Only", "5.00"));
+
+        assertTrue(snapshotter.snapshot());
+        assertFalse(snapshotter.snapshot());
+        assertEquals(1, files("snapshots").size());
+    }
+
+    @Test
+    @DisplayName("Should fall back to an older snapshot when the newest is unreadable")
+    void recover_FallsBackOnCorruptSnapshot() throws Exception {
+        open();
+        Transaction first = repository.save(transaction("First", "1.00"));
+        snapshotter.snapshot();
+        Transaction second = repository.save(transaction("Second", "2.00"));
+        snapshotter.snapshot();
+
+        List<Path> snapshots = files("snapshots");
+        Files.write(snapshots.get(snapshots.size() - 1), new byte[]{1, 2, 3});
+
+        reopen();
+
+        assertEquals(2, repository.count());
+        assertTrue(repository.existsById(first.getId()));
+        assertTrue(repository.existsById(second.getId()));
+    }
+
+    @Test
+    @DisplayName("Should refuse to start when no snapshot can be read rather than replay an incomplete log")
+    void recover_FailsWhenEverySnapshotIsUnreadable() throws Exception {
+        open();
+        repository.save(transaction("First", "1.00"));
+        snapshotter.snapshot();
+        repository.save(transaction("Second", "2.00"));
+        snapshotter.snapshot();
+
+        for (Path snapshot : files("snapshots")) {
+            Files.write(snapshot, new byte[]{1, 2, 3});
+        }
+        writeAheadLog.stop();
+
+        IOException failure = assertThrows(IOException.class, this::open);
+        assertEquals(2, failure.getSuppressed().length);
+    }
+
+    @Test
+    @DisplayName("Should delete the temporary files of an unfinished snapshot on startup")
+    void recover_DeletesUnfinishedSnapshotFiles() throws Exception {
+        open();
+        Transaction saved = repository.save(transaction("First", "1.00"));
+        snapshotter.snapshot();
+        Path snapshot = files("snapshots").getFirst();
+        Files.write(snapshot.resolveSibling(snapshot.getFileName() + ".tmp"), new byte[]{1, 2, 3});
+        Files.write(snapshot.resolveSibling(snapshot.getFileName() + ".heap.tmp"), new byte[]{1, 2, 3});
+        Files.createDirectory(snapshot.resolveSibling("archive.snap.tmp"));
+
+        reopen();
+
+        assertTrue(repository.existsById(saved.getId()));
+        assertEquals(List.of(snapshot, snapshot.resolveSibling("archive.snap.tmp")).stream().sorted().toList(),
+                files("snapshots"));
+    }
+}
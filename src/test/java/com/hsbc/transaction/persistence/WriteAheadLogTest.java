@@ -0,0 +1,329 @@
+package com.hsbc.transaction.persistence;
+
+import com.hsbc.transaction.config.WalProperties;
+import com.hsbc.transaction.enums.TransactionType;
+import com.hsbc.transaction.enums.WalMode;
+import com.hsbc.transaction.model.Money;
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.repository.TransactionRepository;
+import com.hsbc.transaction.util.SnowflakeIdGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("WriteAheadLog Unit Tests")
+class WriteAheadLogTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final SnowflakeIdGenerator idGenerator = new SnowflakeIdGenerator(1, 1);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private WriteAheadLog writeAheadLog;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (writeAheadLog != null) {
+            writeAheadLog.stop();
+        }
+    }
+
+    private TransactionRepository openRepository(WalMode mode) throws IOException {
+        WalProperties properties = new WalProperties();
+        properties.setDirectory(tempDir.toString());
+        properties.setMode(mode);
+        return openRepository(new WriteAheadLog(properties, meterRegistry));
+    }
+
+    private TransactionRepository openRepository(WriteAheadLog log) throws IOException {
+        writeAheadLog = log;
+        writeAheadLog.start();
+        TransactionRepository repository = new TransactionRepository(idGenerator, writeAheadLog);
+        repository.recover();
+        return repository;
+    }
+
+    private TransactionRepository reopen(WalMode mode) throws Exception {
+        writeAheadLog.stop();
+        return openRepository(mode);
+    }
+
+    private static Transaction transaction(String description, String amount) {
+        return Transaction.builder()
+                .description(description)
+                .money(Money.of(new BigDecimal(amount), Currency.getInstance("EUR")))
+                .type(TransactionType.TRANSFER)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should rebuild saves, updates and deletes after a restart")
+    void recover_ReplaysAllChanges() throws Exception {
+        TransactionRepository repository = openRepository(WalMode.GROUP);
+        Transaction kept = repository.save(transaction("Kept", "10.00"));
+        Transaction updated = repository.save(transaction("Before update", "20.00"));
+        Transaction deleted = repository.save(transaction("Deleted", "30.00"));
+        updated = repository.save(updated.toBuilder().description("After update").build());
+        repository.deleteById(deleted.getId());
+
+        TransactionRepository recovered = reopen(WalMode.GROUP);
+
+        assertEquals(2, recovered.count());
+        Transaction recoveredKept = recovered.findById(kept.getId()).orElseThrow();
+        assertEquals("Kept", recoveredKept.getDescription());
+        assertEquals(kept.getMoney(), recoveredKept.getMoney());
+        // Timestamps are logged with microsecond precision
+        assertEquals(kept.getTimestamp().truncatedTo(ChronoUnit.MICROS), recoveredKept.getTimestamp());
+        assertEquals(TransactionType.TRANSFER, recoveredKept.getType());
+        assertEquals("After update", recovered.findById(updated.getId()).orElseThrow().getDescription());
+        assertEquals(2, recovered.findById(updated.getId()).orElseThrow().getVersion());
+        assertFalse(recovered.existsById(deleted.getId()));
+    }
+
+    @Test
+    @DisplayName("Should replay a clear")
+    void recover_ReplaysClear() throws Exception {
+        TransactionRepository repository = openRepository(WalMode.SYNC);
+        repository.save(transaction("Cleared", "10.00"));
+        repository.deleteAll();
+        Transaction survivor = repository.save(transaction("Survivor", "11.00"));
+
+        TransactionRepository recovered = reopen(WalMode.SYNC);
+
+        assertEquals(1, recovered.count());
+        assertTrue(recovered.existsById(survivor.getId()));
+    }
+
+    @Test
+    @DisplayName("Should acknowledge concurrent group commits and share forces between them")
+    void save_ConcurrentGroupCommit() throws Exception {
+        TransactionRepository repository = openRepository(WalMode.GROUP);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<Future<Transaction>> futures = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            String description = "Concurrent " + i;
+            futures.add(executor.submit(() -> repository.save(transaction(description, "1.00"))));
+        }
+        for (Future<Transaction> future : futures) {
+            assertNotNull(future.get().getId());
+        }
+        executor.shutdown();
+
+        assertTrue(meterRegistry.summary("transaction.wal.batch.size").count() < 1_000,
+                "Some records should have shared a force");
+        assertEquals(1_000, reopen(WalMode.GROUP).count());
+    }
+
+    @Test
+    @DisplayName("Should cut a batch that failed to be written or forced off the log and keep logging after it")
+    void save_FailedWritesAreCutOff() throws Exception {
+        for (WalMode mode : List.of(WalMode.SYNC, WalMode.GROUP)) {
+            FaultyChannel[] channel = new FaultyChannel[1];
+            WalProperties properties = new WalProperties();
+            properties.setDirectory(tempDir.resolve(mode.name()).toString());
+            properties.setMode(mode);
+            TransactionRepository repository = openRepository(new WriteAheadLog(properties, meterRegistry) {
+                @Override
+                FileChannel openChannel(Path path) throws IOException {
+                    channel[0] = new FaultyChannel(super.openChannel(path));
+                    return channel[0];
+                }
+            });
+            Transaction before = repository.save(transaction("Before", "10.00"));
+
+            channel[0].tornWrite = true;
+            assertThrows(IllegalStateException.class, () -> repository.save(transaction("Torn", "11.00")));
+            channel[0].failedForce = true;
+            assertThrows(IllegalStateException.class, () -> repository.save(transaction("Not forced", "12.00")));
+            Transaction after = repository.save(transaction("After", "13.00"));
+
+            writeAheadLog.stop();
+            TransactionRepository recovered = openRepository(new WriteAheadLog(properties, meterRegistry));
+            assertEquals(2, recovered.count(), mode.name());
+            assertTrue(recovered.existsById(before.getId()));
+            assertTrue(recovered.existsById(after.getId()));
+            writeAheadLog.stop();
+            writeAheadLog = null;
+        }
+    }
+
+    @Test
+    @DisplayName("Should refuse records once a failed batch cannot be cut off the log")
+    void save_RefusedAfterFailedCutOff() throws Exception {
+        FaultyChannel[] channel = new FaultyChannel[1];
+        WalProperties properties = new WalProperties();
+        properties.setDirectory(tempDir.toString());
+        properties.setMode(WalMode.SYNC);
+        TransactionRepository repository = openRepository(new WriteAheadLog(properties, meterRegistry) {
+            @Override
+            FileChannel openChannel(Path path) throws IOException {
+                channel[0] = new FaultyChannel(super.openChannel(path));
+                return channel[0];
+            }
+        });
+        Transaction before = repository.save(transaction("Before", "10.00"));
+
+        channel[0].failedForce = true;
+        channel[0].failedTruncate = true;
+        assertThrows(IllegalStateException.class, () -> repository.save(transaction("Failed", "11.00")));
+        assertThrows(IllegalStateException.class, () -> repository.save(transaction("Refused", "12.00")));
+        assertEquals(1, repository.count());
+        assertTrue(repository.existsById(before.getId()));
+    }
+
+    @Test
+    @DisplayName("Should drop a torn record at the tail of the log")
+    void recover_TruncatesTornTail() throws Exception {
+        TransactionRepository repository = openRepository(WalMode.GROUP);
+        Transaction intact = repository.save(transaction("Intact", "10.00"));
+        writeAheadLog.stop();
+
+        try (FileChannel channel = FileChannel.open(tempDir.resolve("00000000000000000000.wal"), StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0, 0, 0, 42, 1, 2, 3}));
+        }
+
+        TransactionRepository recovered = openRepository(WalMode.GROUP);
+        assertEquals(1, recovered.count());
+        assertTrue(recovered.existsById(intact.getId()));
+
+        Transaction afterRecovery = recovered.save(transaction("After recovery", "12.00"));
+        assertTrue(reopen(WalMode.GROUP).existsById(afterRecovery.getId()));
+    }
+
+    /**
+     * A segment channel that fails its next write half way, its next force or its truncates on demand.
+     */
+    private static class FaultyChannel extends FileChannel {
+        private final FileChannel delegate;
+        volatile boolean tornWrite;
+        volatile boolean failedForce;
+        volatile boolean failedTruncate;
+
+        FaultyChannel(FileChannel delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public long write(ByteBuffer[] sources, int offset, int length) throws IOException {
+            if (tornWrite) {
+                tornWrite = false;
+                ByteBuffer half = sources[offset].duplicate();
+                half.limit(half.position() + half.remaining() / 2);
+                delegate.write(half);
+                throw new IOException("Torn write");
+            }
+            return delegate.write(sources, offset, length);
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            if (failedForce) {
+                failedForce = false;
+                throw new IOException("Failed force");
+            }
+            delegate.force(metaData);
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            if (failedTruncate) {
+                throw new IOException("Failed truncate");
+            }
+            delegate.truncate(size);
+            return this;
+        }
+
+        @Override
+        public int read(ByteBuffer destination) throws IOException {
+            return delegate.read(destination);
+        }
+
+        @Override
+        public long read(ByteBuffer[] destinations, int offset, int length) throws IOException {
+            return delegate.read(destinations, offset, length);
+        }
+
+        @Override
+        public int write(ByteBuffer source) throws IOException {
+            return delegate.write(source);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return delegate.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            delegate.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return delegate.size();
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            return delegate.transferTo(position, count, target);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel source, long position, long count) throws IOException {
+            return delegate.transferFrom(source, position, count);
+        }
+
+        @Override
+        public int read(ByteBuffer destination, long position) throws IOException {
+            return delegate.read(destination, position);
+        }
+
+        @Override
+        public int write(ByteBuffer source, long position) throws IOException {
+            return delegate.write(source, position);
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            return delegate.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return delegate.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            return delegate.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.hsbc.transaction.repository;
+
+import com.hsbc.transaction.enums.TransactionStatus;
+import com.hsbc.transaction.enums.TransactionType;
+import com.hsbc.transaction.model.Money;
+import com.hsbc.transaction.model.Transaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ColumnarTransactionStore Unit Tests")
+class ColumnarTransactionStoreTest {
+
+    private ColumnarTransactionStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new ColumnarTransactionStore();
+    }
+
+    private static Transaction transaction(long id, String description) {
+        return Transaction.builder()
+                .id(id)
+                .description(description)
+                .money(Money.of(new BigDecimal("1234.56"), Currency.getInstance("EUR")))
+                .type(TransactionType.TRANSFER)
+                .timestamp(LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123_456_789))
+                .build();
+    }
+
+    private static List<Long> ids(List<Transaction> transactions) {
+        return transactions.stream().map(Transaction::getId).toList();
+    }
+
+    @Test
+    @DisplayName("Should read back every field, with the timestamp kept to microseconds")
+    void get_RoundTripsFields() {
+        store.put(transaction(42, "Invoice 7 – café"));
+
+        Transaction read = store.get(42);
+        assertEquals(42L, read.getId());
+        assertEquals("Invoice 7 – café", read.getDescription());
+        assertEquals(Money.of(new BigDecimal("1234.56"), Currency.getInstance("EUR")), read.getMoney());
+        assertEquals(TransactionType.TRANSFER, read.getType());
+        assertEquals(TransactionStatus.COMPLETED, read.getStatus());
+        assertEquals(LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123_456_000), read.getTimestamp());
+        assertNull(store.get(43));
+    }
+
+    @Test
+    @DisplayName("Should keep rows in ID order when IDs arrive out of order")
+    void put_OutOfOrderIds() {
+        for (long id : new long[]{50, 10, 30, 20, 40}) {
+            store.put(transaction(id, "Row " + id));
+        }
+
+        assertEquals(List.of(10L, 20L, 30L), ids(store.page(0, 3, true)));
+        assertEquals(List.of(30L, 20L, 10L), ids(store.page(2, 3, false)));
+        assertEquals("Row 30", store.get(30).getDescription());
+    }
+
+    @Test
+    @DisplayName("Should replace an existing row and skip deleted rows when paging")
+    void putAndRemove_UpdatesInPlace() {
+        LongStream.rangeClosed(1, 10).forEach(id -> store.put(transaction(id, "Original")));
+        store.put(transaction(5, "Updated"));
+        assertTrue(store.remove(3));
+        assertFalse(store.remove(3));
+
+        assertEquals(9, store.size());
+        assertFalse(store.contains(3));
+        assertEquals("Updated", store.get(5).getDescription());
+        assertEquals(List.of(4L, 5L, 6L), ids(store.page(2, 3, true)));
+        assertEquals(List.of(2L, 1L), ids(store.page(7, 3, false)));
+
+        store.put(transaction(3, "Restored"));
+        assertEquals(10, store.size());
+        assertEquals("Restored", store.get(3).getDescription());
+    }
+
+    @Test
+    @DisplayName("Should merge a batch into existing rows, keeping the last of repeated IDs")
+    void putAll_MergesSortedBatch() {
+        LongStream.of(10, 20, 30).forEach(id -> store.put(transaction(id, "Existing")));
+
+        store.putAll(List.of(transaction(35, "New"), transaction(5, "New"), transaction(20, "Replaced"),
+                transaction(15, "First"), transaction(15, "Second")));
+
+        assertEquals(List.of(5L, 10L, 15L, 20L, 30L, 35L), ids(store.page(0, 10, true)));
+        assertEquals("Second", store.get(15).getDescription());
+        assertEquals("Replaced", store.get(20).getDescription());
+    }
+
+    @Test
+    @DisplayName("Should iterate after an ID in both directions across batches")
+    void iterator_ContinuesAfterId() {
+        LongStream.rangeClosed(1, 1000).forEach(id -> store.put(transaction(id, "Row")));
+        store.remove(501);
+
+        List<Long> ascending = new ArrayList<>();
+        store.iterator(500L, true).forEachRemaining(t -> ascending.add(t.getId()));
+        assertEquals(499, ascending.size());
+        assertEquals(502L, ascending.getFirst());
+
+        Iterator<Transaction> descending = store.iterator(null, false);
+        assertEquals(1000L, descending.next().getId());
+        long count = 1;
+        while (descending.hasNext()) {
+            descending.next();
+            count++;
+        }
+        assertEquals(999, count);
+    }
+
+    @Test
+    @DisplayName("Should read pages past the middle from the far end in the same order")
+    void page_WithDeletedRowsMatchesReference() {
+        List<Long> live = new ArrayList<>();
+        for (long id = 1; id <= 500; id++) {
+            store.put(transaction(id, "Row " + id));
+            if (id % 7 == 0) {
+                store.remove(id);
+            } else {
+                live.add(id);
+            }
+        }
+
+        for (int offset = 0; offset <= live.size(); offset += 13) {
+            int to = Math.min(offset + 20, live.size());
+            assertEquals(live.subList(offset, to), ids(store.page(offset, 20, true)), "offset " + offset);
+            assertEquals(live.reversed().subList(offset, to), ids(store.page(offset, 20, false)), "offset " + offset);
+        }
+    }
+
+    @Test
+    @DisplayName("Should find pages by offset after inserts, batches, deletes and compactions")
+    void page_AfterMixedWritesMatchesReference() {
+        Random random = new Random(7);
+        TreeSet<Long> live = new TreeSet<>();
+        for (int round = 0; round < 40; round++) {
+            for (int i = 0; i < 100; i++) {
+                long id = random.nextInt(5_000);
+                store.put(transaction(id, "Row " + id));
+                live.add(id);
+            }
+            List<Transaction> batch = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                long id = random.nextInt(5_000);
+                batch.add(transaction(id, "Batch " + id));
+                live.add(id);
+            }
+            store.putAll(batch);
+            for (int i = 0; i < 120; i++) {
+                long id = random.nextInt(5_000);
+                store.remove(id);
+                live.remove(id);
+            }
+
+            List<Long> ascending = new ArrayList<>(live);
+            List<Long> descending = ascending.reversed();
+            for (int offset = 0; offset <= live.size(); offset += 1 + random.nextInt(97)) {
+                int to = Math.min(offset + 10, live.size());
+                assertEquals(ascending.subList(offset, to), ids(store.page(offset, 10, true)), "offset " + offset);
+                assertEquals(descending.subList(offset, to), ids(store.page(offset, 10, false)), "offset " + offset);
+            }
+        }
+
+        // Deleting most rows compacts them away partway through
+        live.removeIf(id -> {
+            boolean removed = id % 5 != 0;
+            if (removed) {
+                store.remove(id);
+            }
+            return removed;
+        });
+        List<Long> ascending = new ArrayList<>(live);
+        for (int offset = 0; offset < live.size(); offset += 37) {
+            assertEquals(ascending.subList(offset, Math.min(offset + 10, live.size())), ids(store.page(offset, 10, true)));
+        }
+    }
+
+    @Test
+    @DisplayName("Should stay consistent after deleted rows and unused descriptions are compacted")
+    void remove_CompactsRowsAndDictionary() {
+        int rows = 20_000;
+        for (long id = 1; id <= rows; id++) {
+            store.put(transaction(id, "Unique description number " + id));
+        }
+        for (long id = 1; id <= rows; id += 4) {
+            store.remove(id);
+            store.remove(id + 1);
+            store.remove(id + 2);
+        }
+
+        assertEquals(rows / 4, store.size());
+        assertEquals("Unique description number 4", store.get(4).getDescription());
+        assertEquals("Unique description number 20000", store.get(rows).getDescription());
+        assertEquals(List.of(8L, 12L), ids(store.page(1, 2, true)));
+        assertNull(store.get(5));
+    }
+}
@@ -0,0 +1,158 @@
+package com.hsbc.transaction.repository;
+
+import com.hsbc.transaction.enums.TransactionType;
+import com.hsbc.transaction.model.Money;
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.util.SnowflakeIdGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Currency;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ShardedTransactionStore Unit Tests")
+class ShardedTransactionStoreTest {
+
+    private ShardedTransactionStore store;
+    private final List<Long> ids = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        store = new ShardedTransactionStore(8, ColumnarTransactionStore::new);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, 1);
+        ids.clear();
+        for (long id : generator.nextIds(1000)) {
+            ids.add(id);
+        }
+        store.putAll(ids.stream().map(id -> transaction(id, "Row " + id)).toList());
+    }
+
+    private static Transaction transaction(long id, String description) {
+        return Transaction.builder()
+                .id(id)
+                .description(description)
+                .money(Money.of(new BigDecimal("10.00"), Currency.getInstance("USD")))
+                .type(TransactionType.PAYMENT)
+                .build();
+    }
+
+    private static List<Long> ids(List<Transaction> transactions) {
+        return transactions.stream().map(Transaction::getId).toList();
+    }
+
+    @Test
+    @DisplayName("Should spread consecutive snowflake IDs over every shard")
+    void put_SpreadsIdsOverShards() {
+        assertEquals(1000, store.size());
+        int[] sizes = new int[store.getShardCount()];
+        Arrays.setAll(sizes, store::size);
+        assertEquals(1000, Arrays.stream(sizes).sum());
+        for (int size : sizes) {
+            // 125 per shard on average
+            assertTrue(size > 75 && size < 175, "Unbalanced shards: " + Arrays.toString(sizes));
+        }
+        for (long id : ids) {
+            assertEquals("Row " + id, store.get(id).getDescription());
+        }
+    }
+
+    /**
+     * Builds a snowflake ID of worker 1 in datacenter 1 from its millisecond and sequence.
+     */
+    private static long snowflakeId(long millisecond, long sequence) {
+        return millisecond << 22 | 1L << 17 | 1L << 12 | sequence;
+    }
+
+    @Test
+    @DisplayName("Should spread IDs issued less than once a millisecond evenly over any number of shards")
+    void shardOf_SpreadsSparseSnowflakeIds() {
+        long start = 180_000_000_000L;
+        for (int shardCount : new int[]{2, 3, 4, 8, 16}) {
+            ShardedTransactionStore sharded = new ShardedTransactionStore(shardCount, MapTransactionStore::new);
+            // One ID per millisecond, so every sequence is 0, then sequences 0-9 of fewer milliseconds
+            int[] sparse = new int[shardCount];
+            int[] bursts = new int[shardCount];
+            for (long ms = 0; ms < 100_000; ms++) {
+                sparse[sharded.shardOf(snowflakeId(start + ms * 7, 0))]++;
+                bursts[sharded.shardOf(snowflakeId(start + ms / 10, ms % 10))]++;
+            }
+            int mean = 100_000 / shardCount;
+            for (int shard = 0; shard < shardCount; shard++) {
+                assertTrue(Math.abs(sparse[shard] - mean) < mean / 10,
+                        shardCount + " shards, sequence 0: " + Arrays.toString(sparse));
+                assertTrue(Math.abs(bursts[shard] - mean) < mean / 10,
+                        shardCount + " shards, sequences 0-9: " + Arrays.toString(bursts));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should merge the shards in ID order for pages and iterators in both directions")
+    void pageAndIterator_MergeShardsInIdOrder() {
+        List<Long> ascending = ids.stream().sorted().toList();
+        List<Long> descending = ids.stream().sorted(Comparator.reverseOrder()).toList();
+
+        assertEquals(ascending.subList(100, 120), ids(store.page(100, 20, true)));
+        assertEquals(descending.subList(0, 20), ids(store.page(0, 20, false)));
+        assertEquals(descending.subList(990, 1000), ids(store.page(990, 20, false)));
+
+        List<Long> after = new ArrayList<>();
+        Iterator<Transaction> iterator = store.iterator(ascending.get(499), true);
+        iterator.forEachRemaining(transaction -> after.add(transaction.getId()));
+        assertEquals(ascending.subList(500, 1000), after);
+
+        List<Long> before = new ArrayList<>();
+        store.iterator(ascending.get(500), false).forEachRemaining(transaction -> before.add(transaction.getId()));
+        assertEquals(descending.subList(500, 1000), before);
+    }
+
+    @Test
+    @DisplayName("Should walk deep pages from the nearer end of map shards in both directions")
+    void page_DeepOffsetsMatchReference() {
+        ShardedTransactionStore mapStore = new ShardedTransactionStore(4, MapTransactionStore::new);
+        long[] created = new SnowflakeIdGenerator(1, 1).nextIds(3000);
+        List<Long> live = new ArrayList<>();
+        for (int i = 0; i < created.length; i++) {
+            mapStore.put(transaction(created[i], "Row " + created[i]));
+            if (i % 5 == 4) {
+                mapStore.remove(created[i]);
+            } else {
+                live.add(created[i]);
+            }
+        }
+
+        for (int offset = 1000; offset <= live.size(); offset += 101) {
+            int to = Math.min(offset + 50, live.size());
+            assertEquals(live.subList(offset, to), ids(mapStore.page(offset, 50, true)), "offset " + offset);
+            assertEquals(live.reversed().subList(offset, to), ids(mapStore.page(offset, 50, false)), "offset " + offset);
+        }
+    }
+
+    @Test
+    @DisplayName("Should visit every transaction once in a parallel scan and apply removals to the right shard")
+    void scanParallel_VisitsEveryTransaction() {
+        Set<Long> seen = ConcurrentHashMap.newKeySet();
+        store.scanParallel(transaction -> assertTrue(seen.add(transaction.getId())));
+        assertEquals(Set.copyOf(ids), seen);
+
+        LongStream.range(0, 100).forEach(i -> assertTrue(store.remove(ids.get((int) i))));
+        assertEquals(900, store.size());
+        assertFalse(store.contains(ids.getFirst()));
+        assertEquals(ids.subList(100, 1000), ids(store.page(0, 1000, true)));
+
+        store.clear();
+        assertEquals(0, store.size());
+        assertFalse(store.iterator(null, true).hasNext());
+    }
+}
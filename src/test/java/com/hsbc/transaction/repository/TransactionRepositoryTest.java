@@ -0,0 +1,294 @@
+package com.hsbc.transaction.repository;
+
+import com.hsbc.transaction.config.WalProperties;
+import com.hsbc.transaction.enums.TransactionType;
+import com.hsbc.transaction.exception.TransactionVersionConflictException;
+import com.hsbc.transaction.model.Money;
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.persistence.WriteAheadLog;
+import com.hsbc.transaction.util.SnowflakeIdGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Currency;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("TransactionRepository Unit Tests")
+class TransactionRepositoryTest {
+
+    private static final Currency USD = Currency.getInstance("USD");
+
+    private TransactionRepository transactionRepository;
+    private final List<Long> savedIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        transactionRepository = new TransactionRepository(new SnowflakeIdGenerator(1, 1));
+        savedIds.clear();
+        for (int i = 0; i < 25; i++) {
+            Transaction saved = transactionRepository.save(Transaction.builder()
+                    .description("Transaction " + i)
+                    .money(Money.of(new BigDecimal("10.00"), USD))
+                    .type(TransactionType.PAYMENT)
+                    .build());
+            savedIds.add(saved.getId());
+        }
+    }
+
+    @Test
+    @DisplayName("Should return pages newest first by default")
+    void findAll_DefaultsToNewestFirst() {
+        Page<Transaction> page = transactionRepository.findAll(PageRequest.of(0, 10));
+
+        List<Long> expected = savedIds.stream().sorted(Comparator.reverseOrder()).limit(10).toList();
+        assertEquals(expected, page.getContent().stream().map(Transaction::getId).toList());
+        assertEquals(25, page.getTotalElements());
+    }
+
+    @Test
+    @DisplayName("Should return pages oldest first when ascending order is requested")
+    void findAll_AscendingOrder() {
+        Page<Transaction> page = transactionRepository.findAll(
+                PageRequest.of(2, 10, Sort.by(Sort.Direction.ASC, TransactionRepository.ID_PROPERTY)));
+
+        List<Long> expected = savedIds.stream().sorted().skip(20).toList();
+        assertEquals(expected, page.getContent().stream().map(Transaction::getId).toList());
+    }
+
+    @Test
+    @DisplayName("Should return the same order on repeated calls and honour deletes")
+    void findAll_StableOrderAfterDelete() {
+        Page<Transaction> first = transactionRepository.findAll(PageRequest.of(0, 5));
+        Page<Transaction> second = transactionRepository.findAll(PageRequest.of(0, 5));
+        assertEquals(first.getContent(), second.getContent());
+
+        Long newest = first.getContent().getFirst().getId();
+        assertTrue(transactionRepository.deleteById(newest));
+
+        Page<Transaction> afterDelete = transactionRepository.findAll(PageRequest.of(0, 5));
+        assertFalse(afterDelete.getContent().stream().anyMatch(t -> t.getId().equals(newest)));
+        assertEquals(24, afterDelete.getTotalElements());
+    }
+
+    @Test
+    @DisplayName("Should return an empty page beyond the last element")
+    void findAll_BeyondLastPage() {
+        Page<Transaction> page = transactionRepository.findAll(PageRequest.of(5, 10));
+
+        assertTrue(page.getContent().isEmpty());
+        assertEquals(25, page.getTotalElements());
+    }
+
+    @Test
+    @DisplayName("Should return the transactions following a keyset position")
+    void findAfter_ContinuesFromPosition() {
+        List<Long> descending = savedIds.stream().sorted(Comparator.reverseOrder()).toList();
+
+        List<Transaction> firstPage = transactionRepository.findAfter(null, Sort.Direction.DESC, 10);
+        List<Transaction> secondPage = transactionRepository.findAfter(firstPage.getLast().getId(), Sort.Direction.DESC, 10);
+
+        assertEquals(descending.subList(0, 10), firstPage.stream().map(Transaction::getId).toList());
+        assertEquals(descending.subList(10, 20), secondPage.stream().map(Transaction::getId).toList());
+    }
+
+    @Test
+    @DisplayName("Should return the transactions following a keyset position in ascending order")
+    void findAfter_Ascending() {
+        List<Long> ascending = savedIds.stream().sorted().toList();
+
+        List<Transaction> page = transactionRepository.findAfter(ascending.get(19), Sort.Direction.ASC, 10);
+
+        assertEquals(ascending.subList(20, 25), page.stream().map(Transaction::getId).toList());
+    }
+
+    @Test
+    @DisplayName("Should version saves and apply concurrent updates one after the other")
+    void update_AppliesConcurrentUpdatesAtomically() throws Exception {
+        long id = savedIds.getFirst();
+        Transaction original = transactionRepository.findById(id).orElseThrow();
+        assertEquals(1, original.getVersion());
+
+        int threads = 4;
+        int updatesPerThread = 500;
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < updatesPerThread; i++) {
+                        transactionRepository.update(id, null, current -> current.toBuilder()
+                                .money(current.getMoney().add(Money.of(BigDecimal.ONE, USD)))
+                                .build());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        }
+
+        Transaction updated = transactionRepository.findById(id).orElseThrow();
+        assertEquals(1 + threads * updatesPerThread, updated.getVersion());
+        assertEquals(new BigDecimal("2010.00"), updated.getMoney().getAmount());
+        // The instance read before the updates never changes
+        assertEquals(1, original.getVersion());
+        assertEquals(new BigDecimal("10.00"), original.getMoney().getAmount());
+    }
+
+    @Test
+    @DisplayName("Should reject an update made against a stale version and skip missing transactions")
+    void update_RejectsStaleVersion() {
+        long id = savedIds.getFirst();
+        Transaction updated = transactionRepository.update(id, 1L, current -> current.toBuilder().description("First").build())
+                .orElseThrow();
+        assertEquals(2, updated.getVersion());
+
+        assertThrows(TransactionVersionConflictException.class, () ->
+                transactionRepository.update(id, 1L, current -> current.toBuilder().description("Second").build()));
+        assertEquals("First", transactionRepository.findById(id).orElseThrow().getDescription());
+
+        transactionRepository.deleteById(id);
+        assertTrue(transactionRepository.update(id, null, current -> current).isEmpty());
+        assertFalse(transactionRepository.existsById(id));
+    }
+
+    @Test
+    @DisplayName("Should create a batch without overwriting taken IDs, even when batches race for them")
+    void createAll_SkipsTakenIds() throws Exception {
+        long taken = savedIds.getFirst();
+        Transaction template = Transaction.builder()
+                .description("Batch")
+                .money(Money.of(new BigDecimal("5.00"), USD))
+                .type(TransactionType.PAYMENT)
+                .build();
+        List<Transaction> created = transactionRepository.createAll(List.of(
+                template.toBuilder().id(taken).build(),
+                template.toBuilder().id(42L).build(),
+                template.toBuilder().id(42L).description("Repeated").build(),
+                template));
+        assertNull(created.get(0));
+        assertEquals(42L, created.get(1).getId());
+        assertNull(created.get(2));
+        assertNotNull(created.get(3).getId());
+        assertEquals("Transaction 0", transactionRepository.findById(taken).orElseThrow().getDescription());
+        assertEquals("Batch", transactionRepository.findById(42L).orElseThrow().getDescription());
+        assertEquals(1, transactionRepository.findById(42L).orElseThrow().getVersion());
+        assertEquals(27, transactionRepository.count());
+
+        int threads = 4;
+        AtomicInteger creates = new AtomicInteger();
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                String description = "Thread " + t;
+                futures.add(executor.submit(() -> {
+                    for (long id = 1_000; id < 1_500; id++) {
+                        if (transactionRepository.createAll(List.of(template.toBuilder().id(id).description(description).build()))
+                                .getFirst() != null) {
+                            creates.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        }
+        assertEquals(500, creates.get());
+        for (long id = 1_000; id < 1_500; id++) {
+            assertEquals(1, transactionRepository.findById(id).orElseThrow().getVersion());
+        }
+    }
+
+    @Test
+    @DisplayName("Should neither apply nor publish a change the write-ahead log fails to write")
+    void writes_AreNotAppliedWhenTheLogFails() {
+        FailingWriteAheadLog writeAheadLog = new FailingWriteAheadLog();
+        TransactionRepository repository = new TransactionRepository(new SnowflakeIdGenerator(1, 1), writeAheadLog);
+        Transaction kept = repository.save(Transaction.builder()
+                .description("Kept")
+                .money(Money.of(new BigDecimal("10.00"), USD))
+                .type(TransactionType.PAYMENT)
+                .build());
+        AtomicInteger changes = new AtomicInteger();
+        repository.addListener(new TransactionChangeListener() {
+            @Override
+            public void onSaved(Transaction previous, Transaction current) {
+                changes.incrementAndGet();
+            }
+
+            @Override
+            public void onDeleted(Transaction deleted) {
+                changes.incrementAndGet();
+            }
+
+            @Override
+            public void onCleared() {
+                changes.incrementAndGet();
+            }
+        }, false);
+
+        writeAheadLog.failing = true;
+        assertThrows(IllegalStateException.class, () -> repository.save(kept.toBuilder().id(null).build()));
+        assertThrows(IllegalStateException.class, () ->
+                repository.update(kept.getId(), null, current -> current.toBuilder().description("Changed").build()));
+        assertThrows(IllegalStateException.class, () -> repository.saveAll(List.of(kept, kept.toBuilder().id(null).build())));
+        assertThrows(IllegalStateException.class, () -> repository.deleteById(kept.getId()));
+        assertThrows(IllegalStateException.class, repository::deleteAll);
+
+        assertEquals(0, changes.get());
+        assertEquals(1, repository.count());
+        assertEquals(kept, repository.findById(kept.getId()).orElseThrow());
+
+        writeAheadLog.failing = false;
+        assertEquals(2, repository.update(kept.getId(), 1L, current -> current.toBuilder().description("Changed").build())
+                .orElseThrow().getVersion());
+        assertEquals(1, changes.get());
+    }
+
+    /**
+     * A log that is never started and fails every write while {@link #failing} is set.
+     */
+    private static class FailingWriteAheadLog extends WriteAheadLog {
+        volatile boolean failing;
+
+        FailingWriteAheadLog() {
+            super(new WalProperties(), new SimpleMeterRegistry());
+        }
+
+        @Override
+        public CompletableFuture<Void> logPut(Transaction transaction) {
+            return result();
+        }
+
+        @Override
+        public CompletableFuture<Void> logDelete(long id) {
+            return result();
+        }
+
+        @Override
+        public CompletableFuture<Void> logClear() {
+            return result();
+        }
+
+        private CompletableFuture<Void> result() {
+            return failing ? CompletableFuture.failedFuture(new IOException("Disk full")) : CompletableFuture.completedFuture(null);
+        }
+    }
+}
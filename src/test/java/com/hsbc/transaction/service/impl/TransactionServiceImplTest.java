@@ -1,23 +1,36 @@
 package com.hsbc.transaction.service.impl;
 
+import com.hsbc.transaction.aggregate.TransactionAggregator;
+import com.hsbc.transaction.cache.TransactionPageCache;
+import com.hsbc.transaction.config.StatsProperties;
+import com.hsbc.transaction.model.BatchResult;
 import com.hsbc.transaction.model.Transaction;
 import com.hsbc.transaction.model.Money;
+import com.hsbc.transaction.enums.ErrorCode;
 import com.hsbc.transaction.enums.TransactionType;
+import com.hsbc.transaction.index.BitmapIndex;
+import com.hsbc.transaction.index.DescriptionIndex;
+import com.hsbc.transaction.index.TimestampIndex;
 import com.hsbc.transaction.repository.TransactionRepository;
 import com.hsbc.transaction.exception.TransactionNotFoundException;
 import com.hsbc.transaction.enums.TransactionStatus;
+import com.hsbc.transaction.journal.TransactionJournal;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 import java.util.Currency;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -30,13 +43,20 @@ class TransactionServiceImplTest {
     @Mock
     private TransactionRepository transactionRepository;
 
+    @Mock
+    private TransactionJournal transactionJournal;
+
     private TransactionServiceImpl transactionService;
     private static final Currency USD = Currency.getInstance("USD");
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        transactionService = new TransactionServiceImpl(transactionRepository);
+        transactionService = new TransactionServiceImpl(transactionRepository, transactionJournal,
+                new TransactionPageCache(transactionRepository, new ConcurrentMapCacheManager(), new SimpleMeterRegistry()),
+                new TransactionAggregator(transactionRepository, new StatsProperties()),
+                new TimestampIndex(transactionRepository), new BitmapIndex(transactionRepository),
+                new DescriptionIndex(transactionRepository));
     }
 
     @Test
@@ -49,7 +69,8 @@ class TransactionServiceImplTest {
                 .type(TransactionType.PAYMENT)
                 .build();
 
-        when(transactionRepository.save(any(Transaction.class))).thenReturn(transaction);
+        Transaction saved = transaction.toBuilder().id(1L).version(1).build();
+        when(transactionRepository.save(any(Transaction.class))).thenReturn(saved);
 
         // Act
         Transaction result = transactionService.createTransaction(transaction);
@@ -60,6 +81,46 @@ class TransactionServiceImplTest {
         assertEquals(new BigDecimal("100.00"), result.getMoney().getAmount());
         assertEquals("USD", result.getMoney().getCurrency().getCurrencyCode());
         verify(transactionRepository).save(any(Transaction.class));
+        verify(transactionJournal).append(saved);
+    }
+
+    @Test
+    @DisplayName("Should create valid transactions of a batch and report rejected ones")
+    void createTransactions_PartialFailure() {
+        // Arrange
+        Transaction valid = Transaction.builder()
+                .description("Valid")
+                .money(Money.of(new BigDecimal("10.00"), USD))
+                .type(TransactionType.PAYMENT)
+                .build();
+        Transaction negative = Transaction.builder()
+                .description("Negative")
+                .money(Money.of(new BigDecimal("-5.00"), USD))
+                .type(TransactionType.PAYMENT)
+                .build();
+        Transaction existing = Transaction.builder()
+                .id(7L)
+                .description("Existing")
+                .money(Money.of(new BigDecimal("20.00"), USD))
+                .type(TransactionType.PAYMENT)
+                .build();
+        Transaction saved = valid.toBuilder().id(8L).version(1).build();
+        when(transactionRepository.createAll(List.of(valid, existing))).thenReturn(Arrays.asList(saved, null));
+
+        // Act
+        BatchResult<Transaction> result = transactionService.createTransactions(List.of(valid, negative, existing));
+
+        // Assert
+        assertEquals(1, result.getSucceeded());
+        assertEquals(2, result.getFailed());
+        assertSame(saved, result.getResults().get(0).getItem());
+        assertEquals(ErrorCode.INVALID_ARGUMENT.getCode(), result.getResults().get(1).getError().getCode());
+        assertEquals(ErrorCode.DUPLICATE_TRANSACTION.getCode(), result.getResults().get(2).getError().getCode());
+        verify(transactionRepository).createAll(List.of(valid, existing));
+        verify(transactionRepository, never()).existsById(anyLong());
+        verify(transactionRepository, never()).save(any(Transaction.class));
+        verify(transactionJournal).append(saved);
+        verify(transactionJournal, times(1)).append(any(Transaction.class));
     }
 
     @Test
@@ -188,8 +249,10 @@ class TransactionServiceImplTest {
                 .type(TransactionType.PAYMENT)
                 .build();
 
-        when(transactionRepository.findById(1L)).thenReturn(Optional.of(existingTransaction));
-        when(transactionRepository.save(any(Transaction.class))).thenAnswer(i -> i.getArgument(0));
+        when(transactionRepository.update(eq(1L), isNull(), any())).thenAnswer(invocation -> {
+            UnaryOperator<Transaction> change = invocation.getArgument(2);
+            return Optional.of(change.apply(existingTransaction));
+        });
 
         // Act
         Transaction result = transactionService.updateTransaction(1L, updateRequest);
@@ -199,7 +262,7 @@ class TransactionServiceImplTest {
         assertEquals("New Description", result.getDescription());
         assertEquals(new BigDecimal("200.00"), result.getMoney().getAmount());
         assertEquals(TransactionStatus.COMPLETED, result.getStatus());
-        verify(transactionRepository).save(any(Transaction.class));
+        verify(transactionRepository).update(eq(1L), isNull(), any());
     }
 
     @Test
@@ -212,7 +275,7 @@ class TransactionServiceImplTest {
                 .type(TransactionType.PAYMENT)
                 .build();
 
-        when(transactionRepository.findById(1L)).thenReturn(Optional.empty());
+        when(transactionRepository.update(eq(1L), isNull(), any())).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThrows(TransactionNotFoundException.class, () -> 
@@ -272,7 +335,7 @@ class TransactionServiceImplTest {
                 .type(TransactionType.TRANSFER)
                 .build();
 
-        when(transactionRepository.findById(999L)).thenReturn(Optional.empty());
+        when(transactionRepository.update(eq(999L), isNull(), any())).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThrows(TransactionNotFoundException.class, () ->
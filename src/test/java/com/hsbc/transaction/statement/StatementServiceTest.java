@@ -0,0 +1,189 @@
+package com.hsbc.transaction.statement;
+
+import com.hsbc.transaction.config.StatementProperties;
+import com.hsbc.transaction.enums.StatementJobStatus;
+import com.hsbc.transaction.enums.TransactionType;
+import com.hsbc.transaction.exception.StatementNotReadyException;
+import com.hsbc.transaction.exception.StatementQueueFullException;
+import com.hsbc.transaction.index.TimestampIndex;
+import com.hsbc.transaction.model.Money;
+import com.hsbc.transaction.model.StatementJob;
+import com.hsbc.transaction.model.StatementRequest;
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.model.TransactionFilter;
+import com.hsbc.transaction.repository.TransactionRepository;
+import com.hsbc.transaction.util.SnowflakeIdGenerator;
+import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.parser.PdfTextExtractor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Currency;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("StatementService Unit Tests")
+class StatementServiceTest {
+
+    private static final LocalDateTime MAY = LocalDateTime.of(2024, 5, 1, 0, 0);
+
+    @TempDir
+    Path tempDir;
+
+    private TransactionRepository repository;
+    private StatementService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = new TransactionRepository(new SnowflakeIdGenerator(1, 1));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (service != null) {
+            service.stop();
+        }
+    }
+
+    private StatementService startService(TimestampIndex timestampIndex, int workers, int queueCapacity) throws Exception {
+        StatementProperties properties = new StatementProperties();
+        properties.setDirectory(tempDir.toString());
+        properties.setWorkers(workers);
+        properties.setQueueCapacity(queueCapacity);
+        properties.setRowsPerFlush(50);
+        service = new StatementService(properties, timestampIndex, repository, new SimpleMeterRegistry());
+        service.start();
+        return service;
+    }
+
+    private void save(String description, LocalDateTime timestamp) {
+        repository.save(Transaction.builder()
+                .description(description)
+                .money(Money.parse("10.00", Currency.getInstance("USD")))
+                .type(TransactionType.PAYMENT)
+                .timestamp(timestamp)
+                .build());
+    }
+
+    private static StatementRequest may(int days) {
+        return StatementRequest.builder().from(MAY).to(MAY.plusDays(days)).build();
+    }
+
+    private StatementJob await(StatementJob job) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        StatementJob current = service.getJob(job.getId());
+        while (current.getStatus() == StatementJobStatus.QUEUED || current.getStatus() == StatementJobStatus.RUNNING) {
+            assertTrue(System.nanoTime() < deadline, "Statement job did not finish");
+            Thread.sleep(10);
+            current = service.getJob(job.getId());
+        }
+        return current;
+    }
+
+    @Test
+    @DisplayName("Should render the transactions of the range over several pages")
+    void submit_RendersMultiPageStatement() throws Exception {
+        startService(new TimestampIndex(repository), 1, 4);
+        for (int i = 0; i < 300; i++) {
+            save("Statement row " + i, MAY.plusMinutes(i));
+        }
+        save("Outside the range", MAY.minusMinutes(1));
+
+        StatementJob job = await(service.submit(may(1)));
+
+        assertEquals(StatementJobStatus.COMPLETED, job.getStatus());
+        assertEquals(300, job.getTransactions());
+        assertFalse(job.isCached());
+        PdfReader reader = new PdfReader(service.getStatement(job.getId()).toString());
+        try {
+            assertEquals(job.getPages(), reader.getNumberOfPages());
+            assertTrue(reader.getNumberOfPages() > 1);
+            String firstPage = PdfTextExtractor.getTextFromPage(reader, 1);
+            assertTrue(firstPage.contains("Transaction Statement"));
+            assertTrue(firstPage.contains("Statement row 0"));
+            assertFalse(firstPage.contains("Outside the range"));
+            assertTrue(PdfTextExtractor.getTextFromPage(reader, reader.getNumberOfPages()).contains("USD: 3000.00 in 300 transactions"));
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Should serve an identical request from the cache until a covered transaction changes")
+    void submit_ServesCachedStatementUntilInvalidated() throws Exception {
+        startService(new TimestampIndex(repository), 1, 4);
+        save("Rent", MAY.plusHours(1));
+        StatementJob first = await(service.submit(may(1)));
+        Path file = service.getStatement(first.getId());
+
+        save("Outside the range", MAY.plusDays(2));
+        StatementJob repeated = service.submit(may(1));
+        assertEquals(StatementJobStatus.COMPLETED, repeated.getStatus());
+        assertTrue(repeated.isCached());
+        assertEquals(file, service.getStatement(repeated.getId()));
+
+        save("Groceries", MAY.plusHours(2));
+        StatementJob afterChange = await(service.submit(may(1)));
+        assertFalse(afterChange.isCached());
+        assertEquals(2, afterChange.getTransactions());
+        assertEquals(file, service.getStatement(first.getId()));
+    }
+
+    @Test
+    @DisplayName("Should reject submissions once the workers and the queue are busy")
+    void submit_RejectsWhenQueueFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        TimestampIndex blockingIndex = new TimestampIndex(repository) {
+            @Override
+            public Iterator<Transaction> iterator(LocalDateTime from, LocalDateTime to, TransactionFilter filter,
+                                                  boolean ascending, Key after) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.iterator(from, to, filter, ascending, after);
+            }
+        };
+        startService(blockingIndex, 1, 1);
+
+        StatementJob running = service.submit(may(1));
+        StatementJob queued = service.submit(may(2));
+        assertThrows(StatementQueueFullException.class, () -> service.submit(may(3)));
+        assertEquals(running.getId(), service.submit(may(1)).getId());
+        assertThrows(StatementNotReadyException.class, () -> service.getStatement(queued.getId()));
+
+        release.countDown();
+        assertEquals(StatementJobStatus.COMPLETED, await(running).getStatus());
+        assertEquals(StatementJobStatus.COMPLETED, await(queued).getStatus());
+        assertEquals(StatementJobStatus.COMPLETED, await(service.submit(may(3))).getStatus());
+    }
+
+    @Test
+    @DisplayName("Should only delete the statements and temporary files of a previous run on startup")
+    void start_DeletesOnlyItsOwnFiles() throws Exception {
+        Files.writeString(tempDir.resolve("statement-previous.pdf"), "stale");
+        Files.writeString(tempDir.resolve("statement-12345.tmp"), "partial");
+        Files.writeString(tempDir.resolve("notes.txt"), "kept");
+        Files.createDirectory(tempDir.resolve("statement-archive.pdf"));
+
+        startService(new TimestampIndex(repository), 1, 4);
+
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(List.of("notes.txt", "statement-archive.pdf"),
+                    files.map(file -> file.getFileName().toString()).sorted().toList());
+        }
+    }
+}
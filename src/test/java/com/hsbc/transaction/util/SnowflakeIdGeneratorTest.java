@@ -0,0 +1,135 @@
+package com.hsbc.transaction.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("SnowflakeIdGenerator Unit Tests")
+class SnowflakeIdGeneratorTest {
+
+    /**
+     * Generator driven by a manually advanced clock.
+     */
+    private static class ManualClockGenerator extends SnowflakeIdGenerator {
+        private final AtomicLong now = new AtomicLong(1_700_000_000_000L);
+
+        ManualClockGenerator() {
+            super(1, 1);
+        }
+
+        @Override
+        long timeGen() {
+            return now.get();
+        }
+    }
+
+    @Test
+    @DisplayName("Should issue unique, increasing IDs across threads")
+    void nextId_UniqueAcrossThreads() throws Exception {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, 1);
+        int threads = 8;
+        int perThread = 50_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<long[]>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                long[] ids = new long[perThread];
+                for (int i = 0; i < perThread; i++) {
+                    ids[i] = generator.nextId();
+                }
+                return ids;
+            }));
+        }
+
+        Set<Long> seen = new HashSet<>();
+        for (Future<long[]> future : futures) {
+            long[] ids = future.get();
+            for (int i = 0; i < ids.length; i++) {
+                assertTrue(seen.add(ids[i]), "Duplicate ID " + ids[i]);
+                if (i > 0) {
+                    assertTrue(ids[i] > ids[i - 1], "IDs of one thread must increase");
+                }
+            }
+        }
+        executor.shutdown();
+        assertEquals(threads * perThread, seen.size());
+    }
+
+    @Test
+    @DisplayName("Should reserve a block of increasing IDs after previously issued ones")
+    void nextIds_ReservesIncreasingBlock() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(0, 1);
+        long before = generator.nextId();
+
+        long[] ids = generator.nextIds(1000);
+
+        assertEquals(1000, ids.length);
+        assertTrue(ids[0] > before);
+        for (int i = 1; i < ids.length; i++) {
+            assertTrue(ids[i] > ids[i - 1]);
+        }
+        assertTrue(generator.nextId() > ids[ids.length - 1]);
+    }
+
+    @Test
+    @DisplayName("Should carry into the next millisecond instead of waiting when the sequence runs out")
+    void nextIds_CarriesIntoNextMillisecond() {
+        ManualClockGenerator generator = new ManualClockGenerator();
+        long[] first = generator.nextIds(SnowflakeIdGenerator.MAX_BATCH_SIZE);
+        long[] second = generator.nextIds(10);
+
+        assertEquals(first[0] >>> 22, first[first.length - 1] >>> 22, "A full block fits in one millisecond");
+        assertEquals((first[0] >>> 22) + 1, second[0] >>> 22);
+        assertTrue(second[0] > first[first.length - 1]);
+    }
+
+    @Test
+    @DisplayName("Should only issue owned IDs, still increasing, and keep worker IDs apart")
+    void nextIds_SkipsIdsThatAreNotOwned() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(31, 31, id -> id % 3 == 0);
+
+        long[] ids = generator.nextIds(1000);
+        long next = generator.nextId();
+
+        for (int i = 0; i < ids.length; i++) {
+            assertEquals(0, ids[i] % 3);
+            assertEquals(31, (ids[i] >>> 12) & 31, "Worker ID");
+            assertEquals(31, (ids[i] >>> 17) & 31, "Datacenter ID");
+            if (i > 0) {
+                assertTrue(ids[i] > ids[i - 1]);
+            }
+        }
+        assertEquals(0, next % 3);
+        assertTrue(next > ids[ids.length - 1]);
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(32, 1));
+    }
+
+    @Test
+    @DisplayName("Should reject a clock that moved backwards beyond the allowed lead")
+    void nextId_ClockMovedBackwards() {
+        ManualClockGenerator generator = new ManualClockGenerator();
+        generator.nextId();
+        generator.now.addAndGet(-(SnowflakeIdGenerator.MAX_LEAD_MS + 1));
+
+        assertThrows(RuntimeException.class, generator::nextId);
+    }
+
+    @Test
+    @DisplayName("Should reject invalid batch sizes")
+    void nextIds_InvalidCount() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, 1);
+
+        assertThrows(IllegalArgumentException.class, () -> generator.nextIds(0));
+        assertThrows(IllegalArgumentException.class, () -> generator.nextIds(SnowflakeIdGenerator.MAX_BATCH_SIZE + 1));
+    }
+}
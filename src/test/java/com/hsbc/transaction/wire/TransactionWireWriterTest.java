@@ -0,0 +1,163 @@
+package com.hsbc.transaction.wire;
+
+import com.hsbc.transaction.enums.TransactionStatus;
+import com.hsbc.transaction.enums.TransactionType;
+import com.hsbc.transaction.model.Money;
+import com.hsbc.transaction.model.Transaction;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("TransactionWireWriter Unit Tests")
+class TransactionWireWriterTest {
+
+    private static Transaction transaction(Long id, String description, String amount, String currency) {
+        return Transaction.builder()
+                .id(id)
+                .description(description)
+                .money(Money.parse(amount, Currency.getInstance(currency)))
+                .type(TransactionType.TRANSFER)
+                .status(TransactionStatus.COMPLETED)
+                .timestamp(LocalDateTime.of(2024, 5, 1, 9, 30, 15, 123_456_000))
+                .build();
+    }
+
+    private static byte[] encode(Transaction transaction) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TransactionWireWriter writer = new TransactionWireWriter(out);
+        writer.writeTransaction(transaction);
+        writer.flush();
+        return out.toByteArray();
+    }
+
+    private static Transaction decode(byte[] message) throws IOException {
+        return new TransactionWireReader(new ByteArrayInputStream(message)).readTransaction();
+    }
+
+    @Test
+    @DisplayName("Should read back every field, including absent ones and descriptions longer than the buffers")
+    void writeTransaction_RoundTrips() throws IOException {
+        List<Transaction> transactions = List.of(
+                transaction(1234567890123L, "Café in Zürich ☕ 😀", "-42.50", "EUR"),
+                transaction(Long.MAX_VALUE, "x".repeat(20_000) + "é", "9999999999.99", "USD"),
+                transaction(7L, "", "1500", "JPY"),
+                transaction(8L, "Versioned", "3.20", "USD").toBuilder().version(300).build(),
+                Transaction.builder()
+                        .money(Money.parse("0.01", Currency.getInstance("GBP")))
+                        .type(null)
+                        .status(null)
+                        .timestamp(null)
+                        .build());
+
+        for (Transaction transaction : transactions) {
+            assertEquals(transaction, decode(encode(transaction)));
+        }
+        assertEquals(1234567890123L, decode(encode(transactions.get(0))).getId());
+    }
+
+    @Test
+    @DisplayName("Should encode a transaction in a fraction of its JSON size")
+    void writeTransaction_IsCompact() throws IOException {
+        // version, length, flags, 6-byte id, 2-byte amount, currency, type, status, 8-byte timestamp, 1 + 6 description
+        assertEquals(31, encode(transaction(1234567890123L, "Coffee", "12.34", "USD")).length);
+    }
+
+    @Test
+    @DisplayName("Should read back a list with its total and cursor")
+    void writeList_RoundTrips() throws IOException {
+        List<Transaction> transactions = List.of(
+                transaction(3L, "Rent", "1200.00", "GBP"),
+                transaction(2L, "Groceries", "54.10", "GBP"),
+                transaction(1L, "Refund", "5.00", "EUR"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TransactionWireWriter writer = new TransactionWireWriter(out);
+        writer.writeList(transactions, 3, null);
+        writer.writeList(List.of(), -1, "AAAAAAAAAAE");
+        writer.flush();
+
+        TransactionWireReader reader = new TransactionWireReader(new ByteArrayInputStream(out.toByteArray()));
+        TransactionWireReader.Listing page = reader.readList();
+        assertEquals(transactions, page.transactions());
+        assertEquals(3, page.total());
+        assertNull(page.nextCursor());
+        TransactionWireReader.Listing cursorPage = reader.readList();
+        assertTrue(cursorPage.transactions().isEmpty());
+        assertEquals(-1, cursorPage.total());
+        assertEquals("AAAAAAAAAAE", cursorPage.nextCursor());
+    }
+
+    @Test
+    @DisplayName("Should skip fields appended to a record by a later version")
+    void readTransaction_SkipsUnknownTrailingFields() throws IOException {
+        Transaction transaction = transaction(99L, "Taxi", "18.00", "USD");
+        byte[] message = encode(transaction);
+        // Grow the one-byte record length by two and append two bytes
+        byte[] extended = Arrays.copyOf(message, message.length + 2);
+        extended[1] += 2;
+        extended[message.length] = 0x7F;
+        extended[message.length + 1] = 0x01;
+
+        assertEquals(transaction, decode(extended));
+    }
+
+    @Test
+    @DisplayName("Should reject truncated, unversioned and oversized messages")
+    void readTransaction_RejectsMalformedMessages() throws IOException {
+        byte[] message = encode(transaction(99L, "Taxi", "18.00", "USD"));
+
+        assertThrows(EOFException.class, () -> decode(Arrays.copyOf(message, message.length - 1)));
+        assertThrows(EOFException.class, () -> decode(new byte[0]));
+
+        byte[] unknownVersion = message.clone();
+        unknownVersion[0] = 9;
+        assertThrows(IOException.class, () -> decode(unknownVersion));
+
+        byte[] oversized = {TransactionWireWriter.VERSION, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x7F};
+        assertThrows(IOException.class, () -> decode(oversized));
+
+        byte[] unknownType = message.clone();
+        // version, length, flags, 1-byte id, 2-byte amount and currency come before the type
+        unknownType[9] = 100;
+        assertThrows(IOException.class, () -> decode(unknownType));
+    }
+
+    @Test
+    @DisplayName("Should reject negative record, description, cursor and count lengths")
+    void read_RejectsNegativeLengths() {
+        // A ten-byte varint of -1
+        byte[] minusOne = {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF,
+                (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x01};
+        byte version = TransactionWireWriter.VERSION;
+
+        assertThrows(IOException.class, () -> decode(concat(new byte[]{version}, minusOne)));
+
+        // flags, zero amount, currency, type, status and the description length
+        byte[] record = concat(new byte[]{TransactionWireWriter.FLAG_DESCRIPTION, 0, 'U', 'S', 'D', 1, 1}, minusOne);
+        assertThrows(IOException.class, () -> decode(concat(new byte[]{version, (byte) record.length}, record)));
+
+        // total, then a cursor length of -1, stored plus one
+        assertThrows(IOException.class, () -> decodeList(concat(new byte[]{version, 0}, minusOne)));
+        // total, no cursor, then the record count
+        assertThrows(IOException.class, () -> decodeList(concat(new byte[]{version, 0, 0}, minusOne)));
+    }
+
+    private static TransactionWireReader.Listing decodeList(byte[] message) throws IOException {
+        return new TransactionWireReader(new ByteArrayInputStream(message)).readList();
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        byte[] joined = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, joined, first.length, second.length);
+        return joined;
+    }
+}